@@ -0,0 +1,53 @@
+/*
+    Copyright 2026 agent
+
+    This file is part of Universal Gcode Sender (UGS).
+
+    UGS is free software: you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    UGS is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with UGS.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.willwinder.ugs.benchmarks;
+
+import org.openjdk.jmh.Main;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Runs the benchmarks with the JMH command line runner. Unless the result format is given, the
+ * results are written as JSON to "jmh-result-&lt;version&gt;.json" so that runs from different
+ * versions can be compared.
+ *
+ * @author agent
+ */
+public class BenchmarkMain {
+    private BenchmarkMain() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        List<String> arguments = new ArrayList<>(Arrays.asList(args));
+        if (!arguments.contains("-rf") && !arguments.contains("-rff")) {
+            arguments.add("-rf");
+            arguments.add("json");
+            arguments.add("-rff");
+            arguments.add("jmh-result-" + getVersion() + ".json");
+        }
+        Main.main(arguments.toArray(new String[0]));
+    }
+
+    private static String getVersion() {
+        String version = BenchmarkMain.class.getPackage().getImplementationVersion();
+        return version == null ? "dev" : version;
+    }
+}
@@ -0,0 +1,203 @@
+/*
+    Copyright 2026 agent
+
+    This file is part of Universal Gcode Sender (UGS).
+
+    UGS is free software: you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    UGS is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with UGS.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.willwinder.ugs.benchmarks;
+
+import com.willwinder.universalgcodesender.gcode.GcodeParser;
+import com.willwinder.universalgcodesender.gcode.GcodeState;
+import com.willwinder.universalgcodesender.gcode.processors.ArcExpander;
+import com.willwinder.universalgcodesender.gcode.processors.CommandLengthProcessor;
+import com.willwinder.universalgcodesender.gcode.processors.CommandProcessor;
+import com.willwinder.universalgcodesender.gcode.processors.CommentProcessor;
+import com.willwinder.universalgcodesender.gcode.processors.DecimalProcessor;
+import com.willwinder.universalgcodesender.gcode.processors.EmptyLineRemoverProcessor;
+import com.willwinder.universalgcodesender.gcode.processors.FeedOverrideProcessor;
+import com.willwinder.universalgcodesender.gcode.processors.LineSplitter;
+import com.willwinder.universalgcodesender.gcode.processors.M30Processor;
+import com.willwinder.universalgcodesender.gcode.processors.MeshLeveler;
+import com.willwinder.universalgcodesender.gcode.processors.MirrorProcessor;
+import com.willwinder.universalgcodesender.gcode.processors.PatternRemover;
+import com.willwinder.universalgcodesender.gcode.processors.RotateProcessor;
+import com.willwinder.universalgcodesender.gcode.processors.RunFromProcessor;
+import com.willwinder.universalgcodesender.gcode.processors.SpindleOnDweller;
+import com.willwinder.universalgcodesender.gcode.processors.Stats;
+import com.willwinder.universalgcodesender.gcode.processors.TranslateProcessor;
+import com.willwinder.universalgcodesender.gcode.processors.Translator;
+import com.willwinder.universalgcodesender.gcode.processors.WhitespaceProcessor;
+import com.willwinder.universalgcodesender.gcode.util.GcodeParserException;
+import com.willwinder.universalgcodesender.model.PartialPosition;
+import com.willwinder.universalgcodesender.model.Position;
+import com.willwinder.universalgcodesender.model.UnitUtils.Units;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures each {@link CommandProcessor} in isolation. The parser state for every line is computed
+ * up front so that only the time spent in the processor is measured.
+ *
+ * @author agent
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class CommandProcessorBenchmark {
+
+    @Param({"ArcExpander", "CommandLengthProcessor", "CommentProcessor", "DecimalProcessor", "EmptyLineRemoverProcessor",
+            "FeedOverrideProcessor", "LineSplitter", "M30Processor", "MeshLeveler", "MirrorProcessor", "PatternRemover",
+            "RotateProcessor", "RunFromProcessor", "SpindleOnDweller", "Stats", "TranslateProcessor", "Translator",
+            "WhitespaceProcessor"})
+    public String processor;
+
+    @Param({"Gates_combined_R12.nc", "ShapeOko_Calibration_Pattern_01b.ngc"})
+    public String file;
+
+    private CommandProcessor commandProcessor;
+    private List<String> lines;
+    private List<GcodeState> states;
+
+    @Setup
+    public void setup() throws Exception {
+        lines = GcodeCorpus.readLines(file);
+
+        // The mesh leveler can not handle arcs, use the same input as it would get from the arc expander
+        if (processor.equals("MeshLeveler")) {
+            lines = expandArcs(lines);
+        }
+
+        states = new ArrayList<>(lines.size());
+        GcodeParser parser = new GcodeParser();
+        for (int i = 0; i < lines.size(); i++) {
+            states.add(parser.getCurrentState().copy());
+            parser.addCommand(lines.get(i), i);
+        }
+
+        commandProcessor = createProcessor();
+    }
+
+    @Benchmark
+    public void processCommand(Blackhole blackhole) throws GcodeParserException {
+        for (int i = 0; i < lines.size(); i++) {
+            blackhole.consume(commandProcessor.processCommand(lines.get(i), states.get(i)));
+        }
+    }
+
+    private CommandProcessor createProcessor() {
+        Position center = new Position(10, 10, 0, Units.MM);
+        switch (processor) {
+            case "ArcExpander":
+                return new ArcExpander(true, 0.3);
+            case "CommandLengthProcessor":
+                return new CommandLengthProcessor(128);
+            case "CommentProcessor":
+                return new CommentProcessor();
+            case "DecimalProcessor":
+                return new DecimalProcessor(4);
+            case "EmptyLineRemoverProcessor":
+                return new EmptyLineRemoverProcessor();
+            case "FeedOverrideProcessor":
+                return new FeedOverrideProcessor(150);
+            case "LineSplitter":
+                return new LineSplitter(1);
+            case "M30Processor":
+                return new M30Processor();
+            case "MeshLeveler":
+                return new MeshLeveler(0, createMesh(states));
+            case "MirrorProcessor":
+                return new MirrorProcessor(PartialPosition.builder(Units.MM).setX(10d).build());
+            case "PatternRemover":
+                return new PatternRemover("^M0?6.*");
+            case "RotateProcessor":
+                return new RotateProcessor(center, Math.PI / 4);
+            case "RunFromProcessor":
+                return new RunFromProcessor(lines.size() / 2);
+            case "SpindleOnDweller":
+                return new SpindleOnDweller(2.5);
+            case "Stats":
+                return new Stats();
+            case "TranslateProcessor":
+                return new TranslateProcessor(center);
+            case "Translator":
+                return new Translator(center);
+            case "WhitespaceProcessor":
+                return new WhitespaceProcessor();
+            default:
+                throw new IllegalArgumentException("Unknown processor " + processor);
+        }
+    }
+
+    private static List<String> expandArcs(List<String> lines) throws GcodeParserException {
+        GcodeParser parser = new GcodeParser();
+        parser.addCommandProcessor(new CommentProcessor());
+        parser.addCommandProcessor(new ArcExpander(true, 0.3));
+
+        List<String> result = new ArrayList<>();
+        for (int i = 0; i < lines.size(); i++) {
+            for (String command : parser.preprocessCommand(lines.get(i), parser.getCurrentState())) {
+                parser.addCommand(command, i);
+                result.add(command);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Creates a probe mesh with 10x10 points covering the area of the program with a slightly tilted surface
+     */
+    private static Position[][] createMesh(List<GcodeState> states) {
+        Position min = new Position(Double.MAX_VALUE, Double.MAX_VALUE, 0, Units.MM);
+        Position max = new Position(-Double.MAX_VALUE, -Double.MAX_VALUE, 0, Units.MM);
+        for (GcodeState state : states) {
+            Position point = new Position(state.currentPoint.x, state.currentPoint.y, 0, state.isMetric ? Units.MM : Units.INCH)
+                    .getPositionIn(Units.MM);
+            if (!Double.isNaN(point.x) && !Double.isNaN(point.y)) {
+                min.x = Math.min(min.x, point.x);
+                min.y = Math.min(min.y, point.y);
+                max.x = Math.max(max.x, point.x);
+                max.y = Math.max(max.y, point.y);
+            }
+        }
+
+        int points = 10;
+        double resolution = Math.max(max.x - min.x, max.y - min.y) / (points - 1);
+
+        Position[][] mesh = new Position[points][points];
+        for (int x = 0; x < points; x++) {
+            for (int y = 0; y < points; y++) {
+                mesh[x][y] = new Position(min.x + x * resolution, min.y + y * resolution, (x + y) * 0.01, Units.MM);
+            }
+        }
+        return mesh;
+    }
+}
@@ -0,0 +1,85 @@
+/*
+    Copyright 2026 agent
+
+    This file is part of Universal Gcode Sender (UGS).
+
+    UGS is free software: you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    UGS is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with UGS.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.willwinder.ugs.benchmarks;
+
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.List;
+
+/**
+ * Locates the gcode programs in the "test_files" directory of the repository which are used as input
+ * to the benchmarks. The directory can be given with the system property "ugs.benchmarks.corpus",
+ * otherwise it is searched for from the working directory and upwards.
+ *
+ * @author agent
+ */
+public class GcodeCorpus {
+    private static final String CORPUS_PROPERTY = "ugs.benchmarks.corpus";
+    private static final String CORPUS_DIRECTORY = "test_files";
+
+    private GcodeCorpus() {
+    }
+
+    /**
+     * Returns a gcode program from the corpus
+     *
+     * @param name the file name of the program, like "serial_stress_test.gcode"
+     * @return the file
+     * @throws FileNotFoundException if the corpus or the file could not be found
+     */
+    public static File getFile(String name) throws FileNotFoundException {
+        File file = new File(getDirectory(), name);
+        if (!file.isFile()) {
+            throw new FileNotFoundException("Could not find the benchmark file " + file.getAbsolutePath());
+        }
+        return file;
+    }
+
+    /**
+     * Reads all lines of a gcode program from the corpus
+     *
+     * @param name the file name of the program, like "serial_stress_test.gcode"
+     * @return the lines of the program
+     * @throws IOException if the file could not be read
+     */
+    public static List<String> readLines(String name) throws IOException {
+        return Files.readAllLines(getFile(name).toPath(), StandardCharsets.UTF_8);
+    }
+
+    private static File getDirectory() throws FileNotFoundException {
+        String property = System.getProperty(CORPUS_PROPERTY);
+        if (property != null) {
+            return new File(property);
+        }
+
+        File directory = new File("").getAbsoluteFile();
+        while (directory != null) {
+            File corpus = new File(directory, CORPUS_DIRECTORY);
+            if (corpus.isDirectory()) {
+                return corpus;
+            }
+            directory = directory.getParentFile();
+        }
+
+        throw new FileNotFoundException("Could not find the '" + CORPUS_DIRECTORY + "' directory, set its location with -D" + CORPUS_PROPERTY + "=<directory>");
+    }
+}
@@ -0,0 +1,124 @@
+/*
+    Copyright 2026 agent
+
+    This file is part of Universal Gcode Sender (UGS).
+
+    UGS is free software: you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    UGS is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with UGS.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.willwinder.ugs.benchmarks;
+
+import com.willwinder.universalgcodesender.gcode.DefaultCommandCreator;
+import com.willwinder.universalgcodesender.gcode.GcodePreprocessorUtils;
+import com.willwinder.universalgcodesender.utils.BinaryGcodeStreamReader;
+import com.willwinder.universalgcodesender.utils.BinaryGcodeStreamWriter;
+import com.willwinder.universalgcodesender.utils.GcodeStreamReader;
+import com.willwinder.universalgcodesender.utils.GcodeStreamWriter;
+import com.willwinder.universalgcodesender.utils.IGcodeStreamReader;
+import com.willwinder.universalgcodesender.utils.IGcodeWriter;
+import org.apache.commons.io.FileUtils;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures writing and reading the preprocessed gcode stream files in the text and the binary format.
+ *
+ * @author agent
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class GcodeStreamBenchmark {
+
+    @Param({"text", "binary"})
+    public String format;
+
+    @Param({"Gates_combined_R12.nc", "ShapeOko_Calibration_Pattern_01b.ngc"})
+    public String file;
+
+    private List<String> lines;
+    private File tempDir;
+    private File writeFile;
+    private File readFile;
+
+    @Setup
+    public void setup() throws Exception {
+        lines = GcodeCorpus.readLines(file);
+        tempDir = Files.createTempDirectory("ugs-benchmark").toFile();
+        writeFile = new File(tempDir, "write");
+        readFile = new File(tempDir, "read");
+        write(readFile);
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        FileUtils.deleteDirectory(tempDir);
+    }
+
+    @Benchmark
+    public void write() throws IOException {
+        write(writeFile);
+    }
+
+    @Benchmark
+    public void read(Blackhole blackhole) throws Exception {
+        try (IGcodeStreamReader reader = createReader(readFile)) {
+            while (reader.getNumRowsRemaining() > 0) {
+                blackhole.consume(reader.getNextCommand());
+            }
+        }
+    }
+
+    private void write(File output) throws IOException {
+        try (IGcodeWriter writer = createWriter(output)) {
+            for (int i = 0; i < lines.size(); i++) {
+                String line = lines.get(i);
+                writer.addLine(line, GcodePreprocessorUtils.removeComment(line).trim(), GcodePreprocessorUtils.parseComment(line), i);
+            }
+        }
+    }
+
+    private IGcodeWriter createWriter(File output) throws IOException {
+        if (format.equals("binary")) {
+            return new BinaryGcodeStreamWriter(output);
+        }
+        return new GcodeStreamWriter(output);
+    }
+
+    private IGcodeStreamReader createReader(File input) throws Exception {
+        if (format.equals("binary")) {
+            return new BinaryGcodeStreamReader(input, new DefaultCommandCreator());
+        }
+        return new GcodeStreamReader(input, new DefaultCommandCreator());
+    }
+}
@@ -0,0 +1,154 @@
+/*
+    Copyright 2026 agent
+
+    This file is part of Universal Gcode Sender (UGS).
+
+    UGS is free software: you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    UGS is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with UGS.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.willwinder.ugs.benchmarks;
+
+import com.willwinder.universalgcodesender.gcode.GcodePreprocessorUtils;
+import com.willwinder.universalgcodesender.gcode.util.GcodeTokenizer;
+import com.willwinder.universalgcodesender.model.Axis;
+import com.willwinder.universalgcodesender.model.PartialPosition;
+import com.willwinder.universalgcodesender.model.UnitUtils;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.IOException;
+import java.text.DecimalFormat;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Compares the {@link GcodeTokenizer} with the string and regex based parsing it replaced. The regex based
+ * implementations of parseComment and overridePosition are kept here as a reference.
+ *
+ * @author agent
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class GcodeTokenizerBenchmark {
+    private static final Pattern COMMENTPARSE = Pattern.compile("(?<=\\()[^()]*|(?<=;).*|%");
+    private static final Map<Axis, Pattern> POSITION_OVERRIDE_MAP = new EnumMap<>(Axis.class);
+
+    static {
+        POSITION_OVERRIDE_MAP.put(Axis.X, Pattern.compile("X([-+]?[0-9.]+)", Pattern.CASE_INSENSITIVE));
+        POSITION_OVERRIDE_MAP.put(Axis.Y, Pattern.compile("Y([-+]?[0-9.]+)", Pattern.CASE_INSENSITIVE));
+        POSITION_OVERRIDE_MAP.put(Axis.Z, Pattern.compile("Z([-+]?[0-9.]+)", Pattern.CASE_INSENSITIVE));
+    }
+
+    @Param({"Gates_combined_R12.nc", "serial_stress_test.gcode"})
+    public String file;
+
+    private List<String> lines;
+    private PartialPosition position;
+    private DecimalFormat formatter;
+
+    @Setup
+    public void setup() throws IOException {
+        lines = GcodeCorpus.readLines(file);
+        position = PartialPosition.builder(UnitUtils.Units.MM).setZ(-1.2345).build();
+        formatter = new DecimalFormat("0.####");
+    }
+
+    @Benchmark
+    public void splitCommand(Blackhole blackhole) {
+        for (String line : lines) {
+            List<String> args = GcodePreprocessorUtils.splitCommand(line);
+            blackhole.consume(GcodePreprocessorUtils.getGCodes(args));
+            blackhole.consume(GcodePreprocessorUtils.parseCoord(args, 'X'));
+            blackhole.consume(GcodePreprocessorUtils.parseCoord(args, 'Y'));
+            blackhole.consume(GcodePreprocessorUtils.parseCoord(args, 'Z'));
+            blackhole.consume(GcodePreprocessorUtils.hasAxisWords(args));
+        }
+    }
+
+    @Benchmark
+    public void tokenizer(Blackhole blackhole) {
+        for (String line : lines) {
+            try (GcodeTokenizer tokens = GcodeTokenizer.tokenize(line)) {
+                for (int i = 0; i < tokens.size(); i++) {
+                    if (tokens.getLetter(i) == 'G') {
+                        blackhole.consume(tokens.getCode(i));
+                    }
+                }
+                blackhole.consume(tokens.getValue('X'));
+                blackhole.consume(tokens.getValue('Y'));
+                blackhole.consume(tokens.getValue('Z'));
+                blackhole.consume(tokens.hasAxisWords());
+            }
+        }
+    }
+
+    @Benchmark
+    public void parseCommentRegex(Blackhole blackhole) {
+        for (String line : lines) {
+            Matcher matcher = COMMENTPARSE.matcher(line);
+            blackhole.consume(matcher.find() ? matcher.group(0) : "");
+        }
+    }
+
+    @Benchmark
+    public void parseComment(Blackhole blackhole) {
+        for (String line : lines) {
+            blackhole.consume(GcodePreprocessorUtils.parseComment(line));
+        }
+    }
+
+    @Benchmark
+    public void overridePositionRegex(Blackhole blackhole) {
+        for (String line : lines) {
+            String command = line;
+            for (Map.Entry<Axis, Pattern> axisToPattern : POSITION_OVERRIDE_MAP.entrySet()) {
+                Axis axis = axisToPattern.getKey();
+                if (position.hasAxis(axis)) {
+                    Matcher matcher = axisToPattern.getValue().matcher(command);
+                    String updatedStr = axis + formatter.format(position.getAxis(axis));
+                    if (matcher.find()) {
+                        command = matcher.replaceAll(updatedStr);
+                    } else {
+                        command += updatedStr;
+                    }
+                }
+            }
+            blackhole.consume(command);
+        }
+    }
+
+    @Benchmark
+    public void overridePosition(Blackhole blackhole) {
+        for (String line : lines) {
+            blackhole.consume(GcodePreprocessorUtils.overridePosition(line, position));
+        }
+    }
+}
@@ -0,0 +1,97 @@
+/*
+    Copyright 2026 agent
+
+    This file is part of Universal Gcode Sender (UGS).
+
+    UGS is free software: you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    UGS is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with UGS.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.willwinder.ugs.benchmarks;
+
+import com.willwinder.universalgcodesender.gcode.DefaultCommandCreator;
+import com.willwinder.universalgcodesender.gcode.GcodeParser;
+import com.willwinder.universalgcodesender.gcode.processors.CommentProcessor;
+import com.willwinder.universalgcodesender.gcode.processors.WhitespaceProcessor;
+import com.willwinder.universalgcodesender.gcode.util.GcodeParserUtils;
+import com.willwinder.universalgcodesender.utils.BinaryGcodeStreamReader;
+import com.willwinder.universalgcodesender.utils.BinaryGcodeStreamWriter;
+import com.willwinder.universalgcodesender.utils.IGcodeWriter;
+import com.willwinder.universalgcodesender.visualizer.GcodeViewParse;
+import org.apache.commons.io.FileUtils;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures {@link GcodeViewParse#toObjFromReader} which converts a preprocessed gcode stream
+ * to the line segments shown in the visualizer.
+ *
+ * @author agent
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class GcodeViewParseBenchmark {
+
+    @Param({"Gates_combined_R12.nc", "ShapeOko_Calibration_Pattern_01b.ngc"})
+    public String file;
+
+    @Param({"0.3"})
+    public double arcSegmentLength;
+
+    private File tempDir;
+    private File streamFile;
+
+    @Setup
+    public void setup() throws Exception {
+        tempDir = Files.createTempDirectory("ugs-benchmark").toFile();
+        streamFile = new File(tempDir, "stream");
+
+        GcodeParser parser = new GcodeParser();
+        parser.addCommandProcessor(new CommentProcessor());
+        parser.addCommandProcessor(new WhitespaceProcessor());
+        try (IGcodeWriter writer = new BinaryGcodeStreamWriter(streamFile)) {
+            GcodeParserUtils.processAndExport(parser, GcodeCorpus.getFile(file), writer);
+        }
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        FileUtils.deleteDirectory(tempDir);
+    }
+
+    @Benchmark
+    public List<?> toObjFromReader() throws Exception {
+        try (BinaryGcodeStreamReader reader = new BinaryGcodeStreamReader(streamFile, new DefaultCommandCreator())) {
+            return new GcodeViewParse().toObjFromReader(reader, arcSegmentLength);
+        }
+    }
+}
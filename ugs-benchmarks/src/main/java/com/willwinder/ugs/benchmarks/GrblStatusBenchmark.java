@@ -0,0 +1,103 @@
+/*
+    Copyright 2026 agent
+
+    This file is part of Universal Gcode Sender (UGS).
+
+    UGS is free software: you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    UGS is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with UGS.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.willwinder.ugs.benchmarks;
+
+import com.willwinder.universalgcodesender.GrblUtils;
+import com.willwinder.universalgcodesender.listeners.ControllerStatus;
+import com.willwinder.universalgcodesender.model.UnitUtils.Units;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures parsing of GRBL status reports. The reports are generated to look like the ones received
+ * while running a program, where the work coordinate offset and overrides are only sent every
+ * few reports.
+ *
+ * @author agent
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class GrblStatusBenchmark {
+    private static final int NUMBER_OF_STATUSES = 1000;
+
+    private List<String> statusesV1;
+    private List<String> statusesLegacy;
+
+    @Setup
+    public void setup() {
+        statusesV1 = new ArrayList<>(NUMBER_OF_STATUSES);
+        statusesLegacy = new ArrayList<>(NUMBER_OF_STATUSES);
+        for (int i = 0; i < NUMBER_OF_STATUSES; i++) {
+            double x = 100 * Math.cos(i / 100d);
+            double y = 100 * Math.sin(i / 100d);
+            double z = -1.5 + (i % 10) / 10d;
+
+            StringBuilder status = new StringBuilder(String.format(Locale.ROOT, "<Run|MPos:%.3f,%.3f,%.3f|FS:1200,12000", x, y, z));
+            if (i % 10 == 0) {
+                status.append("|WCO:-10.000,-20.000,-30.000");
+            } else if (i % 10 == 5) {
+                status.append("|Ov:100,100,100|A:S");
+            }
+            statusesV1.add(status.append(">").toString());
+
+            statusesLegacy.add(String.format(Locale.ROOT, "<Run,MPos:%.3f,%.3f,%.3f,WPos:%.3f,%.3f,%.3f>", x, y, z, x + 10, y + 20, z + 30));
+        }
+    }
+
+    @Benchmark
+    public void isGrblStatusString(Blackhole blackhole) {
+        for (String status : statusesV1) {
+            blackhole.consume(GrblUtils.isGrblStatusString(status));
+        }
+    }
+
+    @Benchmark
+    public ControllerStatus statusStringV1() {
+        ControllerStatus status = null;
+        for (String statusString : statusesV1) {
+            status = GrblUtils.getStatusFromStatusStringV1(status, statusString, Units.MM);
+        }
+        return status;
+    }
+
+    @Benchmark
+    public void statusStringLegacy(Blackhole blackhole) {
+        for (String statusString : statusesLegacy) {
+            blackhole.consume(GrblUtils.getStatusFromStatusStringLegacy(statusString, Units.MM));
+        }
+    }
+}
@@ -0,0 +1,159 @@
+/*
+    Copyright 2026 agent
+
+    This file is part of Universal Gcode Sender (UGS).
+
+    UGS is free software: you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    UGS is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with UGS.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.willwinder.ugs.benchmarks;
+
+import com.willwinder.universalgcodesender.GrblController;
+import com.willwinder.universalgcodesender.communicator.GrblCommunicator;
+import com.willwinder.universalgcodesender.connection.ConnectionDriver;
+import com.willwinder.universalgcodesender.connection.SimulatorConnection;
+import com.willwinder.universalgcodesender.connection.simulator.GrblSimulatorOptions;
+import com.willwinder.universalgcodesender.connection.simulator.GrblSimulatorStatistics;
+import com.willwinder.universalgcodesender.gcode.GcodePreprocessorUtils;
+import com.willwinder.universalgcodesender.listeners.ControllerState;
+import com.willwinder.universalgcodesender.listeners.DefaultControllerListener;
+import com.willwinder.universalgcodesender.types.GcodeCommand;
+import com.willwinder.universalgcodesender.utils.SimpleGcodeStreamReader;
+import org.apache.commons.lang3.StringUtils;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Streams programs from the corpus through a {@link GrblController} connected to the simulated GRBL controller
+ * and reports the throughput, how full the receive buffer and the planner were kept and how many times the
+ * planner ran empty during the stream. Unlike the JMH benchmarks this measures the whole streaming path
+ * including the communicator threads, so the results depend on the simulated baud rate and block time.
+ * <p>
+ * Usage: GrblStreamingHarness [file...] [-blockTime=micros] [-baud=rate] [-plannerBlocks=blocks] [-rxBufferSize=bytes]
+ *
+ * @author agent
+ */
+public class GrblStreamingHarness {
+    private static final String DEFAULT_FILE = "serial_stress_test.gcode";
+    private static final long INITIALIZE_TIMEOUT_MS = 30000;
+
+    private GrblStreamingHarness() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        int baudRate = GrblSimulatorOptions.DEFAULT_BAUD_RATE;
+        int rxBufferSize = GrblSimulatorOptions.DEFAULT_RX_BUFFER_SIZE;
+        int plannerBlocks = GrblSimulatorOptions.DEFAULT_PLANNER_BLOCKS;
+        long blockTime = GrblSimulatorOptions.DEFAULT_BLOCK_EXECUTION_MICROS;
+        List<String> files = new ArrayList<>();
+        for (String arg : args) {
+            String value = StringUtils.substringAfter(arg, "=");
+            if (arg.startsWith("-blockTime=")) {
+                blockTime = Long.parseLong(value);
+            } else if (arg.startsWith("-baud=")) {
+                baudRate = Integer.parseInt(value);
+            } else if (arg.startsWith("-plannerBlocks=")) {
+                plannerBlocks = Integer.parseInt(value);
+            } else if (arg.startsWith("-rxBufferSize=")) {
+                rxBufferSize = Integer.parseInt(value);
+            } else {
+                files.add(arg);
+            }
+        }
+
+        if (files.isEmpty()) {
+            files.add(DEFAULT_FILE);
+        }
+
+        GrblSimulatorOptions options = new GrblSimulatorOptions(baudRate, rxBufferSize, plannerBlocks, blockTime);
+        System.out.printf(Locale.ROOT, "Simulating GRBL at %d baud with a %d byte receive buffer, %d planner blocks and %d us per block%n",
+                baudRate, rxBufferSize, plannerBlocks, blockTime);
+        for (String file : files) {
+            stream(file, options);
+        }
+        System.exit(0);
+    }
+
+    private static void stream(String file, GrblSimulatorOptions options) throws Exception {
+        String[] lines = GcodeCorpus.readLines(file).stream()
+                .map(line -> GcodePreprocessorUtils.removeComment(line).trim())
+                .filter(StringUtils::isNotEmpty)
+                .toArray(String[]::new);
+
+        SimulatorConnection connection = new SimulatorConnection(options);
+        GrblCommunicator communicator = new GrblCommunicator();
+        communicator.setConnection(connection);
+        GrblController controller = new GrblController(communicator);
+        controller.setStatusUpdatesEnabled(true);
+        controller.setStatusUpdateRate(100);
+
+        CountDownLatch completed = new CountDownLatch(1);
+        AtomicInteger errors = new AtomicInteger();
+        controller.addListener(new DefaultControllerListener() {
+            @Override
+            public void commandComplete(GcodeCommand command) {
+                if (command.isError()) {
+                    errors.incrementAndGet();
+                }
+            }
+
+            @Override
+            public void streamComplete() {
+                completed.countDown();
+            }
+
+            @Override
+            public void streamCanceled() {
+                completed.countDown();
+            }
+        });
+
+        try {
+            controller.openCommPort(ConnectionDriver.SIMULATOR, "grbl", options.baudRate());
+            waitForIdle(controller);
+
+            connection.resetStatistics();
+            long start = System.nanoTime();
+            controller.queueStream(new SimpleGcodeStreamReader(lines));
+            controller.beginStreaming();
+            completed.await();
+            long elapsedNanos = System.nanoTime() - start;
+
+            GrblSimulatorStatistics statistics = connection.getStatistics();
+            double seconds = elapsedNanos / 1e9;
+            System.out.printf(Locale.ROOT, "%s: %d lines in %.2f s (%.0f lines/s), %d errors%n",
+                    file, lines.length, seconds, lines.length / seconds, errors.get());
+            System.out.printf(Locale.ROOT, "  receive buffer: %.1f bytes average, %d bytes max, %d overflows%n",
+                    statistics.averageRxBufferUsage(), statistics.maxRxBufferUsage(), statistics.rxOverflows());
+            System.out.printf(Locale.ROOT, "  planner: %.1f blocks average, %d blocks max, %d starvation events%n",
+                    statistics.averagePlannerUsage(), statistics.maxPlannerUsage(), Math.max(0, statistics.plannerUnderruns() - 1));
+        } finally {
+            controller.closeCommPort();
+        }
+    }
+
+    private static void waitForIdle(GrblController controller) throws InterruptedException {
+        long timeout = System.currentTimeMillis() + INITIALIZE_TIMEOUT_MS;
+        while (controller.getControllerStatus().getState() != ControllerState.IDLE) {
+            if (System.currentTimeMillis() > timeout) {
+                throw new IllegalStateException("The simulated controller did not become idle");
+            }
+            TimeUnit.MILLISECONDS.sleep(50);
+        }
+    }
+}
@@ -75,6 +75,7 @@ import com.willwinder.universalgcodesender.services.JogService;
 import com.willwinder.universalgcodesender.uielements.jog.JogPanel;
 import com.willwinder.universalgcodesender.utils.GUIHelpers;
 import com.willwinder.universalgcodesender.utils.GcodeStreamReader;
+import com.willwinder.universalgcodesender.utils.GcodeStreamReaderFactory;
 
 import javax.swing.text.DefaultEditorKit;
 import org.apache.commons.lang3.SystemUtils;
@@ -1771,7 +1772,7 @@ public class MainWindow extends JFrame implements UGSEventListener {
                     if (commandTableScrollPane.isEnabled()) {
                         commandTable.clear();
                     }
-                    try (IGcodeStreamReader gsr = new GcodeStreamReader(backend.getProcessedGcodeFile(), new DefaultCommandCreator())) {
+                    try (IGcodeStreamReader gsr = GcodeStreamReaderFactory.getReader(backend.getProcessedGcodeFile(), new DefaultCommandCreator())) {
                         resetSentRowLabels(gsr.getNumRows());
                     } catch (IOException | GcodeStreamReader.NotGcodeStreamFile ex) {}
                     break;
@@ -50,6 +50,7 @@ import com.willwinder.universalgcodesender.uielements.helpers.FPSCounter;
 import com.willwinder.universalgcodesender.uielements.helpers.Overlay;
 import com.willwinder.universalgcodesender.utils.GUIHelpers;
 import com.willwinder.universalgcodesender.utils.GcodeStreamReader;
+import com.willwinder.universalgcodesender.utils.GcodeStreamReaderFactory;
 import com.willwinder.universalgcodesender.utils.IGcodeStreamReader;
 
 import java.awt.Font;
@@ -471,7 +472,7 @@ public class VisualizerCanvas extends GLCanvas implements GLEventListener, KeyLi
 
             // Load from stream
             if (this.processedGcodeFile) {
-                IGcodeStreamReader gsr = new GcodeStreamReader(new File(this.gcodeFile), new DefaultCommandCreator());
+                IGcodeStreamReader gsr = GcodeStreamReaderFactory.getReader(new File(this.gcodeFile), new DefaultCommandCreator());
                 gcodeLineList = gcvp.toObjFromReader(gsr, 0.3);
             }
             // Load raw file
@@ -32,7 +32,8 @@ import me.tongfei.progressbar.ProgressBarBuilder;
 import me.tongfei.progressbar.ProgressBarStyle;
 
 /**
- * Displays the file send progress as a progress bar
+ * Displays the file send progress as a progress bar. If the run time of the file has been estimated the progress
+ * is shown in seconds of the estimate, otherwise in rows.
  *
  * @author Joacim Breiler
  */
@@ -57,8 +58,7 @@ public class ProgressBarPrinter implements UGSEventListener {
                         .build();
             } else if(fileStateEvent.getFileState() == FileState.FILE_STREAM_COMPLETE) {
                 if (pb != null) {
-                    pb.maxHint(backend.getNumRows());
-                    pb.stepTo(backend.getNumCompletedRows());
+                    updateProgress();
                     pb.close();
                     pb = null;
                 }
@@ -72,9 +72,20 @@ public class ProgressBarPrinter implements UGSEventListener {
             }
         } else if (event instanceof CommandEvent) {
             if (pb != null) {
-                pb.maxHint(backend.getNumRows());
-                pb.stepTo(backend.getNumCompletedRows());
+                updateProgress();
             }
         }
     }
+
+    private void updateProgress() {
+        long estimatedDuration = backend.getEstimatedSendDuration();
+        if (estimatedDuration > 0) {
+            long remainingDuration = Math.min(estimatedDuration, Math.max(0, backend.getSendRemainingDuration()));
+            pb.maxHint(estimatedDuration / 1000);
+            pb.stepTo((estimatedDuration - remainingDuration) / 1000);
+        } else {
+            pb.maxHint(backend.getNumRows());
+            pb.stepTo(backend.getNumCompletedRows());
+        }
+    }
 }
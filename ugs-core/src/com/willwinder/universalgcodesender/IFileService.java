@@ -18,9 +18,12 @@
  */
 package com.willwinder.universalgcodesender;
 
+import com.willwinder.universalgcodesender.listeners.FileTransferListener;
 import com.willwinder.universalgcodesender.model.File;
 
+import java.io.ByteArrayInputStream;
 import java.io.IOException;
+import java.io.InputStream;
 import java.util.List;
 
 /**
@@ -43,7 +46,29 @@ public interface IFileService {
      * @param data     the file as an byte array.
      * @throws IOException on any communication error
      */
-    void uploadFile(String filename, byte[] data) throws IOException;
+    default void uploadFile(String filename, byte[] data) throws IOException {
+        uploadFile(filename, new ByteArrayInputStream(data), data.length, FileTransferListener.NONE);
+    }
+
+    /**
+     * Upload a file to the controller with the given filename reading the data from a stream while it is sent,
+     * which makes it possible to upload large programs without loading them into memory.
+     *
+     * @param filename    the file name including its path to upload
+     * @param inputStream the stream to read the file data from
+     * @param size        the size of the file in bytes or -1 if unknown, only used for reporting the progress
+     * @param listener    a listener for the upload progress
+     * @throws IOException on any communication error
+     */
+    void uploadFile(String filename, InputStream inputStream, long size, FileTransferListener listener) throws IOException;
+
+    /**
+     * Starts running a program stored on the controller
+     *
+     * @param file the file to run
+     * @throws IOException on any communication error or if the program couldn't be started
+     */
+    void runFile(File file) throws IOException;
 
     /**
      * Deletes a file or directory
@@ -1,5 +1,5 @@
 /*
-    Copyright 2013-2020 Will Winder
+    Copyright 2013-2024 Will Winder
 
     This file is part of Universal Gcode Sender (UGS).
 
@@ -18,7 +18,17 @@
  */
 package com.willwinder.universalgcodesender;
 
-import javax.swing.Timer;
+import com.willwinder.universalgcodesender.listeners.ControllerState;
+import com.willwinder.universalgcodesender.listeners.ControllerStatus;
+
+import java.time.Duration;
+import java.util.EnumSet;
+import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
@@ -26,6 +36,11 @@ import java.util.logging.Logger;
  * A status poll timer that will attempt request status reports from the controller at a fixed interval.
  * If the status report wasn't received it will wait until there was twenty outstanding polls, it will
  * then attempt to request a status report again.
+ * <p>
+ * The polls are issued from a dedicated scheduler thread so that they are not delayed by a busy UI thread,
+ * and each poll is scheduled relative to the previous deadline to avoid drifting. The update interval is
+ * used while the machine is moving, when idle the controller is polled less frequently. If the status
+ * reports are slow to arrive the interval is increased to twice the average round trip time.
  *
  * @author wwinder
  * @author Joacim Breiler
@@ -33,47 +48,90 @@ import java.util.logging.Logger;
 public class StatusPollTimer {
     private static final Logger LOGGER = Logger.getLogger(StatusPollTimer.class.getName());
     private static final int MAX_OUTSTANDING_POLLS = 20;
+    private static final int MIN_UPDATE_INTERVAL = 10;
+    private static final int DEFAULT_UPDATE_INTERVAL = 200;
+    private static final int IDLE_INTERVAL_MULTIPLIER = 4;
+    private static final int MAX_IDLE_INTERVAL = 1000;
+    private static final int MAX_INTERVAL = 5000;
+    private static final double LATENCY_SMOOTHING = 0.2;
+    private static final Set<ControllerState> ACTIVE_STATES = EnumSet.of(ControllerState.RUN, ControllerState.JOG, ControllerState.HOME, ControllerState.HOLD);
+
+    private static final ScheduledExecutorService DEFAULT_EXECUTOR = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "UGS status poll");
+        thread.setDaemon(true);
+        return thread;
+    });
 
     private final IController controller;
-    private Timer timer;
-    private int outstandingPolls;
-    private int updateInterval;
+    private final ScheduledExecutorService executor;
+    private final AtomicInteger outstandingPolls = new AtomicInteger();
+    private final Object latencyLock = new Object();
+
+    private ScheduledFuture<?> scheduledPoll;
+    private long generation;
+    private long nextPollTime;
+    private volatile long pollSentTime;
+    private volatile int updateInterval = DEFAULT_UPDATE_INTERVAL;
     private boolean isEnabled = false;
 
+    private double averageLatency;
+    private long maxLatency;
+    private long lostPolls;
+
     public StatusPollTimer(IController controller) {
+        this(controller, DEFAULT_EXECUTOR);
+    }
+
+    StatusPollTimer(IController controller, ScheduledExecutorService executor) {
         this.controller = controller;
+        this.executor = executor;
     }
 
     /**
      * Begin issuing status request commands.
      */
-    public void start() {
-        if (isEnabled) {
-            if (timer == null) {
-                timer = createTimer();
+    public synchronized void start() {
+        if (isEnabled && scheduledPoll == null) {
+            outstandingPolls.set(0);
+            nextPollTime = System.nanoTime();
+            long currentGeneration = ++generation;
+            scheduledPoll = executor.schedule(() -> poll(currentGeneration), 0, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    private void poll(long pollGeneration) {
+        synchronized (this) {
+            if (pollGeneration != generation) {
+                return;
             }
+        }
+
+        try {
+            performPolling();
+        } catch (Exception ex) {
+            LOGGER.log(Level.SEVERE, "Couldn't poll for status reports", ex);
+            stop();
+            return;
+        }
 
-            if (!timer.isRunning()) {
-                outstandingPolls = 0;
-                timer.start();
+        synchronized (this) {
+            if (pollGeneration == generation) {
+                scheduleNextPoll(pollGeneration);
             }
         }
     }
 
     /**
-     * Create a timer which will execute  position polling mechanism.
+     * Schedules the next poll one interval after the previous deadline. If we have fallen behind the
+     * missed polls are skipped instead of being issued in a burst.
      */
-    private Timer createTimer() {
-        stop();
-
-        return new Timer(updateInterval, actionEvent -> {
-            try {
-                performPolling();
-            } catch (Exception ex) {
-                LOGGER.log(Level.SEVERE, "Couldn't poll for status reports", ex);
-                stop();
-            }
-        });
+    private void scheduleNextPoll(long pollGeneration) {
+        long now = System.nanoTime();
+        nextPollTime += TimeUnit.MILLISECONDS.toNanos(getCurrentInterval());
+        if (nextPollTime - now < 0) {
+            nextPollTime = now;
+        }
+        scheduledPoll = executor.schedule(() -> poll(pollGeneration), nextPollTime - now, TimeUnit.NANOSECONDS);
     }
 
     private void performPolling() throws Exception {
@@ -81,15 +139,17 @@ public class StatusPollTimer {
             return;
         }
 
-        if (outstandingPolls == 0) {
-            outstandingPolls++;
+        if (outstandingPolls.get() == 0) {
+            pollSentTime = System.nanoTime();
+            outstandingPolls.set(1);
             controller.requestStatusReport();
-        } else {
-            // If a poll is somehow lost after 20 intervals,
-            // reset for sending another.
-            outstandingPolls++;
-            if (outstandingPolls >= MAX_OUTSTANDING_POLLS) {
-                outstandingPolls = 0;
+        } else if (outstandingPolls.incrementAndGet() >= MAX_OUTSTANDING_POLLS) {
+            // If a poll is somehow lost after 20 intervals, reset for sending another.
+            // It is only counted as the time waiting for it isn't a round trip time.
+            if (outstandingPolls.getAndSet(0) > 0) {
+                synchronized (latencyLock) {
+                    lostPolls++;
+                }
             }
         }
     }
@@ -97,10 +157,11 @@ public class StatusPollTimer {
     /**
      * Stop issuing status request commands.
      */
-    public void stop() {
-        if (timer != null) {
-            timer.stop();
-            timer = null;
+    public synchronized void stop() {
+        generation++;
+        if (scheduledPoll != null) {
+            scheduledPoll.cancel(false);
+            scheduledPoll = null;
         }
     }
 
@@ -108,7 +169,76 @@ public class StatusPollTimer {
      * Resets the outstanding polls, forcing a new status report request.
      */
     public void receivedStatus() {
-        outstandingPolls = 0;
+        long sentTime = pollSentTime;
+        if (outstandingPolls.getAndSet(0) > 0) {
+            updateLatency(System.nanoTime() - sentTime);
+        }
+    }
+
+    private void updateLatency(long latency) {
+        synchronized (latencyLock) {
+            averageLatency = averageLatency == 0 ? latency : averageLatency + (latency - averageLatency) * LATENCY_SMOOTHING;
+            maxLatency = Math.max(maxLatency, latency);
+        }
+    }
+
+    /**
+     * Returns the interval in milliseconds until the next poll. This is the update interval while the
+     * machine is moving and a longer interval while it is idle, increased further if the status reports
+     * are slow to arrive.
+     *
+     * @return the current interval in milliseconds
+     */
+    public int getCurrentInterval() {
+        int interval = updateInterval;
+        if (!isActive()) {
+            interval = Math.min(interval * IDLE_INTERVAL_MULTIPLIER, Math.max(interval, MAX_IDLE_INTERVAL));
+        }
+
+        long latencyInterval = TimeUnit.NANOSECONDS.toMillis(2 * getAverageLatency().toNanos());
+        return (int) Math.min(Math.max(interval, latencyInterval), Math.max(updateInterval, MAX_INTERVAL));
+    }
+
+    private boolean isActive() {
+        if (Boolean.TRUE.equals(controller.isStreaming())) {
+            return true;
+        }
+
+        ControllerStatus status = controller.getControllerStatus();
+        return status != null && ACTIVE_STATES.contains(status.getState());
+    }
+
+    /**
+     * Returns the smoothed round trip time between requesting a status report and receiving it
+     *
+     * @return the average latency
+     */
+    public Duration getAverageLatency() {
+        synchronized (latencyLock) {
+            return Duration.ofNanos((long) averageLatency);
+        }
+    }
+
+    /**
+     * Returns the longest round trip time between requesting a status report and receiving it
+     *
+     * @return the max latency
+     */
+    public Duration getMaxLatency() {
+        synchronized (latencyLock) {
+            return Duration.ofNanos(maxLatency);
+        }
+    }
+
+    /**
+     * Returns the number of status requests that never got a response
+     *
+     * @return the number of lost polls
+     */
+    public long getLostPolls() {
+        synchronized (latencyLock) {
+            return lostPolls;
+        }
     }
 
     /**
@@ -116,9 +246,9 @@ public class StatusPollTimer {
      *
      * @param updateInterval the update interval in milliseconds
      */
-    public void setUpdateInterval(int updateInterval) {
-        this.updateInterval = Math.max(updateInterval, 10);
-        if (timer != null && timer.isRunning()) {
+    public synchronized void setUpdateInterval(int updateInterval) {
+        this.updateInterval = Math.max(updateInterval, MIN_UPDATE_INTERVAL);
+        if (scheduledPoll != null) {
             stop();
             start();
         }
@@ -128,7 +258,7 @@ public class StatusPollTimer {
         return updateInterval;
     }
 
-    public void setEnabled(boolean isEnabled) {
+    public synchronized void setEnabled(boolean isEnabled) {
         this.isEnabled = isEnabled;
         if (isEnabled) {
             start();
@@ -137,7 +267,7 @@ public class StatusPollTimer {
         }
     }
 
-    public boolean isEnabled() {
+    public synchronized boolean isEnabled() {
         return this.isEnabled;
     }
 }
@@ -25,8 +25,10 @@ import com.willwinder.universalgcodesender.connection.ConnectionDriver;
 import com.willwinder.universalgcodesender.connection.ConnectionFactory;
 import com.willwinder.universalgcodesender.connection.IConnectionListener;
 import com.willwinder.universalgcodesender.i18n.Localization;
+import com.willwinder.universalgcodesender.listeners.FileTransferListener;
 
 import java.io.IOException;
+import java.io.InputStream;
 import java.util.logging.Logger;
 
 /**
@@ -126,6 +128,11 @@ public abstract class AbstractCommunicator implements ICommunicator, IConnection
         connection.xmodemSend(data);
     }
 
+    @Override
+    public void xmodemSend(InputStream inputStream, long size, FileTransferListener listener) throws IOException {
+        connection.xmodemSend(inputStream, size, listener);
+    }
+
     @Override
     public void onConnectionClosed() {
         eventDispatcher.onConnectionClosed();
@@ -23,11 +23,13 @@ import com.willwinder.universalgcodesender.communicator.event.AsyncCommunicatorE
 import com.willwinder.universalgcodesender.communicator.event.ICommunicatorEventDispatcher;
 import com.willwinder.universalgcodesender.connection.ConnectionDriver;
 import com.willwinder.universalgcodesender.types.GcodeCommand;
-import com.willwinder.universalgcodesender.utils.CommUtils;
 import com.willwinder.universalgcodesender.utils.IGcodeStreamReader;
 
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.concurrent.LinkedBlockingDeque;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
@@ -35,6 +37,11 @@ import java.util.logging.Logger;
  * A communicator that implements the GRBL streaming protocol which will keep track of the number of sent bytes to the
  * controller making sure it has enough data in its buffers to plan for smooth movement.
  * (https://github.com/gnea/grbl/wiki/Grbl-v1.1-Interface#streaming-a-g-code-program-to-grbl)
+ * <p>
+ * The number of bytes in the controller buffer is kept as a running counter which is increased when commands are
+ * sent and decreased when they are completed. All commands that fit in the buffer are written to the connection
+ * in a single batch, and when several responses are received at once the streaming is done after all of them
+ * have been handled.
  *
  * @author wwinder
  */
@@ -47,7 +54,13 @@ public abstract class BufferedCommunicator extends AbstractCommunicator {
     private IGcodeStreamReader commandStream;               // Arbitrary number of commands
     private final LinkedBlockingDeque<GcodeCommand> commandBuffer;     // Manually specified commands
     private final LinkedBlockingDeque<GcodeCommand> activeCommandList;  // Currently running commands
-    private int sentBufferSize = 0;
+    private final AtomicInteger sentBufferSize = new AtomicInteger();   // Bytes in the controller buffer
+    private final StringBuilder sendBuffer = new StringBuilder();
+    private final List<GcodeCommand> sendBatch = new ArrayList<>();
+
+    // If streaming should wait until a group of responses has been handled
+    private boolean isHandlingResponses = false;
+    private boolean isStreamingPending = false;
 
     private Boolean singleStepModeEnabled = false;
 
@@ -91,6 +104,7 @@ public abstract class BufferedCommunicator extends AbstractCommunicator {
         if (activeCommandList != null) {
             activeCommandList.clear();
         }
+        sentBufferSize.set(0);
     }
 
     @Override
@@ -168,46 +182,71 @@ public abstract class BufferedCommunicator extends AbstractCommunicator {
         return null;
     }
    
+    /**
+     * Returns the number of bytes sent to the controller which haven't been completed yet.
+     *
+     * @return the number of bytes in the controller buffer
+     */
+    public int getSentBufferSize() {
+        return sentBufferSize.get();
+    }
+
+    private boolean hasRoomInBuffer(GcodeCommand command) {
+        return sentBufferSize.get() + command.getCommandLength() + 1 <= getBufferSize();
+    }
+
     /**
      * Streams anything in the command buffer to the comm port.
      * Synchronized to prevent commands from sending out of order.
      */
     @Override
     synchronized public void streamCommands() {
+        GcodeCommand command = getNextCommand();
+
         // If there are no commands to send, exit.
-        if (this.getNextCommand() == null) {
+        if (command == null) {
             logger.log(Level.FINE, "There are no more commands to stream");
             return;
         }
-        
-        // Send command if:
+
+        // Add commands to the batch if:
         // There is room in the buffer.
         // AND we are NOT paused
         // AND We are NOT in single step mode.
         // OR  We are in single command mode and there are no active commands.
-        while (this.getNextCommand() != null &&
+        while (command != null &&
                 !isPaused() &&
-                CommUtils.checkRoomInBuffer(
-                    this.sentBufferSize,
-                    this.getNextCommand().getCommandString(),
-                    this.getBufferSize())
-                && allowMoreCommands()) {
+                hasRoomInBuffer(command) &&
+                allowMoreCommands()) {
 
-            GcodeCommand command = this.getNextCommand();
             String commandString = command.getCommandString();
-            
             this.activeCommandList.add(command);
-            this.sentBufferSize += (commandString.length() + 1);
-
-            try {
-                this.sendingCommand(commandString);
-                connection.sendStringToComm(commandString + "\n");
-                getEventDispatcher().commandSent(command);
-                nextCommand = null;
-            } catch (Exception e) {
-                e.printStackTrace();
-                System.exit(-1);
+            this.sentBufferSize.addAndGet(command.getCommandLength() + 1);
+            this.sendingCommand(commandString);
+
+            sendBuffer.append(commandString).append('\n');
+            sendBatch.add(command);
+            nextCommand = null;
+            command = getNextCommand();
+        }
+
+        if (sendBatch.isEmpty()) {
+            return;
+        }
+
+        try {
+            // The commands needs to be marked as sent before writing them, otherwise the response of the
+            // first command could be handled before it is known to have been sent
+            for (GcodeCommand sentCommand : sendBatch) {
+                getEventDispatcher().commandSent(sentCommand);
             }
+            connection.sendStringToComm(sendBuffer.toString());
+        } catch (Exception e) {
+            e.printStackTrace();
+            System.exit(-1);
+        } finally {
+            sendBuffer.setLength(0);
+            sendBatch.clear();
         }
     }
     
@@ -234,7 +273,7 @@ public abstract class BufferedCommunicator extends AbstractCommunicator {
         this.activeCommandList.clear();
         this.commandStream = null;
         this.sendPaused = false;
-        this.sentBufferSize = 0;
+        this.sentBufferSize.set(0);
     }
 
     /**
@@ -256,6 +295,23 @@ public abstract class BufferedCommunicator extends AbstractCommunicator {
         getEventDispatcher().rawResponseListener(response);
     }
 
+    @Override
+    public void handleResponseMessages(List<String> responses) {
+        isHandlingResponses = true;
+        try {
+            responses.forEach(this::handleResponseMessage);
+        } finally {
+            isHandlingResponses = false;
+        }
+
+        if (isStreamingPending) {
+            isStreamingPending = false;
+            if (!isPaused()) {
+                streamCommands();
+            }
+        }
+    }
+
     private void handleResponseForActiveCommand(String response) {
         GcodeCommand activeCommand = activeCommandList.getFirst();
         activeCommand.appendResponse(response);
@@ -275,9 +331,11 @@ public abstract class BufferedCommunicator extends AbstractCommunicator {
             // Pop the front of the active list.
             if (areActiveCommands()) {
                 GcodeCommand command = activeCommandList.pop();
-                sentBufferSize -= (command.getCommandString().length() + 1);
+                sentBufferSize.addAndGet(-(command.getCommandLength() + 1));
 
-                if (!isPaused()) {
+                if (isHandlingResponses) {
+                    isStreamingPending = true;
+                } else if (!isPaused()) {
                     streamCommands();
                 }
             }
@@ -290,7 +348,7 @@ public abstract class BufferedCommunicator extends AbstractCommunicator {
 
         this.commandBuffer.clear();
         this.activeCommandList.clear();
-        this.sentBufferSize = 0;
+        this.sentBufferSize.set(0);
     }
 
     @Override
@@ -20,10 +20,12 @@ package com.willwinder.universalgcodesender.communicator;
 
 import com.willwinder.universalgcodesender.connection.Connection;
 import com.willwinder.universalgcodesender.connection.ConnectionDriver;
+import com.willwinder.universalgcodesender.listeners.FileTransferListener;
 import com.willwinder.universalgcodesender.types.GcodeCommand;
 import com.willwinder.universalgcodesender.utils.IGcodeStreamReader;
 
 import java.io.IOException;
+import java.io.InputStream;
 
 /**
  * An interface for describing a communicator, responsible for handling gcode command
@@ -202,4 +204,15 @@ public interface ICommunicator {
      * @throws IOException if there is a protocol error or a timeout occurs.
      */
     void xmodemSend(byte[] data) throws IOException;
+
+    /**
+     * Enters a mode for sending files using the xmodem protocol reading the data from a stream.
+     * This mode will block until the file stream has been sent or until the protocol times out or an error occurs.
+     *
+     * @param inputStream the stream with the data to send
+     * @param size        the size of the data in bytes or -1 if unknown
+     * @param listener    a listener for the transfer progress
+     * @throws IOException if there is a protocol error or a timeout occurs.
+     */
+    void xmodemSend(InputStream inputStream, long size, FileTransferListener listener) throws IOException;
 }
@@ -19,8 +19,10 @@
 package com.willwinder.universalgcodesender.connection;
 
 import com.willwinder.universalgcodesender.connection.xmodem.XModemConnectionListenerHandler;
+import com.willwinder.universalgcodesender.listeners.FileTransferListener;
 
 import java.io.IOException;
+import java.io.InputStream;
 import java.util.Arrays;
 
 /**
@@ -64,12 +66,12 @@ public abstract class AbstractConnection implements Connection {
     }
 
     @Override
-    public void xmodemSend(byte[] data) throws IOException {
+    public void xmodemSend(InputStream inputStream, long size, FileTransferListener listener) throws IOException {
         // Switch to a special XModem response handler
         XModemConnectionListenerHandler reader = new XModemConnectionListenerHandler(this, connectionListenerManager);
         try {
             connectionListenerManager = reader;
-            reader.xmodemSend(data);
+            reader.xmodemSend(inputStream, size, listener);
         } finally {
             // Restore the old response message handler
             connectionListenerManager = reader.unwrap();
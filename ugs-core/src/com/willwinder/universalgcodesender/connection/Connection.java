@@ -19,7 +19,11 @@
 
 package com.willwinder.universalgcodesender.connection;
 
+import com.willwinder.universalgcodesender.listeners.FileTransferListener;
+
+import java.io.ByteArrayInputStream;
 import java.io.IOException;
+import java.io.InputStream;
 import java.util.List;
 
 /**
@@ -74,6 +78,18 @@ public interface Connection {
      */
     void sendByteImmediately(byte b) throws Exception;
 
+    /**
+     * Immediately sends raw bytes, used for binary transfers where the data shouldn't be sent one byte at a time.
+     *
+     * @param bytes the bytes to send
+     * @throws Exception if the bytes couldn't be sent
+     */
+    default void sendBytesImmediately(byte[] bytes) throws Exception {
+        for (byte b : bytes) {
+            sendByteImmediately(b);
+        }
+    }
+
     /**
      * Sends a command to the serial device. This actually streams the bits to
      * the comm port.
@@ -112,5 +128,19 @@ public interface Connection {
      * @param data the raw file data to send
      * @throws IOException if there is a protocol error or a timeout occurs.
      */
-    void xmodemSend(byte[] data) throws IOException;
+    default void xmodemSend(byte[] data) throws IOException {
+        xmodemSend(new ByteArrayInputStream(data), data.length, FileTransferListener.NONE);
+    }
+
+    /**
+     * Enters a mode for sending file data using the xmodem protocol. The data is read from the stream while it is
+     * sent so that the whole file never needs to be kept in memory. This mode will block until the file stream has
+     * been sent or until the protocol times out or an error occurs.
+     *
+     * @param inputStream the stream with the raw file data to send
+     * @param size        the size of the data in bytes or -1 if unknown, only used for reporting the progress
+     * @param listener    a listener for the transfer progress
+     * @throws IOException if there is a protocol error or a timeout occurs.
+     */
+    void xmodemSend(InputStream inputStream, long size, FileTransferListener listener) throws IOException;
 }
@@ -29,7 +29,8 @@ import java.util.Map;
 public enum ConnectionDriver {
     JSERIALCOMM("JSerialComm", "jserialcomm://"),
     TCP("TCP", "tcp://"),
-    WS("WebSocket", "ws://");
+    WS("WebSocket", "ws://"),
+    SIMULATOR("Simulator", "sim://");
 
     private final String prettyName;
     private final String protocol;
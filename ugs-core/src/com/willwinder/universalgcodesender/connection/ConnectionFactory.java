@@ -69,6 +69,7 @@ public class ConnectionFactory {
             case JSERIALCOMM -> Optional.of(new JSerialCommConnection());
             case TCP -> Optional.of(new TCPConnection());
             case WS -> Optional.of(new WSConnection());
+            case SIMULATOR -> Optional.of(new SimulatorConnection());
             default -> Optional.empty();
         };
     }
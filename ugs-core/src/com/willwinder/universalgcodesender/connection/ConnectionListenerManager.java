@@ -18,9 +18,9 @@
  */
 package com.willwinder.universalgcodesender.connection;
 
-import org.apache.commons.lang3.StringUtils;
-
+import java.util.ArrayList;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Set;
 import java.util.logging.Level;
 import java.util.logging.Logger;
@@ -28,7 +28,9 @@ import java.util.logging.Logger;
 /**
  * Handles response messages from the serial connection buffering the data
  * until we have a complete line. It will then attempt to dispatch that
- * data to a communicator via a {@link IConnectionListener}
+ * data to a communicator via a {@link IConnectionListener}. The lines are
+ * split using a {@link ResponseLineFramer} and all lines from one read are
+ * dispatched together.
  *
  * @author wwinder
  * @author Joacim Breiler
@@ -37,37 +39,32 @@ public class ConnectionListenerManager implements IConnectionListenerManager {
 
     private static final Logger LOGGER = Logger.getLogger(ConnectionListenerManager.class.getSimpleName());
 
-    private final StringBuilder inputBuffer;
+    private final ResponseLineFramer lineFramer;
     private final Set<IConnectionListener> listeners = new HashSet<>();
+    private final List<String> responses = new ArrayList<>();
 
     public ConnectionListenerManager() {
-        inputBuffer = new StringBuilder();
+        lineFramer = new ResponseLineFramer(responses::add);
     }
 
     @Override
     public void handleResponse(byte[] buffer, int offset, int length) {
-        String response = new String(buffer, offset, length);
-        inputBuffer.append(StringUtils.remove(response, '\r'));
-
-        // Only continue if there is a line terminator and split out command(response).
-        if (!inputBuffer.toString().contains("\n")) {
+        lineFramer.append(buffer, offset, length);
+        if (responses.isEmpty()) {
             return;
         }
 
-        // Split with the -1 option will give an empty string at
-        // the end if there is a terminator there as well.
-        String[] messages = inputBuffer.toString().split("\\n", -1);
-        for (int i = 0; i < messages.length; i++) {
-            // Make sure this isn't the last command.
-            if ((i + 1) < messages.length) {
-
-                notifyListeners(messages[i]);
-
-                // Append last command to input buffer because it didn't have a terminator.
-            } else {
-                inputBuffer.setLength(0);
-                inputBuffer.append(messages[i]);
-            }
+        try {
+            listeners.forEach(listener -> {
+                try {
+                    listener.handleResponseMessages(responses);
+                } catch (Exception e) {
+                    LOGGER.log(Level.SEVERE, e, () -> "The response messages could not be handled: \"" + responses + "\", unsafe to proceed, shutting down connection.");
+                    throw new ConnectionException("The response messages could not be handled: \"" + responses + "\", unsafe to proceed, shutting down connection.", e);
+                }
+            });
+        } finally {
+            responses.clear();
         }
     }
 
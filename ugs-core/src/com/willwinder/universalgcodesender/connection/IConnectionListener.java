@@ -18,6 +18,8 @@
  */
 package com.willwinder.universalgcodesender.connection;
 
+import java.util.List;
+
 /**
  * An interface for listening on response messages from a connection
  */
@@ -31,6 +33,17 @@ public interface IConnectionListener {
      */
     void handleResponseMessage(String response);
 
+    /**
+     * Method is invoked with all complete response messages that was received
+     * in one read from the connection. Override this to act once after a group
+     * of responses have been handled.
+     *
+     * @param responses the response messages in the order they were received
+     */
+    default void handleResponseMessages(List<String> responses) {
+        responses.forEach(this::handleResponseMessage);
+    }
+
     /**
      * This method will be executed if the connection is closed
      */
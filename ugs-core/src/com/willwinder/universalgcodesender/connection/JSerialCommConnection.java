@@ -34,8 +34,12 @@ import java.util.List;
  */
 public class JSerialCommConnection extends AbstractConnection implements SerialPortDataListener {
 
+    private static final int INITIAL_READ_BUFFER_SIZE = 1024;
     private SerialPort serialPort;
 
+    // Reused between the data events which are received on the same thread
+    private byte[] readBuffer = new byte[INITIAL_READ_BUFFER_SIZE];
+
     public JSerialCommConnection() {
         // Empty implementation
     }
@@ -110,9 +114,15 @@ public class JSerialCommConnection extends AbstractConnection implements SerialP
         serialPort.writeBytes(new byte[]{b}, 1);
     }
 
+    @Override
+    public void sendBytesImmediately(byte[] bytes) throws Exception {
+        serialPort.writeBytes(bytes, bytes.length);
+    }
+
     @Override
     public void sendStringToComm(String command) throws Exception {
-        serialPort.writeBytes(command.getBytes(), command.length());
+        byte[] bytes = command.getBytes();
+        serialPort.writeBytes(bytes, bytes.length);
     }
 
     @Override
@@ -143,9 +153,15 @@ public class JSerialCommConnection extends AbstractConnection implements SerialP
                 }
             }
             case SerialPort.LISTENING_EVENT_DATA_AVAILABLE -> {
-                byte[] newData = new byte[serialPort.bytesAvailable()];
-                int numRead = serialPort.readBytes(newData, newData.length);
-                getConnectionListenerManager().handleResponse(newData, 0, numRead);
+                int bytesAvailable = serialPort.bytesAvailable();
+                if (bytesAvailable > readBuffer.length) {
+                    readBuffer = new byte[Math.max(bytesAvailable, readBuffer.length * 2)];
+                }
+
+                int numRead = serialPort.readBytes(readBuffer, Math.max(bytesAvailable, 0));
+                if (numRead > 0) {
+                    getConnectionListenerManager().handleResponse(readBuffer, 0, numRead);
+                }
             }
             default -> {
                 // Never mind
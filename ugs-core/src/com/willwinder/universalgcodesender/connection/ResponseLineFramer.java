@@ -0,0 +1,113 @@
+/*
+    Copyright 2026 agent
+
+    This file is part of Universal Gcode Sender (UGS).
+
+    UGS is free software: you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    UGS is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with UGS.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.willwinder.universalgcodesender.connection;
+
+import java.nio.charset.Charset;
+import java.util.Arrays;
+import java.util.function.Consumer;
+
+/**
+ * Splits the bytes received from a connection into lines. The bytes are scanned for line
+ * terminators as they arrive and are collected in a reusable buffer until the line is complete,
+ * so the only object created for each line is the resulting string. Carriage returns are removed.
+ * <p>
+ * As the bytes are decoded first when the line is complete, characters that are split between
+ * two reads will be decoded correctly.
+ *
+ * @author agent
+ */
+public class ResponseLineFramer {
+    private static final int INITIAL_CAPACITY = 256;
+
+    private final Consumer<String> lineConsumer;
+    private final Charset charset;
+    private byte[] line = new byte[INITIAL_CAPACITY];
+    private int lineLength;
+
+    /**
+     * Creates a framer decoding the lines using the default charset
+     *
+     * @param lineConsumer receives each complete line without the line terminator
+     */
+    public ResponseLineFramer(Consumer<String> lineConsumer) {
+        this(lineConsumer, Charset.defaultCharset());
+    }
+
+    public ResponseLineFramer(Consumer<String> lineConsumer, Charset charset) {
+        this.lineConsumer = lineConsumer;
+        this.charset = charset;
+    }
+
+    /**
+     * Appends received bytes, any completed lines will be given to the line consumer.
+     *
+     * @param buffer the buffer with the received bytes
+     * @param offset the index of the first byte
+     * @param length the number of bytes
+     */
+    public void append(byte[] buffer, int offset, int length) {
+        int end = offset + length;
+        int segmentStart = offset;
+        for (int i = offset; i < end; i++) {
+            byte b = buffer[i];
+            if (b == '\n') {
+                appendToLine(buffer, segmentStart, i);
+                segmentStart = i + 1;
+
+                // Reset the line before dispatching in case the consumer fails
+                String message = new String(line, 0, lineLength, charset);
+                lineLength = 0;
+                lineConsumer.accept(message);
+            } else if (b == '\r') {
+                appendToLine(buffer, segmentStart, i);
+                segmentStart = i + 1;
+            }
+        }
+        appendToLine(buffer, segmentStart, end);
+    }
+
+    /**
+     * Discards any incomplete line
+     */
+    public void reset() {
+        lineLength = 0;
+    }
+
+    /**
+     * Returns the number of bytes received for a line without a line terminator
+     *
+     * @return the number of bytes
+     */
+    public int getPendingLength() {
+        return lineLength;
+    }
+
+    private void appendToLine(byte[] buffer, int start, int end) {
+        int length = end - start;
+        if (length <= 0) {
+            return;
+        }
+
+        if (lineLength + length > line.length) {
+            line = Arrays.copyOf(line, Math.max(line.length * 2, lineLength + length));
+        }
+        System.arraycopy(buffer, start, line, lineLength, length);
+        lineLength += length;
+    }
+}
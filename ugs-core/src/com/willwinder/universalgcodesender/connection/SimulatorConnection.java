@@ -0,0 +1,129 @@
+/*
+    Copyright 2026 agent
+
+    This file is part of Universal Gcode Sender (UGS).
+
+    UGS is free software: you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    UGS is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with UGS.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.willwinder.universalgcodesender.connection;
+
+import com.willwinder.universalgcodesender.connection.simulator.GrblSimulator;
+import com.willwinder.universalgcodesender.connection.simulator.GrblSimulatorOptions;
+import com.willwinder.universalgcodesender.connection.simulator.GrblSimulatorStatistics;
+import org.apache.commons.lang3.StringUtils;
+
+import java.util.List;
+
+/**
+ * A connection to an in-process simulated GRBL controller which can be used for load and latency testing
+ * without any hardware. The uri has the format sim://grbl[?parameters]:{baudrate}, see
+ * {@link GrblSimulatorOptions#parse(String, int)} for the available parameters.
+ *
+ * @author agent
+ */
+public class SimulatorConnection extends AbstractConnection implements Connection {
+    private static final String DEVICE_NAME = "grbl";
+
+    private GrblSimulatorOptions options = new GrblSimulatorOptions();
+    private GrblSimulator simulator;
+
+    SimulatorConnection() {
+    }
+
+    public SimulatorConnection(GrblSimulatorOptions options) {
+        this.options = options;
+    }
+
+    @Override
+    public void setUri(String uri) {
+        String name = StringUtils.substringBeforeLast(StringUtils.removeStartIgnoreCase(uri, ConnectionDriver.SIMULATOR.getProtocol()), ":");
+        if (!StringUtils.startsWithIgnoreCase(name, DEVICE_NAME)) {
+            throw new ConnectionException("Unknown simulated controller in connection string " + uri);
+        }
+
+        int baudRate;
+        try {
+            baudRate = Integer.parseInt(StringUtils.substringAfterLast(uri, ":"));
+        } catch (NumberFormatException e) {
+            throw new ConnectionException("Couldn't parse connection string " + uri, e);
+        }
+        options = GrblSimulatorOptions.parse(name, baudRate);
+    }
+
+    @Override
+    public boolean openPort() {
+        closePort();
+        simulator = new GrblSimulator(options, this::handleResponse);
+        simulator.start();
+        return true;
+    }
+
+    @Override
+    public void closePort() {
+        if (simulator != null) {
+            simulator.stop();
+            simulator = null;
+        }
+    }
+
+    @Override
+    public boolean isOpen() {
+        return simulator != null && simulator.isRunning();
+    }
+
+    @Override
+    public void sendStringToComm(String command) {
+        getSimulator().write(command.getBytes());
+    }
+
+    @Override
+    public void sendByteImmediately(byte b) {
+        getSimulator().write(new byte[]{b});
+    }
+
+    @Override
+    public void sendBytesImmediately(byte[] bytes) {
+        getSimulator().write(bytes);
+    }
+
+    @Override
+    public List<? extends IConnectionDevice> getDevices() {
+        return List.of(new DefaultConnectionDevice(DEVICE_NAME, null, "Simulated GRBL controller", ""));
+    }
+
+    /**
+     * Returns the statistics gathered by the simulator since the port was opened or the statistics were reset
+     *
+     * @return the statistics
+     */
+    public GrblSimulatorStatistics getStatistics() {
+        return getSimulator().getStatistics();
+    }
+
+    public void resetStatistics() {
+        getSimulator().resetStatistics();
+    }
+
+    private GrblSimulator getSimulator() {
+        GrblSimulator result = simulator;
+        if (result == null) {
+            throw new ConnectionException("The simulator connection is not open");
+        }
+        return result;
+    }
+
+    private void handleResponse(byte[] bytes) {
+        connectionListenerManager.handleResponse(bytes, 0, bytes.length);
+    }
+}
@@ -77,7 +77,8 @@ public class WSConnection  extends AbstractConnection implements Connection  {
 
     @OnMessage
     public void onMessage(String message) {
-        connectionListenerManager.handleResponse(message.getBytes(), 0, message.length());
+        byte[] bytes = message.getBytes();
+        connectionListenerManager.handleResponse(bytes, 0, bytes.length);
     }
 
     @Override
@@ -103,6 +104,11 @@ public class WSConnection  extends AbstractConnection implements Connection  {
         sendStream.flush();
     }
 
+    @Override
+    public void sendBytesImmediately(byte[] bytes) throws Exception {
+        this.userSession.getBasicRemote().sendBinary(ByteBuffer.wrap(bytes), true);
+    }
+
     @Override
     public void sendStringToComm(String command) throws Exception {
         this.userSession.getBasicRemote().sendBinary(ByteBuffer.wrap(command.getBytes(StandardCharsets.UTF_8)), true);
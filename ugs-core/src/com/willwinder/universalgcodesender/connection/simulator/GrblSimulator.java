@@ -0,0 +1,583 @@
+/*
+    Copyright 2026 agent
+
+    This file is part of Universal Gcode Sender (UGS).
+
+    UGS is free software: you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    UGS is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with UGS.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.willwinder.universalgcodesender.connection.simulator;
+
+import com.willwinder.universalgcodesender.GrblUtils;
+import com.willwinder.universalgcodesender.gcode.util.Code;
+import com.willwinder.universalgcodesender.gcode.util.GcodeTokenizer;
+import org.apache.commons.lang3.StringUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Consumer;
+
+/**
+ * An in-process simulation of a GRBL 1.1 controller that can be used for testing the streaming without a machine.
+ * <p>
+ * It models the serial line at the configured baud rate, the receive buffer of the controller and the planner
+ * queue which executes each motion block in a configurable time. Lines are parsed from the receive buffer and
+ * answered with "ok" or "error" as soon as they fit in the planner, which makes the receive buffer fill up when
+ * the planner is full just like on a real controller. Real-time commands for status reports, feed hold, cycle start,
+ * soft reset, jog cancel and overrides are handled as soon as they are received.
+ *
+ * @author agent
+ */
+public class GrblSimulator {
+    public static final String VERSION = "1.1h.20190825";
+    private static final String WELCOME_MESSAGE = "\r\nGrbl 1.1h ['$' for help]\r\n";
+    private static final long TICK_NANOS = TimeUnit.MICROSECONDS.toNanos(250);
+    private static final String SUPPORTED_LETTERS = "GMXYZABCFSTPLNRIJKQ";
+
+    private final GrblSimulatorOptions options;
+    private final Consumer<byte[]> responseConsumer;
+    private final double nanosPerByte;
+    // The bytes written to the simulated serial line that haven't been received yet are between start and end
+    private byte[] inbound = new byte[1024];
+    private int inboundStart;
+    private int inboundEnd;
+    private final StringBuilder rxBuffer = new StringBuilder();
+    private final Deque<Block> planner = new ArrayDeque<>();
+    private final StringBuilder outbound = new StringBuilder();
+    private final Map<Integer, String> settings = createDefaultSettings();
+    private final double[] position = new double[3];
+    private final double[] plannedPosition = new double[3];
+
+    private Thread thread;
+    private long lastTickNanos;
+    private double inboundCredit;
+    private double outboundCredit;
+
+    private String state = "Idle";
+    private boolean isCheckMode;
+    private boolean isRelative;
+    private boolean isInches;
+    private int motionMode;
+    private double feedRate;
+    private double spindleSpeed;
+    private int feedOverride = 100;
+    private int rapidOverride = 100;
+    private int spindleOverride = 100;
+
+    private long statisticsStartNanos;
+    private long linesProcessed;
+    private long errors;
+    private long bytesReceived;
+    private double rxBufferUsageSum;
+    private int maxRxBufferUsage;
+    private double plannerUsageSum;
+    private int maxPlannerUsage;
+    private long plannerUnderruns;
+    private long rxOverflows;
+
+    /**
+     * Creates a simulator
+     *
+     * @param options          the options for the simulation
+     * @param responseConsumer a consumer that will get the bytes sent from the controller, it is called from the
+     *                         simulator thread
+     */
+    public GrblSimulator(GrblSimulatorOptions options, Consumer<byte[]> responseConsumer) {
+        this.options = options;
+        this.responseConsumer = responseConsumer;
+        this.nanosPerByte = TimeUnit.SECONDS.toNanos(10) / (double) options.baudRate();
+    }
+
+    /**
+     * Starts the simulation thread and sends the welcome message
+     */
+    public synchronized void start() {
+        if (thread != null) {
+            return;
+        }
+
+        lastTickNanos = System.nanoTime();
+        resetStatistics();
+        outbound.append(WELCOME_MESSAGE);
+        thread = new Thread(this::run, "UGS GRBL simulator");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    public synchronized void stop() {
+        if (thread != null) {
+            thread.interrupt();
+            thread = null;
+        }
+    }
+
+    public synchronized boolean isRunning() {
+        return thread != null;
+    }
+
+    /**
+     * Writes bytes to the simulated serial line of the controller
+     *
+     * @param bytes the bytes to write
+     */
+    public synchronized void write(byte[] bytes) {
+        if (inboundEnd + bytes.length > inbound.length) {
+            // Move the pending bytes to the start of the buffer and grow it if they still don't fit
+            int pending = inboundEnd - inboundStart;
+            byte[] target = pending + bytes.length > inbound.length ? new byte[Math.max(inbound.length * 2, pending + bytes.length)] : inbound;
+            System.arraycopy(inbound, inboundStart, target, 0, pending);
+            inbound = target;
+            inboundStart = 0;
+            inboundEnd = pending;
+        }
+
+        System.arraycopy(bytes, 0, inbound, inboundEnd, bytes.length);
+        inboundEnd += bytes.length;
+    }
+
+    public synchronized void resetStatistics() {
+        statisticsStartNanos = lastTickNanos;
+        linesProcessed = 0;
+        errors = 0;
+        bytesReceived = 0;
+        rxBufferUsageSum = 0;
+        maxRxBufferUsage = 0;
+        plannerUsageSum = 0;
+        maxPlannerUsage = 0;
+        plannerUnderruns = 0;
+        rxOverflows = 0;
+    }
+
+    public synchronized GrblSimulatorStatistics getStatistics() {
+        double elapsed = Math.max(1, lastTickNanos - statisticsStartNanos);
+        return new GrblSimulatorStatistics(linesProcessed, errors, bytesReceived, rxBufferUsageSum / elapsed,
+                maxRxBufferUsage, plannerUsageSum / elapsed, maxPlannerUsage, plannerUnderruns, rxOverflows);
+    }
+
+    private void run() {
+        while (!Thread.currentThread().isInterrupted()) {
+            byte[] response = tick(System.nanoTime());
+            if (response.length > 0) {
+                responseConsumer.accept(response);
+            }
+            LockSupport.parkNanos(TICK_NANOS);
+        }
+    }
+
+    /**
+     * Advances the simulation to the given time
+     *
+     * @param nowNanos the current time in nanoseconds
+     * @return the bytes that were sent from the controller during the elapsed time
+     */
+    synchronized byte[] tick(long nowNanos) {
+        long elapsedNanos = Math.max(0, nowNanos - lastTickNanos);
+        lastTickNanos = nowNanos;
+
+        receiveBytes(elapsedNanos);
+        processLines();
+        executePlanner(elapsedNanos);
+        updateStatistics(elapsedNanos);
+        return sendBytes(elapsedNanos);
+    }
+
+    private void receiveBytes(long elapsedNanos) {
+        if (inboundStart == inboundEnd) {
+            inboundStart = 0;
+            inboundEnd = 0;
+            inboundCredit = 0;
+            return;
+        }
+
+        inboundCredit += elapsedNanos / nanosPerByte;
+        while (inboundCredit >= 1 && inboundStart < inboundEnd) {
+            inboundCredit--;
+            bytesReceived++;
+            byte b = inbound[inboundStart++];
+            if (isRealtimeCommand(b)) {
+                handleRealtimeCommand(b);
+            } else if (rxBuffer.length() < options.rxBufferSize()) {
+                rxBuffer.append((char) (b & 0xFF));
+            } else {
+                rxOverflows++;
+            }
+        }
+    }
+
+    private byte[] sendBytes(long elapsedNanos) {
+        if (outbound.isEmpty()) {
+            outboundCredit = 0;
+            return new byte[0];
+        }
+
+        outboundCredit += elapsedNanos / nanosPerByte;
+        int length = (int) Math.min(outboundCredit, outbound.length());
+        outboundCredit -= length;
+        String result = outbound.substring(0, length);
+        outbound.delete(0, length);
+        return result.getBytes(StandardCharsets.US_ASCII);
+    }
+
+    private void processLines() {
+        while (true) {
+            int endOfLine = StringUtils.indexOfAny(rxBuffer, '\n', '\r');
+            if (endOfLine < 0) {
+                if (rxBuffer.length() >= options.rxBufferSize()) {
+                    // The line doesn't fit in the buffer
+                    rxBuffer.setLength(0);
+                    respond("error:11");
+                }
+                return;
+            }
+
+            String line = rxBuffer.substring(0, endOfLine).trim();
+            if (isMotion(line) && planner.size() >= options.plannerBlocks()) {
+                // Wait for the planner to make room for the block
+                return;
+            }
+
+            rxBuffer.delete(0, endOfLine + 1);
+            executeLine(line);
+        }
+    }
+
+    private void executeLine(String line) {
+        linesProcessed++;
+        String upperCaseLine = line.toUpperCase(Locale.ROOT);
+        if (upperCaseLine.startsWith("$")) {
+            executeSystemCommand(upperCaseLine);
+        } else if (state.equals("Alarm") && !upperCaseLine.isEmpty()) {
+            respond("error:9");
+        } else {
+            executeGcode(upperCaseLine, false);
+        }
+    }
+
+    private void executeSystemCommand(String line) {
+        switch (line) {
+            case "$" -> respond("[HLP:$$ $# $G $I $N $x=val $Nx=line $J=line $SLP $C $X $H ~ ! ? ctrl-x]", "ok");
+            case "$$" -> {
+                settings.forEach((key, value) -> outbound.append("$").append(key).append("=").append(value).append("\r\n"));
+                respond("ok");
+            }
+            case "$I" -> respond("[VER:" + VERSION + ":]", "[OPT:V," + options.plannerBlocks() + "," + options.rxBufferSize() + "]", "ok");
+            case "$G" -> respond(String.format(Locale.ROOT, "[GC:G%d G54 G17 %s %s G94 M5 M9 T0 F%s S%s]",
+                    motionMode, isInches ? "G20" : "G21", isRelative ? "G91" : "G90", formatNumber(feedRate), formatNumber(spindleSpeed)), "ok");
+            case "$#" -> respond("[G54:0.000,0.000,0.000]", "[G55:0.000,0.000,0.000]", "[G56:0.000,0.000,0.000]",
+                    "[G57:0.000,0.000,0.000]", "[G58:0.000,0.000,0.000]", "[G59:0.000,0.000,0.000]",
+                    "[G28:0.000,0.000,0.000]", "[G30:0.000,0.000,0.000]", "[G92:0.000,0.000,0.000]",
+                    "[TLO:0.000]", "[PRB:0.000,0.000,0.000:0]", "ok");
+            case "$X" -> {
+                if (state.equals("Alarm")) {
+                    state = "Idle";
+                }
+                respond("[MSG:Caution: Unlocked]", "ok");
+            }
+            case "$H", "$N", "$SLP" -> respond("ok");
+            case "$C" -> {
+                isCheckMode = !isCheckMode;
+                state = isCheckMode ? "Check" : "Idle";
+                respond(isCheckMode ? "[MSG:Enabled]" : "[MSG:Disabled]", "ok");
+            }
+            default -> executeSystemCommandWithValue(line);
+        }
+    }
+
+    private void executeSystemCommandWithValue(String line) {
+        if (line.startsWith("$J=")) {
+            if (!state.equals("Idle") && !state.equals("Jog")) {
+                respond("error:8");
+                return;
+            }
+            executeGcode(line.substring(3), true);
+        } else if (line.matches("\\$\\d+=.+")) {
+            settings.put(Integer.parseInt(StringUtils.substringBetween(line, "$", "=")), StringUtils.substringAfter(line, "="));
+            respond("ok");
+        } else if (line.startsWith("$N")) {
+            respond("ok");
+        } else {
+            respond("error:3");
+        }
+    }
+
+    private void executeGcode(String line, boolean isJog) {
+        int lineMotionMode = motionMode;
+        boolean lineIsRelative = isRelative;
+        boolean lineIsInches = isInches;
+        double[] target = plannedPosition.clone();
+
+        try (GcodeTokenizer tokens = GcodeTokenizer.tokenize(line)) {
+            for (int i = 0; i < tokens.size(); i++) {
+                if (tokens.getType(i) != GcodeTokenizer.TokenType.WORD) {
+                    continue;
+                }
+
+                char letter = tokens.getLetter(i);
+                if (SUPPORTED_LETTERS.indexOf(letter) < 0 || Double.isNaN(tokens.getValue(i))) {
+                    respond("error:20");
+                    return;
+                }
+
+                if ((letter == 'G' || letter == 'M') && tokens.getCode(i) == Code.UNKNOWN) {
+                    respond("error:20");
+                    return;
+                }
+
+                if (letter == 'G') {
+                    switch (tokens.getCode(i)) {
+                        case G0 -> lineMotionMode = 0;
+                        case G1 -> lineMotionMode = 1;
+                        case G2 -> lineMotionMode = 2;
+                        case G3 -> lineMotionMode = 3;
+                        case G20 -> lineIsInches = true;
+                        case G21 -> lineIsInches = false;
+                        case G90 -> lineIsRelative = false;
+                        case G91 -> lineIsRelative = true;
+                        default -> {
+                            // Other codes does not affect the simulation
+                        }
+                    }
+                } else if (letter == 'F') {
+                    feedRate = tokens.getValue(i);
+                } else if (letter == 'S') {
+                    spindleSpeed = tokens.getValue(i);
+                }
+            }
+
+            double scale = lineIsInches ? 25.4 : 1;
+            String axes = "XYZ";
+            for (int axis = 0; axis < axes.length(); axis++) {
+                double value = tokens.getValue(axes.charAt(axis));
+                if (!Double.isNaN(value)) {
+                    target[axis] = (lineIsRelative ? target[axis] : 0) + value * scale;
+                }
+            }
+
+            if (isJog) {
+                // Jog commands doesn't change the modal state
+                addBlock(target, false, true);
+                respond("ok");
+                return;
+            }
+
+            motionMode = lineMotionMode;
+            isRelative = lineIsRelative;
+            isInches = lineIsInches;
+            if (tokens.hasAxisWords() && motionMode <= 3) {
+                addBlock(target, motionMode == 0, false);
+            }
+        }
+
+        respond("ok");
+    }
+
+    private void addBlock(double[] target, boolean isRapid, boolean isJog) {
+        if (isCheckMode) {
+            return;
+        }
+
+        System.arraycopy(target, 0, plannedPosition, 0, target.length);
+        planner.add(new Block(target, isRapid, isJog, options.blockExecutionMicros() * 1000d));
+        if (state.equals("Idle")) {
+            state = isJog ? "Jog" : "Run";
+        }
+    }
+
+    private void executePlanner(long elapsedNanos) {
+        if (planner.isEmpty() || state.startsWith("Hold") || state.startsWith("Door")) {
+            return;
+        }
+
+        double remainingNanos = elapsedNanos;
+        while (remainingNanos > 0 && !planner.isEmpty()) {
+            Block block = planner.peek();
+            double speed = (block.isRapid ? rapidOverride : feedOverride) / 100d;
+            double blockNanos = block.remainingNanos / speed;
+            if (blockNanos <= remainingNanos) {
+                remainingNanos -= blockNanos;
+                planner.poll();
+                System.arraycopy(block.target, 0, position, 0, position.length);
+            } else {
+                block.remainingNanos -= remainingNanos * speed;
+                remainingNanos = 0;
+            }
+        }
+
+        if (planner.isEmpty()) {
+            plannerUnderruns++;
+            state = "Idle";
+        }
+    }
+
+    private void updateStatistics(long elapsedNanos) {
+        rxBufferUsageSum += (double) rxBuffer.length() * elapsedNanos;
+        plannerUsageSum += (double) planner.size() * elapsedNanos;
+        maxRxBufferUsage = Math.max(maxRxBufferUsage, rxBuffer.length());
+        maxPlannerUsage = Math.max(maxPlannerUsage, planner.size());
+    }
+
+    private static boolean isRealtimeCommand(byte b) {
+        return b == GrblUtils.GRBL_STATUS_COMMAND || b == GrblUtils.GRBL_PAUSE_COMMAND ||
+                b == GrblUtils.GRBL_RESUME_COMMAND || b == GrblUtils.GRBL_RESET_COMMAND || (b & 0x80) != 0;
+    }
+
+    private void handleRealtimeCommand(byte b) {
+        switch (b & 0xFF) {
+            case '?' -> outbound.append(getStatusReport()).append("\r\n");
+            case '!' -> {
+                if (state.equals("Run") || state.equals("Jog")) {
+                    state = "Hold:0";
+                }
+            }
+            case '~' -> {
+                if (state.startsWith("Hold") || state.startsWith("Door")) {
+                    state = planner.isEmpty() ? "Idle" : "Run";
+                }
+            }
+            case 0x18 -> reset();
+            case 0x84 -> state = "Door:0";
+            case 0x85 -> {
+                if (state.equals("Jog")) {
+                    planner.clear();
+                    System.arraycopy(position, 0, plannedPosition, 0, position.length);
+                    state = "Idle";
+                }
+            }
+            case 0x90 -> feedOverride = 100;
+            case 0x91 -> feedOverride = Math.min(200, feedOverride + 10);
+            case 0x92 -> feedOverride = Math.max(10, feedOverride - 10);
+            case 0x93 -> feedOverride = Math.min(200, feedOverride + 1);
+            case 0x94 -> feedOverride = Math.max(10, feedOverride - 1);
+            case 0x95 -> rapidOverride = 100;
+            case 0x96 -> rapidOverride = 50;
+            case 0x97 -> rapidOverride = 25;
+            case 0x99 -> spindleOverride = 100;
+            case 0x9A -> spindleOverride = Math.min(200, spindleOverride + 10);
+            case 0x9B -> spindleOverride = Math.max(10, spindleOverride - 10);
+            case 0x9C -> spindleOverride = Math.min(200, spindleOverride + 1);
+            case 0x9D -> spindleOverride = Math.max(10, spindleOverride - 1);
+            default -> {
+                // Unsupported real-time commands are ignored
+            }
+        }
+    }
+
+    private void reset() {
+        rxBuffer.setLength(0);
+        planner.clear();
+        System.arraycopy(position, 0, plannedPosition, 0, position.length);
+        state = "Idle";
+        isCheckMode = false;
+        feedOverride = 100;
+        rapidOverride = 100;
+        spindleOverride = 100;
+        outbound.append(WELCOME_MESSAGE);
+    }
+
+    private String getStatusReport() {
+        double currentFeedRate = planner.isEmpty() ? 0 : feedRate;
+        return "<" + state +
+                "|MPos:" + formatPosition(position) +
+                "|Bf:" + (options.plannerBlocks() - planner.size()) + "," + (options.rxBufferSize() - rxBuffer.length()) +
+                "|FS:" + formatNumber(currentFeedRate) + "," + formatNumber(spindleSpeed) +
+                "|WCO:0.000,0.000,0.000" +
+                "|Ov:" + feedOverride + "," + rapidOverride + "," + spindleOverride +
+                ">";
+    }
+
+    private void respond(String... lines) {
+        for (String line : lines) {
+            if (line.startsWith("error:")) {
+                errors++;
+            }
+            outbound.append(line).append("\r\n");
+        }
+    }
+
+    private boolean isMotion(String line) {
+        if (line.isEmpty() || line.startsWith("$") && !StringUtils.startsWithIgnoreCase(line, "$J=")) {
+            return false;
+        }
+
+        try (GcodeTokenizer tokens = GcodeTokenizer.tokenize(line)) {
+            return tokens.hasAxisWords();
+        }
+    }
+
+    private static String formatPosition(double[] position) {
+        return String.format(Locale.ROOT, "%.3f,%.3f,%.3f", position[0], position[1], position[2]);
+    }
+
+    private static String formatNumber(double value) {
+        return String.format(Locale.ROOT, "%.0f", value);
+    }
+
+    private static Map<Integer, String> createDefaultSettings() {
+        Map<Integer, String> settings = new LinkedHashMap<>();
+        settings.put(0, "10");
+        settings.put(1, "25");
+        settings.put(2, "0");
+        settings.put(3, "0");
+        settings.put(4, "0");
+        settings.put(5, "0");
+        settings.put(6, "0");
+        settings.put(10, "1");
+        settings.put(11, "0.010");
+        settings.put(12, "0.002");
+        settings.put(13, "0");
+        settings.put(20, "0");
+        settings.put(21, "0");
+        settings.put(22, "0");
+        settings.put(23, "0");
+        settings.put(24, "25.000");
+        settings.put(25, "500.000");
+        settings.put(26, "250");
+        settings.put(27, "1.000");
+        settings.put(30, "1000");
+        settings.put(31, "0");
+        settings.put(32, "0");
+        settings.put(100, "250.000");
+        settings.put(101, "250.000");
+        settings.put(102, "250.000");
+        settings.put(110, "500.000");
+        settings.put(111, "500.000");
+        settings.put(112, "500.000");
+        settings.put(120, "10.000");
+        settings.put(121, "10.000");
+        settings.put(122, "10.000");
+        settings.put(130, "200.000");
+        settings.put(131, "200.000");
+        settings.put(132, "200.000");
+        return settings;
+    }
+
+    private static class Block {
+        private final double[] target;
+        private final boolean isRapid;
+        private final boolean isJog;
+        private double remainingNanos;
+
+        Block(double[] target, boolean isRapid, boolean isJog, double remainingNanos) {
+            this.target = target;
+            this.isRapid = isRapid;
+            this.isJog = isJog;
+            this.remainingNanos = remainingNanos;
+        }
+    }
+}
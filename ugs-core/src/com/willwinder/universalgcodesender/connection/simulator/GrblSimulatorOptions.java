@@ -0,0 +1,80 @@
+/*
+    Copyright 2026 agent
+
+    This file is part of Universal Gcode Sender (UGS).
+
+    UGS is free software: you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    UGS is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with UGS.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.willwinder.universalgcodesender.connection.simulator;
+
+import com.willwinder.universalgcodesender.connection.ConnectionException;
+import org.apache.commons.lang3.StringUtils;
+
+/**
+ * Options for the simulated GRBL controller.
+ *
+ * @param baudRate             the simulated baud rate of the serial line, limits how fast bytes are transferred
+ *                             in both directions
+ * @param rxBufferSize         the size of the receive buffer in bytes
+ * @param plannerBlocks        the number of motion blocks that can be queued in the planner
+ * @param blockExecutionMicros the time in microseconds it takes to execute one motion block at 100% override
+ * @author agent
+ */
+public record GrblSimulatorOptions(int baudRate, int rxBufferSize, int plannerBlocks, long blockExecutionMicros) {
+    public static final int DEFAULT_BAUD_RATE = 115200;
+    public static final int DEFAULT_RX_BUFFER_SIZE = 128;
+    public static final int DEFAULT_PLANNER_BLOCKS = 15;
+    public static final long DEFAULT_BLOCK_EXECUTION_MICROS = 5000;
+
+    public GrblSimulatorOptions {
+        if (baudRate <= 0 || rxBufferSize <= 0 || plannerBlocks <= 0 || blockExecutionMicros < 0) {
+            throw new IllegalArgumentException("Invalid simulator options");
+        }
+    }
+
+    public GrblSimulatorOptions() {
+        this(DEFAULT_BAUD_RATE, DEFAULT_RX_BUFFER_SIZE, DEFAULT_PLANNER_BLOCKS, DEFAULT_BLOCK_EXECUTION_MICROS);
+    }
+
+    /**
+     * Parses the options from a device name with optional parameters and a baud rate,
+     * ex: "grbl?blockTime=2000&plannerBlocks=15&rxBufferSize=128". The block time is given in microseconds.
+     *
+     * @param name     the device name with parameters
+     * @param baudRate the baud rate
+     * @return the parsed options
+     * @throws ConnectionException if the parameters couldn't be parsed
+     */
+    public static GrblSimulatorOptions parse(String name, int baudRate) {
+        int rxBufferSize = DEFAULT_RX_BUFFER_SIZE;
+        int plannerBlocks = DEFAULT_PLANNER_BLOCKS;
+        long blockExecutionMicros = DEFAULT_BLOCK_EXECUTION_MICROS;
+
+        try {
+            for (String parameter : StringUtils.split(StringUtils.substringAfter(name, "?"), '&')) {
+                String key = StringUtils.substringBefore(parameter, "=");
+                String value = StringUtils.substringAfter(parameter, "=");
+                switch (key) {
+                    case "blockTime" -> blockExecutionMicros = Long.parseLong(value);
+                    case "plannerBlocks" -> plannerBlocks = Integer.parseInt(value);
+                    case "rxBufferSize" -> rxBufferSize = Integer.parseInt(value);
+                    default -> throw new ConnectionException("Unknown simulator parameter " + key);
+                }
+            }
+            return new GrblSimulatorOptions(baudRate, rxBufferSize, plannerBlocks, blockExecutionMicros);
+        } catch (IllegalArgumentException e) {
+            throw new ConnectionException("Couldn't parse the simulator parameters in " + name, e);
+        }
+    }
+}
@@ -0,0 +1,38 @@
+/*
+    Copyright 2026 agent
+
+    This file is part of Universal Gcode Sender (UGS).
+
+    UGS is free software: you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    UGS is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with UGS.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.willwinder.universalgcodesender.connection.simulator;
+
+/**
+ * Statistics from a simulated GRBL controller since it was started or the statistics were reset.
+ *
+ * @param linesProcessed       the number of lines that have been parsed and responded to
+ * @param errors               the number of lines that got an error response
+ * @param bytesReceived        the number of bytes received over the simulated serial line
+ * @param averageRxBufferUsage the time weighted average number of bytes used in the receive buffer
+ * @param maxRxBufferUsage     the maximum number of bytes used in the receive buffer
+ * @param averagePlannerUsage  the time weighted average number of blocks in the planner
+ * @param maxPlannerUsage      the maximum number of blocks in the planner
+ * @param plannerUnderruns     the number of times that the planner ran out of blocks to execute
+ * @param rxOverflows          the number of bytes that were lost as they were received when the receive buffer was full
+ * @author agent
+ */
+public record GrblSimulatorStatistics(long linesProcessed, long errors, long bytesReceived, double averageRxBufferUsage,
+                                      int maxRxBufferUsage, double averagePlannerUsage, int maxPlannerUsage,
+                                      long plannerUnderruns, long rxOverflows) {
+}
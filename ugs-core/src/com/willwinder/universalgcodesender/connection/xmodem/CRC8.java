@@ -17,7 +17,7 @@ public class CRC8 implements CRC {
         for (byte b : block) {
             checksum += b;
         }
-        return checksum;
+        return checksum & 0xFF;
     }
 
 }
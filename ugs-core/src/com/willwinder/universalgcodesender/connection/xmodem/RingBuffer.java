@@ -33,7 +33,7 @@ public class RingBuffer extends InputStream {
         this.writeSequence = -1;
     }
 
-    public int read() {
+    public synchronized int read() {
         if (!isEmpty()) {
             byte nextValue = data[readSequence % capacity];
             readSequence++;
@@ -43,7 +43,7 @@ public class RingBuffer extends InputStream {
         return -1;
     }
 
-    public void write(byte element) {
+    public synchronized void write(byte element) {
         if (isFull()) {
             throw new BufferOverflowException();
         }
@@ -51,14 +51,35 @@ public class RingBuffer extends InputStream {
         int nextWriteSeq = writeSequence + 1;
         data[nextWriteSeq % capacity] = element;
         writeSequence++;
+        notifyAll();
     }
 
-    public void write(byte[] buffer, int offset, int length) {
+    public synchronized void write(byte[] buffer, int offset, int length) {
         for (int i = 0; i < length; i++) {
             write(buffer[offset + i]);
         }
     }
 
+    /**
+     * Waits until the given number of bytes are available for reading
+     *
+     * @param count         the number of bytes to wait for
+     * @param timeoutMillis the maximum time to wait in milliseconds
+     * @return true if the bytes are available, false if the timeout elapsed
+     * @throws InterruptedException if the thread was interrupted while waiting
+     */
+    public synchronized boolean awaitAvailable(int count, long timeoutMillis) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + timeoutMillis;
+        while (available() < count) {
+            long remaining = deadline - System.currentTimeMillis();
+            if (remaining <= 0) {
+                return false;
+            }
+            wait(remaining);
+        }
+        return true;
+    }
+
     public void write(byte[] buffer) {
         write(buffer, 0, buffer.length);
     }
@@ -68,15 +89,15 @@ public class RingBuffer extends InputStream {
     }
 
     @Override
-    public int available() {
+    public synchronized int available() {
         return (writeSequence - readSequence) + 1;
     }
 
-    public boolean isEmpty() {
+    public synchronized boolean isEmpty() {
         return writeSequence < readSequence;
     }
 
-    public boolean isFull() {
+    public synchronized boolean isFull() {
         return available() >= capacity;
     }
 }
@@ -29,6 +29,10 @@ class Timer {
         return (System.currentTimeMillis() > startTime + timeout);
     }
 
+    public long getRemainingTime() {
+        return Math.max(0, startTime + timeout - System.currentTimeMillis());
+    }
+
     public long getStartTime() {
         return this.startTime;
     }
@@ -3,6 +3,7 @@ package com.willwinder.universalgcodesender.connection.xmodem;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
+import java.util.function.LongConsumer;
 
 
 /**
@@ -35,7 +36,7 @@ class XModem {
     protected static final int WAIT_FOR_RECEIVER_TIMEOUT = 60_000;
     protected static final int SEND_BLOCK_TIMEOUT = 10_000;
 
-    private final InputStream inputStream;
+    private final RingBuffer inputStream;
     private final OutputStream outputStream;
 
     private final byte[] shortBlockBuffer;
@@ -47,7 +48,7 @@ class XModem {
      * @param inputStream  stream for reading received data from other side
      * @param outputStream stream for writing data to other side
      */
-    public XModem(InputStream inputStream, OutputStream outputStream) {
+    public XModem(RingBuffer inputStream, OutputStream outputStream) {
         this.inputStream = inputStream;
         this.outputStream = outputStream;
         shortBlockBuffer = new byte[128];
@@ -86,9 +87,10 @@ class XModem {
      *
      * @param inputStream a byte array to send
      * @param useBlock1K  uses a 1K send block (XModem-1K)
+     * @param progress    is given the number of bytes sent after each acknowledged block
      * @throws java.io.IOException if the transmission failed
      */
-    public void send(InputStream inputStream, boolean useBlock1K) throws IOException {
+    public void send(InputStream inputStream, boolean useBlock1K, LongConsumer progress) throws IOException {
         Timer timer = new Timer(WAIT_FOR_RECEIVER_TIMEOUT).start();
 
         boolean useCRC16 = waitReceiverRequest(timer);
@@ -103,18 +105,37 @@ class XModem {
             block = new byte[1024];
         else
             block = new byte[128];
-        sendDataBlocks(inputStream, 1, crc, block);
+        sendDataBlocks(inputStream, 1, crc, block, progress);
 
         sendEOT();
     }
 
-    protected void sendDataBlocks(InputStream dataStream, int blockNumber, CRC crc, byte[] block) throws IOException {
+    protected void sendDataBlocks(InputStream dataStream, int blockNumber, CRC crc, byte[] block, LongConsumer progress) throws IOException {
+        long bytesSent = 0;
         int dataLength;
-        while ((dataLength = dataStream.read(block)) != -1) {
+        while ((dataLength = readBlockData(dataStream, block)) > 0) {
             sendBlock(blockNumber++, block, dataLength, crc);
+            bytesSent += dataLength;
+            progress.accept(bytesSent);
         }
     }
 
+    /**
+     * Reads until the block is full or the end of the stream is reached, a stream may return fewer
+     * bytes than requested and only the last block may be padded.
+     */
+    private static int readBlockData(InputStream dataStream, byte[] block) throws IOException {
+        int dataLength = 0;
+        while (dataLength < block.length) {
+            int read = dataStream.read(block, dataLength, block.length - dataLength);
+            if (read == -1) {
+                break;
+            }
+            dataLength += read;
+        }
+        return dataLength;
+    }
+
     protected void sendEOT() throws IOException {
         int errorCount = 0;
         Timer timer = new Timer(BLOCK_TIMEOUT);
@@ -148,19 +169,17 @@ class XModem {
         }
         errorCount = 0;
 
+        // Write the whole packet at once instead of byte by byte
+        byte[] packet = new byte[block.length + 3 + crc.getCRCLength()];
+        packet[0] = block.length == 1024 ? STX : SOH;
+        packet[1] = (byte) blockNumber;
+        packet[2] = (byte) ~blockNumber;
+        System.arraycopy(block, 0, packet, 3, block.length);
+        writeCRC(block, crc, packet, block.length + 3);
+
         while (errorCount < MAX_ERRORS) {
             timer.start();
-
-            if (block.length == 1024) {
-                outputStream.write(STX);
-            } else { //128
-                outputStream.write(SOH);
-            }
-            outputStream.write(blockNumber);
-            outputStream.write(~blockNumber);
-
-            outputStream.write(block);
-            writeCRC(block, crc);
+            outputStream.write(packet);
             outputStream.flush();
 
             while (true) {
@@ -185,13 +204,11 @@ class XModem {
         throw new IOException("Too many errors caught, abandoning transfer");
     }
 
-    private void writeCRC(byte[] block, CRC crc) throws IOException {
-        byte[] crcBytes = new byte[crc.getCRCLength()];
+    private static void writeCRC(byte[] block, CRC crc, byte[] packet, int offset) {
         long crcValue = crc.calcCRC(block);
         for (int i = 0; i < crc.getCRCLength(); i++) {
-            crcBytes[crc.getCRCLength() - i - 1] = (byte) ((crcValue >> (8 * i)) & 0xFF);
+            packet[offset + crc.getCRCLength() - i - 1] = (byte) ((crcValue >> (8 * i)) & 0xFF);
         }
-        outputStream.write(crcBytes);
     }
 
     /**
@@ -336,18 +353,6 @@ class XModem {
         }
     }
 
-    private void shortSleep() {
-        try {
-            Thread.sleep(10);
-        } catch (InterruptedException e) {
-            try {
-                interruptTransmission();
-            } catch (IOException ignore) {
-            }
-            throw new RuntimeException("Transmission was interrupted", e);
-        }
-    }
-
     /**
      * send CAN to interrupt seance
      *
@@ -391,19 +396,12 @@ class XModem {
             block[i] = readByte(timer);
         }
 
-        while (true) {
-            if (inputStream.available() >= crc.getCRCLength()) {
-                if (crc.calcCRC(block) != readCRC(crc)) {
-                    throw new InvalidBlockException();
-                }
-                break;
-            }
-
-            shortSleep();
+        if (!awaitAvailable(crc.getCRCLength(), timer)) {
+            throw new TimeoutException();
+        }
 
-            if (timer.isExpired()) {
-                throw new TimeoutException();
-            }
+        if (crc.calcCRC(block) != readCRC(crc)) {
+            throw new InvalidBlockException();
         }
 
         return block;
@@ -412,21 +410,29 @@ class XModem {
     private long readCRC(CRC crc) throws IOException {
         long checkSum = 0;
         for (int j = 0; j < crc.getCRCLength(); j++) {
-            checkSum = (checkSum << 8) + inputStream.read();
+            checkSum = (checkSum << 8) + (inputStream.read() & 0xFF);
         }
         return checkSum;
     }
 
     private byte readByte(Timer timer) throws IOException, TimeoutException {
-        while (true) {
-            if (inputStream.available() > 0) {
-                int b = inputStream.read();
-                return (byte) b;
-            }
-            if (timer.isExpired()) {
-                throw new TimeoutException();
-            }
-            shortSleep();
+        if (!awaitAvailable(1, timer)) {
+            throw new TimeoutException();
+        }
+        return (byte) inputStream.read();
+    }
+
+    /**
+     * Waits until the bytes have been received instead of polling, this avoids adding latency to each
+     * acknowledged block.
+     */
+    private boolean awaitAvailable(int count, Timer timer) throws IOException {
+        try {
+            return inputStream.awaitAvailable(count, timer.getRemainingTime());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            interruptTransmission();
+            throw new RuntimeException("Transmission was interrupted", e);
         }
     }
 
@@ -21,12 +21,14 @@ package com.willwinder.universalgcodesender.connection.xmodem;
 import com.willwinder.universalgcodesender.connection.Connection;
 import com.willwinder.universalgcodesender.connection.IConnectionListener;
 import com.willwinder.universalgcodesender.connection.IConnectionListenerManager;
+import com.willwinder.universalgcodesender.listeners.FileTransferListener;
 import static com.willwinder.universalgcodesender.connection.xmodem.XModemUtils.trimEOF;
 
-import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.io.InputStream;
 import java.io.OutputStream;
+import java.util.Arrays;
 
 /**
  * A response message handler for handling XModem communication to upload and download files from the controller.
@@ -49,6 +51,15 @@ public class XModemConnectionListenerHandler implements IConnectionListenerManag
                     throw new IOException(e);
                 }
             }
+
+            @Override
+            public void write(byte[] b, int off, int len) throws IOException {
+                try {
+                    connection.sendBytesImmediately(Arrays.copyOfRange(b, off, off + len));
+                } catch (Exception e) {
+                    throw new IOException(e);
+                }
+            }
         });
     }
 
@@ -78,8 +89,20 @@ public class XModemConnectionListenerHandler implements IConnectionListenerManag
         return trimEOF(outputStream.toByteArray());
     }
 
-    public void xmodemSend(byte[] data) throws IOException {
-        modem.send(new ByteArrayInputStream(data), false);
+    /**
+     * Sends the data using XModem-1K which needs an eighth of the acknowledgements compared to 128 byte blocks.
+     *
+     * @param inputStream the data to send
+     * @param size        the size of the data or -1 if unknown
+     * @param listener    a listener for the transfer progress
+     * @throws IOException if the transmission failed
+     */
+    public void xmodemSend(InputStream inputStream, long size, FileTransferListener listener) throws IOException {
+        long startTime = System.nanoTime();
+        modem.send(inputStream, true, bytesSent -> {
+            double seconds = Math.max(1, System.nanoTime() - startTime) / 1e9;
+            listener.onProgress(bytesSent, size, bytesSent / seconds);
+        });
     }
 
     public IConnectionListenerManager unwrap() {
@@ -219,6 +219,21 @@ public interface IFirmwareSettings {
      */
     double getMaximumRate(Axis axis) throws FirmwareSettingsException;
 
+    /**
+     * Returns the acceleration of the axis in mm/sec^2.
+     *
+     * @param axis the axis to fetch the setting for
+     * @return the acceleration in mm/sec^2 or zero if unknown
+     */
+    double getAcceleration(Axis axis) throws FirmwareSettingsException;
+
+    /**
+     * Returns the junction deviation used by the controller to limit the speed between two moves.
+     *
+     * @return the junction deviation in mm or zero if unknown
+     */
+    double getJunctionDeviation() throws FirmwareSettingsException;
+
     /**
      * Returns the controller max spindle speed
      *
@@ -25,9 +25,12 @@ import com.willwinder.universalgcodesender.StatusPollTimer;
 import com.willwinder.universalgcodesender.firmware.fluidnc.commands.DeleteFileCommand;
 import com.willwinder.universalgcodesender.firmware.fluidnc.commands.DownloadFileCommand;
 import com.willwinder.universalgcodesender.firmware.fluidnc.commands.ListFilesCommand;
+import com.willwinder.universalgcodesender.firmware.fluidnc.commands.RunFileCommand;
 import com.willwinder.universalgcodesender.firmware.fluidnc.commands.UploadFileCommand;
+import com.willwinder.universalgcodesender.listeners.FileTransferListener;
 
 import java.io.IOException;
+import java.io.InputStream;
 import java.util.List;
 
 import static com.willwinder.universalgcodesender.utils.ControllerUtils.sendAndWaitForCompletion;
@@ -59,7 +62,7 @@ public class FluidNCFileService implements IFileService {
     }
 
     @Override
-    public void uploadFile(String filename, byte[] data) throws IOException {
+    public void uploadFile(String filename, InputStream inputStream, long size, FileTransferListener listener) throws IOException {
         try {
             statusPollTimer.stop();
 
@@ -69,7 +72,7 @@ public class FluidNCFileService implements IFileService {
             }
 
             controller.sendCommandImmediately(new UploadFileCommand(filename));
-            controller.getCommunicator().xmodemSend(data);
+            controller.getCommunicator().xmodemSend(inputStream, size, listener);
             waitOnActiveCommands(controller);
         } catch (Exception e) {
             throw new IOException("Couldn't upload file " + filename, e);
@@ -78,6 +81,20 @@ public class FluidNCFileService implements IFileService {
         }
     }
 
+    @Override
+    public void runFile(File file) throws IOException {
+        RunFileCommand command;
+        try {
+            command = sendAndWaitForCompletion(controller, new RunFileCommand(file.getAbsolutePath()));
+        } catch (Exception e) {
+            throw new IOException("Couldn't run file " + file.getAbsolutePath(), e);
+        }
+
+        if (command.isError()) {
+            throw new IOException("Could not run the file: " + file.getAbsolutePath());
+        }
+    }
+
     @Override
     public void deleteFile(File file) throws IOException {
         try {
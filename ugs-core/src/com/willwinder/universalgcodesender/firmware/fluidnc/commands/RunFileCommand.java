@@ -0,0 +1,38 @@
+/*
+    Copyright 2026 agent
+
+    This file is part of Universal Gcode Sender (UGS).
+
+    UGS is free software: you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    UGS is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with UGS.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.willwinder.universalgcodesender.firmware.fluidnc.commands;
+
+import org.apache.commons.lang3.StringUtils;
+
+/**
+ * Starts running a program from the controller file system, files on the SD card are given with
+ * the prefix "/sd/" and files on the local file system with "/localfs/" or without a prefix.
+ */
+public class RunFileCommand extends SystemCommand {
+    public RunFileCommand(String filename) {
+        super(getCommand(filename));
+    }
+
+    private static String getCommand(String filename) {
+        if (StringUtils.startsWithIgnoreCase(filename, "/sd/")) {
+            return "$SD/Run=" + filename.substring(4);
+        }
+        return "$Localfs/Run=" + StringUtils.removeStartIgnoreCase(filename, "/localfs/");
+    }
+}
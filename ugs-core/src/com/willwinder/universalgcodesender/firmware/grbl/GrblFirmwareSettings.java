@@ -52,6 +52,7 @@ public class GrblFirmwareSettings implements IFirmwareSettings {
     /**
      * Setting keys for GRBL
      */
+    private static final String KEY_JUNCTION_DEVIATION = "$11";
     private static final String KEY_REPORTING_UNITS_IN_INCHES = "$13";
     private static final String KEY_SOFT_LIMITS_ENABLED = "$20";
     private static final String KEY_HARD_LIMITS_ENABLED = "$21";
@@ -69,6 +70,9 @@ public class GrblFirmwareSettings implements IFirmwareSettings {
     private static final String KEY_MAXIMUM_RATE_X = "$110";
     private static final String KEY_MAXIMUM_RATE_Y = "$111";
     private static final String KEY_MAXIMUM_RATE_Z = "$112";
+    private static final String KEY_ACCELERATION_X = "$120";
+    private static final String KEY_ACCELERATION_Y = "$121";
+    private static final String KEY_ACCELERATION_Z = "$122";
 
     /**
      * A GRBL settings description lookups
@@ -382,6 +386,25 @@ public class GrblFirmwareSettings implements IFirmwareSettings {
         }
     }
 
+    @Override
+    public double getAcceleration(Axis axis) throws FirmwareSettingsException {
+        switch (axis) {
+            case X:
+                return getValueAsDouble(KEY_ACCELERATION_X);
+            case Y:
+                return getValueAsDouble(KEY_ACCELERATION_Y);
+            case Z:
+                return getValueAsDouble(KEY_ACCELERATION_Z);
+            default:
+                throw new FirmwareSettingsException("Couldn't get acceleration setting for axis " + axis + ", it's not supported by the controller");
+        }
+    }
+
+    @Override
+    public double getJunctionDeviation() throws FirmwareSettingsException {
+        return getValueAsDouble(KEY_JUNCTION_DEVIATION);
+    }
+
     @Override
     public int getMaxSpindleSpeed() throws FirmwareSettingsException {
         return getSetting(KEY_MAX_SPINDLE_SPEED)
@@ -104,6 +104,23 @@ public class GcodeParser implements IGcodeParser {
         this.processors.remove(p);
     }
 
+    /**
+     * @return the command processors in the order they are applied
+     */
+    public List<CommandProcessor> getCommandProcessors() {
+        List<CommandProcessor> result = new ArrayList<>();
+        processors.forEach(result::add);
+        return result;
+    }
+
+    /**
+     * @return true if all command processors can be applied to several commands in parallel, see
+     * {@link CommandProcessor#isThreadSafe()}.
+     */
+    public boolean isPreprocessorThreadSafe() {
+        return this.processors.isThreadSafe();
+    }
+
     /**
      * Clear out any processors that have been added.
      */
@@ -25,6 +25,7 @@ import static com.willwinder.universalgcodesender.gcode.util.Code.G1;
 import static com.willwinder.universalgcodesender.gcode.util.Code.G53;
 import static com.willwinder.universalgcodesender.gcode.util.Code.ModalGroup.Motion;
 import com.willwinder.universalgcodesender.gcode.util.GcodeParserException;
+import com.willwinder.universalgcodesender.gcode.util.GcodeTokenizer;
 import com.willwinder.universalgcodesender.gcode.util.PlaneFormatter;
 import com.willwinder.universalgcodesender.i18n.Localization;
 import com.willwinder.universalgcodesender.model.Axis;
@@ -37,10 +38,8 @@ import static com.willwinder.universalgcodesender.utils.MathUtils.normalizeAngle
 import java.text.DecimalFormat;
 import java.util.ArrayList;
 import java.util.Collections;
-import java.util.EnumMap;
 import java.util.LinkedHashSet;
 import java.util.List;
-import java.util.Map;
 import java.util.Objects;
 import java.util.Set;
 import java.util.regex.Matcher;
@@ -56,44 +55,69 @@ public class GcodePreprocessorUtils {
 
     public static final Pattern COMMENT = Pattern.compile("\\(.*\\)|\\s*;.*|%.*$");
     private static final String EMPTY = "";
-    private static final Pattern COMMENTPARSE = Pattern.compile("(?<=\\()[^()]*|(?<=;).*|%");
-    private static final DecimalFormat DEFAULT_FORMATTER = new DecimalFormat("0.####", Localization.dfs);
+    private static final String PERCENT_COMMENT = "%";
+    private static final ThreadLocal<DecimalFormat> DEFAULT_FORMATTER = ThreadLocal.withInitial(() -> new DecimalFormat("0.####", Localization.dfs));
+    private static final Axis[] AXES = Axis.values();
 
-    private static final EnumMap<Axis, Pattern> POSITION_OVERRIDE_MAP = new EnumMap<>(Axis.class);
-    static {
-        POSITION_OVERRIDE_MAP.put(Axis.X, Pattern.compile("X([-+]?[0-9.]+)", Pattern.CASE_INSENSITIVE));
-        POSITION_OVERRIDE_MAP.put(Axis.Y, Pattern.compile("Y([-+]?[0-9.]+)", Pattern.CASE_INSENSITIVE));
-        POSITION_OVERRIDE_MAP.put(Axis.Z, Pattern.compile("Z([-+]?[0-9.]+)", Pattern.CASE_INSENSITIVE));
-        POSITION_OVERRIDE_MAP.put(Axis.A, Pattern.compile("A([-+]?[0-9.]+)", Pattern.CASE_INSENSITIVE));
-        POSITION_OVERRIDE_MAP.put(Axis.B, Pattern.compile("B([-+]?[0-9.]+)", Pattern.CASE_INSENSITIVE));
-        POSITION_OVERRIDE_MAP.put(Axis.C, Pattern.compile("C([-+]?[0-9.]+)", Pattern.CASE_INSENSITIVE));
-    }
-
-    private static int decimalLength = -1;
-    private static Pattern decimalPattern;
-    private static DecimalFormat decimalFormatter = DEFAULT_FORMATTER;
+    /**
+     * The formatter and pattern used by {@link #truncateDecimals(int, String)}, kept in one object so that it can
+     * be replaced atomically when the preprocessor is used from multiple threads.
+     */
+    private static volatile DecimalTruncation decimalTruncation;
 
     /**
      * Searches the command string for moves (x, y, z, a, b, or c) and replaces
      * with the given position.
      */
     public static String overridePosition(String originalCommand, PartialPosition updated) {
-        String command = originalCommand;
-
-        for (Map.Entry<Axis, Pattern> axisToPattern : POSITION_OVERRIDE_MAP.entrySet()) {
-            Axis axis = axisToPattern.getKey();
-            if (updated.hasAxis(axis)) {
-                Matcher matcher = axisToPattern.getValue().matcher(command);
-                String updatedStr = axis + DEFAULT_FORMATTER.format(updated.getAxis(axis));
-                if (matcher.find()) {
-                    command = matcher.replaceAll(updatedStr);
-                } else {
-                    command += updatedStr;
+        DecimalFormat formatter = DEFAULT_FORMATTER.get();
+        StringBuilder result = new StringBuilder(originalCommand.length() + 16);
+        int position = 0;
+        int replacedAxes = 0;
+
+        try (GcodeTokenizer tokens = GcodeTokenizer.tokenize(originalCommand)) {
+            for (int i = 0; i < tokens.size(); i++) {
+                Axis axis = getAxis(tokens.getLetter(i));
+                if (axis == null || !updated.hasAxis(axis) || Double.isNaN(tokens.getValue(i))) {
+                    continue;
                 }
+
+                result.append(originalCommand, position, tokens.getStart(i))
+                        .append(axis)
+                        .append(formatter.format(updated.getAxis(axis)));
+                position = tokens.getEnd(i);
+                replacedAxes |= 1 << axis.ordinal();
             }
         }
+        result.append(originalCommand, position, originalCommand.length());
+
+        // Add any axes missing in the original command
+        for (Axis axis : AXES) {
+            if (updated.hasAxis(axis) && (replacedAxes & (1 << axis.ordinal())) == 0) {
+                result.append(axis).append(formatter.format(updated.getAxis(axis)));
+            }
+        }
+
+        return result.toString();
+    }
 
-        return command;
+    private static Axis getAxis(char letter) {
+        switch (letter) {
+            case 'X':
+                return Axis.X;
+            case 'Y':
+                return Axis.Y;
+            case 'Z':
+                return Axis.Z;
+            case 'A':
+                return Axis.A;
+            case 'B':
+                return Axis.B;
+            case 'C':
+                return Axis.C;
+            default:
+                return null;
+        }
     }
 
     /**
@@ -130,26 +154,35 @@ public class GcodePreprocessorUtils {
      * Searches for a comment in the input string and returns the first match.
      */
     static public String parseComment(String command) {
-        String comment = EMPTY;
-
-        // REGEX: Find any comment, includes the comment characters:
-        //              "(?<=\()[^\(\)]*|(?<=\;)[^;]*"
-        //              "(?<=\\()[^\\(\\)]*|(?<=\\;)[^;]*"
-        Matcher matcher = COMMENTPARSE.matcher(command);
-        if (matcher.find()) {
-            comment = matcher.group(0);
+        // Finds the first text following a '(' up to the next parenthesis, the text following a ';' or a '%'
+        int length = command.length();
+        for (int i = 0; i <= length; i++) {
+            char previous = i > 0 ? command.charAt(i - 1) : 0;
+            if (previous == '(') {
+                int end = i;
+                while (end < length && command.charAt(end) != '(' && command.charAt(end) != ')') {
+                    end++;
+                }
+                return command.substring(i, end);
+            } else if (previous == ';') {
+                return command.substring(i);
+            } else if (i < length && command.charAt(i) == '%') {
+                return PERCENT_COMMENT;
+            }
         }
 
-        return comment;
+        return EMPTY;
     }
 
     static public String truncateDecimals(int length, String command) {
-        if (length != decimalLength) {
+        DecimalTruncation truncation = decimalTruncation;
+        if (truncation == null || length != truncation.length) {
             //Only build the decimal formatter if the truncation length has changed.
-            updateDecimalFormatter(length);
-
+            truncation = new DecimalTruncation(length);
+            decimalTruncation = truncation;
         }
-        Matcher matcher = decimalPattern.matcher(command);
+        Matcher matcher = truncation.pattern.matcher(command);
+        DecimalFormat decimalFormatter = truncation.formatter.get();
 
         // Build up the truncated command.
         double d;
@@ -165,33 +198,41 @@ public class GcodePreprocessorUtils {
     }
 
     public static DecimalFormat getDecimalFormatter() {
-        return decimalFormatter;
+        DecimalTruncation truncation = decimalTruncation;
+        return truncation == null ? DEFAULT_FORMATTER.get() : truncation.formatter.get();
     }
 
-    private static void updateDecimalFormatter(int length) {
-        StringBuilder df = new StringBuilder();
+    private static class DecimalTruncation {
+        private final int length;
+        private final Pattern pattern;
+        private final ThreadLocal<DecimalFormat> formatter;
 
-        // Build up the decimal formatter.
-        df.append("#");
+        private DecimalTruncation(int length) {
+            StringBuilder df = new StringBuilder();
 
-        if (length != 0) {
-            df.append(".");
-        }
-        for (int i = 0; i < length; i++) {
-            df.append('#');
-        }
+            // Build up the decimal formatter.
+            df.append("#");
 
-        decimalFormatter = new DecimalFormat(df.toString(), Localization.dfs);
+            if (length != 0) {
+                df.append(".");
+            }
+            for (int i = 0; i < length; i++) {
+                df.append('#');
+            }
 
-        // Build up the regular expression.
-        df = new StringBuilder();
-        df.append("\\d+\\.\\d");
-        for (int i = 0; i < length; i++) {
-            df.append("\\d");
+            String formatPattern = df.toString();
+            formatter = ThreadLocal.withInitial(() -> new DecimalFormat(formatPattern, Localization.dfs));
+
+            // Build up the regular expression.
+            df = new StringBuilder();
+            df.append("\\d+\\.\\d");
+            for (int i = 0; i < length; i++) {
+                df.append("\\d");
+            }
+            df.append('+');
+            pattern = Pattern.compile(df.toString());
+            this.length = length;
         }
-        df.append('+');
-        decimalPattern = Pattern.compile(df.toString());
-        decimalLength = length;
     }
 
     static public List<String> parseCodes(List<String> args, char code) {
@@ -219,6 +260,24 @@ public class GcodePreprocessorUtils {
         double b = parseCoord(commandArgs, 'B');
         double c = parseCoord(commandArgs, 'C');
 
+        return updatePointWithCoordinates(initial, x, y, z, a, b, c, absoluteMode);
+    }
+
+    /**
+     * Update a point given the arguments of a command, using a tokenized command.
+     */
+    public static Position updatePointWithCommand(GcodeTokenizer tokens, Position initial, boolean absoluteMode) {
+        double x = tokens.getValue('X');
+        double y = tokens.getValue('Y');
+        double z = tokens.getValue('Z');
+        double a = tokens.getValue('A');
+        double b = tokens.getValue('B');
+        double c = tokens.getValue('C');
+
+        return updatePointWithCoordinates(initial, x, y, z, a, b, c, absoluteMode);
+    }
+
+    private static Position updatePointWithCoordinates(Position initial, double x, double y, double z, double a, double b, double c, boolean absoluteMode) {
         if (Double.isNaN(x) && Double.isNaN(y) && Double.isNaN(z) &&
                 Double.isNaN(a) && Double.isNaN(b) && Double.isNaN(c)) {
             return null;
@@ -296,7 +355,36 @@ public class GcodePreprocessorUtils {
         double j = parseCoord(commandArgs, 'J');
         double k = parseCoord(commandArgs, 'K');
         double radius = parseCoord(commandArgs, 'R');
+        return updateCenterWithCoordinates(i, j, k, radius, initial, nextPoint, absoluteIJKMode, clockwise, plane);
+    }
 
+    /**
+     * Calculate the center of an arc given the arguments of a command, using a tokenized command.
+     */
+    public static Position updateCenterWithCommand(
+            GcodeTokenizer tokens,
+            Position initial,
+            Position nextPoint,
+            boolean absoluteIJKMode,
+            boolean clockwise,
+            PlaneFormatter plane) {
+        double i = tokens.getValue('I');
+        double j = tokens.getValue('J');
+        double k = tokens.getValue('K');
+        double radius = tokens.getValue('R');
+        return updateCenterWithCoordinates(i, j, k, radius, initial, nextPoint, absoluteIJKMode, clockwise, plane);
+    }
+
+    private static Position updateCenterWithCoordinates(
+            double i,
+            double j,
+            double k,
+            double radius,
+            Position initial,
+            Position nextPoint,
+            boolean absoluteIJKMode,
+            boolean clockwise,
+            PlaneFormatter plane) {
         if (Double.isNaN(i) && Double.isNaN(j) && Double.isNaN(k)) {
             return GcodePreprocessorUtils.convertRToCenter(
                     initial, nextPoint, radius, absoluteIJKMode,
@@ -314,7 +402,7 @@ public class GcodePreprocessorUtils {
     static public String generateLineFromPoints(final Code command, final CNCPoint start, final CNCPoint end, final boolean absoluteMode, DecimalFormat formatter) {
         DecimalFormat df = formatter;
         if (df == null) {
-            df = DEFAULT_FORMATTER;
+            df = DEFAULT_FORMATTER.get();
         }
 
         StringBuilder sb = new StringBuilder();
@@ -768,26 +856,13 @@ public class GcodePreprocessorUtils {
      * <a href="http://linuxcnc.org/docs/html/gcode/g-code.html#gcode:g53">gcode:g53</a>
      */
     public static SplitCommand extractMotion(Code code, String command) {
-        List<String> args = splitCommand(command);
-        if (args.isEmpty()) return null;
-
         StringBuilder extracted = new StringBuilder();
         StringBuilder remainder = new StringBuilder();
 
-        boolean includeG53 = code == G0 || code == G1;
-        for (String arg : args) {
-            char c = arg.charAt(0);
-            Code lookup = Code.lookupCode(arg);
-            if (lookup.getType() == Motion && lookup != code) return null;
-            if (lookup == code || isMotionWord(c) || (includeG53 && lookup == G53)) {
-                extracted.append(arg);
-            } else {
-                remainder.append(arg);
-            }
+        try (GcodeTokenizer tokens = GcodeTokenizer.tokenize(command)) {
+            if (!extractMotion(code, tokens, extracted, remainder)) return null;
         }
 
-        if (extracted.length() == 0) return null;
-
         SplitCommand sc = new SplitCommand();
         sc.extracted = extracted.toString();
         sc.remainder = remainder.toString();
@@ -795,6 +870,26 @@ public class GcodePreprocessorUtils {
         return sc;
     }
 
+    /**
+     * Appends the motion words of the tokenized command to extracted and the remaining words to remainder.
+     *
+     * @return false if there are no motion words or if the command contains a different motion code
+     */
+    private static boolean extractMotion(Code code, GcodeTokenizer tokens, StringBuilder extracted, StringBuilder remainder) {
+        boolean includeG53 = code == G0 || code == G1;
+        for (int i = 0; i < tokens.size(); i++) {
+            Code lookup = tokens.getCode(i);
+            if (lookup.getType() == Motion && lookup != code) return false;
+            if (lookup == code || isMotionWord(tokens.getLetter(i)) || (includeG53 && lookup == G53)) {
+                tokens.appendText(i, extracted);
+            } else if (remainder != null) {
+                tokens.appendText(i, remainder);
+            }
+        }
+
+        return extracted.length() > 0;
+    }
+
     /**
      * Normalize a command by adding in implicit state.
      * <p>
@@ -811,41 +906,36 @@ public class GcodePreprocessorUtils {
      * @return normalized command.
      */
     public static String normalizeCommand(String command, GcodeState state) throws GcodeParserException {
-        List<String> args = GcodePreprocessorUtils.splitCommand(command);
-        Set<Code> gCodes = getGCodes(args);
-
-        Code code = null;
-        for (Code c : gCodes) {
-            if (c.getType() == Motion) {
-                code = c;
+        try (GcodeTokenizer tokens = GcodeTokenizer.tokenize(command)) {
+            Code code = null;
+            for (int i = 0; i < tokens.size(); i++) {
+                if (tokens.getLetter(i) == 'G' && !tokens.isRepeatedCode(i) && tokens.getCode(i).getType() == Motion) {
+                    code = tokens.getCode(i);
+                }
             }
-        }
 
-        // Fallback to current motion mode if the motion cannot be detected from command.
-        if (code == null) {
-            code = state.currentMotionMode;
-        }
+            // Fallback to current motion mode if the motion cannot be detected from command.
+            boolean hasMotionCode = code != null;
+            if (!hasMotionCode) {
+                code = state.currentMotionMode;
+            }
 
-        SplitCommand split = extractMotion(code, command);
+            StringBuilder result = new StringBuilder();
+            result.append("F").append(state.feedRate);
+            result.append("S").append(state.spindleSpeed);
 
-        // This could happen if the currentMotionMode is wrong.
-        if (split == null) {
-            throw new GcodeParserException("Invalid state attached to command, please notify the developers.");
-        }
+            // Check if we need to add the motion command back in.
+            if (!hasMotionCode) {
+                result.append(state.currentMotionMode.toString());
+            }
 
-        StringBuilder result = new StringBuilder();
-        result.append("F").append(state.feedRate);
-        result.append("S").append(state.spindleSpeed);
+            // Add the motion command, this could fail if the currentMotionMode is wrong.
+            if (!extractMotion(code, tokens, result, null)) {
+                throw new GcodeParserException("Invalid state attached to command, please notify the developers.");
+            }
 
-        // Check if we need to add the motion command back in.
-        if (!gCodes.contains(code)) {
-            result.append(state.currentMotionMode.toString());
+            return result.toString();
         }
-
-        // Add the motion command
-        result.append(split.extracted);
-
-        return result.toString();
     }
 
     public static class SplitCommand {
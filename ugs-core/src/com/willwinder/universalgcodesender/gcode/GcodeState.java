@@ -67,6 +67,8 @@ public class GcodeState {
 
     // Misc
     public double spindleSpeed = 0;
+
+    // Shared between copies of the state, assign a new position instead of modifying it
     public Position currentPoint = null;
     public int commandNumber = 0;
 
@@ -83,36 +85,45 @@ public class GcodeState {
         this.currentPoint = new Position(Double.NaN, Double.NaN, Double.NaN, Double.NaN, Double.NaN, Double.NaN, Units.MM);
     }
 
-    public GcodeState copy() {
-        GcodeState ret = new GcodeState();
-        ret.currentMotionMode = currentMotionMode;
-        ret.plane = plane;
+    private GcodeState(GcodeState other) {
+        currentMotionMode = other.currentMotionMode;
+        plane = other.plane;
 
-        ret.inAbsoluteMode = inAbsoluteMode;
-        ret.distanceMode = distanceMode;
+        inAbsoluteMode = other.inAbsoluteMode;
+        distanceMode = other.distanceMode;
 
-        ret.inAbsoluteIJKMode = inAbsoluteIJKMode;
-        ret.arcDistanceMode = arcDistanceMode;
+        inAbsoluteIJKMode = other.inAbsoluteIJKMode;
+        arcDistanceMode = other.arcDistanceMode;
 
-        ret.feedMode = feedMode;
+        feedMode = other.feedMode;
 
-        ret.isMetric = isMetric;
-        ret.units = units;
+        isMetric = other.isMetric;
+        units = other.units;
 
-        ret.feedRate = feedRate;
-        ret.spindleSpeed = spindleSpeed;
+        feedRate = other.feedRate;
+        spindleSpeed = other.spindleSpeed;
 
-        ret.offset = offset;
+        offset = other.offset;
 
-        ret.spindle = spindle;
+        spindle = other.spindle;
 
-        ret.coolant = coolant;
+        coolant = other.coolant;
 
-        if (currentPoint != null) {
-            ret.currentPoint = new Position(currentPoint.x, currentPoint.y, currentPoint.z, currentPoint.a, currentPoint.b, currentPoint.c, getUnits());
+        currentPoint = other.currentPoint;
+        if (currentPoint != null && currentPoint.getUnits() != getUnits()) {
+            currentPoint = new Position(currentPoint.x, currentPoint.y, currentPoint.z, currentPoint.a, currentPoint.b, currentPoint.c, getUnits());
         }
-        ret.commandNumber = commandNumber;
-        return ret;
+        commandNumber = other.commandNumber;
+    }
+
+    /**
+     * Creates a copy of the state. The copy shares the current point with this state, which is why the
+     * point should be replaced instead of modified when updating the state.
+     *
+     * @return a copy of the state
+     */
+    public GcodeState copy() {
+        return new GcodeState(this);
     }
 
     /**
@@ -0,0 +1,142 @@
+/*
+    Copyright 2026 agent
+
+    This file is part of Universal Gcode Sender (UGS).
+
+    UGS is free software: you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    UGS is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with UGS.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.willwinder.universalgcodesender.gcode;
+
+import com.willwinder.universalgcodesender.gcode.processors.RunFromProcessor;
+import com.willwinder.universalgcodesender.gcode.util.GcodeParserException;
+import com.willwinder.universalgcodesender.gcode.util.GcodeParserUtils;
+import com.willwinder.universalgcodesender.utils.ISeekableGcodeStreamReader;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * An index of the gcode state at regular intervals in a processed gcode stream. The state before any row can be
+ * restored by replaying the rows from the closest checkpoint, which makes it possible to run a program from a given
+ * line without processing it again.
+ * <p>
+ * The rows are added in order while the stream is written, see
+ * {@link com.willwinder.universalgcodesender.utils.GcodeStateIndexWriter}.
+ *
+ * @author agent
+ */
+public class GcodeStateIndex {
+    public static final int DEFAULT_INTERVAL = 10000;
+    private static final Logger LOGGER = Logger.getLogger(GcodeStateIndex.class.getName());
+
+    private final int interval;
+    private final List<Checkpoint> checkpoints = new ArrayList<>();
+    private GcodeState state = new GcodeState();
+    private double clearanceHeight = 0;
+    private int rowCount = 0;
+
+    public GcodeStateIndex() {
+        this(DEFAULT_INTERVAL);
+    }
+
+    /**
+     * @param interval the number of rows between each checkpoint
+     */
+    public GcodeStateIndex(int interval) {
+        this.interval = interval;
+    }
+
+    /**
+     * Adds the next row of the stream
+     *
+     * @param command the processed command of the row
+     * @return the parsed commands of the row which may be empty
+     */
+    public List<GcodeParser.GcodeMeta> addCommand(String command) {
+        if (rowCount % interval == 0) {
+            checkpoints.add(new Checkpoint(rowCount, state.copy(), clearanceHeight));
+        }
+
+        List<GcodeParser.GcodeMeta> metaObjects = parseCommand(state, command);
+        state = getLastState(state, metaObjects);
+        clearanceHeight = RunFromProcessor.updateClearanceHeight(clearanceHeight, state.currentPoint);
+        rowCount++;
+        return metaObjects;
+    }
+
+    /**
+     * @return the number of rows added to the index
+     */
+    public int getRowCount() {
+        return rowCount;
+    }
+
+    /**
+     * Returns the state before the given row by replaying the rows from the closest checkpoint.
+     *
+     * @param row    the zero based row index
+     * @param reader a reader for the stream that was indexed
+     * @return the state before the row
+     * @throws IOException if the rows couldn't be read
+     */
+    public Checkpoint getState(int row, ISeekableGcodeStreamReader reader) throws IOException {
+        if (row < 0 || row > rowCount) {
+            throw new IndexOutOfBoundsException("Row " + row + " is outside the index with " + rowCount + " rows");
+        }
+
+        Checkpoint checkpoint = checkpoints.isEmpty() ? new Checkpoint(0, new GcodeState(), 0) : checkpoints.get(Math.min(row / interval, checkpoints.size() - 1));
+        GcodeState currentState = checkpoint.state().copy();
+        double currentClearanceHeight = checkpoint.clearanceHeight();
+        for (int i = checkpoint.row(); i < row; i++) {
+            currentState = getLastState(currentState, parseCommand(currentState, reader.getCommand(i).getCommandString()));
+            currentClearanceHeight = RunFromProcessor.updateClearanceHeight(currentClearanceHeight, currentState.currentPoint);
+        }
+        return new Checkpoint(row, currentState, currentClearanceHeight);
+    }
+
+    private static List<GcodeParser.GcodeMeta> parseCommand(GcodeState state, String command) {
+        try {
+            List<GcodeParser.GcodeMeta> metaObjects = GcodeParserUtils.processCommand(command, state.commandNumber + 1, state, true);
+            if (metaObjects != null) {
+                return metaObjects;
+            }
+        } catch (GcodeParserException e) {
+            LOGGER.log(Level.FINE, e, () -> "Could not parse the command \"" + command + "\", keeping the previous state");
+        }
+        return Collections.emptyList();
+    }
+
+    private static GcodeState getLastState(GcodeState state, List<GcodeParser.GcodeMeta> metaObjects) {
+        for (GcodeParser.GcodeMeta meta : metaObjects) {
+            if (meta.state != null) {
+                state = meta.state;
+            }
+        }
+        return state;
+    }
+
+    /**
+     * The gcode state before a row
+     *
+     * @param row             the zero based row index
+     * @param state           the state after all previous rows
+     * @param clearanceHeight the highest Z position of all previous rows
+     */
+    public record Checkpoint(int row, GcodeState state, double clearanceHeight) {
+    }
+}
@@ -0,0 +1,619 @@
+/*
+    Copyright 2026 agent
+
+    This file is part of Universal Gcode Sender (UGS).
+
+    UGS is free software: you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    UGS is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with UGS.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.willwinder.universalgcodesender.gcode;
+
+import com.willwinder.universalgcodesender.firmware.FirmwareSettingsException;
+import com.willwinder.universalgcodesender.firmware.IFirmwareSettings;
+import com.willwinder.universalgcodesender.gcode.util.Code;
+import com.willwinder.universalgcodesender.gcode.util.GcodeTokenizer;
+import com.willwinder.universalgcodesender.gcode.util.Plane;
+import com.willwinder.universalgcodesender.model.Axis;
+import com.willwinder.universalgcodesender.model.Position;
+import com.willwinder.universalgcodesender.types.PointSegment;
+import com.willwinder.universalgcodesender.utils.IGcodeStreamReader;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Estimates the run time of a gcode program by simulating the motion planner of a GRBL like controller. The moves
+ * are planned with trapezoidal velocity profiles limited by the axis max rates and accelerations, the junction
+ * deviation between moves and a planner buffer of limited size.
+ * <p>
+ * The rows are added in order while the processed stream is written, see
+ * {@link com.willwinder.universalgcodesender.utils.GcodeStateIndexWriter}, and {@link #finish()} is called after the
+ * last row. The time at which each row has completed is stored relative to the start of a chunk of rows as a float
+ * to keep the index small for large programs.
+ *
+ * @author agent
+ */
+public class RunTimeEstimator {
+    public static final int DEFAULT_PLANNER_BLOCKS = 16;
+    private static final int CHUNK_SIZE = 4096;
+    private static final double MINIMUM_BLOCK_LENGTH = 0.000001;
+    private static final double MM_PER_INCH = 25.4;
+    private static final int[] XY_AXES = {0, 1, 2};
+    private static final int[] ZX_AXES = {2, 0, 1};
+    private static final int[] YZ_AXES = {1, 2, 0};
+
+    private final MachineLimits limits;
+    private final int plannerBlocks;
+
+    // The blocks in the planner in ring buffers starting at plannerTail, the speeds are squared
+    private final double[] blockLength;
+    private final double[] blockAcceleration;
+    private final double[] blockNominalSpeedSqr;
+    private final double[] blockMaxEntrySpeedSqr;
+    private final double[] blockEntrySpeedSqr;
+    private int plannerTail;
+    private int plannerCount;
+    private long addedBlocks;
+    private long executedBlocks;
+
+    private final double[] position = {Double.NaN, Double.NaN, Double.NaN};
+    private final double[] target = new double[3];
+    private final double[] previousDirection = new double[3];
+    private final double[] startDirection = new double[3];
+    private final double[] endDirection = new double[3];
+    private double time;
+
+    // The completion time of each row, stored in chunks relative to the time at the start of the chunk
+    private final List<float[]> chunks = new ArrayList<>();
+    private double[] chunkStartTimes = new double[16];
+    private int rowCount;
+    private int resolvedRows;
+
+    // The number of added blocks when each unresolved row was added, the row is resolved once they are executed
+    private long[] pendingRows = new long[64];
+    private int pendingHead;
+    private boolean finished;
+
+    public RunTimeEstimator(MachineLimits limits) {
+        this(limits, DEFAULT_PLANNER_BLOCKS);
+    }
+
+    /**
+     * @param limits         the limits of the machine
+     * @param plannerBlocks  the number of moves in the planner buffer of the controller
+     */
+    public RunTimeEstimator(MachineLimits limits, int plannerBlocks) {
+        if (plannerBlocks < 2) {
+            throw new IllegalArgumentException("The planner needs at least two blocks");
+        }
+
+        this.limits = limits;
+        this.plannerBlocks = plannerBlocks;
+        blockLength = new double[plannerBlocks];
+        blockAcceleration = new double[plannerBlocks];
+        blockNominalSpeedSqr = new double[plannerBlocks];
+        blockMaxEntrySpeedSqr = new double[plannerBlocks];
+        blockEntrySpeedSqr = new double[plannerBlocks];
+    }
+
+    /**
+     * Estimates the run time of an already processed stream, this is needed if the limits of the machine have
+     * changed since the stream was processed.
+     *
+     * @param reader the reader of the processed stream
+     * @param limits the limits of the machine
+     * @return the finished estimate
+     * @throws IOException if the stream couldn't be read
+     */
+    public static RunTimeEstimator estimate(IGcodeStreamReader reader, MachineLimits limits) throws IOException {
+        RunTimeEstimator estimator = new RunTimeEstimator(limits);
+        GcodeStateIndex stateIndex = new GcodeStateIndex();
+        while (reader.getNumRowsRemaining() > 0) {
+            estimator.addRow(stateIndex.addCommand(reader.getNextCommand().getCommandString()));
+        }
+        estimator.finish();
+        return estimator;
+    }
+
+    /**
+     * Adds the next row of the stream
+     *
+     * @param metaObjects the parsed commands of the row, see
+     *                    {@link com.willwinder.universalgcodesender.gcode.util.GcodeParserUtils#processCommand}
+     */
+    public void addRow(List<GcodeParser.GcodeMeta> metaObjects) {
+        if (finished) {
+            throw new IllegalStateException("Can not add rows after the estimate has been finished");
+        }
+
+        if (metaObjects != null) {
+            for (GcodeParser.GcodeMeta meta : metaObjects) {
+                if (meta.point != null) {
+                    addMove(meta.point, meta.state);
+                } else if (meta.code == Code.G4) {
+                    addDwell(meta.command);
+                }
+            }
+        }
+
+        int pendingCount = rowCount - resolvedRows;
+        if (pendingCount == pendingRows.length) {
+            long[] rows = new long[pendingRows.length * 2];
+            for (int i = 0; i < pendingCount; i++) {
+                rows[i] = pendingRows[(pendingHead + i) % pendingRows.length];
+            }
+            pendingRows = rows;
+            pendingHead = 0;
+        }
+        pendingRows[(pendingHead + pendingCount) % pendingRows.length] = addedBlocks;
+        rowCount++;
+        resolveRows();
+    }
+
+    /**
+     * Executes all moves remaining in the planner, this needs to be called after the last row has been added.
+     */
+    public void finish() {
+        if (!finished) {
+            flushPlanner();
+            finished = true;
+        }
+    }
+
+    /**
+     * @return the limits of the machine used for the estimate
+     */
+    public MachineLimits getMachineLimits() {
+        return limits;
+    }
+
+    /**
+     * @return the number of rows added to the estimate
+     */
+    public int getRowCount() {
+        return rowCount;
+    }
+
+    /**
+     * @return the estimated time in seconds to run all rows
+     */
+    public double getTotalTime() {
+        return getElapsedTime(resolvedRows);
+    }
+
+    /**
+     * Returns the estimated time in seconds until a number of rows has been completed
+     *
+     * @param rows the number of rows from the start of the stream
+     * @return the time in seconds
+     */
+    public double getElapsedTime(int rows) {
+        if (rows < 0 || rows > resolvedRows) {
+            throw new IndexOutOfBoundsException("Row " + rows + " is outside the estimate with " + resolvedRows + " rows");
+        }
+
+        if (rows == 0) {
+            return 0;
+        }
+
+        int row = rows - 1;
+        int chunk = row / CHUNK_SIZE;
+        return chunkStartTimes[chunk] + chunks.get(chunk)[row % CHUNK_SIZE];
+    }
+
+    /**
+     * Returns the number of rows that are estimated to be completed at the given time
+     *
+     * @param seconds the time in seconds since the start of the stream
+     * @return the number of completed rows
+     */
+    public int getCompletedRows(double seconds) {
+        int low = 0;
+        int high = resolvedRows;
+        while (low < high) {
+            int middle = (low + high + 1) >>> 1;
+            if (getElapsedTime(middle) <= seconds) {
+                low = middle;
+            } else {
+                high = middle - 1;
+            }
+        }
+        return low;
+    }
+
+    private void addMove(PointSegment segment, GcodeState state) {
+        double scale = segment.isMetric() ? 1 : MM_PER_INCH;
+        Position end = segment.point();
+        target[0] = end.x * scale;
+        target[1] = end.y * scale;
+        target[2] = end.z * scale;
+
+        if (segment.isArc() && getPlaneAxes(segment.getPlaneState()) != null) {
+            addArc(segment, state, scale);
+        } else {
+            addLine(segment, state);
+        }
+
+        for (int i = 0; i < 3; i++) {
+            if (!Double.isNaN(target[i])) {
+                position[i] = target[i];
+            }
+        }
+    }
+
+    private void addLine(PointSegment segment, GcodeState state) {
+        double length = 0;
+        for (int i = 0; i < 3; i++) {
+            double delta = getDelta(position[i], target[i]);
+            startDirection[i] = delta;
+            length += delta * delta;
+        }
+
+        length = Math.sqrt(length);
+        if (length < MINIMUM_BLOCK_LENGTH) {
+            return;
+        }
+
+        double maxSpeed = Double.MAX_VALUE;
+        double acceleration = Double.MAX_VALUE;
+        for (int i = 0; i < 3; i++) {
+            startDirection[i] /= length;
+            double component = Math.abs(startDirection[i]);
+            if (component > 0) {
+                maxSpeed = Math.min(maxSpeed, limits.getMaxRate(i) / 60.0 / component);
+                acceleration = Math.min(acceleration, limits.getAcceleration(i) / component);
+            }
+        }
+
+        boolean isRapid = segment.isFastTraverse() && !segment.isProbe();
+        double speed = isRapid ? maxSpeed : Math.min(maxSpeed, getFeedSpeed(segment, state, length));
+        System.arraycopy(startDirection, 0, endDirection, 0, 3);
+        addBlock(length, speed, acceleration);
+    }
+
+    private void addArc(PointSegment segment, GcodeState state, double scale) {
+        int[] axes = getPlaneAxes(segment.getPlaneState());
+        int axis0 = axes[0];
+        int axis1 = axes[1];
+        int linearAxis = axes[2];
+        Position center = segment.center();
+        double[] centerPoint = {center.x * scale, center.y * scale, center.z * scale};
+        if (Double.isNaN(position[axis0]) || Double.isNaN(position[axis1]) || Double.isNaN(target[axis0]) || Double.isNaN(target[axis1])) {
+            addLine(segment, state);
+            return;
+        }
+
+        double startAngle = Math.atan2(position[axis1] - centerPoint[axis1], position[axis0] - centerPoint[axis0]);
+        double endAngle = Math.atan2(target[axis1] - centerPoint[axis1], target[axis0] - centerPoint[axis0]);
+        double sweep = endAngle - startAngle;
+        if (segment.isClockwise() && sweep >= 0) {
+            sweep -= 2 * Math.PI;
+        } else if (!segment.isClockwise() && sweep <= 0) {
+            sweep += 2 * Math.PI;
+        }
+
+        double radius = Math.hypot(position[axis0] - centerPoint[axis0], position[axis1] - centerPoint[axis1]);
+        double planarLength = Math.abs(sweep) * radius;
+        double linearLength = getDelta(position[linearAxis], target[linearAxis]);
+        double length = Math.hypot(planarLength, linearLength);
+        if (length < MINIMUM_BLOCK_LENGTH) {
+            return;
+        }
+
+        // The direction of travel is the tangent of the arc at the start and the end
+        double direction = segment.isClockwise() ? -1 : 1;
+        setArcDirection(startDirection, axes, startAngle, direction * planarLength / length, linearLength / length);
+        setArcDirection(endDirection, axes, endAngle, direction * planarLength / length, linearLength / length);
+
+        // The velocity turns through the plane, so it is limited by both plane axes and the centripetal acceleration
+        double maxSpeed = Math.min(limits.getMaxRate(axis0), limits.getMaxRate(axis1)) / 60.0;
+        double acceleration = Math.min(limits.getAcceleration(axis0), limits.getAcceleration(axis1));
+        if (linearLength != 0) {
+            double component = Math.abs(linearLength / length);
+            maxSpeed = Math.min(maxSpeed, limits.getMaxRate(linearAxis) / 60.0 / component);
+            acceleration = Math.min(acceleration, limits.getAcceleration(linearAxis) / component);
+        }
+        maxSpeed = Math.min(maxSpeed, Math.sqrt(acceleration * radius));
+
+        addBlock(length, Math.min(maxSpeed, getFeedSpeed(segment, state, length)), acceleration);
+    }
+
+    private static void setArcDirection(double[] result, int[] axes, double angle, double planarComponent, double linearComponent) {
+        result[axes[0]] = -Math.sin(angle) * planarComponent;
+        result[axes[1]] = Math.cos(angle) * planarComponent;
+        result[axes[2]] = linearComponent;
+    }
+
+    /**
+     * Returns the indexes of the first, second and linear axis of a plane
+     */
+    private static int[] getPlaneAxes(Plane plane) {
+        if (plane == null) {
+            return XY_AXES;
+        }
+
+        switch (plane) {
+            case XY:
+                return XY_AXES;
+            case ZX:
+                return ZX_AXES;
+            case YZ:
+                return YZ_AXES;
+            default:
+                return null;
+        }
+    }
+
+    /**
+     * @return the programmed feed speed in mm/s
+     */
+    private static double getFeedSpeed(PointSegment segment, GcodeState state, double length) {
+        double feedRate = segment.getFeedRate();
+        if (state != null && state.feedMode == Code.G93) {
+            // Inverse time mode, the move should be completed in 1/F minutes
+            return length * feedRate / 60.0;
+        }
+        return feedRate * (segment.isMetric() ? 1 : MM_PER_INCH) / 60.0;
+    }
+
+    private static double getDelta(double from, double to) {
+        if (Double.isNaN(from) || Double.isNaN(to)) {
+            return 0;
+        }
+        return to - from;
+    }
+
+    private void addDwell(String command) {
+        flushPlanner();
+        try (GcodeTokenizer tokens = GcodeTokenizer.tokenize(command)) {
+            double seconds = tokens.getValue('P');
+            if (!Double.isNaN(seconds) && seconds > 0) {
+                time += seconds;
+            }
+        }
+    }
+
+    /**
+     * Adds a block to the planner and plans the speeds of all blocks in the planner. If the planner is full
+     * the oldest block is executed first.
+     *
+     * @param length       the length of the move in mm
+     * @param nominalSpeed the speed in mm/s
+     * @param acceleration the acceleration in mm/s^2
+     */
+    private void addBlock(double length, double nominalSpeed, double acceleration) {
+        if (nominalSpeed <= 0 || acceleration <= 0) {
+            // The controller would reject a move without a feed rate
+            return;
+        }
+
+        if (plannerCount == plannerBlocks) {
+            executeOldestBlock();
+        }
+
+        double nominalSpeedSqr = nominalSpeed * nominalSpeed;
+        double maxEntrySpeedSqr = 0;
+        if (plannerCount > 0) {
+            int previous = getBlockIndex(plannerCount - 1);
+            double junctionAcceleration = Math.min(acceleration, blockAcceleration[previous]);
+            maxEntrySpeedSqr = Math.min(getJunctionSpeedSqr(junctionAcceleration),
+                    Math.min(nominalSpeedSqr, blockNominalSpeedSqr[previous]));
+        }
+
+        int index = getBlockIndex(plannerCount);
+        blockLength[index] = length;
+        blockAcceleration[index] = acceleration;
+        blockNominalSpeedSqr[index] = nominalSpeedSqr;
+        blockMaxEntrySpeedSqr[index] = maxEntrySpeedSqr;
+        blockEntrySpeedSqr[index] = maxEntrySpeedSqr;
+        plannerCount++;
+        addedBlocks++;
+        System.arraycopy(endDirection, 0, previousDirection, 0, 3);
+
+        recalculate();
+    }
+
+    /**
+     * The max speed through the junction between the previous and the next block using the junction deviation
+     * as described in https://onehossshay.wordpress.com/2011/09/24/improving_grbl_cornering_algorithm/
+     */
+    private double getJunctionSpeedSqr(double acceleration) {
+        double cosTheta = 0;
+        for (int i = 0; i < 3; i++) {
+            cosTheta -= previousDirection[i] * startDirection[i];
+        }
+
+        if (cosTheta > 0.999999) {
+            // The direction is reversed
+            return 0;
+        }
+
+        if (cosTheta < -0.999999) {
+            // A straight line
+            return Double.MAX_VALUE;
+        }
+
+        double sinThetaHalf = Math.sqrt(0.5 * (1.0 - cosTheta));
+        return (acceleration * limits.junctionDeviation() * sinThetaHalf) / (1.0 - sinThetaHalf);
+    }
+
+    /**
+     * Plans the entry speeds of the blocks in the planner. The last block needs to be able to stop at its end
+     * and the entry speed of the oldest block is fixed as the block before it has already been executed.
+     */
+    private void recalculate() {
+        double nextEntrySpeedSqr = 0;
+        for (int i = plannerCount - 1; i > 0; i--) {
+            int index = getBlockIndex(i);
+            double entrySpeedSqr = nextEntrySpeedSqr + 2 * blockAcceleration[index] * blockLength[index];
+            blockEntrySpeedSqr[index] = Math.min(blockMaxEntrySpeedSqr[index], entrySpeedSqr);
+            nextEntrySpeedSqr = blockEntrySpeedSqr[index];
+        }
+
+        for (int i = 0; i < plannerCount - 1; i++) {
+            int index = getBlockIndex(i);
+            int next = getBlockIndex(i + 1);
+            double exitSpeedSqr = blockEntrySpeedSqr[index] + 2 * blockAcceleration[index] * blockLength[index];
+            if (blockEntrySpeedSqr[next] > exitSpeedSqr) {
+                blockEntrySpeedSqr[next] = exitSpeedSqr;
+            }
+        }
+    }
+
+    private void executeOldestBlock() {
+        int index = plannerTail;
+        double exitSpeedSqr = plannerCount > 1 ? blockEntrySpeedSqr[getBlockIndex(1)] : 0;
+        time += getTrapezoidTime(blockLength[index], blockEntrySpeedSqr[index], exitSpeedSqr,
+                blockNominalSpeedSqr[index], blockAcceleration[index]);
+
+        plannerTail = (plannerTail + 1) % plannerBlocks;
+        plannerCount--;
+        executedBlocks++;
+        resolveRows();
+    }
+
+    private void flushPlanner() {
+        while (plannerCount > 0) {
+            executeOldestBlock();
+        }
+        Arrays.fill(previousDirection, 0);
+        resolveRows();
+    }
+
+    /**
+     * Returns the time of a move which accelerates from the entry speed to the nominal speed, cruises and then
+     * decelerates to the exit speed. If the move is too short to reach the nominal speed it will start to decelerate
+     * before reaching it.
+     */
+    static double getTrapezoidTime(double length, double entrySpeedSqr, double exitSpeedSqr, double nominalSpeedSqr, double acceleration) {
+        double entrySpeed = Math.sqrt(entrySpeedSqr);
+        double exitSpeed = Math.sqrt(exitSpeedSqr);
+        double accelerateDistance = (nominalSpeedSqr - entrySpeedSqr) / (2 * acceleration);
+        double decelerateDistance = (nominalSpeedSqr - exitSpeedSqr) / (2 * acceleration);
+        if (accelerateDistance + decelerateDistance <= length) {
+            double nominalSpeed = Math.sqrt(nominalSpeedSqr);
+            return (nominalSpeed - entrySpeed) / acceleration + (nominalSpeed - exitSpeed) / acceleration +
+                    (length - accelerateDistance - decelerateDistance) / nominalSpeed;
+        }
+
+        double peakSpeedSqr = Math.max((2 * acceleration * length + entrySpeedSqr + exitSpeedSqr) / 2, Math.max(entrySpeedSqr, exitSpeedSqr));
+        double peakSpeed = Math.sqrt(peakSpeedSqr);
+        return (peakSpeed - entrySpeed) / acceleration + (peakSpeed - exitSpeed) / acceleration;
+    }
+
+    private int getBlockIndex(int offset) {
+        return (plannerTail + offset) % plannerBlocks;
+    }
+
+    /**
+     * Sets the completion time of all rows whose blocks have been executed
+     */
+    private void resolveRows() {
+        while (resolvedRows < rowCount && pendingRows[pendingHead] <= executedBlocks) {
+            setRowTime(resolvedRows, time);
+            resolvedRows++;
+            pendingHead = (pendingHead + 1) % pendingRows.length;
+        }
+    }
+
+    private void setRowTime(int row, double rowTime) {
+        int chunk = row / CHUNK_SIZE;
+        if (chunk == chunks.size()) {
+            chunks.add(new float[CHUNK_SIZE]);
+            if (chunk == chunkStartTimes.length) {
+                chunkStartTimes = Arrays.copyOf(chunkStartTimes, chunkStartTimes.length * 2);
+            }
+            chunkStartTimes[chunk] = rowTime;
+        }
+        chunks.get(chunk)[row % CHUNK_SIZE] = (float) (rowTime - chunkStartTimes[chunk]);
+    }
+
+    /**
+     * The limits of a machine
+     *
+     * @param maxRateX          the max rate of the X axis in mm/min
+     * @param maxRateY          the max rate of the Y axis in mm/min
+     * @param maxRateZ          the max rate of the Z axis in mm/min
+     * @param accelerationX     the acceleration of the X axis in mm/s^2
+     * @param accelerationY     the acceleration of the Y axis in mm/s^2
+     * @param accelerationZ     the acceleration of the Z axis in mm/s^2
+     * @param junctionDeviation the junction deviation in mm
+     */
+    public record MachineLimits(double maxRateX, double maxRateY, double maxRateZ,
+                                double accelerationX, double accelerationY, double accelerationZ,
+                                double junctionDeviation) {
+
+        /**
+         * Limits used for the settings the controller doesn't report, roughly a hobby CNC router
+         */
+        public static final MachineLimits DEFAULT = new MachineLimits(3000, 3000, 1000, 200, 200, 100, 0.01);
+
+        /**
+         * Returns the limits from the firmware settings, using the default for any setting that is unknown
+         *
+         * @param firmwareSettings the firmware settings or null if not connected
+         * @return the machine limits
+         */
+        public static MachineLimits fromFirmwareSettings(IFirmwareSettings firmwareSettings) {
+            if (firmwareSettings == null) {
+                return DEFAULT;
+            }
+
+            return new MachineLimits(
+                    getMaxRate(firmwareSettings, Axis.X, DEFAULT.maxRateX),
+                    getMaxRate(firmwareSettings, Axis.Y, DEFAULT.maxRateY),
+                    getMaxRate(firmwareSettings, Axis.Z, DEFAULT.maxRateZ),
+                    getAcceleration(firmwareSettings, Axis.X, DEFAULT.accelerationX),
+                    getAcceleration(firmwareSettings, Axis.Y, DEFAULT.accelerationY),
+                    getAcceleration(firmwareSettings, Axis.Z, DEFAULT.accelerationZ),
+                    getJunctionDeviation(firmwareSettings));
+        }
+
+        private static double getMaxRate(IFirmwareSettings firmwareSettings, Axis axis, double defaultValue) {
+            try {
+                double value = firmwareSettings.getMaximumRate(axis);
+                return value > 0 ? value : defaultValue;
+            } catch (FirmwareSettingsException e) {
+                return defaultValue;
+            }
+        }
+
+        private static double getAcceleration(IFirmwareSettings firmwareSettings, Axis axis, double defaultValue) {
+            try {
+                double value = firmwareSettings.getAcceleration(axis);
+                return value > 0 ? value : defaultValue;
+            } catch (FirmwareSettingsException e) {
+                return defaultValue;
+            }
+        }
+
+        private static double getJunctionDeviation(IFirmwareSettings firmwareSettings) {
+            try {
+                double value = firmwareSettings.getJunctionDeviation();
+                return value > 0 ? value : DEFAULT.junctionDeviation;
+            } catch (FirmwareSettingsException e) {
+                return DEFAULT.junctionDeviation;
+            }
+        }
+
+        private double getMaxRate(int axis) {
+            return axis == 0 ? maxRateX : axis == 1 ? maxRateY : maxRateZ;
+        }
+
+        private double getAcceleration(int axis) {
+            return axis == 0 ? accelerationX : axis == 1 ? accelerationY : accelerationZ;
+        }
+    }
+}
@@ -19,6 +19,7 @@
 package com.willwinder.universalgcodesender.gcode.processors;
 
 import com.google.common.collect.Iterables;
+import com.google.gson.JsonObject;
 import com.willwinder.universalgcodesender.gcode.GcodeParser.GcodeMeta;
 import com.willwinder.universalgcodesender.gcode.GcodePreprocessorUtils;
 import com.willwinder.universalgcodesender.gcode.GcodePreprocessorUtils.SplitCommand;
@@ -48,6 +49,11 @@ public class ArcExpander implements CommandProcessor {
     private final double length;
     private final DecimalFormat df;
 
+    /**
+     * A DecimalFormat isn't thread safe, each thread gets its own copy of the configured formatter.
+     */
+    private final ThreadLocal<DecimalFormat> threadFormatter;
+
     @Override
     public String getHelp() {
         return Localization.getString("sender.help.arcs") + "\n"
@@ -55,6 +61,20 @@ public class ArcExpander implements CommandProcessor {
                 + ": " + df.format(length);
     }
 
+    @Override
+    public String getConfiguration() {
+        JsonObject args = new JsonObject();
+        args.addProperty("convertToLines", convertToLines);
+        args.addProperty("segmentLengthMM", length);
+        args.addProperty("format", df.toPattern());
+        return args.toString();
+    }
+
+    @Override
+    public boolean isThreadSafe() {
+        return true;
+    }
+
     /**
      * @param convertToLines toggles if smaller lines or arcs are returned.
      * @param length the length of each smaller segment.
@@ -65,6 +85,7 @@ public class ArcExpander implements CommandProcessor {
 
         // Setup decimal formatter
         df = new DecimalFormat("#.#########", Localization.dfs);
+        threadFormatter = ThreadLocal.withInitial(() -> (DecimalFormat) df.clone());
     }
 
     /**
@@ -75,6 +96,7 @@ public class ArcExpander implements CommandProcessor {
         this.convertToLines = convertToLines;
         this.length = length;
         this.df = df;
+        this.threadFormatter = ThreadLocal.withInitial(() -> (DecimalFormat) df.clone());
     }
 
     @Override
@@ -115,7 +137,7 @@ public class ArcExpander implements CommandProcessor {
 
         if (convertToLines) {
             for (Position point : points) {
-                results.add(GcodePreprocessorUtils.generateLineFromPoints(G1, start, point, state.inAbsoluteMode, df));
+                results.add(GcodePreprocessorUtils.generateLineFromPoints(G1, start, point, state.inAbsoluteMode, threadFormatter.get()));
                 start = point;
             }
         } else {
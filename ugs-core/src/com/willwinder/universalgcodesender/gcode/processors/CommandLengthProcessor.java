@@ -21,6 +21,7 @@
  */
 package com.willwinder.universalgcodesender.gcode.processors;
 
+import com.google.gson.JsonObject;
 import com.willwinder.universalgcodesender.gcode.util.GcodeParserException;
 import com.willwinder.universalgcodesender.gcode.GcodeState;
 import com.willwinder.universalgcodesender.i18n.Localization;
@@ -44,6 +45,18 @@ public class CommandLengthProcessor implements CommandProcessor {
                 + ": " + length;
     }
 
+    @Override
+    public String getConfiguration() {
+        JsonObject args = new JsonObject();
+        args.addProperty("commandLength", length);
+        return args.toString();
+    }
+
+    @Override
+    public boolean isThreadSafe() {
+        return true;
+    }
+
     @Override
     public List<String> processCommand(String command, GcodeState state) throws GcodeParserException {
         if (command.length() > length)
@@ -45,8 +45,30 @@ public interface CommandProcessor {
      */
     String getHelp();
 
+    /**
+     * Returns the settings of the processor which affects the processed commands, a file processed earlier with
+     * the same processor is only reused while its configuration is unchanged.
+     *
+     * @return the configuration of the processor or null if it is unknown, which prevents the processed file
+     * from being reused
+     */
+    default String getConfiguration() {
+        return null;
+    }
+
     /**
      * Called before a new file is processed to allow the processor to reset any state about the processed file.
      */
     default void reset() {}
+
+    /**
+     * Returns true if the processor only depends on the given command and state and can be called from several
+     * threads at once. This allows a file to be preprocessed in parallel chunks, processors which keep state
+     * between commands must return false.
+     *
+     * @return true if the processor can be used to process commands in parallel
+     */
+    default boolean isThreadSafe() {
+        return false;
+    }
 }
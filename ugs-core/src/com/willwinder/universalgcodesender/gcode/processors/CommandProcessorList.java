@@ -7,6 +7,7 @@ import com.willwinder.universalgcodesender.gcode.util.GcodeParserException;
 
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Spliterator;
@@ -32,8 +33,20 @@ public class CommandProcessorList implements CommandProcessor, Iterable<CommandP
      */
     @Override
     public List<String> processCommand(String command, final GcodeState initialState) throws GcodeParserException {
-        List<String> ret = new ArrayList<>();
-        ret.add(command);
+        return processCommands(Collections.singletonList(command), initialState);
+    }
+
+    /**
+     * Applies all command processors to the commands that a preceding list of processors created from a single
+     * command. This gives the same result as adding the processors to the end of the preceding list and calling
+     * {@link #processCommand(String, GcodeState)} with the original command.
+     *
+     * @param commands     the commands created by the preceding processors
+     * @param initialState the state before the original command was applied
+     * @return the resulting commands
+     */
+    public List<String> processCommands(List<String> commands, final GcodeState initialState) throws GcodeParserException {
+        List<String> ret = new ArrayList<>(commands);
         GcodeState tempState;
         for (CommandProcessor p : commandProcessors) {
             // Reset point segments after each pass. The final pass is what we will return.
@@ -64,6 +77,24 @@ public class CommandProcessorList implements CommandProcessor, Iterable<CommandP
         return "Combines several processors and runs them in sequence";
     }
 
+    @Override
+    public String getConfiguration() {
+        StringBuilder configuration = new StringBuilder();
+        for (CommandProcessor processor : commandProcessors) {
+            String processorConfiguration = processor.getConfiguration();
+            if (processorConfiguration == null) {
+                return null;
+            }
+            configuration.append(processor.getClass().getName()).append(processorConfiguration);
+        }
+        return configuration.toString();
+    }
+
+    @Override
+    public boolean isThreadSafe() {
+        return commandProcessors.stream().allMatch(CommandProcessor::isThreadSafe);
+    }
+
     /**
      * Helper to statically process the next step in a program without modifying the parser.
      */
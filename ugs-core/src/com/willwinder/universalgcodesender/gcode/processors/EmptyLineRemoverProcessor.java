@@ -45,4 +45,14 @@ public class EmptyLineRemoverProcessor implements CommandProcessor {
     public String getHelp() {
         return Localization.getString("sender.help.empty-line-remover");
     }
+
+    @Override
+    public String getConfiguration() {
+        return "";
+    }
+
+    @Override
+    public boolean isThreadSafe() {
+        return true;
+    }
 }
@@ -21,6 +21,7 @@
  */
 package com.willwinder.universalgcodesender.gcode.processors;
 
+import com.google.gson.JsonObject;
 import com.willwinder.universalgcodesender.gcode.GcodePreprocessorUtils;
 import com.willwinder.universalgcodesender.gcode.GcodeState;
 import com.willwinder.universalgcodesender.i18n.Localization;
@@ -46,6 +47,18 @@ public class FeedOverrideProcessor implements CommandProcessor {
                 + ": " + percentOverride;
     }
 
+    @Override
+    public String getConfiguration() {
+        JsonObject args = new JsonObject();
+        args.addProperty("speedOverridePercent", percentOverride);
+        return args.toString();
+    }
+
+    @Override
+    public boolean isThreadSafe() {
+        return true;
+    }
+
     @Override
     public List<String> processCommand(String command, GcodeState state) {
         List<String> ret = new ArrayList<>();
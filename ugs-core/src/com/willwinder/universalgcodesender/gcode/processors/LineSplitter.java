@@ -19,6 +19,7 @@
 package com.willwinder.universalgcodesender.gcode.processors;
 
 import com.google.common.collect.Iterables;
+import com.google.gson.JsonObject;
 import com.willwinder.universalgcodesender.gcode.GcodeParser;
 import com.willwinder.universalgcodesender.gcode.GcodeParser.GcodeMeta;
 import com.willwinder.universalgcodesender.gcode.GcodePreprocessorUtils;
@@ -53,6 +54,18 @@ public class LineSplitter implements CommandProcessor {
         return "Split G0 and G1 commands into multiple commands.";
     }
 
+    @Override
+    public String getConfiguration() {
+        JsonObject args = new JsonObject();
+        args.addProperty("segmentLengthMM", maxSegmentLength);
+        return args.toString();
+    }
+
+    @Override
+    public boolean isThreadSafe() {
+        return true;
+    }
+
     private Code hasLine(List<GcodeMeta> commands) {
         if (commands == null) return null;
         for (GcodeMeta command : commands) {
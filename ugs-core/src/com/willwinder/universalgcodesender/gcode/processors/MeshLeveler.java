@@ -19,6 +19,8 @@
 package com.willwinder.universalgcodesender.gcode.processors;
 
 import com.google.common.collect.ImmutableList;
+import com.google.gson.Gson;
+import com.google.gson.JsonObject;
 import com.willwinder.universalgcodesender.gcode.GcodeParser.GcodeMeta;
 import com.willwinder.universalgcodesender.gcode.GcodePreprocessorUtils;
 import com.willwinder.universalgcodesender.gcode.GcodeState;
@@ -247,4 +249,17 @@ public class MeshLeveler implements CommandProcessor {
     public String getHelp() {
         return null;
     }
+
+    @Override
+    public String getConfiguration() {
+        JsonObject args = new JsonObject();
+        args.addProperty("materialSurfaceHeightMM", materialSurfaceHeightMM);
+        args.add("surfaceMesh", new Gson().toJsonTree(surfaceMesh));
+        return args.toString();
+    }
+
+    @Override
+    public boolean isThreadSafe() {
+        return true;
+    }
 }
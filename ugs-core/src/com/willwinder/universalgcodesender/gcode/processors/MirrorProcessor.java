@@ -18,6 +18,7 @@
  */
 package com.willwinder.universalgcodesender.gcode.processors;
 
+import com.google.gson.JsonObject;
 import com.willwinder.universalgcodesender.gcode.GcodeParser;
 import com.willwinder.universalgcodesender.gcode.GcodePreprocessorUtils;
 import com.willwinder.universalgcodesender.gcode.GcodeState;
@@ -122,4 +123,16 @@ public class MirrorProcessor implements CommandProcessor {
     public String getHelp() {
         return "Mirrors the model";
     }
+
+    @Override
+    public String getConfiguration() {
+        JsonObject args = new JsonObject();
+        args.addProperty("center", center.toString());
+        return args.toString();
+    }
+
+    @Override
+    public boolean isThreadSafe() {
+        return true;
+    }
 }
@@ -21,6 +21,7 @@
  */
 package com.willwinder.universalgcodesender.gcode.processors;
 
+import com.google.gson.JsonObject;
 import com.willwinder.universalgcodesender.gcode.GcodeState;
 import com.willwinder.universalgcodesender.i18n.Localization;
 import java.util.ArrayList;
@@ -44,6 +45,18 @@ public class PatternRemover implements CommandProcessor {
                 + ": \"" + p.pattern() + "\"";
     }
 
+    @Override
+    public String getConfiguration() {
+        JsonObject args = new JsonObject();
+        args.addProperty("pattern", p.pattern());
+        return args.toString();
+    }
+
+    @Override
+    public boolean isThreadSafe() {
+        return true;
+    }
+
     @Override
     public List<String> processCommand(String command, GcodeState state) {
         List<String> ret = new ArrayList<>();
@@ -18,6 +18,8 @@
  */
 package com.willwinder.universalgcodesender.gcode.processors;
 
+import com.google.gson.Gson;
+import com.google.gson.JsonObject;
 import com.willwinder.universalgcodesender.gcode.GcodeParser;
 import com.willwinder.universalgcodesender.gcode.GcodePreprocessorUtils;
 import com.willwinder.universalgcodesender.gcode.GcodeState;
@@ -145,4 +147,17 @@ public class RotateProcessor implements CommandProcessor {
     public String getHelp() {
         return "Rotates the model 180 degrees";
     }
+
+    @Override
+    public String getConfiguration() {
+        JsonObject args = new JsonObject();
+        args.add("center", new Gson().toJsonTree(center));
+        args.addProperty("rotation", rotation);
+        return args.toString();
+    }
+
+    @Override
+    public boolean isThreadSafe() {
+        return true;
+    }
 }
@@ -19,6 +19,7 @@
 package com.willwinder.universalgcodesender.gcode.processors;
 
 import com.google.common.collect.ImmutableList;
+import com.google.gson.JsonObject;
 import com.willwinder.universalgcodesender.gcode.GcodeParser;
 import static com.willwinder.universalgcodesender.gcode.GcodePreprocessorUtils.normalizeCommand;
 import com.willwinder.universalgcodesender.gcode.GcodeState;
@@ -68,7 +69,26 @@ public class RunFromProcessor implements CommandProcessor {
     }
 
     private List<String> getSkippedLinesState(String command) {
-        Position pos = parser.getCurrentState().currentPoint;
+        GcodeState s = parser.getCurrentState();
+
+        // Reset the parser to prevent the state to be re-added
+        parser = null;
+
+        return getPreamble(s, clearanceHeight, command);
+    }
+
+    /**
+     * Returns the commands needed to resume a program at the given command: the machine state is restored, the
+     * tool is moved to the start location through the clearance height and the accessories are started before
+     * plunging into the work.
+     *
+     * @param s               the state after the skipped commands
+     * @param clearanceHeight the highest Z position of the skipped commands
+     * @param command         the first command to run
+     * @return the commands to send, ending with the normalized command
+     */
+    public static List<String> getPreamble(GcodeState s, double clearanceHeight, String command) {
+        Position pos = s.currentPoint;
 
         String moveToClearanceHeight = "";
         if (!Double.isNaN(pos.z)) {
@@ -89,7 +109,6 @@ public class RunFromProcessor implements CommandProcessor {
             plunge = "G1Z" + pos.z;
         }
 
-        GcodeState s = parser.getCurrentState();
         String normalized = command;
         try {
             normalized = normalizeCommand(command, s);
@@ -97,9 +116,6 @@ public class RunFromProcessor implements CommandProcessor {
             // If command couldn't be normalized, send as is
         }
 
-        // Reset the parser to prevent the state to be re-added
-        parser = null;
-
         return ImmutableList.of(
                 // Initialize state
                 s.machineStateCode(),
@@ -119,11 +135,21 @@ public class RunFromProcessor implements CommandProcessor {
                 .toList();
     }
 
+    /**
+     * Returns the clearance height after moving to the given position
+     *
+     * @param clearanceHeight the clearance height before the move
+     * @param pos             the position after the move
+     * @return the highest Z position so far
+     */
+    public static double updateClearanceHeight(double clearanceHeight, Position pos) {
+        return Math.max(clearanceHeight, Double.isNaN(pos.z) ? 0 : pos.z);
+    }
+
     private ImmutableList<String> skipLine(String command) throws GcodeParserException {
         createParser();
         parser.addCommand(command);
-        Position pos = parser.getCurrentState().currentPoint;
-        clearanceHeight = Math.max(clearanceHeight, Double.isNaN(pos.z) ? 0 :  pos.z);
+        clearanceHeight = updateClearanceHeight(clearanceHeight, parser.getCurrentState().currentPoint);
         return ImmutableList.of();
     }
 
@@ -137,4 +163,17 @@ public class RunFromProcessor implements CommandProcessor {
     public String getHelp() {
         return null;
     }
+
+    @Override
+    public String getConfiguration() {
+        JsonObject args = new JsonObject();
+        args.addProperty("lineNumber", lineNumber);
+        return args.toString();
+    }
+
+    @Override
+    public boolean isThreadSafe() {
+        // Skipping lines depends on the state of the previously skipped lines
+        return lineNumber <= 0;
+    }
 }
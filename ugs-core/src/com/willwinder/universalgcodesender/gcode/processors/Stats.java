@@ -67,6 +67,12 @@ public class Stats implements CommandProcessor, GcodeStats {
         return "Caches program metrics, shouldn't be enabled or disabled.";
     }
 
+    @Override
+    public String getConfiguration() {
+        // The commands are never changed
+        return "";
+    }
+
     @Override
     public final Position getMin() {
         return min;
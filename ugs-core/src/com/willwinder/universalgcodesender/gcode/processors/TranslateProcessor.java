@@ -18,6 +18,8 @@
  */
 package com.willwinder.universalgcodesender.gcode.processors;
 
+import com.google.gson.Gson;
+import com.google.gson.JsonObject;
 import com.willwinder.universalgcodesender.gcode.GcodeParser;
 import com.willwinder.universalgcodesender.gcode.GcodePreprocessorUtils;
 import com.willwinder.universalgcodesender.gcode.GcodeState;
@@ -134,4 +136,16 @@ public class TranslateProcessor implements CommandProcessor {
     public String getHelp() {
         return "Translates to model in 3 dimensional space";
     }
+
+    @Override
+    public String getConfiguration() {
+        JsonObject args = new JsonObject();
+        args.add("offset", new Gson().toJsonTree(offset));
+        return args.toString();
+    }
+
+    @Override
+    public boolean isThreadSafe() {
+        return true;
+    }
 }
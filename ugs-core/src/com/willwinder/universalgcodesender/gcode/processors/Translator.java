@@ -18,6 +18,8 @@
  */
 package com.willwinder.universalgcodesender.gcode.processors;
 
+import com.google.gson.Gson;
+import com.google.gson.JsonObject;
 import com.willwinder.universalgcodesender.gcode.GcodePreprocessorUtils;
 import com.willwinder.universalgcodesender.gcode.GcodeState;
 import com.willwinder.universalgcodesender.model.Position;
@@ -113,4 +115,11 @@ public class Translator implements CommandProcessor {
   public String getHelp() {
     return "Translates gcode location.";
   }
+
+  @Override
+  public String getConfiguration() {
+    JsonObject args = new JsonObject();
+    args.add("offset", new Gson().toJsonTree(offset));
+    return args.toString();
+  }
 }
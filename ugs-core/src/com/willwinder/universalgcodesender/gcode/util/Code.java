@@ -181,6 +181,14 @@ public enum Code {
         Arrays.stream(Code.values())
                 .collect(Collectors.toMap(Code::toString, c -> c));
 
+    /**
+     * Codes indexed by their number in tenths (G38.2 is stored at 382), used for looking up codes without
+     * creating any strings.
+     */
+    private static final int MAX_TENTHS = 1000;
+    private static final Code[] gCodeLookup = createNumberLookup('G');
+    private static final Code[] mCodeLookup = createNumberLookup('M');
+
     private final ModalGroup type;
     private final boolean nonModalMotionCode;
     private final boolean motionOptional;
@@ -242,4 +250,33 @@ public enum Code {
         Code c = codeLookup.get(type + rest);
         return c == null ? UNKNOWN : c;
     }
+
+    /**
+     * Lookup code from its letter and number without creating a string.
+     *
+     * @param letter  the upper case letter of the code, like 'G' or 'M'
+     * @param tenths  the number of the code multiplied by ten, G1 is given as 10 and G38.2 as 382
+     * @param decimal if the number was written with decimals, G1.0 is not the same code as G1
+     * @return the enum value or UNKNOWN
+     */
+    public static Code lookupCode(char letter, int tenths, boolean decimal) {
+        Code[] lookup = letter == 'G' ? gCodeLookup : letter == 'M' ? mCodeLookup : null;
+        if (lookup == null || tenths < 0 || tenths >= MAX_TENTHS || decimal == (tenths % 10 == 0)) {
+            return UNKNOWN;
+        }
+
+        Code c = lookup[tenths];
+        return c == null ? UNKNOWN : c;
+    }
+
+    private static Code[] createNumberLookup(char letter) {
+        Code[] lookup = new Code[MAX_TENTHS];
+        for (Code c : values()) {
+            String name = c.toString();
+            if (c != UNKNOWN && name.charAt(0) == letter) {
+                lookup[(int) Math.round(Double.parseDouble(name.substring(1)) * 10)] = c;
+            }
+        }
+        return lookup;
+    }
 }
@@ -18,11 +18,11 @@
  */
 package com.willwinder.universalgcodesender.gcode.util;
 
-import com.google.common.collect.Iterables;
 import com.willwinder.universalgcodesender.gcode.DefaultCommandCreator;
 import com.willwinder.universalgcodesender.gcode.GcodeParser;
 import com.willwinder.universalgcodesender.gcode.GcodePreprocessorUtils;
 import com.willwinder.universalgcodesender.gcode.GcodeState;
+import com.willwinder.universalgcodesender.gcode.processors.CommandProcessorList;
 import static com.willwinder.universalgcodesender.gcode.util.Code.G20;
 import static com.willwinder.universalgcodesender.gcode.util.Code.G21;
 import static com.willwinder.universalgcodesender.gcode.util.Code.G90;
@@ -37,6 +37,7 @@ import com.willwinder.universalgcodesender.model.UnitUtils;
 import com.willwinder.universalgcodesender.types.GcodeCommand;
 import com.willwinder.universalgcodesender.types.PointSegment;
 import com.willwinder.universalgcodesender.utils.GcodeStreamReader;
+import com.willwinder.universalgcodesender.utils.GcodeStreamReaderFactory;
 import com.willwinder.universalgcodesender.utils.IGcodeStreamReader;
 import com.willwinder.universalgcodesender.utils.IGcodeWriter;
 import org.apache.commons.lang3.StringUtils;
@@ -45,14 +46,12 @@ import java.io.BufferedReader;
 import java.io.File;
 import java.io.FileInputStream;
 import java.io.IOException;
-import java.io.InputStream;
 import java.io.InputStreamReader;
 import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.List;
-import java.util.Set;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 import java.util.stream.Collectors;
@@ -81,17 +80,27 @@ public class GcodeParserUtils {
     public static List<GcodeParser.GcodeMeta> processCommand(String command, int line, final GcodeState inputState,
                                                              boolean includeNonMotionStates)
             throws GcodeParserException {
-        List<String> args = GcodePreprocessorUtils.splitCommand(command);
-        if (args.isEmpty()) return null;
+        try (GcodeTokenizer tokens = GcodeTokenizer.tokenize(command)) {
+            if (tokens.size() == 0) return null;
+            return processCommand(command, tokens, line, inputState, includeNonMotionStates);
+        }
+    }
 
+    private static List<GcodeParser.GcodeMeta> processCommand(String command, GcodeTokenizer tokens, int line,
+                                                              final GcodeState inputState, boolean includeNonMotionStates)
+            throws GcodeParserException {
         // Initialize with original state
         GcodeState state = inputState.copy();
 
         state.commandNumber = line;
 
-        // handle M codes.
-        Set<Code> mCodes = GcodePreprocessorUtils.getMCodes(args);
-        for (Code c : mCodes) {
+        // handle M codes, each code is only handled once in the order they first occur.
+        for (int i = 0; i < tokens.size(); i++) {
+            if (tokens.getLetter(i) != 'M' || tokens.isRepeatedCode(i)) {
+                continue;
+            }
+
+            Code c = tokens.getCode(i);
             switch (c.getType()) {
                 case Spindle:
                     state.spindle = c;
@@ -104,28 +113,18 @@ public class GcodeParserUtils {
             }
         }
 
-        List<String> fCodes = GcodePreprocessorUtils.parseCodes(args, 'F');
-        if (!fCodes.isEmpty()) {
-            try {
-                state.feedRate = Double.parseDouble(Iterables.getOnlyElement(fCodes));
-            } catch (IllegalArgumentException e) {
-                throw new GcodeParserException("Multiple F-codes on one line.");
-            }
-        }
+        state.feedRate = getSingleValue(tokens, 'F', state.feedRate, "Multiple F-codes on one line.");
+        state.spindleSpeed = getSingleValue(tokens, 'S', state.spindleSpeed, "Multiple S-codes on one line.");
 
-        List<String> sCodes = GcodePreprocessorUtils.parseCodes(args, 'S');
-        if (!sCodes.isEmpty()) {
-            try {
-                state.spindleSpeed = Double.parseDouble(Iterables.getOnlyElement(sCodes));
-            } catch (IllegalArgumentException e) {
-                throw new GcodeParserException("Multiple S-codes on one line.");
+        // Gather G codes.
+        List<Code> gCodes = new ArrayList<>();
+        for (int i = 0; i < tokens.size(); i++) {
+            if (tokens.getLetter(i) == 'G' && !tokens.isRepeatedCode(i)) {
+                gCodes.add(tokens.getCode(i));
             }
         }
 
-        // Gather G codes.
-        Set<Code> gCodes = GcodePreprocessorUtils.getGCodes(args);
-
-        boolean hasAxisWords = GcodePreprocessorUtils.hasAxisWords(args);
+        boolean hasAxisWords = tokens.hasAxisWords();
 
         // Error to mix group 1 (Motion) and certain group 0 (NonModal) codes (G10, G28, G30, G92)
         Collection<Code> motionCodes = gCodes.stream()
@@ -143,13 +142,18 @@ public class GcodeParserUtils {
             gCodes.add(state.currentMotionMode);
         }
 
-        // Apply each code to the state.
+        // Apply each code to the state. The state is handed to the resulting meta and only copied if
+        // another code on the same line needs to update it.
         List<GcodeParser.GcodeMeta> results = new ArrayList<>();
         for (Code i : gCodes) {
             if (i == UNKNOWN) {
                 LOGGER.warning("An unknown gcode command was detected in: " + command);
             } else {
-                GcodeParser.GcodeMeta meta = handleGCode(i, args, line, state);
+                if (!results.isEmpty()) {
+                    state = state.copy();
+                }
+
+                GcodeParser.GcodeMeta meta = handleGCode(i, tokens, line, state);
                 meta.command = command;
                 // Commands like 'G21' don't return a point segment.
                 if (meta.point != null) {
@@ -171,6 +175,24 @@ public class GcodeParserUtils {
         return results;
     }
 
+    /**
+     * Returns the value of the only word with the given letter.
+     *
+     * @throws GcodeParserException if there are multiple words with the letter or if the value isn't a number
+     */
+    private static double getSingleValue(GcodeTokenizer tokens, char letter, double defaultValue, String error) throws GcodeParserException {
+        int index = tokens.indexOf(letter);
+        if (index < 0) {
+            return defaultValue;
+        }
+
+        double value = tokens.getValue(index);
+        if (Double.isNaN(value) || tokens.count(letter) > 1) {
+            throw new GcodeParserException(error);
+        }
+        return value;
+    }
+
     private static PointSegment addProbePointSegment(Position nextPoint, boolean fastTraverse, int line, GcodeState state) {
         if (nextPoint == null) {
             return null;
@@ -207,7 +229,7 @@ public class GcodeParserUtils {
     /**
      * Create a PointSegment representing the arc command.
      */
-    private static PointSegment addArcPointSegment(Position nextPoint, boolean clockwise, List<String> args, int line, GcodeState state) {
+    private static PointSegment addArcPointSegment(Position nextPoint, boolean clockwise, GcodeTokenizer tokens, int line, GcodeState state) {
         if (nextPoint == null) {
             return null;
         }
@@ -217,9 +239,9 @@ public class GcodeParserUtils {
         PlaneFormatter plane = new PlaneFormatter(state.plane);
         Position center =
                 GcodePreprocessorUtils.updateCenterWithCommand(
-                        args, state.currentPoint, nextPoint, state.inAbsoluteIJKMode, clockwise, plane);
+                        tokens, state.currentPoint, nextPoint, state.inAbsoluteIJKMode, clockwise, plane);
 
-        double radius = GcodePreprocessorUtils.parseCoord(args, 'R');
+        double radius = tokens.getValue('R');
 
         // Calculate radius if necessary, according to the current G17/18/19 Plane
         if (Double.isNaN(radius)) {
@@ -248,9 +270,9 @@ public class GcodeParserUtils {
     /**
      * Branch parser to handle specific gcode command.
      * <p>
-     * A copy of the state object should go in the resulting GcodeMeta object.
+     * The updated state object is put in the resulting GcodeMeta object, it must not be modified afterwards.
      */
-    private static GcodeParser.GcodeMeta handleGCode(final Code code, List<String> args, int line, GcodeState state)
+    private static GcodeParser.GcodeMeta handleGCode(final Code code, GcodeTokenizer tokens, int line, GcodeState state)
             throws GcodeParserException {
         GcodeParser.GcodeMeta meta = new GcodeParser.GcodeMeta();
 
@@ -260,7 +282,7 @@ public class GcodeParserUtils {
 
         // If it is a movement code make sure it has some coordinates.
         if (code.consumesMotion()) {
-            nextPoint = GcodePreprocessorUtils.updatePointWithCommand(args, state.currentPoint, state.inAbsoluteMode);
+            nextPoint = GcodePreprocessorUtils.updatePointWithCommand(tokens, state.currentPoint, state.inAbsoluteMode);
 
             if (nextPoint == null) {
                 if (!code.motionOptional()) {
@@ -284,10 +306,10 @@ public class GcodeParserUtils {
 
             // Arc command.
             case G2:
-                meta.point = addArcPointSegment(nextPoint, true, args, line, state);
+                meta.point = addArcPointSegment(nextPoint, true, tokens, line, state);
                 break;
             case G3:
-                meta.point = addArcPointSegment(nextPoint, false, args, line, state);
+                meta.point = addArcPointSegment(nextPoint, false, tokens, line, state);
                 break;
 
             case G17:
@@ -362,7 +384,7 @@ public class GcodeParserUtils {
         if (code.getType() == Motion) {
             state.currentMotionMode = code;
         }
-        meta.state = state.copy();
+        meta.state = state;
         return meta;
     }
 
@@ -371,14 +393,119 @@ public class GcodeParserUtils {
      */
     public static void processAndExport(GcodeParser gcp, File input, IGcodeWriter output)
             throws IOException, GcodeParserException {
-        try (InputStream inputStream = new FileInputStream(input)) {
-            if (processAndExportGcodeStream(gcp, inputStream, output)) {
-                return;
-            }
+        processAndExport(gcp, input, output, false);
+    }
+
+    /**
+     * Helper method to apply processors to gcode.
+     *
+     * @param parallel if the file should be preprocessed in parallel chunks, this is only done if all command
+     *                 processors are thread safe and will otherwise fall back to processing one line at a time.
+     */
+    public static void processAndExport(GcodeParser gcp, File input, IGcodeWriter output, boolean parallel)
+            throws IOException, GcodeParserException {
+        boolean inParallel = parallel && gcp.isPreprocessorThreadSafe();
+        if (processAndExportGcodeStream(gcp, input, output, inParallel)) {
+            return;
         }
 
         try (BufferedReader br = new BufferedReader(new InputStreamReader(new FileInputStream(input), StandardCharsets.UTF_8.name()))) {
-            processAndExportText(gcp, br, output);
+            if (inParallel) {
+                processAndExportTextInParallel(gcp, br, output);
+            } else {
+                processAndExportText(gcp, br, output);
+            }
+        }
+    }
+
+    /**
+     * Helper method to apply the remaining processors of a chain to a file which has already been preprocessed by
+     * the preceding processors. The original input is parsed to give the processors the same state as when the
+     * whole chain is applied, so the result is identical to processing the input with all processors.
+     *
+     * @param gcp            the parser used to track the state of the input, its processors are not applied
+     * @param input          the original file
+     * @param processedInput the original file preprocessed by the preceding processors in GcodeStream format
+     * @param processors     the remaining processors to apply
+     * @param output         the output to write to
+     */
+    public static void processAndExport(GcodeParser gcp, File input, File processedInput, CommandProcessorList processors, IGcodeWriter output)
+            throws IOException, GcodeParserException {
+        try (ProcessedInputReader processedReader = new ProcessedInputReader(processedInput)) {
+            readInput(input, (command, comment, idx) -> {
+                List<String> commands = processedReader.getCommands(idx);
+                for (String processedLine : processors.processCommands(commands, gcp.getCurrentState())) {
+                    output.addLine(command, processedLine, comment, idx);
+                }
+                gcp.addCommand(command);
+            });
+        }
+    }
+
+    /**
+     * Reads each command of a file in either GcodeStream or gcode-text format.
+     */
+    private static void readInput(File input, InputConsumer consumer) throws IOException, GcodeParserException {
+        try (IGcodeStreamReader gsr = GcodeStreamReaderFactory.getReader(input, new DefaultCommandCreator())) {
+            int i = 0;
+            while (gsr.getNumRowsRemaining() > 0) {
+                GcodeCommand gc = gsr.getNextCommand();
+                consumer.accept(gc.getCommandString(), gc.getComment(), ++i);
+            }
+            return;
+        } catch (GcodeStreamReader.NotGcodeStreamFile ex) {
+            // File exists, but isn't a stream reader. So go ahead and try parsing it as a raw gcode file.
+        }
+
+        try (BufferedReader br = new BufferedReader(new InputStreamReader(new FileInputStream(input), StandardCharsets.UTF_8))) {
+            int i = 0;
+            for (String line; (line = br.readLine()) != null; ) {
+                consumer.accept(line, GcodePreprocessorUtils.parseComment(line), ++i);
+            }
+        }
+    }
+
+    @FunctionalInterface
+    private interface InputConsumer {
+        void accept(String command, String comment, int idx) throws IOException, GcodeParserException;
+    }
+
+    /**
+     * Reads the rows of a preprocessed file grouped by the line in the original file they were created from.
+     */
+    private static class ProcessedInputReader implements AutoCloseable {
+        private final IGcodeStreamReader reader;
+        private GcodeCommand next;
+
+        ProcessedInputReader(File file) throws IOException {
+            try {
+                this.reader = GcodeStreamReaderFactory.getReader(file, new DefaultCommandCreator());
+            } catch (GcodeStreamReader.NotGcodeStreamFile e) {
+                throw new IOException("The preprocessed file is not a gcode stream: " + file, e);
+            }
+            readNext();
+        }
+
+        /**
+         * @param idx the line in the original file
+         * @return the preprocessed commands of the line, which is empty if the preceding processors removed it
+         */
+        List<String> getCommands(int idx) throws IOException {
+            List<String> commands = new ArrayList<>();
+            while (next != null && next.getCommandNumber() == idx) {
+                commands.add(next.getCommandString());
+                readNext();
+            }
+            return commands;
+        }
+
+        private void readNext() throws IOException {
+            next = reader.getNumRowsRemaining() > 0 ? reader.getNextCommand() : null;
+        }
+
+        @Override
+        public void close() throws IOException {
+            reader.close();
         }
     }
 
@@ -405,11 +532,23 @@ public class GcodeParserUtils {
      *
      * @return whether or not we succeed processing the file.
      */
-    private static boolean processAndExportGcodeStream(GcodeParser gcp, InputStream input, IGcodeWriter output)
+    private static boolean processAndExportGcodeStream(GcodeParser gcp, File input, IGcodeWriter output, boolean inParallel)
             throws IOException, GcodeParserException {
 
         // Preprocess a GcodeStream file.
-        try (IGcodeStreamReader gsr = new GcodeStreamReader(input, new DefaultCommandCreator())) {
+        try (IGcodeStreamReader gsr = GcodeStreamReaderFactory.getReader(input, new DefaultCommandCreator())) {
+            if (inParallel) {
+                new ParallelGcodePreprocessor(gcp, output).process(chunk -> {
+                    if (gsr.getNumRowsRemaining() <= 0) {
+                        return false;
+                    }
+                    GcodeCommand gc = gsr.getNextCommand();
+                    chunk.add(gc.getCommandString(), gc.getComment());
+                    return true;
+                }, false);
+                return true;
+            }
+
             int i = 0;
             while (gsr.getNumRowsRemaining() > 0) {
                 i++;
@@ -425,6 +564,23 @@ public class GcodeParserUtils {
         return false;
     }
 
+    /**
+     * Reads the input file in gcode-text format and preprocesses it in parallel chunks.
+     */
+    private static void processAndExportTextInParallel(GcodeParser gcp, BufferedReader input, IGcodeWriter output)
+            throws IOException, GcodeParserException {
+        try (BufferedReader br = input) {
+            new ParallelGcodePreprocessor(gcp, output).process(chunk -> {
+                String line = br.readLine();
+                if (line == null) {
+                    return false;
+                }
+                chunk.add(line, null);
+                return true;
+            }, true);
+        }
+    }
+
     /**
      * Attempts to read the input file in gcode-text format.
      *
@@ -0,0 +1,509 @@
+/*
+    Copyright 2026 agent
+
+    This file is part of Universal Gcode Sender (UGS).
+
+    UGS is free software: you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    UGS is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with UGS.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.willwinder.universalgcodesender.gcode.util;
+
+import com.willwinder.universalgcodesender.gcode.GcodePreprocessorUtils;
+
+import java.util.Arrays;
+
+/**
+ * A tokenizer that splits a gcode command into the same words as
+ * {@link GcodePreprocessorUtils#splitCommand(String)} in a single pass, but without creating any strings. Each
+ * word is instead stored as its upper case letter, numeric value and code in reusable primitive buffers.
+ * <p>
+ * The tokenizer is reused by the thread, so it must be closed when done:
+ * <pre>
+ * try (GcodeTokenizer tokens = GcodeTokenizer.tokenize("G1 X10 Y-2.5")) {
+ *     double x = tokens.getValue('X');
+ * }
+ * </pre>
+ *
+ * @author agent
+ */
+public class GcodeTokenizer implements AutoCloseable {
+    public enum TokenType {
+        /**
+         * A letter followed by a number, like "G1" or "X-0.5"
+         */
+        WORD,
+
+        /**
+         * A block comment like "(comment)" or a line comment like "; comment"
+         */
+        COMMENT,
+
+        /**
+         * A GRBL system command like "$H", these are never split
+         */
+        SYSTEM
+    }
+
+    private static final ThreadLocal<GcodeTokenizer> CACHED_TOKENIZER = ThreadLocal.withInitial(GcodeTokenizer::new);
+
+    /**
+     * Powers of ten that can be represented exactly as a double
+     */
+    private static final double[] POWERS_OF_TEN = {
+            1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10, 1e11,
+            1e12, 1e13, 1e14, 1e15, 1e16, 1e17, 1e18, 1e19, 1e20, 1e21, 1e22
+    };
+
+    /**
+     * The largest mantissa that can be represented exactly as a double
+     */
+    private static final long MAX_EXACT_MANTISSA = 1L << 53;
+    private static final long MAX_MANTISSA = (Long.MAX_VALUE - 9) / 10;
+    private static final int INITIAL_CAPACITY = 16;
+
+    /**
+     * Character classes, the classes of ASCII characters are cached as the Character methods are comparatively slow
+     */
+    private static final byte OTHER = 0;
+    private static final byte WHITESPACE = 1;
+    private static final byte DIGIT = 2;
+    private static final byte LETTER = 3;
+    private static final byte[] ASCII_CLASSES = new byte[128];
+
+    static {
+        for (char c = 0; c < ASCII_CLASSES.length; c++) {
+            ASCII_CLASSES[c] = getCharacterClass(c);
+        }
+    }
+
+    private CharSequence command;
+    private boolean inUse;
+    private int size;
+    private TokenType[] types = new TokenType[INITIAL_CAPACITY];
+    private char[] letters = new char[INITIAL_CAPACITY];
+    private int[] starts = new int[INITIAL_CAPACITY];
+    private int[] ends = new int[INITIAL_CAPACITY];
+    private int[] lengths = new int[INITIAL_CAPACITY];
+    private double[] values = new double[INITIAL_CAPACITY];
+    private Code[] codes = new Code[INITIAL_CAPACITY];
+    private final StringBuilder numberBuilder = new StringBuilder();
+
+    // The state of the token currently being read
+    private TokenType tokenType;
+    private char tokenLetter;
+    private int tokenStart;
+    private int tokenEnd;
+    private int tokenLength;
+    private int letterCount;
+    private int digitCount;
+    private int scale;
+    private long mantissa;
+    private boolean negative;
+    private boolean decimal;
+    private boolean invalid;
+    private boolean overflow;
+
+    private GcodeTokenizer() {
+    }
+
+    /**
+     * Tokenizes the given command. The returned tokenizer is reused for the next command on the same thread once
+     * it has been closed.
+     *
+     * @param command the command to tokenize
+     * @return a tokenizer containing the tokens of the command
+     */
+    public static GcodeTokenizer tokenize(CharSequence command) {
+        GcodeTokenizer tokenizer = CACHED_TOKENIZER.get();
+        if (tokenizer.inUse) {
+            // The cached tokenizer is still being used further up the stack
+            tokenizer = new GcodeTokenizer();
+        }
+
+        tokenizer.inUse = true;
+        tokenizer.read(command);
+        return tokenizer;
+    }
+
+    @Override
+    public void close() {
+        command = null;
+        inUse = false;
+    }
+
+    /**
+     * @return the number of tokens in the command
+     */
+    public int size() {
+        return size;
+    }
+
+    public TokenType getType(int index) {
+        checkIndex(index);
+        return types[index];
+    }
+
+    /**
+     * Returns the first character of the token in upper case, for words this is the letter of the word.
+     */
+    public char getLetter(int index) {
+        checkIndex(index);
+        return letters[index];
+    }
+
+    /**
+     * Returns the numeric value of a word, like 10 for "X10".
+     *
+     * @return the value or NaN if the token isn't a word with a single letter followed by a valid number
+     */
+    public double getValue(int index) {
+        checkIndex(index);
+        return values[index];
+    }
+
+    /**
+     * Returns the gcode or mcode of a word, like G1 for "G01".
+     *
+     * @return the code or UNKNOWN if the token isn't a known code
+     */
+    public Code getCode(int index) {
+        checkIndex(index);
+        return codes[index];
+    }
+
+    /**
+     * @return the index in the command of the first character of the token
+     */
+    public int getStart(int index) {
+        checkIndex(index);
+        return starts[index];
+    }
+
+    /**
+     * @return the index in the command after the last character of the token
+     */
+    public int getEnd(int index) {
+        checkIndex(index);
+        return ends[index];
+    }
+
+    /**
+     * Appends the text of the token, any whitespaces or unknown characters within a word are skipped in the same
+     * way as {@link GcodePreprocessorUtils#splitCommand(String)}.
+     *
+     * @param index  the index of the token
+     * @param result the string builder to append the token to
+     */
+    public void appendText(int index, StringBuilder result) {
+        checkIndex(index);
+        if (types[index] != TokenType.WORD) {
+            result.append(command, starts[index], ends[index]);
+            return;
+        }
+
+        for (int i = starts[index]; i < ends[index]; i++) {
+            char c = command.charAt(i);
+            if (Character.isLetterOrDigit(c) || c == '.' || c == '-') {
+                result.append(c);
+            }
+        }
+    }
+
+    /**
+     * Returns the text of the token, this will create a new string.
+     */
+    public String getText(int index) {
+        StringBuilder result = new StringBuilder();
+        appendText(index, result);
+        return result.toString();
+    }
+
+    /**
+     * Finds the first token starting with the given letter.
+     *
+     * @param letter the letter to find, case-insensitive
+     * @return the index of the token or -1 if not found
+     */
+    public int indexOf(char letter) {
+        char address = Character.toUpperCase(letter);
+        for (int i = 0; i < size; i++) {
+            if (letters[i] == address) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Counts the tokens starting with the given letter.
+     *
+     * @param letter the letter to find, case-insensitive
+     * @return the number of tokens
+     */
+    public int count(char letter) {
+        char address = Character.toUpperCase(letter);
+        int count = 0;
+        for (int i = 0; i < size; i++) {
+            if (letters[i] == address) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Returns the value of the first word with the given letter, like 10 for 'X' in "G0 X10".
+     *
+     * @param letter the letter to find, case-insensitive
+     * @return the value or NaN if not found or if the word doesn't have a valid number
+     */
+    public double getValue(char letter) {
+        int index = indexOf(letter);
+        return index < 0 ? Double.NaN : values[index];
+    }
+
+    /**
+     * @return true if there is a word for any of the axes X, Y, Z, A, B or C
+     */
+    public boolean hasAxisWords() {
+        for (int i = 0; i < size; i++) {
+            char c = letters[i];
+            if (lengths[i] > 1 && (c == 'X' || c == 'Y' || c == 'Z' || c == 'A' || c == 'B' || c == 'C')) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Returns if the same code with the same letter occurred in an earlier token, can be used for processing
+     * each code only once in the order they first occur.
+     */
+    public boolean isRepeatedCode(int index) {
+        checkIndex(index);
+        for (int i = 0; i < index; i++) {
+            if (letters[i] == letters[index] && codes[i] == codes[index]) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void checkIndex(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("Token " + index + " is outside the command with " + size + " tokens");
+        }
+    }
+
+    private void read(CharSequence command) {
+        this.command = command;
+        this.size = 0;
+        this.tokenLength = 0;
+
+        int length = command.length();
+
+        // Special handling for GRBL system commands which will not be splitted
+        if (length > 0 && command.charAt(0) == '$') {
+            for (int i = 0; i < length; i++) {
+                append(command.charAt(i), i);
+            }
+            tokenType = TokenType.SYSTEM;
+            finishToken();
+            return;
+        }
+
+        boolean readNumeric = false;
+        boolean readLineComment = false;
+        int blockCommentDepth = 0;
+
+        for (int i = 0; i < length; i++) {
+            char c = command.charAt(i);
+
+            if (readLineComment) {
+                // The rest of the line is a comment
+                tokenEnd = length;
+                tokenLength += length - i;
+                break;
+            }
+
+            if (c == '(' && !readLineComment) {
+                if (blockCommentDepth == 0 && tokenLength > 0) {
+                    finishToken();
+                }
+                append(c, i);
+                blockCommentDepth++;
+                readNumeric = false;
+                continue;
+            } else if (blockCommentDepth > 0 && c == ')') {
+                append(c, i);
+                blockCommentDepth--;
+                if (blockCommentDepth == 0) {
+                    finishToken();
+                }
+                continue;
+            } else if (c == ';' && !readLineComment && blockCommentDepth == 0) {
+                if (tokenLength > 0) {
+                    finishToken();
+                }
+                append(c, i);
+                readLineComment = true;
+                continue;
+            }
+
+            if (blockCommentDepth > 0) {
+                append(c, i);
+                continue;
+            }
+
+            byte characterClass = c < ASCII_CLASSES.length ? ASCII_CLASSES[c] : getCharacterClass(c);
+            if (characterClass == WHITESPACE) {
+                continue;
+            }
+            // If the last character was numeric and this character is a letter, then we hit a boundary.
+            else if (readNumeric && characterClass != DIGIT && c != '.') {
+                readNumeric = false;
+                finishToken();
+
+                if (characterClass == LETTER) {
+                    append(c, i);
+                }
+            } else if (characterClass == DIGIT || c == '.' || c == '-') {
+                append(c, i);
+                readNumeric = true;
+            } else if (characterClass == LETTER) {
+                append(c, i);
+            }
+        }
+
+        if (tokenLength > 0) {
+            finishToken();
+        }
+    }
+
+    private void append(char c, int index) {
+        if (tokenLength == 0) {
+            startToken(c, index);
+        } else if (tokenType == TokenType.WORD) {
+            appendToWord(c);
+        }
+
+        tokenEnd = index + 1;
+        tokenLength++;
+    }
+
+    private void startToken(char c, int index) {
+        tokenType = c == '(' || c == ';' ? TokenType.COMMENT : TokenType.WORD;
+        tokenLetter = Character.toUpperCase(c);
+        tokenStart = index;
+        digitCount = 0;
+        scale = 0;
+        mantissa = 0;
+        negative = false;
+        decimal = false;
+        overflow = false;
+
+        // Only words starting with a letter have a value
+        invalid = !Character.isLetter(c);
+        letterCount = invalid ? 0 : 1;
+    }
+
+    private void appendToWord(char c) {
+        if (c >= '0' && c <= '9') {
+            digitCount++;
+            if (decimal) {
+                scale++;
+            }
+
+            if (mantissa <= MAX_MANTISSA) {
+                mantissa = mantissa * 10 + (c - '0');
+            } else {
+                overflow = true;
+            }
+        } else if (c == '-') {
+            invalid |= negative || decimal || digitCount > 0;
+            negative = true;
+        } else if (c == '.') {
+            invalid |= decimal;
+            decimal = true;
+        } else if (c < ASCII_CLASSES.length ? ASCII_CLASSES[c] == LETTER : Character.isLetter(c)) {
+            letterCount++;
+        } else {
+            // Digits from other scripts are not valid numbers
+            invalid = true;
+        }
+    }
+
+    private static byte getCharacterClass(char c) {
+        if (Character.isWhitespace(c)) {
+            return WHITESPACE;
+        } else if (Character.isDigit(c)) {
+            return DIGIT;
+        } else if (Character.isLetter(c)) {
+            return LETTER;
+        }
+        return OTHER;
+    }
+
+    private void finishToken() {
+        if (size == types.length) {
+            int capacity = size * 2;
+            types = Arrays.copyOf(types, capacity);
+            letters = Arrays.copyOf(letters, capacity);
+            starts = Arrays.copyOf(starts, capacity);
+            ends = Arrays.copyOf(ends, capacity);
+            lengths = Arrays.copyOf(lengths, capacity);
+            values = Arrays.copyOf(values, capacity);
+            codes = Arrays.copyOf(codes, capacity);
+        }
+
+        boolean hasNumber = tokenType == TokenType.WORD && !invalid && letterCount == 1 && digitCount > 0;
+        types[size] = tokenType;
+        letters[size] = tokenLetter;
+        starts[size] = tokenStart;
+        ends[size] = tokenEnd;
+        lengths[size] = tokenLength;
+        values[size] = hasNumber ? parseValue() : Double.NaN;
+        codes[size] = hasNumber ? lookupCode() : Code.UNKNOWN;
+        size++;
+
+        tokenLength = 0;
+    }
+
+    private double parseValue() {
+        if (!overflow && mantissa <= MAX_EXACT_MANTISSA && scale < POWERS_OF_TEN.length) {
+            // Both numbers are exact so the division gives the same rounding as Double.parseDouble
+            double value = scale == 0 ? mantissa : mantissa / POWERS_OF_TEN[scale];
+            return negative ? -value : value;
+        }
+
+        // Fall back on the slow path for numbers with too many digits
+        numberBuilder.setLength(0);
+        for (int i = tokenStart; i < tokenEnd; i++) {
+            char c = command.charAt(i);
+            if (Character.isDigit(c) || c == '.' || c == '-') {
+                numberBuilder.append(c);
+            }
+        }
+        return Double.parseDouble(numberBuilder.toString());
+    }
+
+    private Code lookupCode() {
+        // Codes are written with at most one decimal, "G1." and "G38.20" are not known codes
+        if (negative || overflow || scale > 1 || (decimal && scale == 0) || mantissa >= Integer.MAX_VALUE / 10) {
+            return Code.UNKNOWN;
+        }
+
+        int tenths = decimal ? (int) mantissa : (int) mantissa * 10;
+        return Code.lookupCode(tokenLetter, tenths, decimal);
+    }
+}
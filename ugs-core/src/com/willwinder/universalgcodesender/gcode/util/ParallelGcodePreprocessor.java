@@ -0,0 +1,262 @@
+/*
+    Copyright 2026 agent
+
+    This file is part of Universal Gcode Sender (UGS).
+
+    UGS is free software: you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    UGS is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with UGS.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.willwinder.universalgcodesender.gcode.util;
+
+import com.willwinder.universalgcodesender.gcode.GcodeParser;
+import com.willwinder.universalgcodesender.gcode.GcodePreprocessorUtils;
+import com.willwinder.universalgcodesender.gcode.GcodeState;
+import com.willwinder.universalgcodesender.utils.IGcodeWriter;
+
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.ForkJoinWorkerThread;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Preprocesses a gcode program in chunks using a dedicated fork-join pool. The result is identical to running
+ * {@link GcodeParser#preprocessCommand(String, GcodeState)} followed by {@link GcodeParser#addCommand(String)} on
+ * each line, but requires that all command processors are thread safe. If the processing fails the exception is
+ * thrown after the preceding lines have been written, but the parser may already have been given later lines.
+ * <p>
+ * The pipeline runs in four stages:
+ * <ol>
+ * <li>The calling thread reads the lines into chunks</li>
+ * <li>The calling thread adds each line to the parser, this updates the parser state and stats and a copy of the
+ * state is stored at the start of each chunk</li>
+ * <li>The chunks are preprocessed in parallel, each chunk starting from its state snapshot</li>
+ * <li>The calling thread writes the chunks to the output in order</li>
+ * </ol>
+ *
+ * @author agent
+ */
+class ParallelGcodePreprocessor {
+    private static final Logger LOGGER = Logger.getLogger(ParallelGcodePreprocessor.class.getName());
+
+    /**
+     * Number of lines in each chunk
+     */
+    static final int CHUNK_SIZE = 5000;
+
+    /**
+     * The pool shared by all preprocessing, it is separate from the common pool so that preprocessing a large file
+     * doesn't starve other tasks and one processor is left for the user interface and streaming.
+     */
+    private static class PoolHolder {
+        private static final ForkJoinPool POOL = new ForkJoinPool(Math.max(1, Runtime.getRuntime().availableProcessors() - 1), pool -> {
+            ForkJoinWorkerThread thread = ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(pool);
+            thread.setName("GcodePreprocessor-" + thread.getPoolIndex());
+            return thread;
+        }, null, false);
+    }
+
+    /**
+     * A source of lines to preprocess
+     */
+    @FunctionalInterface
+    interface LineSource {
+        /**
+         * Reads the next line and adds it to the chunk
+         *
+         * @param chunk the chunk to add the line to
+         * @return false if there are no more lines
+         * @throws IOException if the line could not be read
+         */
+        boolean readLine(Chunk chunk) throws IOException;
+    }
+
+    private final GcodeParser gcp;
+    private final IGcodeWriter output;
+    private final ForkJoinPool pool;
+    private final int maxChunksInFlight;
+
+    ParallelGcodePreprocessor(GcodeParser gcp, IGcodeWriter output) {
+        this(gcp, output, PoolHolder.POOL);
+    }
+
+    ParallelGcodePreprocessor(GcodeParser gcp, IGcodeWriter output, ForkJoinPool pool) {
+        this.gcp = gcp;
+        this.output = output;
+        this.pool = pool;
+
+        // Keep the number of buffered chunks bounded to limit the memory used for large files
+        this.maxChunksInFlight = pool.getParallelism() * 2;
+    }
+
+    /**
+     * Preprocesses all lines from the source and writes them to the output.
+     *
+     * @param source        the lines to process
+     * @param parseComments if the comment should be parsed from each line, otherwise it is given by the source
+     */
+    void process(LineSource source, boolean parseComments) throws IOException, GcodeParserException {
+        Deque<ForkJoinTask<Chunk>> inFlight = new ArrayDeque<>();
+        try {
+            processChunks(source, parseComments, inFlight);
+        } finally {
+            // Abort any remaining work if the processing failed
+            inFlight.forEach(task -> task.cancel(false));
+        }
+    }
+
+    private void processChunks(LineSource source, boolean parseComments, Deque<ForkJoinTask<Chunk>> inFlight) throws IOException, GcodeParserException {
+        int index = 0;
+        boolean done = false;
+
+        while (!done) {
+            Chunk chunk = new Chunk(index + 1, gcp.getCurrentState().copy(), parseComments);
+            while (chunk.size() < CHUNK_SIZE) {
+                if (!source.readLine(chunk)) {
+                    done = true;
+                    break;
+                }
+
+                index++;
+                if (index % 100000 == 0) {
+                    LOGGER.log(Level.FINE, "gcode processing line: " + index);
+                }
+
+                try {
+                    gcp.addCommand(chunk.getCommand(chunk.size() - 1));
+                } catch (GcodeParserException e) {
+                    // The line is still preprocessed and written before the exception is thrown
+                    chunk.trailingException = e;
+                    done = true;
+                    break;
+                }
+            }
+
+            if (chunk.size() > 0) {
+                inFlight.add(pool.submit(() -> chunk.preprocess(gcp)));
+            }
+
+            while (inFlight.size() >= maxChunksInFlight || (done && !inFlight.isEmpty())) {
+                write(inFlight.removeFirst().join());
+            }
+        }
+    }
+
+    private void write(Chunk chunk) throws GcodeParserException {
+        for (int i = 0; i < chunk.processedCount; i++) {
+            String command = chunk.getCommand(i);
+            String comment = chunk.getComment(i);
+            for (String processedLine : chunk.results.get(i)) {
+                output.addLine(command, processedLine, comment, chunk.firstIndex + i);
+            }
+        }
+
+        if (chunk.exception != null) {
+            throw chunk.exception;
+        }
+    }
+
+    /**
+     * A consecutive range of lines and the parser state before the first line
+     */
+    static class Chunk {
+        private final int firstIndex;
+        private final GcodeState initialState;
+        private final boolean parseComments;
+        private final List<String> commands = new ArrayList<>(CHUNK_SIZE);
+        private final List<String> comments = new ArrayList<>(CHUNK_SIZE);
+        private final List<List<String>> results = new ArrayList<>(CHUNK_SIZE);
+        private int processedCount = 0;
+        private GcodeParserException trailingException;
+        private GcodeParserException exception;
+
+        Chunk(int firstIndex, GcodeState initialState, boolean parseComments) {
+            this.firstIndex = firstIndex;
+            this.initialState = initialState;
+            this.parseComments = parseComments;
+        }
+
+        void add(String command, String comment) {
+            commands.add(command);
+            comments.add(comment);
+        }
+
+        int size() {
+            return commands.size();
+        }
+
+        String getCommand(int i) {
+            return commands.get(i);
+        }
+
+        String getComment(int i) {
+            return comments.get(i);
+        }
+
+        /**
+         * Preprocesses all lines in the chunk, if a line fails the lines before it are kept and the
+         * exception is rethrown when the chunk is written.
+         */
+        private Chunk preprocess(GcodeParser gcp) {
+            GcodeState state = initialState;
+            try {
+                for (int i = 0; i < commands.size(); i++) {
+                    String command = commands.get(i);
+                    if (parseComments) {
+                        comments.set(i, GcodePreprocessorUtils.parseComment(command));
+                    }
+
+                    results.add(gcp.preprocessCommand(command, state));
+                    processedCount++;
+
+                    if (i < commands.size() - 1) {
+                        state = nextState(command, state);
+                    }
+                }
+                exception = trailingException;
+            } catch (GcodeParserException e) {
+                exception = e;
+            }
+            return this;
+        }
+
+        /**
+         * Returns the state after the command in the same way as {@link GcodeParser#addCommand(String)} without
+         * touching the parser or the given state.
+         */
+        static GcodeState nextState(String command, GcodeState state) throws GcodeParserException {
+            int commandNumber = state.commandNumber + 1;
+            List<GcodeParser.GcodeMeta> metaObjects = GcodeParserUtils.processCommand(command, commandNumber, state, true);
+
+            GcodeState result = null;
+            if (metaObjects != null) {
+                for (GcodeParser.GcodeMeta meta : metaObjects) {
+                    if (meta.state != null) {
+                        result = meta.state;
+                    }
+                }
+            }
+
+            if (result == null) {
+                result = state.copy();
+                result.commandNumber = commandNumber;
+            }
+            return result;
+        }
+    }
+}
@@ -0,0 +1,39 @@
+/*
+    Copyright 2026 agent
+
+    This file is part of Universal Gcode Sender (UGS).
+
+    UGS is free software: you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    UGS is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with UGS.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.willwinder.universalgcodesender.listeners;
+
+/**
+ * A listener for the progress of a file transfer to or from the controller.
+ *
+ * @author agent
+ */
+@FunctionalInterface
+public interface FileTransferListener {
+    FileTransferListener NONE = (bytesTransferred, totalBytes, bytesPerSecond) -> {
+    };
+
+    /**
+     * Called when more data has been transferred
+     *
+     * @param bytesTransferred the number of bytes transferred so far
+     * @param totalBytes       the total number of bytes to transfer or -1 if unknown
+     * @param bytesPerSecond   the average transfer rate since the transfer started
+     */
+    void onProgress(long bytesTransferred, long totalBytes, double bytesPerSecond);
+}
@@ -101,6 +101,15 @@ public interface BackendAPI extends BackendAPIReadOnly {
      */
     void removeCommandProcessor(CommandProcessor commandProcessor) throws Exception;
 
+    /**
+     * Skips all commands before the given line in the loaded program and prepends the commands needed to restore
+     * the machine state at that line. This doesn't process the program again, use zero to run the whole program.
+     *
+     * @param lineNumber the line number to run from, see {@link com.willwinder.universalgcodesender.gcode.processors.RunFromProcessor}
+     * @throws Exception if the program couldn't be updated
+     */
+    void setRunFromLine(int lineNumber) throws Exception;
+
     /**
      * Process the currently loaded gcode file and export it to a file.
      * Intended primarily as "save and export" style preprocessor option.
@@ -86,6 +86,13 @@ public interface BackendAPIReadOnly {
 
     long getSendDuration();
     long getSendRemainingDuration();
+
+    /**
+     * Returns the estimated time it takes to run the loaded program based on the limits of the machine.
+     *
+     * @return the estimated duration in milliseconds or -1 if unknown
+     */
+    long getEstimatedSendDuration();
     String getPauseResumeText();
 
     // Shouldn't be needed often.
@@ -20,15 +20,21 @@ package com.willwinder.universalgcodesender.model;
 
 import com.google.common.io.Files;
 import com.willwinder.universalgcodesender.IController;
+import com.willwinder.universalgcodesender.Utils;
+import com.willwinder.universalgcodesender.firmware.IFirmwareSettingsListener;
 import com.willwinder.universalgcodesender.gcode.DefaultCommandCreator;
 import com.willwinder.universalgcodesender.gcode.GcodeParser;
 import com.willwinder.universalgcodesender.gcode.GcodeState;
+import com.willwinder.universalgcodesender.gcode.GcodeStateIndex;
 import com.willwinder.universalgcodesender.gcode.GcodeStats;
 import com.willwinder.universalgcodesender.gcode.ICommandCreator;
+import com.willwinder.universalgcodesender.gcode.RunTimeEstimator;
 import com.willwinder.universalgcodesender.gcode.processors.CommandProcessor;
+import com.willwinder.universalgcodesender.gcode.processors.CommandProcessorList;
 import com.willwinder.universalgcodesender.gcode.processors.CommentProcessor;
 import com.willwinder.universalgcodesender.gcode.processors.DecimalProcessor;
 import com.willwinder.universalgcodesender.gcode.processors.M30Processor;
+import com.willwinder.universalgcodesender.gcode.processors.RunFromProcessor;
 import com.willwinder.universalgcodesender.gcode.processors.WhitespaceProcessor;
 import com.willwinder.universalgcodesender.gcode.util.GcodeParserUtils;
 import com.willwinder.universalgcodesender.i18n.Localization;
@@ -44,9 +50,14 @@ import com.willwinder.universalgcodesender.services.MessageService;
 import com.willwinder.universalgcodesender.types.GcodeCommand;
 import com.willwinder.universalgcodesender.utils.FirmwareUtils;
 import com.willwinder.universalgcodesender.utils.GcodeFileWriter;
+import com.willwinder.universalgcodesender.utils.BinaryGcodeStreamWriter;
+import com.willwinder.universalgcodesender.utils.GcodeStateIndexWriter;
 import com.willwinder.universalgcodesender.utils.GcodeStreamReader;
-import com.willwinder.universalgcodesender.utils.GcodeStreamWriter;
+import com.willwinder.universalgcodesender.utils.GcodeStreamReaderFactory;
+import com.willwinder.universalgcodesender.utils.IGcodeStreamReader;
 import com.willwinder.universalgcodesender.utils.IGcodeWriter;
+import com.willwinder.universalgcodesender.utils.ISeekableGcodeStreamReader;
+import com.willwinder.universalgcodesender.utils.ProcessedGcodeCache;
 import com.willwinder.universalgcodesender.utils.Settings;
 import com.willwinder.universalgcodesender.utils.Settings.FileStats;
 import com.willwinder.universalgcodesender.utils.SettingsFactory;
@@ -57,10 +68,15 @@ import javax.script.ScriptEngineManager;
 import javax.script.ScriptException;
 import java.io.File;
 import java.io.FileNotFoundException;
+import java.io.IOException;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
 import java.util.Objects;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 import java.util.regex.Matcher;
@@ -74,28 +90,60 @@ public class GUIBackend implements BackendAPI {
     private static final Logger logger = Logger.getLogger(GUIBackend.class.getName());
     private static final String NEW_LINE = "\n    ";
 
+    // The time to wait for more firmware settings to change before estimating the run time again
+    private static final long RUN_TIME_ESTIMATE_DELAY_MS = 500;
+    private static final ScheduledExecutorService DEFAULT_ESTIMATE_EXECUTOR = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "UGS run time estimate");
+        thread.setDaemon(true);
+        return thread;
+    });
+
     private final MessageService messageService = new MessageService();
     private final GcodeParser gcp = new GcodeParser();
     private final UGSEventDispatcher eventDispatcher;
+    private final ScheduledExecutorService estimateExecutor;
     private IController controller = null;
     private Settings settings = null;
     // GUI State
     private File gcodeFile = null;
     private File processedGcodeFile = null;
+
+    // The processed file without skipping any lines and its state index, used for running from a line
+    private volatile File fullProcessedGcodeFile = null;
+    private GcodeStateIndex gcodeStateIndex = null;
+    private volatile RunTimeEstimator runTimeEstimate = null;
+
+    // The limits of the machine from the last connected controller and the pending estimate using them
+    private RunTimeEstimator.MachineLimits machineLimits = RunTimeEstimator.MachineLimits.DEFAULT;
+    private ScheduledFuture<?> pendingRunTimeEstimate;
+    private IFirmwareSettingsListener firmwareSettingsListener;
+    private int runFromLine = 0;
+
+    // The first row of the full processed file that is streamed and the number of rows added before it to restore the state
+    private int runFromRow = 0;
+    private int runFromPreambleRows = 0;
+
+    // The processed files of the current gcode file for the command processors it has been processed with
+    private final ProcessedGcodeCache processedGcodeCache = new ProcessedGcodeCache();
     private File tempDir = null;
     private String firmware = null;
 
     /**
      * A temporary pointer to the active gcode stream. This is needed to make sure it is closed
      */
-    private GcodeStreamReader gcodeStream;
+    private IGcodeStreamReader gcodeStream;
 
     public GUIBackend() {
         this(new UGSEventDispatcher());
     }
 
     public GUIBackend(UGSEventDispatcher eventDispatcher) {
+        this(eventDispatcher, DEFAULT_ESTIMATE_EXECUTOR);
+    }
+
+    GUIBackend(UGSEventDispatcher eventDispatcher, ScheduledExecutorService estimateExecutor) {
         this.eventDispatcher = eventDispatcher;
+        this.estimateExecutor = estimateExecutor;
     }
 
     /////////////
@@ -149,7 +197,7 @@ public class GUIBackend implements BackendAPI {
      */
     protected void preprocessAndExportToFile(GcodeParser gcp, File input, IGcodeWriter gcw) throws Exception {
         logger.log(Level.INFO, "Preprocessing {0} to {1}", new Object[]{input.getCanonicalPath(), gcw.getCanonicalPath()});
-        GcodeParserUtils.processAndExport(gcp, input, gcw);
+        GcodeParserUtils.processAndExport(gcp, input, gcw, settings == null || settings.isParallelPreprocessing());
     }
 
     private void initGcodeParser() {
@@ -194,8 +242,11 @@ public class GUIBackend implements BackendAPI {
 
         controller.addListener(eventDispatcher);
         controller.getFirmwareSettings().addListener(eventDispatcher);
+        firmwareSettingsListener = setting -> scheduleRunTimeEstimate();
+        controller.getFirmwareSettings().addListener(firmwareSettingsListener);
 
         openCommConnection(port, baudRate);
+        scheduleRunTimeEstimate();
     }
 
     protected IController fetchControllerFromFirmware(String firmware) throws Exception {
@@ -221,6 +272,7 @@ public class GUIBackend implements BackendAPI {
             this.controller.closeCommPort();
             this.controller.removeListener(eventDispatcher);
             this.controller.getFirmwareSettings().removeListener(eventDispatcher);
+            this.controller.getFirmwareSettings().removeListener(firmwareSettingsListener);
             this.controller = null;
         }
     }
@@ -365,12 +417,22 @@ public class GUIBackend implements BackendAPI {
         this.gcodeFile = null;
         this.gcodeStream = null;
         this.processedGcodeFile = null;
+        this.fullProcessedGcodeFile = null;
+        this.gcodeStateIndex = null;
+        this.runTimeEstimate = null;
+        this.runFromLine = 0;
+        this.runFromRow = 0;
+        this.runFromPreambleRows = 0;
+        this.processedGcodeCache.clear();
     }
 
     @Override
     public void reloadGcodeFile() throws Exception {
         logger.log(Level.INFO, "Reloading gcode file.");
         eventDispatcher.sendUGSEvent(new FileStateEvent(FileState.OPENING_FILE));
+
+        // The file may have been changed
+        processedGcodeCache.clear();
         processGcodeFile();
     }
 
@@ -380,11 +442,55 @@ public class GUIBackend implements BackendAPI {
         eventDispatcher.sendUGSEvent(new FileStateEvent(FileState.FILE_LOADING));
         initializeProcessedLines(true, this.gcodeFile, this.gcp);
         if (this.processedGcodeFile != null) {
-            gcodeStream = new GcodeStreamReader(this.processedGcodeFile, getCommandCreator());
+            if (runFromLine > 0) {
+                this.processedGcodeFile = createRunFromFile(runFromLine);
+            }
+            gcodeStream = GcodeStreamReaderFactory.getReader(this.processedGcodeFile, getCommandCreator());
         }
         eventDispatcher.sendUGSEvent(new FileStateEvent(FileState.FILE_LOADED));
     }
 
+    /**
+     * Creates a copy of the processed file starting at the given line. The rows before the line are skipped and
+     * replaced with the commands needed to restore the state, which is looked up in the state index.
+     */
+    private File createRunFromFile(int lineNumber) throws Exception {
+        File target = new File(this.getTempDir(), fullProcessedGcodeFile.getName() + "_from_" + lineNumber);
+        long start = System.currentTimeMillis();
+        try (ISeekableGcodeStreamReader reader = GcodeStreamReaderFactory.getSeekableReader(fullProcessedGcodeFile, new DefaultCommandCreator());
+             IGcodeWriter gcw = new BinaryGcodeStreamWriter(target)) {
+
+            // The rows are numbered from one while the run from line is compared to the parser state of each
+            // line, which holds the zero based number of the previous line.
+            int row = reader.getRowForCommandNumber(lineNumber + 2);
+            if (row >= reader.getNumRows()) {
+                return target;
+            }
+
+            GcodeCommand command = reader.getCommand(row);
+            runFromRow = row;
+            runFromPreambleRows = 0;
+            if (row == 0) {
+                gcw.addLine(command);
+            } else {
+                GcodeStateIndex.Checkpoint checkpoint = gcodeStateIndex.getState(row, reader);
+                List<String> preamble = RunFromProcessor.getPreamble(checkpoint.state(), checkpoint.clearanceHeight(), command.getCommandString());
+                for (String line : preamble) {
+                    gcw.addLine(command.getOriginalCommandString(), line, command.getComment(), command.getCommandNumber());
+                }
+
+                // The last line of the preamble is the command itself
+                runFromPreambleRows = preamble.size() - 1;
+            }
+
+            for (int i = row + 1; i < reader.getNumRows(); i++) {
+                gcw.addLine(reader.getCommand(i));
+            }
+        }
+        logger.info("Took " + (System.currentTimeMillis() - start) + "ms to run from line " + lineNumber);
+        return target;
+    }
+
     @Override
     public List<String> getWorkspaceFileList() {
         String workspaceDirectory = settings.getWorkspaceDirectory();
@@ -444,6 +550,8 @@ public class GUIBackend implements BackendAPI {
         logger.log(Level.INFO, String.format("Applying new command processor %s", commandProcessor.getClass().getSimpleName()));
         gcp.addCommandProcessor(commandProcessor);
 
+        // The processor may have been applied before with a different configuration
+        processedGcodeCache.invalidate(commandProcessor);
         if (processedGcodeFile != null) {
             processGcodeFile();
         }
@@ -458,6 +566,31 @@ public class GUIBackend implements BackendAPI {
         }
     }
 
+    @Override
+    public void setRunFromLine(int lineNumber) throws Exception {
+        int line = Math.max(lineNumber, 0);
+        if (line == runFromLine) {
+            return;
+        }
+
+        this.runFromLine = line;
+        if (fullProcessedGcodeFile == null) {
+            return;
+        }
+
+        logger.log(Level.INFO, "Running from line {0}", runFromLine);
+        eventDispatcher.sendUGSEvent(new FileStateEvent(FileState.FILE_LOADING));
+        if (gcodeStream != null) {
+            gcodeStream.close();
+        }
+
+        this.runFromRow = 0;
+        this.runFromPreambleRows = 0;
+        this.processedGcodeFile = runFromLine > 0 ? createRunFromFile(runFromLine) : fullProcessedGcodeFile;
+        gcodeStream = GcodeStreamReaderFactory.getReader(this.processedGcodeFile, getCommandCreator());
+        eventDispatcher.sendUGSEvent(new FileStateEvent(FileState.FILE_LOADED));
+    }
+
     @Override
     public File getGcodeFile() {
         logger.log(Level.FINEST, "Getting gcode file.");
@@ -489,7 +622,7 @@ public class GUIBackend implements BackendAPI {
             if (gcodeStream != null) {
                 gcodeStream.close();
             }
-            gcodeStream = new GcodeStreamReader(this.processedGcodeFile, getCommandCreator());
+            gcodeStream = GcodeStreamReaderFactory.getReader(this.processedGcodeFile, getCommandCreator());
 
             // This will throw an exception and prevent that other stuff from
             // happening (clearing the table before it is ready for clearing.
@@ -535,6 +668,11 @@ public class GUIBackend implements BackendAPI {
 
     @Override
     public long getSendRemainingDuration() {
+        RunTimeEstimator runTime = getRunTimeEstimate();
+        if (runTime != null) {
+            return Math.round((runTime.getTotalTime() - runTime.getElapsedTime(getNumCompletedRowsOfFullFile(runTime))) * 1000);
+        }
+
         long completedRows = getNumCompletedRows();
         long numberOfRows = getNumRows();
 
@@ -549,6 +687,35 @@ public class GUIBackend implements BackendAPI {
         return Math.max(0, estimate - elapsedTime);
     }
 
+    @Override
+    public long getEstimatedSendDuration() {
+        RunTimeEstimator estimate = getRunTimeEstimate();
+        if (estimate == null) {
+            return -1L;
+        }
+        return Math.round((estimate.getTotalTime() - estimate.getElapsedTime(runFromRow)) * 1000);
+    }
+
+    /**
+     * @return the run time estimate of the streamed file or null if it isn't available
+     */
+    private RunTimeEstimator getRunTimeEstimate() {
+        RunTimeEstimator estimate = this.runTimeEstimate;
+        if (estimate == null || processedGcodeFile == null || runFromRow > estimate.getRowCount()) {
+            return null;
+        }
+        return estimate;
+    }
+
+    /**
+     * Maps the number of completed rows of the streamed file to the full processed file which the estimate was
+     * made for, the rows restoring the state when running from a line are counted as the first row.
+     */
+    private int getNumCompletedRowsOfFullFile(RunTimeEstimator estimate) {
+        long completedRows = Math.max(0, getNumCompletedRows() - runFromPreambleRows);
+        return (int) Math.min(estimate.getRowCount(), runFromRow + completedRows);
+    }
+
     @Override
     public void pauseResume() throws Exception {
         logger.log(Level.INFO, "Pause/Resume");
@@ -774,6 +941,21 @@ public class GUIBackend implements BackendAPI {
             logger.info("Start preprocessing");
             long start = System.currentTimeMillis();
             if (this.processedGcodeFile == null || forceReprocess) {
+                // Reuse the file processed with the longest matching part of the current processors
+                List<CommandProcessor> processors = gcodeParser.getCommandProcessors();
+                ProcessedGcodeCache.Entry cached = processedGcodeCache.find(processors).orElse(null);
+                if (cached != null && cached.size() == processors.size()) {
+                    this.processedGcodeFile = cached.file();
+                    this.fullProcessedGcodeFile = cached.file();
+                    this.gcodeStateIndex = cached.stateIndex();
+                    this.runTimeEstimate = cached.runTimeEstimate();
+                    logger.info("Took " + (System.currentTimeMillis() - start) + "ms to reuse the preprocessed file");
+
+                    // The file may have been estimated with other machine limits
+                    scheduleRunTimeEstimate();
+                    return;
+                }
+
                 gcodeParser.reset();
 
                 String name = startFile.getName();
@@ -786,9 +968,24 @@ public class GUIBackend implements BackendAPI {
                 }
 
                 this.processedGcodeFile = new File(this.getTempDir(), name + "_ugs_" + System.currentTimeMillis());
-                try (IGcodeWriter gcw = new GcodeStreamWriter(this.processedGcodeFile)) {
-                    this.preprocessAndExportToFile(gcodeParser, startFile, gcw);
+                GcodeStateIndex stateIndex = new GcodeStateIndex();
+                RunTimeEstimator estimate = new RunTimeEstimator(getMachineLimits());
+                try (IGcodeWriter gcw = new GcodeStateIndexWriter(new BinaryGcodeStreamWriter(this.processedGcodeFile), stateIndex, estimate)) {
+                    if (cached == null) {
+                        this.preprocessAndExportToFile(gcodeParser, startFile, gcw);
+                    } else {
+                        // Only apply the processors after the ones the cached file was processed with
+                        CommandProcessorList remaining = new CommandProcessorList();
+                        processors.subList(cached.size(), processors.size()).forEach(remaining::add);
+                        logger.log(Level.INFO, "Preprocessing {0} with {1} of {2} processors", new Object[]{cached.file(), remaining.size(), processors.size()});
+                        GcodeParserUtils.processAndExport(gcodeParser, startFile, cached.file(), remaining, gcw);
+                    }
                 }
+                this.fullProcessedGcodeFile = this.processedGcodeFile;
+                this.gcodeStateIndex = stateIndex;
+                this.runTimeEstimate = estimate;
+                processedGcodeCache.add(processors, this.processedGcodeFile, stateIndex, estimate);
+                logger.log(Level.INFO, "Estimated run time {0}", Utils.formattedMillis(Math.round(estimate.getTotalTime() * 1000)));
 
                 // Store gcode file stats.
                 GcodeStats gs = gcodeParser.getCurrentStats();
@@ -799,4 +996,48 @@ public class GUIBackend implements BackendAPI {
             logger.info("Took " + (end - start) + "ms to preprocess");
         }
     }
+
+    /**
+     * Returns the limits of the connected machine, or the limits of the last connected machine if not connected
+     */
+    private synchronized RunTimeEstimator.MachineLimits getMachineLimits() {
+        IController currentController = this.controller;
+        if (currentController != null && currentController.isCommOpen()) {
+            machineLimits = RunTimeEstimator.MachineLimits.fromFirmwareSettings(currentController.getFirmwareSettings());
+        }
+        return machineLimits;
+    }
+
+    /**
+     * Estimates the run time of the processed file again if the limits of the machine has changed since it was
+     * estimated. The firmware settings are changed one at a time so this is delayed until they have settled.
+     */
+    private synchronized void scheduleRunTimeEstimate() {
+        if (pendingRunTimeEstimate != null) {
+            pendingRunTimeEstimate.cancel(false);
+        }
+        pendingRunTimeEstimate = estimateExecutor.schedule(this::updateRunTimeEstimate, RUN_TIME_ESTIMATE_DELAY_MS, TimeUnit.MILLISECONDS);
+    }
+
+    private void updateRunTimeEstimate() {
+        File file = this.fullProcessedGcodeFile;
+        RunTimeEstimator currentEstimate = this.runTimeEstimate;
+        RunTimeEstimator.MachineLimits limits = getMachineLimits();
+        if (file == null || currentEstimate == null || limits.equals(currentEstimate.getMachineLimits())) {
+            return;
+        }
+
+        long start = System.currentTimeMillis();
+        try (IGcodeStreamReader reader = GcodeStreamReaderFactory.getReader(file, new DefaultCommandCreator())) {
+            RunTimeEstimator estimate = RunTimeEstimator.estimate(reader, limits);
+            processedGcodeCache.updateRunTimeEstimate(file, estimate);
+            if (file.equals(this.fullProcessedGcodeFile)) {
+                this.runTimeEstimate = estimate;
+            }
+            logger.log(Level.INFO, "Estimated run time {0} using the controller settings, took {1}ms",
+                    new Object[]{Utils.formattedMillis(Math.round(estimate.getTotalTime() * 1000)), System.currentTimeMillis() - start});
+        } catch (IOException | GcodeStreamReader.NotGcodeStreamFile e) {
+            logger.log(Level.WARNING, "Could not estimate the run time of " + file, e);
+        }
+    }
 }
@@ -40,51 +40,99 @@ import com.willwinder.universalgcodesender.utils.SettingChangeListener;
 
 import java.util.List;
 import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
 /**
  * A class that is responsible for listening to various events from the controller and backend system and
  * dispatch them as UGS events.
+ * <p>
+ * Each listener has its own queue of events which are delivered in order using an executor, so that
+ * the thread sending the event (often the thread reading from the controller) never has to wait for
+ * a slow listener. Controller status events are coalesced if a listener has not yet handled the previous
+ * status. The order of events between different listeners is not guaranteed.
  *
  * @author Joacim Breiler
  */
 public class UGSEventDispatcher implements ControllerListener, IFirmwareSettingsListener, SettingChangeListener {
     private static final Logger LOGGER = Logger.getLogger(UGSEventDispatcher.class.getSimpleName());
+    private static final int QUEUE_CAPACITY = 1024;
+    private static final ExecutorService DEFAULT_EXECUTOR = createDefaultExecutor();
 
-    private final List<UGSEventListener> listeners = new CopyOnWriteArrayList<>();
+    private final List<UGSEventListenerQueue> listeners = new CopyOnWriteArrayList<>();
+    private final Executor executor;
 
     /**
      * A cached instance of the controller status for preventing duplicate status events to be dispatched
      */
     private ControllerStatus controllerStatus = ControllerStatus.EMPTY_CONTROLLER_STATUS;
 
+    public UGSEventDispatcher() {
+        this(DEFAULT_EXECUTOR);
+    }
+
+    /**
+     * Creates a dispatcher which delivers the events using the given executor. Using an executor
+     * that runs the task directly will deliver the events on the thread sending them.
+     *
+     * @param executor the executor to deliver events with
+     */
+    public UGSEventDispatcher(Executor executor) {
+        this.executor = executor;
+    }
+
+    private static ExecutorService createDefaultExecutor() {
+        AtomicInteger threadCount = new AtomicInteger();
+        return Executors.newCachedThreadPool(runnable -> {
+            Thread thread = new Thread(runnable, UGSEventDispatcher.class.getSimpleName() + "-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
     public void sendUGSEvent(UGSEvent event) {
         LOGGER.log(Level.FINEST, "Sending event {0}.", event.getClass().getSimpleName());
-        listeners.forEach(l -> {
-            try {
-                l.UGSEvent(event);
-            } catch (Exception e) {
-                LOGGER.log(Level.SEVERE, "Could not dispatch the event {0} to the listener {1}",
-                        new String[]{event.getClass().getSimpleName(), l.getClass().getSimpleName()});
-            }
-        });
+        listeners.forEach(queue -> queue.send(event));
     }
 
     public void addListener(UGSEventListener listener) {
-        if (!listeners.contains(listener)) {
+        if (findQueue(listener) == null) {
             LOGGER.log(Level.FINE, "Adding UGSEvent listener: {0}", listener.getClass().getSimpleName());
-            listeners.add(listener);
+            listeners.add(new UGSEventListenerQueue(listener, executor, QUEUE_CAPACITY));
         }
     }
 
     public void removeListener(UGSEventListener listener) {
-        if (listeners.contains(listener)) {
+        UGSEventListenerQueue queue = findQueue(listener);
+        if (queue != null) {
             LOGGER.log(Level.FINE, "Removing UGSEvent listener: {0}", listener.getClass().getSimpleName());
-            listeners.remove(listener);
+            queue.close();
+            listeners.remove(queue);
         }
     }
 
+    /**
+     * Returns the number of delivered and overflowed events and the delivery latency for each listener
+     *
+     * @return a list with statistics for each listener
+     */
+    public List<UGSEventListenerStatistics> getListenerStatistics() {
+        return listeners.stream()
+                .map(UGSEventListenerQueue::getStatistics)
+                .toList();
+    }
+
+    private UGSEventListenerQueue findQueue(UGSEventListener listener) {
+        return listeners.stream()
+                .filter(queue -> queue.getListener().equals(listener))
+                .findFirst()
+                .orElse(null);
+    }
+
     @Override
     public void streamCanceled() {
         sendUGSEvent(new StreamEvent(StreamEventType.STREAM_CANCELED));
@@ -0,0 +1,319 @@
+/*
+    Copyright 2026 agent
+
+    This file is part of Universal Gcode Sender (UGS).
+
+    UGS is free software: you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    UGS is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with UGS.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.willwinder.universalgcodesender.model;
+
+import com.willwinder.universalgcodesender.listeners.UGSEventListener;
+import com.willwinder.universalgcodesender.model.events.AlarmEvent;
+import com.willwinder.universalgcodesender.model.events.ControllerStateEvent;
+import com.willwinder.universalgcodesender.model.events.ControllerStatusEvent;
+import com.willwinder.universalgcodesender.model.events.FileStateEvent;
+import com.willwinder.universalgcodesender.model.events.StreamEvent;
+
+import java.time.Duration;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Delivers events to a single listener using an executor, so that a slow listener will not
+ * block the thread sending the event or the other listeners. The events are delivered in the
+ * order they were sent, one at a time.
+ * <p>
+ * Events are kept in a bounded lock free ring buffer. If the listener can not keep up and the
+ * buffer is full new events are put in an overflow list which is delivered after the buffer.
+ * The overflow list has the same capacity as the buffer, when that is also full the events are
+ * dropped except for the {@link #MUST_DELIVER_EVENTS} which changes the state of the stream or the
+ * controller. Controller status events are coalesced so that only the latest status is delivered
+ * if the listener has not yet received the previous one.
+ *
+ * @author agent
+ */
+class UGSEventListenerQueue implements Runnable {
+    private static final Logger LOGGER = Logger.getLogger(UGSEventListenerQueue.class.getSimpleName());
+    private static final long SLOW_LISTENER_THRESHOLD = Duration.ofSeconds(1).toNanos();
+
+    /**
+     * Events that are never dropped when the overflow list is full
+     */
+    private static final Set<Class<? extends UGSEvent>> MUST_DELIVER_EVENTS = Set.of(StreamEvent.class,
+            ControllerStateEvent.class, AlarmEvent.class, FileStateEvent.class);
+
+    private final UGSEventListener listener;
+    private final Executor executor;
+    private final int capacity;
+    private final int mask;
+
+    // The ring buffer, each slot has a sequence telling if it is free or has been written to
+    private final AtomicReferenceArray<QueuedEvent> slots;
+    private final AtomicLongArray sequences;
+    private final AtomicLong tail = new AtomicLong();
+
+    // Only changed by the delivering thread
+    private volatile long head;
+
+    // Events that did not fit in the ring buffer, these are delivered after the events in the buffer
+    private final Queue<QueuedEvent> overflow = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger overflowSize = new AtomicInteger();
+
+    private final AtomicReference<ControllerStatusEvent> pendingStatus = new AtomicReference<>();
+    private final AtomicBoolean scheduled = new AtomicBoolean();
+    private volatile boolean closed;
+    private final AtomicBoolean hasWarnedAboutOverflow = new AtomicBoolean();
+    private final AtomicBoolean hasWarnedAboutDropped = new AtomicBoolean();
+    private boolean hasWarnedAboutSlowListener;
+
+    private final LongAdder delivered = new LongAdder();
+    private final LongAdder coalesced = new LongAdder();
+    private final LongAdder overflowed = new LongAdder();
+    private final LongAdder dropped = new LongAdder();
+    private final LongAdder totalLatency = new LongAdder();
+    private final AtomicLong maxLatency = new AtomicLong();
+
+    /**
+     * A marker for the position of a coalesced controller status in the queue
+     */
+    private static final UGSEvent STATUS_MARKER = new UGSEvent() {
+    };
+
+    private record QueuedEvent(UGSEvent event, long sentTime) {
+    }
+
+    /**
+     * Creates a queue for the listener
+     *
+     * @param listener the listener to deliver events to
+     * @param executor the executor to deliver the events with
+     * @param capacity the maximum number of queued events, will be rounded up to a power of two
+     */
+    UGSEventListenerQueue(UGSEventListener listener, Executor executor, int capacity) {
+        this.listener = listener;
+        this.executor = executor;
+        this.capacity = Integer.highestOneBit(Math.max(capacity, 2) - 1) << 1;
+        this.mask = this.capacity - 1;
+        this.slots = new AtomicReferenceArray<>(this.capacity);
+        this.sequences = new AtomicLongArray(this.capacity);
+        for (int i = 0; i < this.capacity; i++) {
+            sequences.set(i, i);
+        }
+    }
+
+    UGSEventListener getListener() {
+        return listener;
+    }
+
+    /**
+     * Queues an event for the listener, this will never block.
+     *
+     * @param event the event to deliver
+     */
+    void send(UGSEvent event) {
+        if (closed) {
+            return;
+        }
+
+        if (event instanceof ControllerStatusEvent statusEvent) {
+            ControllerStatusEvent previous = pendingStatus.getAndAccumulate(statusEvent, UGSEventListenerQueue::coalesce);
+            if (previous != null) {
+                // The previous status has not been delivered yet and is already in the queue
+                coalesced.increment();
+                return;
+            }
+            event = STATUS_MARKER;
+        }
+
+        QueuedEvent queuedEvent = new QueuedEvent(event, System.nanoTime());
+        if (event == STATUS_MARKER) {
+            // If the marker can not be queued the pending status is delivered once all other events are delivered
+            if (overflow.isEmpty()) {
+                offer(queuedEvent);
+            }
+        } else if (!overflow.isEmpty() || !offer(queuedEvent)) {
+            // Once the buffer has overflowed all events needs to go to the overflow list to keep them in order
+            addToOverflow(queuedEvent);
+        }
+        schedule();
+    }
+
+    private void addToOverflow(QueuedEvent queuedEvent) {
+        if (overflowSize.get() >= capacity && !MUST_DELIVER_EVENTS.contains(queuedEvent.event().getClass())) {
+            dropped.increment();
+            if (hasWarnedAboutDropped.compareAndSet(false, true)) {
+                LOGGER.log(Level.WARNING, "The listener {0} can not keep up with the events, events are being dropped",
+                        listener.getClass().getName());
+            }
+            return;
+        }
+
+        overflowSize.incrementAndGet();
+        overflow.add(queuedEvent);
+        overflowed.increment();
+        if (hasWarnedAboutOverflow.compareAndSet(false, true)) {
+            LOGGER.log(Level.WARNING, "The listener {0} can not keep up with the events, the event queue is growing",
+                    listener.getClass().getName());
+        }
+    }
+
+    /**
+     * Stops delivering events to the listener
+     */
+    void close() {
+        closed = true;
+    }
+
+    private static ControllerStatusEvent coalesce(ControllerStatusEvent pending, ControllerStatusEvent next) {
+        if (pending == null) {
+            return next;
+        }
+        return new ControllerStatusEvent(next.getStatus(), pending.getPreviousStatus());
+    }
+
+    private boolean offer(QueuedEvent event) {
+        long position = tail.get();
+        while (true) {
+            int index = (int) (position & mask);
+            long difference = sequences.get(index) - position;
+            if (difference == 0) {
+                if (tail.compareAndSet(position, position + 1)) {
+                    slots.set(index, event);
+                    sequences.set(index, position + 1);
+                    return true;
+                }
+                position = tail.get();
+            } else if (difference < 0) {
+                // The slot has not yet been read, the buffer is full
+                return false;
+            } else {
+                position = tail.get();
+            }
+        }
+    }
+
+    private QueuedEvent poll() {
+        int index = (int) (head & mask);
+        if (sequences.get(index) != head + 1) {
+            return null;
+        }
+
+        QueuedEvent event = slots.get(index);
+        slots.set(index, null);
+        sequences.set(index, head + capacity);
+        head++;
+        return event;
+    }
+
+    private boolean hasPendingEvents() {
+        return tail.get() != head || !overflow.isEmpty() || pendingStatus.get() != null;
+    }
+
+    private void schedule() {
+        if (scheduled.compareAndSet(false, true)) {
+            executor.execute(this);
+        }
+    }
+
+    @Override
+    public void run() {
+        do {
+            deliverQueuedEvents();
+            scheduled.set(false);
+
+            // An event may have been added after the queue was emptied but before it was marked as not scheduled
+        } while (!closed && hasPendingEvents() && scheduled.compareAndSet(false, true));
+    }
+
+    private void deliverQueuedEvents() {
+        while (!closed) {
+            QueuedEvent queuedEvent = poll();
+            if (queuedEvent == null) {
+                if (tail.get() != head) {
+                    // An event is being written to the queue
+                    Thread.onSpinWait();
+                    continue;
+                }
+
+                QueuedEvent overflowEvent = overflow.poll();
+                if (overflowEvent != null) {
+                    overflowSize.decrementAndGet();
+                    deliver(overflowEvent.event(), overflowEvent.sentTime());
+                    continue;
+                }
+
+                // The status marker could not be queued as the queue was full
+                ControllerStatusEvent statusEvent = pendingStatus.getAndSet(null);
+                if (statusEvent == null) {
+                    return;
+                }
+                deliver(statusEvent, System.nanoTime());
+                continue;
+            }
+
+            UGSEvent event = queuedEvent.event();
+            if (event == STATUS_MARKER) {
+                event = pendingStatus.getAndSet(null);
+                if (event == null) {
+                    continue;
+                }
+            }
+            deliver(event, queuedEvent.sentTime());
+        }
+    }
+
+    private void deliver(UGSEvent event, long sentTime) {
+        long start = System.nanoTime();
+        long latency = start - sentTime;
+        totalLatency.add(latency);
+        maxLatency.accumulateAndGet(latency, Math::max);
+        delivered.increment();
+
+        try {
+            listener.UGSEvent(event);
+        } catch (Exception e) {
+            LOGGER.log(Level.SEVERE, "Could not dispatch the event " + event.getClass().getSimpleName() + " to the listener " + listener.getClass().getSimpleName(), e);
+        }
+
+        if (!hasWarnedAboutSlowListener && System.nanoTime() - start > SLOW_LISTENER_THRESHOLD) {
+            hasWarnedAboutSlowListener = true;
+            LOGGER.log(Level.WARNING, "The listener {0} was slow to handle the event {1}",
+                    new Object[]{listener.getClass().getName(), event.getClass().getSimpleName()});
+        }
+    }
+
+    /**
+     * Returns the delivery statistics of this listener
+     *
+     * @return the statistics
+     */
+    UGSEventListenerStatistics getStatistics() {
+        long deliveredCount = delivered.sum();
+        Duration averageLatency = deliveredCount == 0 ? Duration.ZERO : Duration.ofNanos(totalLatency.sum() / deliveredCount);
+        int queued = (int) Math.max(0, Math.min(capacity, tail.get() - head)) + overflowSize.get();
+        return new UGSEventListenerStatistics(listener.getClass().getName(), deliveredCount, coalesced.sum(), overflowed.sum(),
+                dropped.sum(), queued, averageLatency, Duration.ofNanos(maxLatency.get()));
+    }
+}
@@ -0,0 +1,37 @@
+/*
+    Copyright 2026 agent
+
+    This file is part of Universal Gcode Sender (UGS).
+
+    UGS is free software: you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    UGS is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with UGS.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.willwinder.universalgcodesender.model;
+
+import java.time.Duration;
+
+/**
+ * Statistics about the events delivered to a single event listener
+ *
+ * @param listenerName   the class name of the listener
+ * @param delivered      the number of events given to the listener
+ * @param coalesced      the number of controller status events that were replaced by a newer status before being delivered
+ * @param overflowed     the number of events that were put in the overflow list as the queue of the listener was full
+ * @param dropped        the number of events that were dropped as both the queue and the overflow list were full
+ * @param queued         the number of events currently waiting to be delivered
+ * @param averageLatency the average time from an event being sent until the listener was called
+ * @param maxLatency     the longest time from an event being sent until the listener was called
+ */
+public record UGSEventListenerStatistics(String listenerName, long delivered, long coalesced, long overflowed, long dropped,
+                                         int queued, Duration averageLatency, Duration maxLatency) {
+}
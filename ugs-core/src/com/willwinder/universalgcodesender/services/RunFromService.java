@@ -18,7 +18,6 @@
  */
 package com.willwinder.universalgcodesender.services;
 
-import com.willwinder.universalgcodesender.gcode.processors.RunFromProcessor;
 import com.willwinder.universalgcodesender.listeners.UGSEventListener;
 import com.willwinder.universalgcodesender.model.BackendAPI;
 import com.willwinder.universalgcodesender.model.UGSEvent;
@@ -29,30 +28,23 @@ import java.util.HashSet;
 import java.util.Set;
 
 /**
- * A service that will handle skipping to given line numbers in a loaded gcode program. When this service is created it
- * will load a gcode processor to the backend which can be used to skip lines in the currently loaded program.
+ * A service that will handle skipping to given line numbers in a loaded gcode program. The lines are skipped by the
+ * backend using the state index of the processed program, see {@link BackendAPI#setRunFromLine(int)}.
  *
  * @author Joacim Breiler
  */
 public class RunFromService implements UGSEventListener {
     private final BackendAPI backend;
     private final Set<RunFromServiceListener> listeners = new HashSet<>();
-    private final RunFromProcessor runFromProcessor = new RunFromProcessor(0);
 
     public RunFromService(BackendAPI backend) {
         this.backend = backend;
-        try {
-            this.backend.applyCommandProcessor(runFromProcessor);
-        } catch (Exception e) {
-            // Never mind this
-        }
         this.backend.addUGSEventListener(this);
     }
 
     public void runFromLine(int lineNumber) {
         try {
-            this.runFromProcessor.setLineNumber(lineNumber);
-            this.backend.applyCommandProcessor(runFromProcessor);
+            this.backend.setRunFromLine(lineNumber);
             listeners.forEach(listener -> listener.runFromLineChanged(lineNumber));
         } catch (Exception e) {
             e.printStackTrace();
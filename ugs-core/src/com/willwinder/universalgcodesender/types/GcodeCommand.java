@@ -50,6 +50,12 @@ public class GcodeCommand {
     private final int id = ID_GENERATOR.getAndIncrement();
 
     private final String command;
+
+    /**
+     * The number of bytes of the command when sent to the controller, excluding the line break
+     */
+    private final int commandLength;
+
     private final String originalCommand;
     private final int commandNum;
     private final String comment;
@@ -120,6 +126,7 @@ public class GcodeCommand {
      */
     protected GcodeCommand(String command, String originalCommand, String comment, int commandNumber, boolean isGenerated) {
         this.command = command.trim();
+        this.commandLength = getByteLength(this.command);
         this.originalCommand = originalCommand;
         this.comment = comment;
         this.commandNum = commandNumber;
@@ -185,6 +192,25 @@ public class GcodeCommand {
         return this.command;
     }
 
+    /**
+     * Returns the number of bytes the command will occupy when sent to the controller using the
+     * platform encoding, excluding the line break.
+     *
+     * @return the length of the command in bytes
+     */
+    public int getCommandLength() {
+        return this.commandLength;
+    }
+
+    private static int getByteLength(String command) {
+        for (int i = 0; i < command.length(); i++) {
+            if (command.charAt(i) >= 0x80) {
+                return command.getBytes().length;
+            }
+        }
+        return command.length();
+    }
+
     public String getOriginalCommandString() {
         return this.originalCommand == null ? this.command : this.originalCommand;
     }
@@ -60,6 +60,9 @@ public class ConnectionSettingsPanel extends AbstractUGSSettings {
     private final Checkbox autoStartPendant = new Checkbox(
             Localization.getString("sender.autostartpendant"));
     private final JTextField pendantPort = new JTextField();
+    private final Spinner pendantStatusUpdateRate = new Spinner(
+            Localization.getString("settings.pendantStatusUpdateRate"),
+            new SpinnerNumberModel(1, 1, null, 50));
     private final JComboBox<Language> languageCombo = new JComboBox<>(AvailableLanguages.getAvailableLanguages().toArray(new Language[0]));
     private final JComboBox<String> connectionDriver = new JComboBox<>(ConnectionDriver.getPrettyNames());
     private final JTextField workspaceDirectory = new JTextField();
@@ -81,6 +84,7 @@ public class ConnectionSettingsPanel extends AbstractUGSSettings {
                 Localization.getString("sender.help.singlestep") + "\n\n" +
                 Localization.getString("sender.help.status") + "\n\n" +
                 Localization.getString("sender.help.status.rate") + "\n\n" +
+                Localization.getString("settings.help.pendantStatusUpdateRate") + "\n\n" +
                 Localization.getString("sender.help.state") + "\n\n";
     }
 
@@ -96,6 +100,7 @@ public class ConnectionSettingsPanel extends AbstractUGSSettings {
         settings.setShowNightlyWarning(showNightlyWarning.getValue());
         settings.setAutoStartPendant(autoStartPendant.getValue());
         settings.setPendantPort(Integer.parseInt(pendantPort.getText()));
+        settings.setPendantStatusUpdateRate((int) pendantStatusUpdateRate.getValue());
         settings.setLanguage(((Language) languageCombo.getSelectedItem()).getLanguageCode());
         settings.setConnectionDriver(ConnectionDriver.prettyNameToEnum(connectionDriver.getSelectedItem().toString()));
         settings.setWorkspaceDirectory(workspaceDirectory.getText());
@@ -146,6 +151,9 @@ public class ConnectionSettingsPanel extends AbstractUGSSettings {
         add(new JLabel(Localization.getString("settings.pendantPort")), "gapleft 56");
         add(pendantPort, "grow, wrap");
 
+        pendantStatusUpdateRate.setValue(s.getPendantStatusUpdateRate());
+        add(pendantStatusUpdateRate, "spanx, wrap");
+
         for (int i = 0; i < languageCombo.getItemCount(); i++) {
             Language l = languageCombo.getItemAt(i);
             if (l.getLanguageCode().equals(s.getLanguage())) {
@@ -0,0 +1,229 @@
+/*
+    Copyright 2026 agent
+
+    This file is part of Universal Gcode Sender (UGS).
+
+    UGS is free software: you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    UGS is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with UGS.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.willwinder.universalgcodesender.utils;
+
+import com.willwinder.universalgcodesender.gcode.ICommandCreator;
+import com.willwinder.universalgcodesender.types.GcodeCommand;
+import com.willwinder.universalgcodesender.utils.GcodeStreamReader.NotGcodeStreamFile;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+import static com.willwinder.universalgcodesender.utils.GcodeStream.BINARY_HEADER_SIZE;
+import static com.willwinder.universalgcodesender.utils.GcodeStream.BINARY_INDEX_ENTRY_SIZE;
+import static com.willwinder.universalgcodesender.utils.GcodeStream.BINARY_MAGIC;
+import static com.willwinder.universalgcodesender.utils.GcodeStream.BINARY_VERSION;
+
+/**
+ * Reads a binary (version 2) 'GcodeStream' file written by {@link BinaryGcodeStreamWriter}. The file is memory
+ * mapped and rows are located through the index at the end of the file, so seeking to any row is O(1).
+ *
+ * @author agent
+ */
+public class BinaryGcodeStreamReader implements ISeekableGcodeStreamReader {
+    /**
+     * A single mapping is limited to 2GB, larger files are mapped in segments of this size.
+     */
+    private static final int SEGMENT_SHIFT = 30;
+    private static final long SEGMENT_SIZE = 1L << SEGMENT_SHIFT;
+    private static final long SEGMENT_MASK = SEGMENT_SIZE - 1;
+
+    private final ICommandCreator commandCreator;
+    private final int numRows;
+    private final long indexOffset;
+    private MappedByteBuffer[] segments;
+    private byte[] buffer = new byte[256];
+    private int currentRow;
+
+    public BinaryGcodeStreamReader(File file, ICommandCreator commandCreator) throws NotGcodeStreamFile, IOException {
+        this.commandCreator = commandCreator;
+
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size < BINARY_HEADER_SIZE) {
+                throw new NotGcodeStreamFile();
+            }
+
+            int segmentCount = (int) ((size + SEGMENT_SIZE - 1) >>> SEGMENT_SHIFT);
+            segments = new MappedByteBuffer[segmentCount];
+            for (int i = 0; i < segmentCount; i++) {
+                long start = i * SEGMENT_SIZE;
+                segments[i] = channel.map(FileChannel.MapMode.READ_ONLY, start, Math.min(SEGMENT_SIZE, size - start));
+            }
+
+            byte[] magic = new byte[BINARY_MAGIC.length];
+            readBytes(0, magic, magic.length);
+            if (!Arrays.equals(magic, BINARY_MAGIC) || getInt(BINARY_MAGIC.length) != BINARY_VERSION) {
+                throw new NotGcodeStreamFile();
+            }
+
+            numRows = getInt(BINARY_MAGIC.length + Integer.BYTES);
+            indexOffset = getLong(BINARY_MAGIC.length + 2L * Integer.BYTES);
+            if (numRows < 0 || indexOffset < BINARY_HEADER_SIZE || indexOffset + (long) numRows * BINARY_INDEX_ENTRY_SIZE > size) {
+                throw new NotGcodeStreamFile();
+            }
+        }
+    }
+
+    @Override
+    public boolean ready() {
+        return getNumRowsRemaining() > 0;
+    }
+
+    @Override
+    public int getNumRows() {
+        return numRows;
+    }
+
+    @Override
+    public int getNumRowsRemaining() {
+        return numRows - currentRow;
+    }
+
+    @Override
+    public GcodeCommand getNextCommand() throws IOException {
+        if (currentRow >= numRows) {
+            return null;
+        }
+        return getCommand(currentRow++);
+    }
+
+    @Override
+    public void seek(int row) {
+        if (row < 0 || row > numRows) {
+            throw new IndexOutOfBoundsException("Row " + row + " is outside the gcode stream with " + numRows + " rows");
+        }
+        currentRow = row;
+    }
+
+    @Override
+    public GcodeCommand getCommand(int row) throws IOException {
+        if (segments == null) {
+            throw new IOException("The gcode stream is closed");
+        }
+        if (row < 0 || row >= numRows) {
+            throw new IndexOutOfBoundsException("Row " + row + " is outside the gcode stream with " + numRows + " rows");
+        }
+
+        long position = getLong(getIndexEntryOffset(row));
+        int commandNumber = getInt(position);
+        position += Integer.BYTES;
+
+        String original = readColumn(position);
+        position += Integer.BYTES + getInt(position);
+        String processed = readColumn(position);
+        position += Integer.BYTES + getInt(position);
+        String comment = readColumn(position);
+
+        return commandCreator.createCommand(processed, original, comment, commandNumber);
+    }
+
+    @Override
+    public int getRowForCommandNumber(int commandNumber) {
+        int low = 0;
+        int high = numRows;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (getInt(getIndexEntryOffset(middle) + Long.BYTES) < commandNumber) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+
+    @Override
+    public void close() {
+        currentRow = numRows;
+
+        // The mapping is released when the buffers are garbage collected
+        segments = null;
+    }
+
+    private long getIndexEntryOffset(int row) {
+        return indexOffset + (long) row * BINARY_INDEX_ENTRY_SIZE;
+    }
+
+    private String readColumn(long position) throws IOException {
+        int length = getInt(position);
+        if (length == 0) {
+            return "";
+        } else if (length < 0) {
+            throw new IOException("Corrupt data found while processing gcode stream at offset " + position);
+        }
+
+        if (buffer.length < length) {
+            buffer = new byte[Math.max(length, buffer.length * 2)];
+        }
+        readBytes(position + Integer.BYTES, buffer, length);
+        return new String(buffer, 0, length, StandardCharsets.UTF_8);
+    }
+
+    private int getInt(long position) {
+        int offset = (int) (position & SEGMENT_MASK);
+        MappedByteBuffer segment = segments[(int) (position >>> SEGMENT_SHIFT)];
+        if (offset + Integer.BYTES <= segment.limit()) {
+            return segment.getInt(offset);
+        }
+
+        // The value spans two segments
+        int result = 0;
+        for (int i = 0; i < Integer.BYTES; i++) {
+            result = (result << 8) | (getByte(position + i) & 0xFF);
+        }
+        return result;
+    }
+
+    private long getLong(long position) {
+        int offset = (int) (position & SEGMENT_MASK);
+        MappedByteBuffer segment = segments[(int) (position >>> SEGMENT_SHIFT)];
+        if (offset + Long.BYTES <= segment.limit()) {
+            return segment.getLong(offset);
+        }
+
+        // The value spans two segments
+        long result = 0;
+        for (int i = 0; i < Long.BYTES; i++) {
+            result = (result << 8) | (getByte(position + i) & 0xFF);
+        }
+        return result;
+    }
+
+    private byte getByte(long position) {
+        return segments[(int) (position >>> SEGMENT_SHIFT)].get((int) (position & SEGMENT_MASK));
+    }
+
+    private void readBytes(long position, byte[] destination, int length) {
+        int written = 0;
+        while (written < length) {
+            MappedByteBuffer segment = segments[(int) (position >>> SEGMENT_SHIFT)];
+            int offset = (int) (position & SEGMENT_MASK);
+            int count = Math.min(length - written, segment.limit() - offset);
+            segment.get(offset, destination, written, count);
+            written += count;
+            position += count;
+        }
+    }
+}
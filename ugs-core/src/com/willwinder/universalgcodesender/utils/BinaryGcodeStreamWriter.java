@@ -0,0 +1,133 @@
+/*
+    Copyright 2026 agent
+
+    This file is part of Universal Gcode Sender (UGS).
+
+    UGS is free software: you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    UGS is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with UGS.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.willwinder.universalgcodesender.utils;
+
+import com.willwinder.universalgcodesender.types.GcodeCommand;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileNotFoundException;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+
+import static com.willwinder.universalgcodesender.utils.GcodeStream.BINARY_HEADER_SIZE;
+import static com.willwinder.universalgcodesender.utils.GcodeStream.BINARY_MAGIC;
+import static com.willwinder.universalgcodesender.utils.GcodeStream.BINARY_VERSION;
+
+/**
+ * Writes a "GcodeStream" file in the binary (version 2) format, see {@link GcodeStream} for the layout. The rows
+ * are written with length prefixed columns and an index of row offsets is appended when the writer is closed,
+ * which allows the file to be read with a {@link BinaryGcodeStreamReader}.
+ *
+ * @author agent
+ */
+public class BinaryGcodeStreamWriter implements IGcodeWriter {
+    private final File file;
+    private final File indexFile;
+    private final DataOutputStream dataStream;
+    private final DataOutputStream indexStream;
+    private long position;
+    private int lineCount = 0;
+
+    public BinaryGcodeStreamWriter(File f) throws FileNotFoundException {
+        file = f;
+        indexFile = new File(f.getPath() + ".idx");
+        dataStream = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(f), 65536));
+        indexStream = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(indexFile), 65536));
+
+        try {
+            // Reserve space for the header, it is written when closing the file
+            dataStream.write(new byte[BINARY_HEADER_SIZE]);
+            position = BINARY_HEADER_SIZE;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static String getString(String str) {
+        return str == null ? "" : str.trim();
+    }
+
+    @Override
+    public String getCanonicalPath() throws IOException {
+        return file.getCanonicalPath();
+    }
+
+    @Override
+    public void addLine(GcodeCommand command) {
+        addLine(command.getOriginalCommandString(), command.getCommandString(), command.getComment(), command.getCommandNumber());
+    }
+
+    @Override
+    public void addLine(String original, String processed, String comment, int commandNumber) {
+        writeRow(getString(original), getString(processed), getString(comment), commandNumber);
+    }
+
+    private void writeRow(String original, String processed, String comment, int commandNumber) {
+        try {
+            indexStream.writeLong(position);
+            indexStream.writeInt(commandNumber);
+
+            dataStream.writeInt(commandNumber);
+            position += Integer.BYTES;
+            position += writeColumn(original);
+            position += writeColumn(processed);
+            position += writeColumn(comment);
+            lineCount++;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private int writeColumn(String value) throws IOException {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        dataStream.writeInt(bytes.length);
+        dataStream.write(bytes);
+        return Integer.BYTES + bytes.length;
+    }
+
+    @Override
+    public void close() throws IOException {
+        long indexOffset = position;
+        try {
+            indexStream.close();
+            dataStream.flush();
+            try (FileInputStream index = new FileInputStream(indexFile)) {
+                index.transferTo(dataStream);
+            }
+            dataStream.close();
+        } finally {
+            Files.deleteIfExists(indexFile.toPath());
+        }
+
+        try (RandomAccessFile raw = new RandomAccessFile(file, "rw")) {
+            raw.seek(0);
+            raw.write(BINARY_MAGIC);
+            raw.writeInt(BINARY_VERSION);
+            raw.writeInt(lineCount);
+            raw.writeLong(indexOffset);
+        }
+    }
+}
@@ -18,22 +18,40 @@
  */
 package com.willwinder.universalgcodesender.utils;
 
+import com.willwinder.universalgcodesender.communicator.ICommunicator;
+import com.willwinder.universalgcodesender.firmware.FirmwareSettingsException;
+import com.willwinder.universalgcodesender.firmware.IFirmwareSettings;
+import com.willwinder.universalgcodesender.listeners.ControllerState;
 import com.willwinder.universalgcodesender.listeners.UGSEventListener;
 import com.willwinder.universalgcodesender.model.Axis;
 import com.willwinder.universalgcodesender.model.BackendAPI;
 import com.willwinder.universalgcodesender.model.PartialPosition;
 import com.willwinder.universalgcodesender.model.UGSEvent;
 import com.willwinder.universalgcodesender.model.UnitUtils;
+import com.willwinder.universalgcodesender.model.events.AlarmEvent;
 import com.willwinder.universalgcodesender.model.events.CommandEvent;
 import com.willwinder.universalgcodesender.model.events.CommandEventType;
+import com.willwinder.universalgcodesender.model.events.ControllerStatusEvent;
+import com.willwinder.universalgcodesender.model.events.StreamEvent;
+import com.willwinder.universalgcodesender.model.events.StreamEventType;
 import com.willwinder.universalgcodesender.services.JogService;
+import com.willwinder.universalgcodesender.types.GcodeCommand;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
 
 /**
- * A continuous jog worker that will send small jog commands at a fixed interval so that
- * it will achieve the jog feed rate set in the {@link JogService#getFeedRate()}.
+ * A continuous jog worker that will send small jog commands so that it will achieve the
+ * jog feed rate set in the {@link JogService#getFeedRate()}.
  * <p>
- * It will attempt to listen to completed commands to determine if a new jog command
- * can be sent.
+ * It keeps a small look-ahead of short jog segments queued in the controller, sized from the
+ * jog feed rate, the axis acceleration in the firmware settings and the measured round trip
+ * time of the jog commands. When the direction of the jog changes the queued segments are
+ * canceled and new segments are sent as soon as the controller reports that it is idle again.
  * <p>
  * Example usage:
  * ContinuousJogWorker worker = new ContinuousJogWorker(backendAPI, jogService);
@@ -44,20 +62,74 @@ import com.willwinder.universalgcodesender.services.JogService;
  * @author Joacim Breiler
  */
 public class ContinuousJogWorker implements UGSEventListener {
+    /**
+     * The shortest segment to send, limits the number of commands sent to the controller
+     */
+    private static final double MIN_SEGMENT_TIME = 0.010;
+
+    /**
+     * The number of segments to keep queued, needs to be less than the controller planner buffer
+     */
+    private static final int MIN_LOOK_AHEAD = 2;
+    private static final int MAX_LOOK_AHEAD = 10;
+
+    /**
+     * The time needed to stop the machine if the acceleration is unknown, corresponds to a full GRBL
+     * planner buffer with 10ms segments
+     */
+    private static final double DEFAULT_STOP_TIME = 0.150;
+    private static final double LATENCY_SMOOTHING = 0.2;
+
+    private static final ScheduledExecutorService DEFAULT_EXECUTOR = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "UGS continuous jog");
+        thread.setDaemon(true);
+        return thread;
+    });
+
     private final JogService jogService;
     private final BackendAPI backendAPI;
+    private final ScheduledExecutorService executor;
+
+    /**
+     * The time each sent jog command that hasn't yet been completed was sent
+     */
+    private final Deque<Long> pendingCommands = new ArrayDeque<>();
+
     private float x;
     private float y;
     private float z;
     private float a;
     private float b;
     private float c;
+    private float[] jogDirection = new float[6];
     private boolean isRunning = false;
     private boolean jogCanceled = true;
 
+    /**
+     * If a jog cancel needs to be sent when all pending jog commands are completed
+     */
+    private boolean cancelWhenCompleted = false;
+
+    /**
+     * If we are waiting for the controller to become idle after a jog cancel
+     */
+    private boolean waitingForIdle = false;
+
+    /**
+     * The estimated time when the controller has executed all sent segments
+     */
+    private long queuedUntil;
+    private double roundTripTime = MIN_SEGMENT_TIME;
+    private ScheduledFuture<?> scheduledSend;
+
     public ContinuousJogWorker(BackendAPI backendAPI, JogService jogService) {
+        this(backendAPI, jogService, DEFAULT_EXECUTOR);
+    }
+
+    ContinuousJogWorker(BackendAPI backendAPI, JogService jogService, ScheduledExecutorService executor) {
         this.jogService = jogService;
         this.backendAPI = backendAPI;
+        this.executor = executor;
         this.x = 0f;
         this.y = 0f;
         this.z = 0f;
@@ -72,57 +144,106 @@ public class ContinuousJogWorker implements UGSEventListener {
     /**
      * Destroys this instance, removing it as a listener from the backend API.
      */
-    public void destroy() {
+    public synchronized void destroy() {
         isRunning = false;
         jogCanceled = true;
+        cancelScheduledSend();
         backendAPI.removeUGSEventListener(this);
     }
 
     /**
-     * Starts sending continuous jogging commands at a fixed interval.
+     * Starts sending continuous jogging commands.
      * Use {@link #stop()} to stop sending jog commands
      */
-    public void start() {
+    public synchronized void start() {
         if (!isRunning) {
             isRunning = true;
-            jogCanceled = false;
-            sendJogCommand();
+            jogDirection = getDirection();
+            sendJogCommands();
         }
     }
 
     /**
-     * Stops sending continuous jogging commands
+     * Stops sending continuous jogging commands and cancels the commands queued in the controller
      */
-    public void stop() {
+    public synchronized void stop() {
         isRunning = false;
+        cancelJog();
     }
 
     /**
-     * puts one jog command in the buffer that will take JOG_COMMAND_INTERVAL ms to execute (excluding accelleration)
-     * 
-     * This function calculates the feedrate and magnitude of an individual jog command based
-     * on the algorithm described here: https://github.com/gnea/grbl/wiki/Grbl-v1.1-Jogging
-     * The algorithm has been simplified by reducing consideration for:
-     *    dt > v^2 / (2 * a * (N-1))
-     * Instead, we make some assumptions that are expected for good jog performance:
-     *  1) The latency from when we send a jog command to GRBL and receive the "ok" back is less than 10ms (typically 1-7ms).
-     *  2) The Jog feedrate and machine acceleration are such that the machine can accelerate to it's full jog rate within
-     *     the length of the command buffer (N=15 for regular GRBL).
-     *  3) The command buffer isn't larger than N=15 (if it is, we'll get increasing lag in response to direction/rate changes on the joystick)
-     * command to take 10ms to execute excluding acceleration time.
-     *
+     * Sends jog commands until the look-ahead is filled and schedules the next send for when the
+     * first queued segment should have been executed.
+     */
+    private void sendJogCommands() {
+        cancelScheduledSend();
+        if (!isRunning || waitingForIdle || cancelWhenCompleted || getJogVectorLength() == 0) {
+            return;
+        }
+
+        final double v = getFeedRate();
+        final double acceleration = getAcceleration();
+        final double segmentTime = getSegmentTime(v, acceleration, roundTripTime);
+        final int lookAhead = getLookAhead(v, acceleration, roundTripTime, segmentTime);
+        final long segmentNanos = (long) (segmentTime * TimeUnit.SECONDS.toNanos(1));
+
+        long now = System.nanoTime();
+        if (queuedUntil - now < 0) {
+            queuedUntil = now;
+        }
+
+        while (pendingCommands.size() < lookAhead && queuedUntil - now < lookAhead * segmentNanos) {
+            sendJogCommand(v * segmentTime);
+            pendingCommands.add(now);
+            queuedUntil += segmentNanos;
+            jogCanceled = false;
+        }
+
+        long delay = Math.max(queuedUntil - (lookAhead - 1) * segmentNanos - now, 0);
+        scheduledSend = executor.schedule(this::onScheduledSend, delay, TimeUnit.NANOSECONDS);
+    }
+
+    private synchronized void onScheduledSend() {
+        scheduledSend = null;
+        sendJogCommands();
+    }
+
+    private void cancelScheduledSend() {
+        if (scheduledSend != null) {
+            scheduledSend.cancel(false);
+            scheduledSend = null;
+        }
+    }
+
+    /**
+     * Cancels the jog commands in the controller. Commands that haven't yet been completed might not
+     * have reached the controller so the cancel is sent again when they are.
+     */
+    private void cancelJog() {
+        cancelScheduledSend();
+        queuedUntil = System.nanoTime();
+        if (jogCanceled) {
+            return;
+        }
+
+        jogService.cancelJog();
+        jogCanceled = true;
+        waitingForIdle = true;
+        cancelWhenCompleted = !pendingCommands.isEmpty();
+    }
+
+    /**
+     * Puts one jog command in the buffer moving the given distance along the jog vector.
+     * <p>
      * Note: the jog command total feedrate may exceed the set feedrate if moving in more than one axis at the same time. The max rate
      * in any 1 axis will never exceed the jog feedrate.
      *
+     * @param s the distance in units that this jog command should travel
      */
-    private void sendJogCommand() {
+    private void sendJogCommand(double s) {
         final UnitUtils.Units units = jogService.getUnits();
-        final double jogVectorLength = Math.sqrt((x * x) + (y * y) + (z * z) + (a * a) + (b * b) + (c * c));
+        final double jogVectorLength = getJogVectorLength();
         final double speedFactor = jogVectorLength; //FIXME? Double.min(jogVectorLength, 1.0); // caps jog speed at 100% (1.0) of maxFeedRate
-        final double maxFeedRate = jogService.getFeedRate() / 60.0; // maximum jog feed rate in units per second
-        final double v = maxFeedRate * speedFactor; // scaled jog feed rate in units per second
-        final double dt = 0.010; // minimum dt in ms for grbl command latency
-        final double s = v * dt; // s = distance in units that this jog command should travel
         final double scaleFactor = s / jogVectorLength; // determine scaleFactor required to scale jogVectorLength to s
 
         PartialPosition.Builder builder = PartialPosition.builder(units);
@@ -135,6 +256,97 @@ public class ContinuousJogWorker implements UGSEventListener {
         jogService.adjustManualLocation(builder.build(), speedFactor);
     }
 
+    /**
+     * Calculates the duration of each jog segment based on the algorithm described here:
+     * https://github.com/gnea/grbl/wiki/Grbl-v1.1-Jogging
+     * <p>
+     * The queued segments needs to cover both the round trip time of a command, so that the next segment
+     * arrives before the queue runs empty, and the time needed to decelerate to a stop, otherwise the
+     * controller won't reach the jog feed rate:
+     * dt > v / (2 * a * (N - 1))
+     * <p>
+     * The segments are kept as short as possible to reduce the time it takes to react on changes in feed
+     * rate, but no shorter than needed to fit within {@link #MAX_LOOK_AHEAD} segments.
+     *
+     * @param v             the jog feed rate in units per second
+     * @param acceleration  the acceleration in units per second^2, or zero if unknown
+     * @param roundTripTime the time in seconds from sending a command until it is completed
+     * @return the segment time in seconds
+     */
+    static double getSegmentTime(double v, double acceleration, double roundTripTime) {
+        double lookAheadTime = getLookAheadTime(v, acceleration, roundTripTime);
+        return Math.max(MIN_SEGMENT_TIME, lookAheadTime / (MAX_LOOK_AHEAD - 1));
+    }
+
+    /**
+     * Returns the number of jog segments to keep queued in the controller
+     *
+     * @param v             the jog feed rate in units per second
+     * @param acceleration  the acceleration in units per second^2, or zero if unknown
+     * @param roundTripTime the time in seconds from sending a command until it is completed
+     * @param segmentTime   the segment time in seconds
+     * @return the number of segments
+     */
+    static int getLookAhead(double v, double acceleration, double roundTripTime, double segmentTime) {
+        double lookAheadTime = getLookAheadTime(v, acceleration, roundTripTime);
+        int lookAhead = (int) Math.ceil(lookAheadTime / segmentTime - 1e-9) + 1;
+        return Math.max(MIN_LOOK_AHEAD, Math.min(MAX_LOOK_AHEAD, lookAhead));
+    }
+
+    private static double getLookAheadTime(double v, double acceleration, double roundTripTime) {
+        double stopTime = acceleration > 0 ? v / (2 * acceleration) : DEFAULT_STOP_TIME;
+        return Math.max(roundTripTime, stopTime);
+    }
+
+    /**
+     * @return the jog feed rate in units per second scaled by the jog vector
+     */
+    private double getFeedRate() {
+        return (jogService.getFeedRate() / 60.0) * getJogVectorLength();
+    }
+
+    /**
+     * Returns the lowest acceleration of the jogged axes in the jog units per second^2
+     *
+     * @return the acceleration or zero if unknown
+     */
+    private double getAcceleration() {
+        IFirmwareSettings firmwareSettings = backendAPI.getController().getFirmwareSettings();
+        if (firmwareSettings == null) {
+            return 0;
+        }
+
+        double acceleration = Double.MAX_VALUE;
+        float[] direction = getDirection();
+        for (Axis axis : Axis.values()) {
+            if (direction[axis.ordinal()] == 0) {
+                continue;
+            }
+
+            try {
+                double axisAcceleration = firmwareSettings.getAcceleration(axis);
+                if (axisAcceleration > 0) {
+                    acceleration = Math.min(acceleration, axisAcceleration);
+                }
+            } catch (FirmwareSettingsException e) {
+                // The acceleration isn't known for this axis
+            }
+        }
+
+        if (acceleration == Double.MAX_VALUE) {
+            return 0;
+        }
+        return acceleration * UnitUtils.scaleUnits(UnitUtils.Units.MM, jogService.getUnits());
+    }
+
+    private double getJogVectorLength() {
+        return Math.sqrt((x * x) + (y * y) + (z * z) + (a * a) + (b * b) + (c * c));
+    }
+
+    private float[] getDirection() {
+        return new float[]{x, y, z, a, b, c};
+    }
+
     private void setAxisIfNotZero(PartialPosition.Builder builder, Axis axis, double value) {
         if (value != 0 && backendAPI.getController().getCapabilities().hasAxis(axis)) {
             builder.setValue(axis, value);
@@ -166,31 +378,105 @@ public class ContinuousJogWorker implements UGSEventListener {
      * @param b the direction to move (1.0 to -1.0)
      * @param c the direction to move (1.0 to -1.0)
      */
-    public void setDirection(float x, float y, float z, float a, float b, float c) {
+    public synchronized void setDirection(float x, float y, float z, float a, float b, float c) {
         this.x = x;
         this.y = y;
         this.z = z;
         this.a = a;
         this.b = b;
         this.c = c;
+        onDirectionChanged();
+    }
+
+    /**
+     * If any axis changes its direction of travel while jogging, the queued segments are canceled
+     * and the jog is re-planned. Changes in speed only affect the following segments.
+     */
+    private void onDirectionChanged() {
+        float[] direction = getDirection();
+        if (!isRunning || hasSameSigns(jogDirection, direction)) {
+            return;
+        }
+
+        jogDirection = direction;
+        cancelJog();
+        sendJogCommands();
+    }
+
+    private static boolean hasSameSigns(float[] first, float[] second) {
+        for (int i = 0; i < first.length; i++) {
+            if (Math.signum(first[i]) != Math.signum(second[i])) {
+                return false;
+            }
+        }
+        return true;
     }
 
     @Override
-    public void UGSEvent(UGSEvent event) {
-        if (event instanceof CommandEvent && ((CommandEvent) event).getCommandEventType() == CommandEventType.COMMAND_COMPLETE) {
-            if (isRunning) {
-                // still running, send the next jog command
-                sendJogCommand();
-            } else if (!jogCanceled) {
-                // a command has completed
-                // we've been stopped, so cancel jog commands in the buffer
-                jogService.cancelJog();
-                jogCanceled = true;
+    public synchronized void UGSEvent(UGSEvent event) {
+        if (event instanceof CommandEvent commandEvent && commandEvent.getCommandEventType() == CommandEventType.COMMAND_COMPLETE) {
+            if (isJogCommand(commandEvent.getCommand()) && !pendingCommands.isEmpty()) {
+                onJogCommandCompleted(pendingCommands.poll());
             }
+        } else if (event instanceof StreamEvent streamEvent && streamEvent.getType() == StreamEventType.STREAM_CANCELED) {
+            // The commands that were sent but not completed have been dropped by the communicator
+            clearPendingCommands();
+        } else if (event instanceof AlarmEvent) {
+            clearPendingCommandsIfNoneAreActive();
+        } else if (event instanceof ControllerStatusEvent statusEvent) {
+            ControllerState state = statusEvent.getStatus().getState();
+            if (state == ControllerState.IDLE || state == ControllerState.ALARM) {
+                clearPendingCommandsIfNoneAreActive();
+            }
+
+            if (waitingForIdle && !cancelWhenCompleted && state == ControllerState.IDLE) {
+                // The canceled jog has stopped, continue with the new direction
+                waitingForIdle = false;
+                sendJogCommands();
+            }
+        }
+    }
+
+    /**
+     * Pending commands will never be completed if the communicator drops them, which happens when a jog is
+     * canceled on controllers without hardware jogging, on soft resets or when the controller stops a jog. If the
+     * controller has stopped and there are no active commands in the communicator they can safely be forgotten.
+     */
+    private void clearPendingCommandsIfNoneAreActive() {
+        ICommunicator communicator = backendAPI.getController().getCommunicator();
+        if (communicator != null && !communicator.areActiveCommands()) {
+            clearPendingCommands();
+        }
+    }
+
+    private void clearPendingCommands() {
+        pendingCommands.clear();
+        cancelWhenCompleted = false;
+    }
+
+    private void onJogCommandCompleted(long sentTime) {
+        double latency = (System.nanoTime() - sentTime) / (double) TimeUnit.SECONDS.toNanos(1);
+        roundTripTime = roundTripTime + (latency - roundTripTime) * LATENCY_SMOOTHING;
+
+        if (cancelWhenCompleted && pendingCommands.isEmpty()) {
+            // All commands have reached the controller, cancel any that was planned after the first cancel
+            jogService.cancelJog();
+            cancelWhenCompleted = false;
         }
+
+        sendJogCommands();
+    }
+
+    private static boolean isJogCommand(GcodeCommand command) {
+        if (command == null) {
+            return false;
+        }
+
+        String commandString = command.getCommandString();
+        return commandString.startsWith("$J=") || (command.isTemporaryParserModalChange() && commandString.contains("G91G1"));
     }
 
-    public void setDirection(Axis axis, float value) {
+    public synchronized void setDirection(Axis axis, float value) {
         switch (axis) {
             case X:
                 x = value;
@@ -211,9 +497,10 @@ public class ContinuousJogWorker implements UGSEventListener {
                 c = value;
                 break;
         }
+        onDirectionChanged();
     }
 
-    public void update() {
+    public synchronized void update() {
         if (x != 0 || y != 0 || z != 0 || a != 0 || b != 0 || c != 0) {
             start();
         } else {
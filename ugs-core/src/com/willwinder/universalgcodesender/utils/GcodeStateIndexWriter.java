@@ -0,0 +1,82 @@
+/*
+    Copyright 2026 agent
+
+    This file is part of Universal Gcode Sender (UGS).
+
+    UGS is free software: you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    UGS is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with UGS.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.willwinder.universalgcodesender.utils;
+
+import com.willwinder.universalgcodesender.gcode.GcodeParser;
+import com.willwinder.universalgcodesender.gcode.GcodeStateIndex;
+import com.willwinder.universalgcodesender.gcode.RunTimeEstimator;
+import com.willwinder.universalgcodesender.types.GcodeCommand;
+
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * A gcode writer which adds each written row to a {@link GcodeStateIndex} before passing it on to another writer.
+ * The rows parsed by the index are also added to an optional {@link RunTimeEstimator} so that each row is only
+ * parsed once.
+ *
+ * @author agent
+ */
+public class GcodeStateIndexWriter implements IGcodeWriter {
+    private final IGcodeWriter writer;
+    private final GcodeStateIndex index;
+    private final RunTimeEstimator estimator;
+
+    public GcodeStateIndexWriter(IGcodeWriter writer, GcodeStateIndex index) {
+        this(writer, index, null);
+    }
+
+    public GcodeStateIndexWriter(IGcodeWriter writer, GcodeStateIndex index, RunTimeEstimator estimator) {
+        this.writer = writer;
+        this.index = index;
+        this.estimator = estimator;
+    }
+
+    @Override
+    public String getCanonicalPath() throws IOException {
+        return writer.getCanonicalPath();
+    }
+
+    @Override
+    public void addLine(GcodeCommand command) {
+        writer.addLine(command);
+        addRow(command.getCommandString());
+    }
+
+    @Override
+    public void addLine(String original, String processed, String comment, int commandNumber) {
+        writer.addLine(original, processed, comment, commandNumber);
+        addRow(processed == null ? "" : processed.trim());
+    }
+
+    private void addRow(String command) {
+        List<GcodeParser.GcodeMeta> metaObjects = index.addCommand(command);
+        if (estimator != null) {
+            estimator.addRow(metaObjects);
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        writer.close();
+        if (estimator != null) {
+            estimator.finish();
+        }
+    }
+}
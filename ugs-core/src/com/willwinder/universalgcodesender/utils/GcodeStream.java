@@ -39,4 +39,20 @@ public class GcodeStream {
     protected static final Pattern SPLIT_PATTERN = Pattern.compile(Pattern.quote(FIELD_SEPARATOR));
     protected static final String META_PREFIX = "gsw_meta:";
     protected static final String METADATA_RESERVED_SIZE = "                                                  ";
+
+    /**
+     * Binary (version 2) format. The file starts with a fixed size header followed by the rows, each row being the
+     * command number and the length prefixed UTF-8 columns. The file ends with an index containing the offset and
+     * command number of each row which makes it possible to seek to any row without scanning the file.
+     *
+     * <pre>
+     * header: magic (4 bytes), version (int), number of rows (int), index offset (long), reserved
+     * row:    command number (int), then for each column: length (int), UTF-8 bytes
+     * index:  for each row: row offset (long), command number (int)
+     * </pre>
+     */
+    protected static final byte[] BINARY_MAGIC = {'U', 'G', 'S', 'B'};
+    protected static final int BINARY_VERSION = 2;
+    protected static final int BINARY_HEADER_SIZE = 32;
+    protected static final int BINARY_INDEX_ENTRY_SIZE = Long.BYTES + Integer.BYTES;
 }
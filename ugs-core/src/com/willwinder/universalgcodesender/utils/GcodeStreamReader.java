@@ -60,6 +60,7 @@ public class GcodeStreamReader implements IGcodeStreamReader {
             reader = new BufferedReader(new InputStreamReader(inputStream, StandardCharsets.UTF_8));
             String metadata = StringUtils.trimToEmpty(reader.readLine());
             if (!metadata.startsWith(META_PREFIX)) {
+                closeQuietly(inputStream);
                 throw new NotGcodeStreamFile();
             }
 
@@ -67,10 +68,19 @@ public class GcodeStreamReader implements IGcodeStreamReader {
             numRows = Integer.parseInt(metadata);
             numRowsRemaining = numRows;
         } catch (IOException | NumberFormatException e) {
+            closeQuietly(inputStream);
             throw new NotGcodeStreamFile();
         }
     }
 
+    private static void closeQuietly(InputStream inputStream) {
+        try {
+            inputStream.close();
+        } catch (IOException e) {
+            // Never mind, the stream wasn't a gcode stream
+        }
+    }
+
     public GcodeStreamReader(File f, ICommandCreator commandCreator) throws NotGcodeStreamFile, FileNotFoundException {
         this(new FileInputStream(f), commandCreator);
     }
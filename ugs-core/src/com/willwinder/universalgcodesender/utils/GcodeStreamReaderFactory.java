@@ -0,0 +1,88 @@
+/*
+    Copyright 2026 agent
+
+    This file is part of Universal Gcode Sender (UGS).
+
+    UGS is free software: you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    UGS is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with UGS.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.willwinder.universalgcodesender.utils;
+
+import com.willwinder.universalgcodesender.gcode.ICommandCreator;
+import com.willwinder.universalgcodesender.utils.GcodeStreamReader.NotGcodeStreamFile;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Arrays;
+
+import static com.willwinder.universalgcodesender.utils.GcodeStream.BINARY_MAGIC;
+
+/**
+ * Opens a 'GcodeStream' file with the reader matching its format, the binary format
+ * ({@link BinaryGcodeStreamReader}) or the older text format ({@link GcodeStreamReader}).
+ *
+ * @author agent
+ */
+public class GcodeStreamReaderFactory {
+    private GcodeStreamReaderFactory() {
+    }
+
+    /**
+     * Opens a reader for the given gcode stream file
+     *
+     * @param file           the file to read
+     * @param commandCreator the command creator to use for creating commands from the stream
+     * @return a reader for the file
+     * @throws NotGcodeStreamFile if the file isn't a gcode stream file
+     * @throws IOException        if the file could not be read
+     */
+    public static IGcodeStreamReader getReader(File file, ICommandCreator commandCreator) throws NotGcodeStreamFile, IOException {
+        if (isBinaryGcodeStream(file)) {
+            return new BinaryGcodeStreamReader(file, commandCreator);
+        }
+        return new GcodeStreamReader(file, commandCreator);
+    }
+
+    /**
+     * Opens a reader with random access to the rows of the given gcode stream file, this is only supported by the
+     * binary format.
+     *
+     * @param file           the file to read
+     * @param commandCreator the command creator to use for creating commands from the stream
+     * @return a seekable reader for the file
+     * @throws NotGcodeStreamFile if the file isn't a gcode stream file
+     * @throws IOException        if the file could not be read or if it is in a format which can not be seeked
+     */
+    public static ISeekableGcodeStreamReader getSeekableReader(File file, ICommandCreator commandCreator) throws NotGcodeStreamFile, IOException {
+        if (!isBinaryGcodeStream(file)) {
+            throw new IOException("The gcode stream " + file + " does not support random access");
+        }
+        return new BinaryGcodeStreamReader(file, commandCreator);
+    }
+
+    /**
+     * Returns if the given file is written in the binary gcode stream format
+     *
+     * @param file the file to check
+     * @return true if the file starts with the binary gcode stream header
+     * @throws IOException if the file could not be read
+     */
+    public static boolean isBinaryGcodeStream(File file) throws IOException {
+        try (InputStream inputStream = new FileInputStream(file)) {
+            byte[] magic = inputStream.readNBytes(BINARY_MAGIC.length);
+            return Arrays.equals(magic, BINARY_MAGIC);
+        }
+    }
+}
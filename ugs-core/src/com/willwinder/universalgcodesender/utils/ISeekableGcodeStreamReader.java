@@ -0,0 +1,57 @@
+/*
+    Copyright 2026 agent
+
+    This file is part of Universal Gcode Sender (UGS).
+
+    UGS is free software: you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    UGS is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with UGS.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.willwinder.universalgcodesender.utils;
+
+import com.willwinder.universalgcodesender.types.GcodeCommand;
+
+import java.io.IOException;
+
+/**
+ * A Gcode stream that supports random access to its rows
+ *
+ * @author agent
+ */
+public interface ISeekableGcodeStreamReader extends IGcodeStreamReader {
+
+    /**
+     * Moves the stream to the given row, the next call to {@link #getNextCommand()} will return that row.
+     *
+     * @param row the zero based row index, use {@link #getNumRows()} to move to the end of the stream
+     * @throws IndexOutOfBoundsException if the row is outside the stream
+     */
+    void seek(int row);
+
+    /**
+     * Returns the command at the given row without moving the stream
+     *
+     * @param row the zero based row index
+     * @return the command at the given row
+     * @throws IOException if the stream can not be read
+     */
+    GcodeCommand getCommand(int row) throws IOException;
+
+    /**
+     * Finds the first row with a command number greater than or equal to the given command number. The command
+     * numbers in a processed stream are in ascending order so this is a binary search over the index.
+     *
+     * @param commandNumber the command number (line number in the original file) to look for
+     * @return the row index or {@link #getNumRows()} if there is no such row
+     */
+    int getRowForCommandNumber(int commandNumber);
+}
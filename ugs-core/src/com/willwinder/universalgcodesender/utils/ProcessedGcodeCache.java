@@ -0,0 +1,194 @@
+/*
+    Copyright 2026 agent
+
+    This file is part of Universal Gcode Sender (UGS).
+
+    UGS is free software: you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    UGS is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with UGS.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.willwinder.universalgcodesender.utils;
+
+import com.willwinder.universalgcodesender.gcode.GcodeStateIndex;
+import com.willwinder.universalgcodesender.gcode.RunTimeEstimator;
+import com.willwinder.universalgcodesender.gcode.processors.CommandProcessor;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Optional;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Keeps the processed files of a gcode program for each chain of command processors it has been processed with.
+ * When the processors are changed the file of the longest matching chain can be reused, so that only the processors
+ * after it needs to be applied. A processor is matched by its instance and its
+ * {@link CommandProcessor#getConfiguration()}, processors without a known configuration are never matched.
+ * <p>
+ * The cache owns the processed files, they are deleted when they are evicted from the cache and when the
+ * application exits.
+ *
+ * @author agent
+ */
+public class ProcessedGcodeCache {
+    private static final Logger LOGGER = Logger.getLogger(ProcessedGcodeCache.class.getName());
+    private static final int MAX_ENTRIES = 8;
+
+    /**
+     * The cached files with the most recently used first
+     */
+    private final LinkedList<Entry> entries = new LinkedList<>();
+
+    /**
+     * Adds a processed file to the cache
+     *
+     * @param processors the processors the file was processed with in the order they were applied
+     * @param file       the processed file
+     * @param stateIndex the state index of the processed file
+     * @param runTimeEstimate the estimated run time of the processed file
+     */
+    public synchronized void add(List<CommandProcessor> processors, File file, GcodeStateIndex stateIndex, RunTimeEstimator runTimeEstimate) {
+        file.deleteOnExit();
+        Entry entry = new Entry(new ArrayList<>(processors), getConfigurations(processors), file, stateIndex, runTimeEstimate);
+        Iterator<Entry> iterator = entries.iterator();
+        while (iterator.hasNext()) {
+            Entry e = iterator.next();
+            if (e.size() == entry.size() && e.matches(entry.processors(), entry.configurations(), entry.size())) {
+                iterator.remove();
+                delete(e, entry);
+            }
+        }
+
+        entries.addFirst(entry);
+        while (entries.size() > MAX_ENTRIES) {
+            delete(entries.removeLast(), entry);
+        }
+    }
+
+    /**
+     * Replaces the run time estimate of a cached file, for instance when the limits of the machine has changed.
+     *
+     * @param file            the processed file
+     * @param runTimeEstimate the new estimate
+     */
+    public synchronized void updateRunTimeEstimate(File file, RunTimeEstimator runTimeEstimate) {
+        entries.replaceAll(e -> e.file().equals(file) ?
+                new Entry(e.processors(), e.configurations(), e.file(), e.stateIndex(), runTimeEstimate) : e);
+    }
+
+    /**
+     * Finds the cached file which was processed with the longest leading part of the given processors.
+     *
+     * @param processors the processors to be applied in order
+     * @return the cached file or empty if no file was processed with the first processor
+     */
+    public synchronized Optional<Entry> find(List<CommandProcessor> processors) {
+        List<String> configurations = getConfigurations(processors);
+        Entry result = null;
+        for (Entry entry : entries) {
+            if (entry.size() > 0 && entry.size() <= processors.size() &&
+                    (result == null || entry.size() > result.size()) &&
+                    entry.matches(processors, configurations, entry.size())) {
+                result = entry;
+            }
+        }
+
+        if (result != null) {
+            entries.remove(result);
+            entries.addFirst(result);
+        }
+        return Optional.ofNullable(result);
+    }
+
+    /**
+     * Removes all cached files which were processed with the given processor, this needs to be done if the
+     * configuration of the processor has changed.
+     *
+     * @param processor the processor
+     */
+    public synchronized void invalidate(CommandProcessor processor) {
+        Iterator<Entry> iterator = entries.iterator();
+        while (iterator.hasNext()) {
+            Entry entry = iterator.next();
+            if (entry.processors().stream().anyMatch(p -> p == processor)) {
+                iterator.remove();
+                delete(entry, null);
+            }
+        }
+    }
+
+    /**
+     * Removes all cached files and deletes them
+     */
+    public synchronized void clear() {
+        while (!entries.isEmpty()) {
+            delete(entries.removeFirst(), null);
+        }
+    }
+
+    /**
+     * Deletes the file of a removed entry unless it is still used by another entry
+     *
+     * @param removed the entry removed from the cache
+     * @param added   an entry being added which isn't yet in the cache or null
+     */
+    private void delete(Entry removed, Entry added) {
+        File file = removed.file();
+        if ((added != null && added.file().equals(file)) || entries.stream().anyMatch(e -> e.file().equals(file))) {
+            return;
+        }
+
+        try {
+            Files.deleteIfExists(file.toPath());
+        } catch (IOException e) {
+            LOGGER.log(Level.WARNING, "Could not delete the processed file " + file, e);
+        }
+    }
+
+    private static List<String> getConfigurations(List<CommandProcessor> processors) {
+        List<String> result = new ArrayList<>(processors.size());
+        processors.forEach(p -> result.add(p.getConfiguration()));
+        return result;
+    }
+
+    /**
+     * A processed file and the processors it was processed with
+     */
+    public record Entry(List<CommandProcessor> processors, List<String> configurations, File file, GcodeStateIndex stateIndex,
+                        RunTimeEstimator runTimeEstimate) {
+        /**
+         * @return the number of processors the file was processed with
+         */
+        public int size() {
+            return processors.size();
+        }
+
+        private boolean matches(List<CommandProcessor> otherProcessors, List<String> otherConfigurations, int count) {
+            if (otherProcessors.size() < count) {
+                return false;
+            }
+
+            for (int i = 0; i < count; i++) {
+                if (processors.get(i) != otherProcessors.get(i) || configurations.get(i) == null ||
+                        !configurations.get(i).equals(otherConfigurations.get(i))) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+}
@@ -90,6 +90,7 @@ public class Settings {
     private boolean showSerialPortWarning = true;
     private boolean autoStartPendant = false;
     private int pendantPort = 8080;
+    private int pendantStatusUpdateRate = 100;
     private boolean autoConnect = false;
     private boolean autoReconnect = false;
 
@@ -138,6 +139,11 @@ public class Settings {
      */
     private String lastWorkingDirectory = System.getProperty("user.home");
 
+    /**
+     * If gcode files should be preprocessed in parallel chunks using all but one of the available processors
+     */
+    private boolean parallelPreprocessing = true;
+
     /**
      * The GSON deserialization doesn't do anything beyond initialize what's in the json document.  Call finalizeInitialization() before using the Settings.
      */
@@ -566,6 +572,20 @@ public class Settings {
         changed();
     }
 
+    /**
+     * Returns the minimum time in milliseconds between two status updates sent to a pendant client
+     *
+     * @return the time in milliseconds
+     */
+    public int getPendantStatusUpdateRate() {
+        return pendantStatusUpdateRate;
+    }
+
+    public void setPendantStatusUpdateRate(int pendantStatusUpdateRate) {
+        this.pendantStatusUpdateRate = pendantStatusUpdateRate;
+        changed();
+    }
+
     public boolean isInvertMouseZoom() {
         return invertMouseZoom;
     }
@@ -591,6 +611,15 @@ public class Settings {
         this.lastWorkingDirectory = lastWorkingDirectory;
     }
 
+    public boolean isParallelPreprocessing() {
+        return parallelPreprocessing;
+    }
+
+    public void setParallelPreprocessing(boolean parallelPreprocessing) {
+        this.parallelPreprocessing = parallelPreprocessing;
+        changed();
+    }
+
     public static class FileStats {
         public Position minCoordinate;
         public Position maxCoordinate;
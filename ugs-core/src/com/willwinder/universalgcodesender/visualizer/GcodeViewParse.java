@@ -27,9 +27,11 @@ import com.willwinder.universalgcodesender.gcode.util.GcodeParserException;
 import com.willwinder.universalgcodesender.model.Position;
 import com.willwinder.universalgcodesender.model.UnitUtils;
 import com.willwinder.universalgcodesender.types.GcodeCommand;
+import com.willwinder.universalgcodesender.types.PointSegment;
 import com.willwinder.universalgcodesender.utils.IGcodeStreamReader;
 
 import java.io.IOException;
+import java.io.InterruptedIOException;
 import java.util.ArrayList;
 import java.util.List;
 
@@ -37,6 +39,11 @@ import java.util.List;
  * Gcode parser that creates an array of line segments which can be drawn.
  */
 public class GcodeViewParse {
+    // The time in milliseconds before the first batch of segments is given to a listener
+    private static final long FIRST_BATCH_INTERVAL = 50;
+    // The interval is doubled after each batch up to this number of milliseconds
+    private static final long MAX_BATCH_INTERVAL = 1000;
+
     // Parsed object
     private final Position min;
     private final Position max;
@@ -92,6 +99,31 @@ public class GcodeViewParse {
      *       also stores the PlaneState, that can be removed when things are converted to Point3d for final rendering.
      */
 
+    /**
+     * Receives the parsed points together with the point before it
+     */
+    private interface PointSegmentConsumer {
+        void accept(Position start, PointSegment end) throws GcodeParserException;
+    }
+
+    /**
+     * Receives the segments parsed so far while a stream is being converted
+     */
+    public interface SegmentsListener {
+        /**
+         * Called from the parsing thread with the segments parsed so far. The extremes, max feed rate and
+         * spindle speed of the parser will be updated with the given segments when this is called.
+         * <p>
+         * The segments are a {@link LineSegmentStore#snapshot()} sharing the memory with the segments given
+         * in the earlier batches, so only the segments added since the last batch needs to be read. Any changes
+         * made to the segments by the listener will also be seen in the following batches.
+         *
+         * @param segments the segments parsed so far
+         * @param progress how much of the stream that has been parsed, between 0 and 1
+         */
+        void onSegments(LineSegmentStore segments, double progress);
+    }
+
     /**
      * Test a point and update min/max coordinates if appropriate.
      */
@@ -128,27 +160,85 @@ public class GcodeViewParse {
     public List<LineSegment> toObjFromReader(IGcodeStreamReader reader,
                                              double arcSegmentLength) throws IOException, GcodeParserException {
         lines.clear();
+        parseReader(reader, (start, end) -> VisualizerUtils.addLinesFromPointSegment(start, end, arcSegmentLength, lines));
+        recalculateBoundaries();
+        return lines;
+    }
+
+    /**
+     * Same as toObjFromReader, but converts the gcode into a compact segment store which
+     * uses a fraction of the memory of a list of line segments.
+     *
+     * @param reader           a stream with commands to parse.
+     * @param arcSegmentLength length of line segments when expanding an arc.
+     */
+    public LineSegmentStore toSegmentsFromReader(IGcodeStreamReader reader,
+                                                 double arcSegmentLength) throws IOException, GcodeParserException {
+        return toSegmentsFromReader(reader, arcSegmentLength, null);
+    }
+
+    /**
+     * Same as toSegmentsFromReader, but gives the segments parsed so far to a listener while parsing so that
+     * a partial model can be shown. The first batch is given after {@link #FIRST_BATCH_INTERVAL} milliseconds
+     * and the interval is then doubled for each batch.
+     * <p>
+     * Parsing is stopped with an {@link InterruptedIOException} if the thread is interrupted.
+     *
+     * @param reader           a stream with commands to parse.
+     * @param arcSegmentLength length of line segments when expanding an arc.
+     * @param listener         a listener for the batches of segments or null
+     */
+    public LineSegmentStore toSegmentsFromReader(IGcodeStreamReader reader, double arcSegmentLength,
+                                                 SegmentsListener listener) throws IOException, GcodeParserException {
+        LineSegmentStore segments = new LineSegmentStore();
+        SegmentBatcher batcher = new SegmentBatcher(segments, reader, listener);
+        parseReader(reader, (start, end) -> VisualizerUtils.addLinesFromPointSegment(start, end, arcSegmentLength, segments), batcher);
+        segments.trimToSize();
+        batcher.recalculateBoundaries();
+        return segments;
+    }
+
+    private void parseReader(IGcodeStreamReader reader, PointSegmentConsumer consumer) throws IOException, GcodeParserException {
+        parseReader(reader, consumer, () -> {});
+    }
+
+    private void parseReader(IGcodeStreamReader reader, PointSegmentConsumer consumer, Runnable afterCommand) throws IOException, GcodeParserException {
         GcodeParser gp = getParser();
 
         // Save the state
         Position start = new Position(Double.NaN, Double.NaN, Double.NaN, Double.NaN, Double.NaN, Double.NaN, gp.getCurrentState().getUnits());
 
         while (reader.getNumRowsRemaining() > 0) {
+            if (Thread.currentThread().isInterrupted()) {
+                throw new InterruptedIOException("Parsing of the gcode stream was interrupted");
+            }
+
             GcodeCommand commandObject = reader.getNextCommand();
             List<String> commands = gp.preprocessCommand(commandObject.getCommandString(), gp.getCurrentState());
             for (String command : commands) {
                 List<GcodeMeta> points = gp.addCommand(command, commandObject.getCommandNumber());
                 for (GcodeMeta meta : points) {
                     if (meta.point != null) {
-                        VisualizerUtils.addLinesFromPointSegment(start, meta.point, arcSegmentLength, lines);
+                        consumer.accept(start, meta.point);
                         start = meta.point.point();
                     }
                 }
             }
+            afterCommand.run();
         }
+    }
 
-        recalculateBoundaries();
-        return lines;
+    private void recalculateBoundaries(LineSegmentStore segments) {
+        recalculateBoundaries(segments, 0);
+    }
+
+    private void recalculateBoundaries(LineSegmentStore segments, int fromIndex) {
+        for (int i = fromIndex; i < segments.size(); i++) {
+            testExtremes(segments.getStartX(i), segments.getStartY(i), segments.getStartZ(i));
+            testExtremes(segments.getEndX(i), segments.getEndY(i), segments.getEndZ(i));
+            maxSpindleSpeed = Math.max(segments.getSpindleSpeed(i), maxSpindleSpeed);
+            maxFeedRate = Math.max(segments.getFeedRate(i), maxFeedRate);
+        }
     }
 
     private void recalculateBoundaries() {
@@ -168,9 +258,28 @@ public class GcodeViewParse {
      * @param arcSegmentLength length of line segments when expanding an arc.
      */
     public List<LineSegment> toObjRedux(List<String> gcode, double arcSegmentLength) throws GcodeParserException {
-        GcodeParser gp = getParser();
-
         lines.clear();
+        parseLines(gcode, (start, end) -> VisualizerUtils.addLinesFromPointSegment(start, end, arcSegmentLength, lines));
+        recalculateBoundaries();
+        return lines;
+    }
+
+    /**
+     * Same as toObjRedux, but converts the gcode into a compact segment store.
+     *
+     * @param gcode            commands to visualize.
+     * @param arcSegmentLength length of line segments when expanding an arc.
+     */
+    public LineSegmentStore toSegments(List<String> gcode, double arcSegmentLength) throws GcodeParserException {
+        LineSegmentStore segments = new LineSegmentStore();
+        parseLines(gcode, (start, end) -> VisualizerUtils.addLinesFromPointSegment(start, end, arcSegmentLength, segments));
+        segments.trimToSize();
+        recalculateBoundaries(segments);
+        return segments;
+    }
+
+    private void parseLines(List<String> gcode, PointSegmentConsumer consumer) throws GcodeParserException {
+        GcodeParser gp = getParser();
 
         // Save the state
         Position start = new Position(Double.NaN, Double.NaN, Double.NaN, gp.getCurrentState().getUnits());
@@ -181,7 +290,7 @@ public class GcodeViewParse {
                 List<GcodeMeta> points = gp.addCommand(command);
                 for (GcodeMeta meta : points) {
                     if (meta.point != null) {
-                        VisualizerUtils.addLinesFromPointSegment(start, meta.point, arcSegmentLength, lines);
+                        consumer.accept(start, meta.point);
 
                         // if the last set point is in a different or unknown unit, crate a new point-instance with the correct unit set
                         if (start.getUnits() != UnitUtils.Units.MM && gp.getCurrentState().isMetric) {
@@ -202,8 +311,45 @@ public class GcodeViewParse {
                 }
             }
         }
+    }
 
-        recalculateBoundaries();
-        return lines;
+    /**
+     * Gives snapshots of the segments parsed so far to a listener at an increasing interval
+     */
+    private class SegmentBatcher implements Runnable {
+        private final LineSegmentStore segments;
+        private final IGcodeStreamReader reader;
+        private final SegmentsListener listener;
+        private long interval = FIRST_BATCH_INTERVAL;
+        private long nextBatchTime = System.currentTimeMillis() + FIRST_BATCH_INTERVAL;
+
+        // The number of segments which has been included in the boundaries
+        private int boundedSegments;
+
+        private SegmentBatcher(LineSegmentStore segments, IGcodeStreamReader reader, SegmentsListener listener) {
+            this.segments = segments;
+            this.reader = reader;
+            this.listener = listener;
+        }
+
+        @Override
+        public void run() {
+            if (listener == null || System.currentTimeMillis() < nextBatchTime || segments.isEmpty()) {
+                return;
+            }
+
+            recalculateBoundaries();
+            int numRows = reader.getNumRows();
+            double progress = numRows > 0 ? 1 - (double) reader.getNumRowsRemaining() / numRows : 0;
+            listener.onSegments(segments.snapshot(), progress);
+
+            interval = Math.min(interval * 2, MAX_BATCH_INTERVAL);
+            nextBatchTime = System.currentTimeMillis() + interval;
+        }
+
+        private void recalculateBoundaries() {
+            GcodeViewParse.this.recalculateBoundaries(segments, boundedSegments);
+            boundedSegments = segments.size();
+        }
     }
 }
@@ -0,0 +1,367 @@
+/*
+    Copyright 2026 agent
+
+    This file is part of Universal Gcode Sender (UGS).
+
+    UGS is free software: you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    UGS is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with UGS.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.willwinder.universalgcodesender.visualizer;
+
+import com.willwinder.universalgcodesender.model.Position;
+import com.willwinder.universalgcodesender.model.UnitUtils;
+import com.willwinder.universalgcodesender.types.PointSegment;
+
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * A compact store of line segments in millimeters, keeping the segment data in parallel primitive
+ * arrays instead of one {@link LineSegment} with two {@link Position} objects for each segment.
+ * <p>
+ * Coordinates for rotational axes are only stored once a segment with a rotation has been added.
+ *
+ * @author agent
+ */
+public class LineSegmentStore {
+    private static final int DEFAULT_CAPACITY = 1024;
+    private static final int COORDINATES_PER_SEGMENT = 6;
+
+    private static final byte FLAG_ARC = 1;
+    private static final byte FLAG_FAST_TRAVERSE = 1 << 1;
+    private static final byte FLAG_Z_MOVEMENT = 1 << 2;
+    private static final byte FLAG_ROTATION = 1 << 3;
+
+    private int size;
+    private float[] coordinates;
+    private float[] rotations;
+    private int[] lineNumbers;
+    private byte[] flags;
+    private float[] feedRates;
+    private float[] spindleSpeeds;
+
+    public LineSegmentStore() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    public LineSegmentStore(int capacity) {
+        capacity = Math.max(capacity, 1);
+        coordinates = new float[capacity * COORDINATES_PER_SEGMENT];
+        lineNumbers = new int[capacity];
+        flags = new byte[capacity];
+        feedRates = new float[capacity];
+        spindleSpeeds = new float[capacity];
+    }
+
+    /**
+     * Adds a segment between two points using the line number, flags, feed rate and spindle speed from the given segment.
+     *
+     * @param start the start of the segment in millimeters
+     * @param end   the end of the segment in millimeters
+     * @param meta  the point segment that the segment was generated from
+     */
+    public void add(Position start, Position end, PointSegment meta) {
+        add(start, end, meta.getLineNumber(), meta.isArc(), meta.isFastTraverse(), meta.isZMovement(), meta.isRotation(),
+                meta.getFeedRate(), meta.getSpindleSpeed());
+    }
+
+    /**
+     * Adds a copy of the given line segment
+     *
+     * @param lineSegment the line segment with coordinates in millimeters
+     */
+    public void add(LineSegment lineSegment) {
+        add(lineSegment.getStart(), lineSegment.getEnd(), lineSegment.getLineNumber(), lineSegment.isArc(),
+                lineSegment.isFastTraverse(), lineSegment.isZMovement(), lineSegment.isRotation(),
+                lineSegment.getFeedRate(), lineSegment.getSpindleSpeed());
+    }
+
+    private void add(Position start, Position end, int lineNumber, boolean isArc, boolean isFastTraverse, boolean isZMovement,
+                     boolean isRotation, double feedRate, double spindleSpeed) {
+        ensureCapacity(size + 1);
+
+        int index = size * COORDINATES_PER_SEGMENT;
+        coordinates[index] = (float) start.x;
+        coordinates[index + 1] = (float) start.y;
+        coordinates[index + 2] = (float) start.z;
+        coordinates[index + 3] = (float) end.x;
+        coordinates[index + 4] = (float) end.y;
+        coordinates[index + 5] = (float) end.z;
+
+        if (rotations == null && (start.hasRotation() || end.hasRotation())) {
+            rotations = new float[coordinates.length];
+            Arrays.fill(rotations, Float.NaN);
+        }
+
+        if (rotations != null) {
+            rotations[index] = (float) start.a;
+            rotations[index + 1] = (float) start.b;
+            rotations[index + 2] = (float) start.c;
+            rotations[index + 3] = (float) end.a;
+            rotations[index + 4] = (float) end.b;
+            rotations[index + 5] = (float) end.c;
+        }
+
+        lineNumbers[size] = lineNumber;
+        flags[size] = (byte) ((isArc ? FLAG_ARC : 0) |
+                (isFastTraverse ? FLAG_FAST_TRAVERSE : 0) |
+                (isZMovement ? FLAG_Z_MOVEMENT : 0) |
+                (isRotation ? FLAG_ROTATION : 0));
+        feedRates[size] = (float) feedRate;
+        spindleSpeeds[size] = (float) spindleSpeed;
+        size++;
+    }
+
+    private static boolean isRotated(double value) {
+        return !Double.isNaN(value) && value != 0;
+    }
+
+    private void ensureCapacity(int capacity) {
+        if (capacity <= lineNumbers.length) {
+            return;
+        }
+
+        int newCapacity = Math.max(capacity, lineNumbers.length + (lineNumbers.length >> 1));
+        resize(newCapacity);
+    }
+
+    private void resize(int capacity) {
+        coordinates = Arrays.copyOf(coordinates, capacity * COORDINATES_PER_SEGMENT);
+        if (rotations != null) {
+            int oldLength = rotations.length;
+            rotations = Arrays.copyOf(rotations, capacity * COORDINATES_PER_SEGMENT);
+            if (rotations.length > oldLength) {
+                Arrays.fill(rotations, oldLength, rotations.length, Float.NaN);
+            }
+        }
+        lineNumbers = Arrays.copyOf(lineNumbers, capacity);
+        flags = Arrays.copyOf(flags, capacity);
+        feedRates = Arrays.copyOf(feedRates, capacity);
+        spindleSpeeds = Arrays.copyOf(spindleSpeeds, capacity);
+    }
+
+    /**
+     * Releases any unused capacity, should be called when all segments have been added.
+     */
+    public void trimToSize() {
+        if (size < lineNumbers.length) {
+            resize(Math.max(size, 1));
+        }
+    }
+
+    /**
+     * Returns a copy of the segments added so far, which will not be affected by segments added later.
+     *
+     * @return a copy of the store
+     */
+    public LineSegmentStore copy() {
+        LineSegmentStore copy = new LineSegmentStore(1);
+        copy.size = size;
+        int capacity = Math.max(size, 1);
+        copy.coordinates = Arrays.copyOf(coordinates, capacity * COORDINATES_PER_SEGMENT);
+        copy.rotations = rotations == null ? null : Arrays.copyOf(rotations, capacity * COORDINATES_PER_SEGMENT);
+        copy.lineNumbers = Arrays.copyOf(lineNumbers, capacity);
+        copy.flags = Arrays.copyOf(flags, capacity);
+        copy.feedRates = Arrays.copyOf(feedRates, capacity);
+        copy.spindleSpeeds = Arrays.copyOf(spindleSpeeds, capacity);
+        return copy;
+    }
+
+    /**
+     * Returns a store with the segments added so far which shares the arrays with this store, making it possible
+     * to hand out the segments while more are added without copying them. Segments added later will not be
+     * visible in the snapshot, but changes to the existing segments with {@link #setCoordinates} will be.
+     *
+     * @return a snapshot of the store
+     */
+    public LineSegmentStore snapshot() {
+        LineSegmentStore snapshot = new LineSegmentStore(1);
+        snapshot.size = size;
+        snapshot.coordinates = coordinates;
+        snapshot.rotations = rotations;
+        snapshot.lineNumbers = lineNumbers;
+        snapshot.flags = flags;
+        snapshot.feedRates = feedRates;
+        snapshot.spindleSpeeds = spindleSpeeds;
+        return snapshot;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public double getStartX(int index) {
+        return coordinates[index * COORDINATES_PER_SEGMENT];
+    }
+
+    public double getStartY(int index) {
+        return coordinates[index * COORDINATES_PER_SEGMENT + 1];
+    }
+
+    public double getStartZ(int index) {
+        return coordinates[index * COORDINATES_PER_SEGMENT + 2];
+    }
+
+    public double getEndX(int index) {
+        return coordinates[index * COORDINATES_PER_SEGMENT + 3];
+    }
+
+    public double getEndY(int index) {
+        return coordinates[index * COORDINATES_PER_SEGMENT + 4];
+    }
+
+    public double getEndZ(int index) {
+        return coordinates[index * COORDINATES_PER_SEGMENT + 5];
+    }
+
+    /**
+     * Returns true if the start or end of the segment has coordinates for any of the rotational axes
+     *
+     * @param index the index of the segment
+     * @return true if there are rotational coordinates
+     */
+    public boolean hasRotationCoordinates(int index) {
+        if (rotations == null) {
+            return false;
+        }
+
+        int offset = index * COORDINATES_PER_SEGMENT;
+        for (int i = offset; i < offset + COORDINATES_PER_SEGMENT; i++) {
+            if (isRotated(rotations[i])) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Returns a new position with the start of the segment
+     *
+     * @param index the index of the segment
+     * @return the start position in millimeters
+     */
+    public Position getStart(int index) {
+        return getPosition(index * COORDINATES_PER_SEGMENT);
+    }
+
+    /**
+     * Returns a new position with the end of the segment
+     *
+     * @param index the index of the segment
+     * @return the end position in millimeters
+     */
+    public Position getEnd(int index) {
+        return getPosition(index * COORDINATES_PER_SEGMENT + 3);
+    }
+
+    private Position getPosition(int offset) {
+        if (rotations == null) {
+            return new Position(coordinates[offset], coordinates[offset + 1], coordinates[offset + 2], UnitUtils.Units.MM);
+        }
+        return new Position(coordinates[offset], coordinates[offset + 1], coordinates[offset + 2],
+                rotations[offset], rotations[offset + 1], rotations[offset + 2], UnitUtils.Units.MM);
+    }
+
+    /**
+     * Replaces the coordinates of a segment, any rotational coordinates will be cleared
+     *
+     * @param index the index of the segment
+     * @param start the new start position in millimeters
+     * @param end   the new end position in millimeters
+     */
+    public void setCoordinates(int index, Position start, Position end) {
+        int offset = index * COORDINATES_PER_SEGMENT;
+        coordinates[offset] = (float) start.x;
+        coordinates[offset + 1] = (float) start.y;
+        coordinates[offset + 2] = (float) start.z;
+        coordinates[offset + 3] = (float) end.x;
+        coordinates[offset + 4] = (float) end.y;
+        coordinates[offset + 5] = (float) end.z;
+
+        if (rotations != null) {
+            Arrays.fill(rotations, offset, offset + COORDINATES_PER_SEGMENT, Float.NaN);
+        }
+    }
+
+    public int getLineNumber(int index) {
+        return lineNumbers[index];
+    }
+
+    public boolean isArc(int index) {
+        return (flags[index] & FLAG_ARC) != 0;
+    }
+
+    public boolean isFastTraverse(int index) {
+        return (flags[index] & FLAG_FAST_TRAVERSE) != 0;
+    }
+
+    public boolean isZMovement(int index) {
+        return (flags[index] & FLAG_Z_MOVEMENT) != 0;
+    }
+
+    public boolean isRotation(int index) {
+        return (flags[index] & FLAG_ROTATION) != 0;
+    }
+
+    public double getFeedRate(int index) {
+        return feedRates[index];
+    }
+
+    public double getSpindleSpeed(int index) {
+        return spindleSpeeds[index];
+    }
+
+    /**
+     * Creates a line segment object from the segment at the given index
+     *
+     * @param index the index of the segment
+     * @return a new line segment
+     */
+    public LineSegment get(int index) {
+        LineSegment lineSegment = new LineSegment(getStart(index), getEnd(index), getLineNumber(index));
+        lineSegment.setIsArc(isArc(index));
+        lineSegment.setIsFastTraverse(isFastTraverse(index));
+        lineSegment.setIsZMovement(isZMovement(index));
+        lineSegment.setIsRotation(isRotation(index));
+        lineSegment.setFeedRate(getFeedRate(index));
+        lineSegment.setSpindleSpeed(getSpindleSpeed(index));
+        return lineSegment;
+    }
+
+    /**
+     * Returns a read only list view of the store, where line segment objects are created when accessed.
+     *
+     * @return a list of line segments
+     */
+    public List<LineSegment> asList() {
+        return new AbstractList<>() {
+            @Override
+            public LineSegment get(int index) {
+                if (index < 0 || index >= size) {
+                    throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+                }
+                return LineSegmentStore.this.get(index);
+            }
+
+            @Override
+            public int size() {
+                return size;
+            }
+        };
+    }
+}
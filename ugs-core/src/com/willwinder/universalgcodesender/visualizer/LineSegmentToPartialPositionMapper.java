@@ -22,6 +22,7 @@ import com.willwinder.universalgcodesender.model.PartialPosition;
 import com.willwinder.universalgcodesender.model.UnitUtils;
 
 import java.util.function.Function;
+import java.util.stream.IntStream;
 import java.util.stream.Stream;
 
 /**
@@ -36,4 +37,29 @@ public class LineSegmentToPartialPositionMapper implements Function<LineSegment,
         PartialPosition end = PartialPosition.fromXY(lineSegment.getEnd().getPositionIn(UnitUtils.Units.MM));
         return Stream.of(start, end);
     }
+
+    /**
+     * Converts the segment at the given index in the store to a stream of partial positions in millimeters
+     *
+     * @param segments the segment store
+     * @param index    the index of the segment
+     * @return a stream with the start and end position of the segment
+     */
+    public Stream<PartialPosition> apply(LineSegmentStore segments, int index) {
+        PartialPosition start = new PartialPosition(segments.getStartX(index), segments.getStartY(index), UnitUtils.Units.MM);
+        PartialPosition end = new PartialPosition(segments.getEndX(index), segments.getEndY(index), UnitUtils.Units.MM);
+        return Stream.of(start, end);
+    }
+
+    /**
+     * Converts the segments in the store to a stream of partial positions in millimeters
+     *
+     * @param segments the segment store
+     * @param indexes  the indexes of the segments to convert
+     * @return a stream with the start and end positions of the segments
+     */
+    public Stream<PartialPosition> apply(LineSegmentStore segments, IntStream indexes) {
+        return indexes.mapToObj(index -> apply(segments, index))
+                .flatMap(Function.identity());
+    }
 }
@@ -130,12 +130,32 @@ public class VisualizerUtils {
         return ls;
     }
 
+    /**
+     * Receives the line segments created when expanding a point segment
+     */
+    private interface LineSegmentConsumer {
+        void add(Position start, Position end, PointSegment meta);
+    }
+
     /**
      * Turns a point segment into one or more LineSegment. Arcs and rotations around axes are expanded
      *
      * @throws GcodeParserException if the lines could not be expanded
      */
     public static void addLinesFromPointSegment(final Position start, final PointSegment endSegment, double arcSegmentLength, List<LineSegment> ret) throws GcodeParserException {
+        addLinesFromPointSegment(start, endSegment, arcSegmentLength, (a, b, meta) -> ret.add(createLineSegment(a, b, meta)));
+    }
+
+    /**
+     * Turns a point segment into one or more line segments in the given store. Arcs and rotations around axes are expanded
+     *
+     * @throws GcodeParserException if the lines could not be expanded
+     */
+    public static void addLinesFromPointSegment(final Position start, final PointSegment endSegment, double arcSegmentLength, LineSegmentStore ret) throws GcodeParserException {
+        addLinesFromPointSegment(start, endSegment, arcSegmentLength, ret::add);
+    }
+
+    private static void addLinesFromPointSegment(final Position start, final PointSegment endSegment, double arcSegmentLength, LineSegmentConsumer ret) throws GcodeParserException {
         // For a line segment list ALL arcs must be converted to lines.
         double minArcLength = 0;
         endSegment.convertToMetric();
@@ -150,7 +170,7 @@ public class VisualizerUtils {
                     expandRotationalLineSegment(start, endSegment, ret);
                 } else {
                     // Line
-                    ret.add(createLineSegment(start, endSegment.point(), endSegment));
+                    ret.add(start, endSegment.point(), endSegment);
                 }
             }
         } catch (Exception e) {
@@ -159,7 +179,7 @@ public class VisualizerUtils {
         }
     }
 
-    private static void expandArc(Position start, PointSegment endSegment, double arcSegmentLength, List<LineSegment> ret, double minArcLength) {
+    private static void expandArc(Position start, PointSegment endSegment, double arcSegmentLength, LineSegmentConsumer ret, double minArcLength) {
         List<Position> points =
                 GcodePreprocessorUtils.generatePointsAlongArcBDring(
                         start, endSegment.point(), endSegment.center(), endSegment.isClockwise(),
@@ -168,13 +188,17 @@ public class VisualizerUtils {
         if (!points.isEmpty()) {
             Position startPoint = start;
             for (Position nextPoint : points) {
-                ret.add(createLineSegment(startPoint, nextPoint, endSegment));
+                ret.add(startPoint, nextPoint, endSegment);
                 startPoint = nextPoint;
             }
         }
     }
 
     public static void expandRotationalLineSegment(Position start, PointSegment endSegment, List<LineSegment> ret) {
+        expandRotationalLineSegment(start, endSegment, (a, b, meta) -> ret.add(createLineSegment(a, b, meta)));
+    }
+
+    private static void expandRotationalLineSegment(Position start, PointSegment endSegment, LineSegmentConsumer ret) {
         double maxDegreesPerStep = 5;
         double deltaX = defaultZero(endSegment.point().x) - defaultZero(start.x);
         double deltaY = defaultZero(endSegment.point().y) - defaultZero(start.y);
@@ -205,11 +229,11 @@ public class VisualizerUtils {
             if (deltaC != 0) {
                 end.setC(defaultZero(start.c) + ((deltaC / steps) * i));
             }
-            ret.add(createLineSegment(startPoint, end, endSegment));
+            ret.add(startPoint, end, endSegment);
             startPoint = end;
         }
 
-        ret.add(createLineSegment(startPoint, endSegment.point(), endSegment));
+        ret.add(startPoint, endSegment.point(), endSegment);
     }
 
     /**
@@ -251,6 +275,30 @@ public class VisualizerUtils {
         return next;
     }
 
+    /**
+     * Converts all segments with rotations on either X, Y or Z axes to cartesian coordinates.
+     *
+     * @param segments the segments to convert
+     */
+    public static void toCartesian(LineSegmentStore segments) {
+        toCartesian(segments, 0, segments.size());
+    }
+
+    /**
+     * Converts the segments in the given range with rotations on either X, Y or Z axes to cartesian coordinates.
+     *
+     * @param segments the segments to convert
+     * @param start    the first segment to convert
+     * @param end      the segment after the last segment to convert
+     */
+    public static void toCartesian(LineSegmentStore segments, int start, int end) {
+        for (int i = start; i < end; i++) {
+            if (segments.hasRotationCoordinates(i)) {
+                segments.setCoordinates(i, toCartesian(segments.getStart(i)), toCartesian(segments.getEnd(i)));
+            }
+        }
+    }
+
     /**
      * Converts a position with rotations on either X, Y or Z axes to a cartesian coordinate.
      *
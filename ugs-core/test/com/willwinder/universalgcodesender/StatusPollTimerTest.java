@@ -1,13 +1,27 @@
 package com.willwinder.universalgcodesender;
 
-import static org.junit.Assert.assertEquals;
+import com.willwinder.universalgcodesender.listeners.ControllerState;
+import com.willwinder.universalgcodesender.listeners.ControllerStatusBuilder;
+import org.junit.After;
 import org.junit.Before;
 import org.junit.Test;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
 
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.after;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
 public class StatusPollTimerTest {
     private StatusPollTimer statusPollTimer;
+    private ScheduledExecutorService executor;
 
     @Mock
     private IController controller;
@@ -15,7 +29,16 @@ public class StatusPollTimerTest {
     @Before
     public void setUp() {
         MockitoAnnotations.initMocks(this);
-        statusPollTimer = new StatusPollTimer(controller);
+        executor = Executors.newSingleThreadScheduledExecutor();
+        statusPollTimer = new StatusPollTimer(controller, executor);
+        when(controller.isCommOpen()).thenReturn(true);
+        setControllerState(ControllerState.IDLE);
+    }
+
+    @After
+    public void tearDown() {
+        statusPollTimer.setEnabled(false);
+        executor.shutdownNow();
     }
 
     @Test
@@ -23,4 +46,91 @@ public class StatusPollTimerTest {
         statusPollTimer.setUpdateInterval(100);
         assertEquals(100, statusPollTimer.getUpdateInterval());
     }
-}
\ No newline at end of file
+
+    @Test
+    public void getCurrentIntervalShouldPollLessFrequentlyWhenIdle() {
+        statusPollTimer.setUpdateInterval(100);
+        assertEquals(400, statusPollTimer.getCurrentInterval());
+
+        statusPollTimer.setUpdateInterval(500);
+        assertEquals(1000, statusPollTimer.getCurrentInterval());
+
+        setControllerState(ControllerState.JOG);
+        assertEquals(500, statusPollTimer.getCurrentInterval());
+
+        setControllerState(ControllerState.IDLE);
+        when(controller.isStreaming()).thenReturn(true);
+        assertEquals(500, statusPollTimer.getCurrentInterval());
+    }
+
+    @Test
+    public void startShouldNotPollWhenDisabled() throws Exception {
+        statusPollTimer.setUpdateInterval(10);
+        statusPollTimer.start();
+        verify(controller, after(100).never()).requestStatusReport();
+    }
+
+    @Test
+    public void pollShouldWaitForTheStatusBeforeRequestingAgain() throws Exception {
+        setControllerState(ControllerState.RUN);
+        statusPollTimer.setUpdateInterval(10);
+        statusPollTimer.setEnabled(true);
+        verify(controller, timeout(1000).times(1)).requestStatusReport();
+        verify(controller, after(100).times(1)).requestStatusReport();
+
+        statusPollTimer.receivedStatus();
+        verify(controller, timeout(1000).times(2)).requestStatusReport();
+    }
+
+    @Test
+    public void pollShouldRequestAgainWhenStatusIsLost() throws Exception {
+        setControllerState(ControllerState.RUN);
+        statusPollTimer.setUpdateInterval(10);
+        statusPollTimer.setEnabled(true);
+        verify(controller, timeout(2000).times(2)).requestStatusReport();
+        assertTrue(statusPollTimer.getLostPolls() >= 1);
+    }
+
+    @Test
+    public void lostStatusShouldNotIncreaseTheInterval() throws Exception {
+        setControllerState(ControllerState.RUN);
+        statusPollTimer.setUpdateInterval(10);
+        statusPollTimer.setEnabled(true);
+        verify(controller, timeout(2000).times(2)).requestStatusReport();
+
+        assertEquals(1, statusPollTimer.getLostPolls());
+        assertEquals(0, statusPollTimer.getAverageLatency().toNanos());
+        assertEquals(10, statusPollTimer.getCurrentInterval());
+    }
+
+    @Test
+    public void slowStatusReportsShouldIncreaseTheInterval() throws Exception {
+        setControllerState(ControllerState.RUN);
+        statusPollTimer.setUpdateInterval(10);
+        statusPollTimer.setEnabled(true);
+        verify(controller, timeout(1000).times(1)).requestStatusReport();
+
+        Thread.sleep(60);
+        statusPollTimer.receivedStatus();
+
+        assertTrue(statusPollTimer.getAverageLatency().toMillis() >= 60);
+        assertTrue(statusPollTimer.getMaxLatency().toMillis() >= 60);
+        assertTrue(statusPollTimer.getCurrentInterval() >= 120);
+    }
+
+    @Test
+    public void stopShouldStopPolling() throws Exception {
+        setControllerState(ControllerState.RUN);
+        statusPollTimer.setUpdateInterval(10);
+        statusPollTimer.setEnabled(true);
+        verify(controller, timeout(1000).times(1)).requestStatusReport();
+
+        statusPollTimer.stop();
+        statusPollTimer.receivedStatus();
+        verify(controller, after(100).times(1)).requestStatusReport();
+    }
+
+    private void setControllerState(ControllerState state) {
+        when(controller.getControllerStatus()).thenReturn(ControllerStatusBuilder.newInstance().setState(state).build());
+    }
+}
@@ -29,6 +29,7 @@ import com.willwinder.universalgcodesender.utils.GcodeStreamTest;
 import com.willwinder.universalgcodesender.utils.GcodeStreamWriter;
 import com.willwinder.universalgcodesender.utils.IGcodeStreamReader;
 import org.apache.commons.io.FileUtils;
+import org.apache.commons.lang3.StringUtils;
 import org.easymock.EasyMock;
 import org.junit.AfterClass;
 import static org.junit.Assert.assertEquals;
@@ -38,7 +39,10 @@ import org.junit.Before;
 import org.junit.BeforeClass;
 import org.junit.Test;
 import org.mockito.ArgumentCaptor;
+import org.mockito.InOrder;
+import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.Mockito.doNothing;
+import static org.mockito.Mockito.inOrder;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
@@ -112,8 +116,8 @@ public class BufferedCommunicatorTest {
 
         // Check events and connection:
         // console message, connection stream, sent event
-        mockConnection.sendStringToComm(input + "\n");
-        EasyMock.expect(EasyMock.expectLastCall()).times(2);
+        mockConnection.sendStringToComm(input + "\n" + input + "\n");
+        EasyMock.expect(EasyMock.expectLastCall()).once();
         mockScl.commandSent(EasyMock.anyObject(GcodeCommand.class));
         EasyMock.expect(EasyMock.expectLastCall()).times(2);
 
@@ -131,10 +135,9 @@ public class BufferedCommunicatorTest {
     public void testSimpleStreamStream() throws Exception {
         String[] inputs = {"input1", "input2"};
 
+        mockConnection.sendStringToComm("input1\ninput2\n");
+        EasyMock.expect(EasyMock.expectLastCall());
         for (String i : inputs) {
-            mockConnection.sendStringToComm(i + "\n");
-            EasyMock.expect(EasyMock.expectLastCall());
-
             mockScl.commandSent(EasyMock.<GcodeCommand>anyObject());
             EasyMock.expect(EasyMock.expectLastCall());
         }
@@ -169,8 +172,8 @@ public class BufferedCommunicatorTest {
         String input = "input";
 
         // Setup 2 active commands.
-        mockConnection.sendStringToComm(input + "\n");
-        EasyMock.expect(EasyMock.expectLastCall()).times(2);
+        mockConnection.sendStringToComm(input + "\n" + input + "\n");
+        EasyMock.expect(EasyMock.expectLastCall()).once();
 
         mockScl.commandSent(EasyMock.<GcodeCommand>anyObject());
         EasyMock.expect(EasyMock.expectLastCall()).times(2);
@@ -210,6 +213,49 @@ public class BufferedCommunicatorTest {
         EasyMock.verify(mockConnection, mockScl);
     }
 
+    @Test
+    public void streamCommandsShouldFillTheBufferExactly() throws Exception {
+        Connection connection = mock(Connection.class);
+        instance.setConnection(connection);
+
+        // 20 commands of five bytes including the line break fits in the 101 byte buffer
+        for (int i = 0; i < 22; i++) {
+            instance.queueCommand(new GcodeCommand("G1X" + (i % 10)));
+        }
+        instance.streamCommands();
+
+        assertEquals(20, asl.size());
+        assertEquals(100, instance.getSentBufferSize());
+        verify(connection, times(1)).sendStringToComm(anyString());
+
+        instance.handleResponseMessage("ok");
+        assertEquals(20, asl.size());
+        assertEquals(100, instance.getSentBufferSize());
+        verify(connection, times(2)).sendStringToComm(anyString());
+
+        instance.cancelSend();
+        assertEquals(0, instance.getSentBufferSize());
+    }
+
+    @Test
+    public void streamCommandsShouldDispatchCommandSentBeforeWritingTheBatch() throws Exception {
+        Connection connection = mock(Connection.class);
+        ICommunicatorListener listener = mock(ICommunicatorListener.class);
+        instance.setConnection(connection);
+        instance.addListener(listener);
+
+        GcodeCommand first = new GcodeCommand("G1X1");
+        GcodeCommand second = new GcodeCommand("G1X2");
+        instance.queueCommand(first);
+        instance.queueCommand(second);
+        instance.streamCommands();
+
+        InOrder inOrder = inOrder(listener, connection);
+        inOrder.verify(listener).commandSent(first);
+        inOrder.verify(listener).commandSent(second);
+        inOrder.verify(connection).sendStringToComm("G1X1\nG1X2\n");
+    }
+
     /**
      * Test of pauseSend method, of class BufferedCommunicator.
      */
@@ -218,10 +264,10 @@ public class BufferedCommunicatorTest {
         System.out.println("pauseSend");
 
         String input = "123456789";
-        for (int i = 0; i < 11; i++) {
-            mockConnection.sendStringToComm(input + "\n");
-            EasyMock.expect(EasyMock.expectLastCall());
-        }
+        mockConnection.sendStringToComm(StringUtils.repeat(input + "\n", 10));
+        EasyMock.expect(EasyMock.expectLastCall());
+        mockConnection.sendStringToComm(input + "\n");
+        EasyMock.expect(EasyMock.expectLastCall());
         EasyMock.replay(mockConnection);
 
         // Send the first 10 commands, pause 11th
@@ -371,9 +417,7 @@ public class BufferedCommunicatorTest {
         byte b = 10;
 
         String tenChar = "123456789";
-        for (int i = 0; i < 10; i++) {
-            mockConnection.sendStringToComm(tenChar + "\n");
-        }
+        mockConnection.sendStringToComm(StringUtils.repeat(tenChar + "\n", 10));
         mockConnection.sendByteImmediately(b);
 
         EasyMock.replay(mockConnection);
@@ -412,9 +456,8 @@ public class BufferedCommunicatorTest {
         instance.streamCommands();
 
         // Then
-        assertEquals(2, commandCaptor.getAllValues().size());
-        assertEquals("The first command processed should be the string command", "G1\n", commandCaptor.getAllValues().get(0));
-        assertEquals("The second command should be from the stream", "G0\n", commandCaptor.getAllValues().get(1));
+        assertEquals("Both commands should be sent in one batch", 1, commandCaptor.getAllValues().size());
+        assertEquals("The string command should be sent before the stream command", "G1\nG0\n", commandCaptor.getValue());
     }
 
     @Test
@@ -0,0 +1,206 @@
+/*
+    Copyright 2026 agent
+
+    This file is part of Universal Gcode Sender (UGS).
+
+    UGS is free software: you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    UGS is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with UGS.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.willwinder.universalgcodesender.communicator;
+
+import com.willwinder.universalgcodesender.GrblUtils;
+import com.willwinder.universalgcodesender.communicator.event.CommunicatorEventDispatcher;
+import com.willwinder.universalgcodesender.connection.Connection;
+import com.willwinder.universalgcodesender.connection.IConnectionDevice;
+import com.willwinder.universalgcodesender.connection.IConnectionListener;
+import com.willwinder.universalgcodesender.listeners.FileTransferListener;
+import com.willwinder.universalgcodesender.types.GcodeCommand;
+import org.junit.Test;
+
+import java.io.InputStream;
+import java.util.ArrayDeque;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+import java.util.concurrent.LinkedBlockingDeque;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Streams a program with many short line segments to a simulated GRBL controller and measures the number
+ * of lines per second. The simulation uses virtual clocks for the host and the controller. The host is blocked
+ * while writing to a serial link of 115200 baud where each write has a fixed overhead, and the controller
+ * needs a fixed time to parse and plan each line.
+ */
+public class GrblCommunicatorThroughputTest {
+    private static final int LINE_COUNT = 20000;
+    private static final double BYTE_TIME_US = 1_000_000d / (115200 / 10d);
+    private static final double WRITE_OVERHEAD_US = 1000;
+    private static final double LINE_EXECUTION_US = 500;
+
+    @Test
+    public void streamingShouldNeverOverflowTheControllerBuffer() throws Exception {
+        SimulatedGrblConnection controller = stream(false);
+        assertEquals(LINE_COUNT, controller.getExecutedLines());
+        assertTrue("Expected the buffer to be filled", controller.getMaxBufferedBytes() > GrblUtils.GRBL_RX_BUFFER_SIZE - 20);
+    }
+
+    @Test
+    public void streamingShouldSendMultipleCommandsInEachWriteWhenResponsesAreGrouped() throws Exception {
+        SimulatedGrblConnection lineByLine = stream(false);
+        SimulatedGrblConnection grouped = stream(true);
+
+        assertEquals(LINE_COUNT, grouped.getExecutedLines());
+        assertTrue("Expected multiple commands to be sent in each write", grouped.getWrites() < LINE_COUNT / 2);
+        assertTrue("Expected more lines per second", grouped.getLinesPerSecond() > lineByLine.getLinesPerSecond());
+    }
+
+    private SimulatedGrblConnection stream(boolean groupResponses) {
+        SimulatedGrblConnection controller = new SimulatedGrblConnection();
+        GrblCommunicator communicator = new GrblCommunicator(new LinkedBlockingDeque<>(), new LinkedBlockingDeque<>(), new CommunicatorEventDispatcher(), controller);
+
+        Random random = new Random(1);
+        for (int i = 0; i < LINE_COUNT; i++) {
+            communicator.queueCommand(new GcodeCommand(String.format(Locale.US, "G1X%.3fY%.3f", random.nextDouble() * 100, random.nextDouble() * 100)));
+        }
+
+        communicator.streamCommands();
+        List<String> responses;
+        while (!(responses = controller.readResponses()).isEmpty()) {
+            if (groupResponses) {
+                communicator.handleResponseMessages(responses);
+            } else {
+                responses.forEach(communicator::handleResponseMessage);
+            }
+            assertTrue("The controller buffer overflowed", controller.getMaxBufferedBytes() <= GrblUtils.GRBL_RX_BUFFER_SIZE);
+        }
+
+        assertEquals(0, communicator.numActiveCommands());
+        assertEquals(0, communicator.getSentBufferSize());
+        return controller;
+    }
+
+    /**
+     * A connection acting as a GRBL controller with a 128 byte serial buffer.
+     */
+    private static class SimulatedGrblConnection implements Connection {
+        private final Deque<Integer> lineLengths = new ArrayDeque<>();
+        private final Deque<Double> lineArrivals = new ArrayDeque<>();
+        private double hostTime;
+        private double controllerTime;
+        private int bufferedBytes;
+        private int maxBufferedBytes;
+        private int writes;
+        private int executedLines;
+        private int pendingResponses;
+
+        @Override
+        public void sendStringToComm(String command) {
+            writes++;
+            hostTime += WRITE_OVERHEAD_US + command.length() * BYTE_TIME_US;
+
+            int start = 0;
+            for (int i = command.indexOf('\n'); i >= 0; i = command.indexOf('\n', start)) {
+                lineLengths.add(i - start + 1);
+                lineArrivals.add(hostTime);
+                start = i + 1;
+            }
+            bufferedBytes += command.length();
+            maxBufferedBytes = Math.max(maxBufferedBytes, bufferedBytes);
+        }
+
+        /**
+         * Returns the responses for all lines the controller has executed while the host was busy. If there are
+         * none the host waits for the next line to be executed.
+         */
+        List<String> readResponses() {
+            executeLines(hostTime);
+            if (pendingResponses == 0 && !lineLengths.isEmpty()) {
+                executeLines(Math.max(controllerTime, lineArrivals.peek()) + LINE_EXECUTION_US);
+                hostTime = Math.max(hostTime, controllerTime);
+            }
+
+            List<String> responses = Collections.nCopies(pendingResponses, "ok");
+            pendingResponses = 0;
+            return responses;
+        }
+
+        private void executeLines(double untilTime) {
+            while (!lineLengths.isEmpty() && Math.max(controllerTime, lineArrivals.peek()) + LINE_EXECUTION_US <= untilTime) {
+                controllerTime = Math.max(controllerTime, lineArrivals.pop()) + LINE_EXECUTION_US;
+                bufferedBytes -= lineLengths.pop();
+                executedLines++;
+                pendingResponses++;
+            }
+        }
+
+        double getLinesPerSecond() {
+            return executedLines / (controllerTime / 1_000_000d);
+        }
+
+        int getMaxBufferedBytes() {
+            return maxBufferedBytes;
+        }
+
+        int getWrites() {
+            return writes;
+        }
+
+        int getExecutedLines() {
+            return executedLines;
+        }
+
+        @Override
+        public void addListener(IConnectionListener connectionListener) {
+        }
+
+        @Override
+        public void setUri(String uri) {
+        }
+
+        @Override
+        public boolean openPort() {
+            return true;
+        }
+
+        @Override
+        public void closePort() {
+        }
+
+        @Override
+        public void sendByteImmediately(byte b) {
+        }
+
+        @Override
+        public boolean isOpen() {
+            return true;
+        }
+
+        @Override
+        public List<? extends IConnectionDevice> getDevices() {
+            return Collections.emptyList();
+        }
+
+        @Override
+        public byte[] xmodemReceive() {
+            return new byte[0];
+        }
+
+        @Override
+        public void xmodemSend(InputStream inputStream, long size, FileTransferListener listener) {
+        }
+    }
+}
@@ -0,0 +1,73 @@
+/*
+    Copyright 2026 agent
+
+    This file is part of Universal Gcode Sender (UGS).
+
+    UGS is free software: you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    UGS is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with UGS.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.willwinder.universalgcodesender.connection;
+
+import org.junit.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+
+public class ResponseLineFramerTest {
+
+    @Test
+    public void appendShouldSplitLinesAndRemoveCarriageReturns() {
+        List<String> lines = new ArrayList<>();
+        ResponseLineFramer framer = new ResponseLineFramer(lines::add, StandardCharsets.UTF_8);
+
+        byte[] bytes = "ok\r\n<Idle|MPos:0.000,0.000,0.000>\n\nerror:2\r\nparti".getBytes(StandardCharsets.UTF_8);
+        framer.append(bytes, 0, bytes.length);
+
+        assertEquals(List.of("ok", "<Idle|MPos:0.000,0.000,0.000>", "", "error:2"), lines);
+        assertEquals(5, framer.getPendingLength());
+
+        framer.reset();
+        framer.append("al\n".getBytes(StandardCharsets.UTF_8), 0, 3);
+        assertEquals("al", lines.get(4));
+    }
+
+    @Test
+    public void appendShouldHandleLinesSplitBetweenReads() {
+        List<String> lines = new ArrayList<>();
+        ResponseLineFramer framer = new ResponseLineFramer(lines::add, StandardCharsets.UTF_8);
+
+        // Feed a long line one byte at a time, including a multi byte character
+        String longLine = "[MSG:" + "å".repeat(300) + "]";
+        byte[] bytes = (longLine + "\r\nok\n").getBytes(StandardCharsets.UTF_8);
+        for (int i = 0; i < bytes.length; i++) {
+            framer.append(bytes, i, 1);
+        }
+
+        assertEquals(List.of(longLine, "ok"), lines);
+        assertEquals(0, framer.getPendingLength());
+    }
+
+    @Test
+    public void appendShouldOnlyReadGivenRange() {
+        List<String> lines = new ArrayList<>();
+        ResponseLineFramer framer = new ResponseLineFramer(lines::add, StandardCharsets.UTF_8);
+
+        byte[] bytes = "xxok\nyy".getBytes(StandardCharsets.UTF_8);
+        framer.append(bytes, 2, 3);
+        assertEquals(List.of("ok"), lines);
+        assertEquals(0, framer.getPendingLength());
+    }
+}
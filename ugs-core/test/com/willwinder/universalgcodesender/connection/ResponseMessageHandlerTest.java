@@ -23,6 +23,7 @@ import org.junit.Before;
 import org.junit.Test;
 
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doCallRealMethod;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
@@ -39,7 +40,7 @@ public class ResponseMessageHandlerTest {
     @Test
     public void responseWithNoLineEndingShouldNotDispatchMessage() throws Exception {
         // Given
-        AbstractCommunicator communicator = mock(AbstractCommunicator.class);
+        AbstractCommunicator communicator = createCommunicator();
         responseMessageHandler.addListener(communicator);
 
         // When
@@ -53,7 +54,7 @@ public class ResponseMessageHandlerTest {
     @Test
     public void responseWithCarrierReturnShouldNotDispatchMessage() throws Exception {
         // Given
-        AbstractCommunicator communicator = mock(AbstractCommunicator.class);
+        AbstractCommunicator communicator = createCommunicator();
         responseMessageHandler.addListener(communicator);
 
         // When
@@ -67,7 +68,7 @@ public class ResponseMessageHandlerTest {
     @Test
     public void responseWithUnixLineEndingShouldDispatchMessage() throws Exception {
         // Given
-        AbstractCommunicator communicator = mock(AbstractCommunicator.class);
+        AbstractCommunicator communicator = createCommunicator();
         responseMessageHandler.addListener(communicator);
 
         // When
@@ -81,7 +82,7 @@ public class ResponseMessageHandlerTest {
     @Test
     public void responseWithWindowsLineEndingShouldDispatchMessage() throws Exception {
         // Given
-        AbstractCommunicator communicator = mock(AbstractCommunicator.class);
+        AbstractCommunicator communicator = createCommunicator();
         responseMessageHandler.addListener(communicator);
 
         // When
@@ -95,7 +96,7 @@ public class ResponseMessageHandlerTest {
     @Test
     public void responseWithMultipleMessagesShouldDispatchMessages() throws Exception {
         // Given
-        AbstractCommunicator communicator = mock(AbstractCommunicator.class);
+        AbstractCommunicator communicator = createCommunicator();
         responseMessageHandler.addListener(communicator);
 
         // When
@@ -111,7 +112,7 @@ public class ResponseMessageHandlerTest {
     @Test
     public void multipleResponsesShouldDispatchMessages() throws Exception {
         // Given
-        AbstractCommunicator communicator = mock(AbstractCommunicator.class);
+        AbstractCommunicator communicator = createCommunicator();
         responseMessageHandler.addListener(communicator);
 
         // When
@@ -129,4 +130,25 @@ public class ResponseMessageHandlerTest {
         verify(communicator, times(1)).handleResponseMessage(" test2 ");
         verify(communicator, times(1)).handleResponseMessage("test3");
     }
+
+    @Test
+    public void responsesFromOneReadShouldBeDispatchedTogether() throws Exception {
+        // Given
+        AbstractCommunicator communicator = createCommunicator();
+        responseMessageHandler.addListener(communicator);
+
+        // When
+        String response = "ok\nok\nte";
+        responseMessageHandler.handleResponse(response.getBytes(), 0, response.length());
+
+        // Then
+        verify(communicator, times(1)).handleResponseMessages(any());
+        verify(communicator, times(2)).handleResponseMessage("ok");
+    }
+
+    private static AbstractCommunicator createCommunicator() {
+        AbstractCommunicator communicator = mock(AbstractCommunicator.class);
+        doCallRealMethod().when(communicator).handleResponseMessages(any());
+        return communicator;
+    }
 }
@@ -0,0 +1,183 @@
+/*
+    Copyright 2026 agent
+
+    This file is part of Universal Gcode Sender (UGS).
+
+    UGS is free software: you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    UGS is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with UGS.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.willwinder.universalgcodesender.connection.simulator;
+
+import com.willwinder.universalgcodesender.connection.ConnectionException;
+import org.junit.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertThrows;
+import static org.junit.Assert.assertTrue;
+
+public class GrblSimulatorTest {
+    private static final long MILLISECOND = TimeUnit.MILLISECONDS.toNanos(1);
+
+    private final StringBuilder responses = new StringBuilder();
+    private long time;
+
+    @Test
+    public void systemCommandsShouldRespondLikeGrbl() {
+        GrblSimulator simulator = new GrblSimulator(new GrblSimulatorOptions(), bytes -> {
+        });
+
+        simulator.write("$I\n$G\n$Q\n".getBytes(StandardCharsets.US_ASCII));
+        runFor(simulator, 100);
+
+        assertEquals("[VER:" + GrblSimulator.VERSION + ":]\r\n[OPT:V,15,128]\r\nok\r\n" +
+                "[GC:G0 G54 G17 G21 G90 G94 M5 M9 T0 F0 S0]\r\nok\r\n" +
+                "error:3\r\n", responses.toString());
+    }
+
+    @Test
+    public void gcodeShouldRespondWithOkOrError() {
+        GrblSimulator simulator = new GrblSimulator(new GrblSimulatorOptions(), bytes -> {
+        });
+
+        simulator.write("G21 G90\nG1 X10 F100\nG5.5\nW1\n".getBytes(StandardCharsets.US_ASCII));
+        runFor(simulator, 100);
+
+        assertEquals("ok\r\nok\r\nerror:20\r\nerror:20\r\n", responses.toString());
+        assertEquals(2, simulator.getStatistics().errors());
+    }
+
+    @Test
+    public void writesLargerThanTheInboundBufferShouldBeReceivedInOrder() {
+        GrblSimulator simulator = new GrblSimulator(new GrblSimulatorOptions(), bytes -> {
+        });
+
+        StringBuilder expected = new StringBuilder();
+        for (int i = 0; i < 300; i++) {
+            simulator.write(("G21 (line " + i + ")\n").getBytes(StandardCharsets.US_ASCII));
+            if (i % 100 == 0) {
+                runFor(simulator, 1);
+            }
+            expected.append("ok\r\n");
+        }
+        simulator.write("\n".getBytes(StandardCharsets.US_ASCII));
+        expected.append("ok\r\n");
+        runFor(simulator, 1000);
+
+        assertEquals(expected.toString(), responses.toString());
+        assertEquals(301, simulator.getStatistics().linesProcessed());
+    }
+
+    @Test
+    public void statusReportShouldContainPositionBuffersAndOverrides() {
+        GrblSimulator simulator = new GrblSimulator(new GrblSimulatorOptions(), bytes -> {
+        });
+
+        simulator.write(new byte[]{(byte) 0x91, (byte) 0x96});
+        simulator.write("G91 G0 X1 Y2\nG90\n".getBytes(StandardCharsets.US_ASCII));
+        runFor(simulator, 100);
+        responses.setLength(0);
+
+        simulator.write("?".getBytes(StandardCharsets.US_ASCII));
+        runFor(simulator, 10);
+
+        assertEquals("<Idle|MPos:1.000,2.000,0.000|Bf:15,128|FS:0,0|WCO:0.000,0.000,0.000|Ov:110,50,100>\r\n", responses.toString());
+    }
+
+    @Test
+    public void plannerShouldBlockReceiveBufferWhenFull() {
+        GrblSimulator simulator = new GrblSimulator(new GrblSimulatorOptions(115200, 128, 2, 100_000), bytes -> {
+        });
+
+        simulator.write("G1 X1 F100\nG1 X2\nG1 X3\nG1 X4\n".getBytes(StandardCharsets.US_ASCII));
+        runFor(simulator, 50);
+        assertEquals("ok\r\nok\r\n", responses.toString());
+
+        simulator.write("?".getBytes(StandardCharsets.US_ASCII));
+        runFor(simulator, 10);
+        assertTrue(responses.toString(), responses.toString().contains("<Run|MPos:0.000,0.000,0.000|Bf:0,116|"));
+
+        runFor(simulator, 500);
+        assertTrue(responses.toString().endsWith("ok\r\nok\r\n"));
+        assertEquals(4, simulator.getStatistics().linesProcessed());
+        assertEquals(1, simulator.getStatistics().plannerUnderruns());
+        assertEquals(0, simulator.getStatistics().rxOverflows());
+    }
+
+    @Test
+    public void parseShouldReadParameters() {
+        GrblSimulatorOptions options = GrblSimulatorOptions.parse("grbl?blockTime=200&plannerBlocks=4", 9600);
+        assertEquals(new GrblSimulatorOptions(9600, 128, 4, 200), options);
+
+        assertThrows(ConnectionException.class, () -> GrblSimulatorOptions.parse("grbl?speed=1", 9600));
+        assertThrows(ConnectionException.class, () -> GrblSimulatorOptions.parse("grbl?plannerBlocks=0", 9600));
+    }
+
+    @Test
+    public void characterCountingStreamShouldKeepPlannerBusy() {
+        GrblSimulatorOptions options = new GrblSimulatorOptions(115200, 128, 15, 2000);
+        GrblSimulator simulator = new GrblSimulator(options, bytes -> {
+        });
+
+        String[] lines = new String[300];
+        for (int i = 0; i < lines.length; i++) {
+            lines[i] = "G1 X" + (i % 10) + " Y" + (i % 7) + " F1000\n";
+        }
+
+        // Stream the lines using character counting like the GrblCommunicator
+        Deque<Integer> sentLengths = new ArrayDeque<>();
+        int bufferedCharacters = 0;
+        int sentLines = 0;
+        int completedLines = 0;
+        int handledResponseLength = 0;
+        for (int i = 0; i < 10000 && completedLines < lines.length; i++) {
+            while (sentLines < lines.length && bufferedCharacters + lines[sentLines].length() <= options.rxBufferSize()) {
+                simulator.write(lines[sentLines].getBytes(StandardCharsets.US_ASCII));
+                bufferedCharacters += lines[sentLines].length();
+                sentLengths.add(lines[sentLines].length());
+                sentLines++;
+            }
+
+            runFor(simulator, 1);
+            int endOfLine;
+            while ((endOfLine = responses.indexOf("\r\n", handledResponseLength)) >= 0) {
+                assertEquals("ok", responses.substring(handledResponseLength, endOfLine));
+                handledResponseLength = endOfLine + 2;
+                bufferedCharacters -= sentLengths.poll();
+                completedLines++;
+            }
+        }
+        runFor(simulator, 100);
+
+        assertEquals(lines.length, completedLines);
+        GrblSimulatorStatistics statistics = simulator.getStatistics();
+        assertEquals(lines.length, statistics.linesProcessed());
+        assertEquals(0, statistics.errors());
+        assertEquals(0, statistics.rxOverflows());
+        assertEquals(options.plannerBlocks(), statistics.maxPlannerUsage());
+
+        // The planner should only run empty when the stream is complete
+        assertEquals(1, statistics.plannerUnderruns());
+    }
+
+    private void runFor(GrblSimulator simulator, int milliseconds) {
+        for (int i = 0; i < milliseconds; i++) {
+            time += MILLISECOND;
+            responses.append(new String(simulator.tick(time), StandardCharsets.US_ASCII));
+        }
+    }
+}
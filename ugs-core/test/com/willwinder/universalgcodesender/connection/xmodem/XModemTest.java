@@ -0,0 +1,104 @@
+/*
+    Copyright 2026 agent
+
+    This file is part of Universal Gcode Sender (UGS).
+
+    UGS is free software: you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    UGS is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with UGS.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.willwinder.universalgcodesender.connection.xmodem;
+
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+public class XModemTest {
+
+    @Test
+    public void sendShouldTransferDataInOneKilobyteBlocks() throws Exception {
+        byte[] data = new byte[5000];
+        new Random(1).nextBytes(data);
+        data[data.length - 1] = 1;
+
+        RingBuffer senderInput = new RingBuffer(4096);
+        RingBuffer receiverInput = new RingBuffer(4096);
+        List<Integer> packetSizes = new ArrayList<>();
+        XModem sender = new XModem(senderInput, new OutputStream() {
+            @Override
+            public void write(int b) {
+                receiverInput.write((byte) b);
+            }
+
+            @Override
+            public void write(byte[] b, int off, int len) {
+                packetSizes.add(len);
+                receiverInput.write(b, off, len);
+            }
+        });
+        XModem receiver = new XModem(receiverInput, new OutputStream() {
+            @Override
+            public void write(int b) {
+                senderInput.write((byte) b);
+            }
+        });
+
+        ByteArrayOutputStream received = new ByteArrayOutputStream();
+        CompletableFuture<Void> receiveFuture = CompletableFuture.runAsync(() -> {
+            try {
+                receiver.receive(received, true);
+            } catch (Exception e) {
+                throw new RuntimeException(e);
+            }
+        });
+
+        List<Long> progress = new ArrayList<>();
+        sender.send(new SlowInputStream(data), true, progress::add);
+        receiveFuture.get(10, TimeUnit.SECONDS);
+
+        assertArrayEquals(data, XModemUtils.trimEOF(received.toByteArray()));
+        assertEquals(List.of(1024L, 2048L, 3072L, 4096L, 5000L), progress);
+        assertEquals(List.of(1029, 1029, 1029, 1029, 1029), packetSizes);
+    }
+
+    /**
+     * An input stream that returns fewer bytes than requested
+     */
+    private static class SlowInputStream extends InputStream {
+        private final ByteArrayInputStream inputStream;
+
+        SlowInputStream(byte[] data) {
+            this.inputStream = new ByteArrayInputStream(data);
+        }
+
+        @Override
+        public int read() {
+            return inputStream.read();
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) {
+            return inputStream.read(b, off, Math.min(len, 100));
+        }
+    }
+}
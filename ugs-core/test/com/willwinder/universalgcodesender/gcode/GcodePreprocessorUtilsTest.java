@@ -417,6 +417,13 @@ public class GcodePreprocessorUtilsTest {
         assertEquals("G0X1Y2Z3A4B5C6", newCommand);
     }
 
+    @Test
+    public void overridePositionShouldOnlyUpdateWordsOutsideOfComments() {
+        PartialPosition position = PartialPosition.builder(MM).setX(1d).setZ(-0.5).build();
+        String newCommand = GcodePreprocessorUtils.overridePosition("G1 X 10.5 Y2 (MAX5) z0", position);
+        assertEquals("G1 X1 Y2 (MAX5) Z-0.5", newCommand);
+    }
+
     @Test
     public void updatePointWithCommandShouldSetPositionIfOriginalIsNaN() {
         Position position = new Position(Double.NaN, Double.NaN, Double.NaN, Double.NaN, Double.NaN, Double.NaN, MM);
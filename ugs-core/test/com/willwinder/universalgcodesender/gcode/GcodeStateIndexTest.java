@@ -0,0 +1,109 @@
+/*
+    Copyright 2026 agent
+
+    This file is part of Universal Gcode Sender (UGS).
+
+    UGS is free software: you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    UGS is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with UGS.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.willwinder.universalgcodesender.gcode;
+
+import com.willwinder.universalgcodesender.gcode.processors.RunFromProcessor;
+import com.willwinder.universalgcodesender.utils.BinaryGcodeStreamReader;
+import com.willwinder.universalgcodesender.utils.BinaryGcodeStreamWriter;
+import com.willwinder.universalgcodesender.utils.GcodeStateIndexWriter;
+import com.willwinder.universalgcodesender.utils.IGcodeWriter;
+import org.apache.commons.io.FileUtils;
+import org.apache.commons.io.IOUtils;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertThrows;
+
+public class GcodeStateIndexTest {
+    private File tempDir;
+    private List<String> lines;
+
+    @Before
+    public void setUp() throws Exception {
+        tempDir = Files.createTempDirectory("gcodestateindex").toFile();
+        try (InputStream inputStream = getClass().getClassLoader().getResourceAsStream("./gcode/circle_test.nc")) {
+            lines = IOUtils.readLines(inputStream, StandardCharsets.UTF_8);
+        }
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        FileUtils.forceDelete(tempDir);
+    }
+
+    @Test
+    public void getStateShouldReturnTheSameStateAsParsingAllPreviousRows() throws Exception {
+        File file = new File(tempDir, "program.gcode");
+        GcodeStateIndex index = new GcodeStateIndex(4);
+        try (IGcodeWriter writer = new GcodeStateIndexWriter(new BinaryGcodeStreamWriter(file), index)) {
+            for (int i = 0; i < lines.size(); i++) {
+                writer.addLine(lines.get(i), lines.get(i), null, i + 1);
+            }
+        }
+        assertEquals(lines.size(), index.getRowCount());
+
+        GcodeParser parser = new GcodeParser();
+        double clearanceHeight = 0;
+        try (BinaryGcodeStreamReader reader = new BinaryGcodeStreamReader(file, new DefaultCommandCreator())) {
+            for (int row = 0; row <= lines.size(); row++) {
+                GcodeStateIndex.Checkpoint checkpoint = index.getState(row, reader);
+                GcodeState expected = parser.getCurrentState();
+
+                assertEquals(row, checkpoint.row());
+                assertEquals(expected.machineStateCode(), checkpoint.state().machineStateCode());
+                assertEquals(expected.toAccessoriesCode(), checkpoint.state().toAccessoriesCode());
+                assertEquals(expected.currentPoint, checkpoint.state().currentPoint);
+                assertEquals(expected.currentMotionMode, checkpoint.state().currentMotionMode);
+                assertEquals(clearanceHeight, checkpoint.clearanceHeight(), 0);
+
+                if (row < lines.size()) {
+                    parser.addCommand(lines.get(row).trim());
+                    clearanceHeight = RunFromProcessor.updateClearanceHeight(clearanceHeight, parser.getCurrentState().currentPoint);
+                }
+            }
+
+            assertThrows(IndexOutOfBoundsException.class, () -> index.getState(lines.size() + 1, reader));
+        }
+    }
+
+    @Test
+    public void addCommandShouldKeepTheStateOfInvalidCommands() throws Exception {
+        File file = new File(tempDir, "program.gcode");
+        GcodeStateIndex index = new GcodeStateIndex(2);
+        try (IGcodeWriter writer = new GcodeStateIndexWriter(new BinaryGcodeStreamWriter(file), index)) {
+            writer.addLine("G0 X1 Z2", "G0 X1 Z2", null, 1);
+            writer.addLine("G0 G1 X2", "G0 G1 X2", null, 2);
+            writer.addLine("", "", null, 3);
+        }
+
+        try (BinaryGcodeStreamReader reader = new BinaryGcodeStreamReader(file, new DefaultCommandCreator())) {
+            GcodeStateIndex.Checkpoint checkpoint = index.getState(3, reader);
+            assertEquals(1, checkpoint.state().currentPoint.x, 0);
+            assertEquals(2, checkpoint.clearanceHeight(), 0);
+        }
+    }
+}
@@ -2,6 +2,8 @@ package com.willwinder.universalgcodesender.gcode;
 
 import com.willwinder.universalgcodesender.gcode.util.Code;
 import com.willwinder.universalgcodesender.gcode.util.Plane;
+import com.willwinder.universalgcodesender.model.Position;
+import com.willwinder.universalgcodesender.model.UnitUtils;
 import org.junit.Test;
 
 import static org.assertj.core.api.Assertions.assertThat;
@@ -54,4 +56,31 @@ public class GcodeStateTest {
         assertThat(state.toAccessoriesCode())
                 .isEqualTo("M3S0.0M7F0.0");
     }
+
+    @Test
+    public void copyShouldShareTheCurrentPoint() {
+        GcodeState state = new GcodeState();
+        state.currentPoint = new Position(1, 2, 3, UnitUtils.Units.MM);
+        state.feedRate = 100;
+
+        GcodeState copy = state.copy();
+        copy.feedRate = 200;
+        copy.currentPoint = new Position(4, 5, 6, UnitUtils.Units.MM);
+
+        assertThat(state.feedRate).isEqualTo(100);
+        assertThat(state.currentPoint).isEqualTo(new Position(1, 2, 3, UnitUtils.Units.MM));
+        assertThat(state.copy().currentPoint).isSameAs(state.currentPoint);
+    }
+
+    @Test
+    public void copyShouldUseTheUnitsOfTheState() {
+        GcodeState state = new GcodeState();
+        state.currentPoint = new Position(1, 2, 3, UnitUtils.Units.MM);
+        state.units = Code.G20;
+        state.isMetric = false;
+
+        GcodeState copy = state.copy();
+        assertThat(copy.currentPoint).isEqualTo(new Position(1, 2, 3, UnitUtils.Units.INCH));
+        assertThat(state.currentPoint.getUnits()).isEqualTo(UnitUtils.Units.MM);
+    }
 }
@@ -0,0 +1,159 @@
+/*
+    Copyright 2026 agent
+
+    This file is part of Universal Gcode Sender (UGS).
+
+    UGS is free software: you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    UGS is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with UGS.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.willwinder.universalgcodesender.gcode;
+
+import com.willwinder.universalgcodesender.firmware.FirmwareSettingsException;
+import com.willwinder.universalgcodesender.firmware.IFirmwareSettings;
+import com.willwinder.universalgcodesender.model.Axis;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class RunTimeEstimatorTest {
+    private static final double DELTA = 0.000001;
+    private static final RunTimeEstimator.MachineLimits LIMITS = new RunTimeEstimator.MachineLimits(6000, 6000, 6000, 100, 100, 100, 0.01);
+
+    @Test
+    public void feedMoveShouldAccelerateCruiseAndDecelerate() {
+        // 10 mm/s with 100 mm/s^2 takes 0.1s and 0.5mm to accelerate and decelerate
+        RunTimeEstimator estimator = estimate("G0 X0 Y0 Z0", "G1 X100 F600");
+        assertEquals(10.1, estimator.getTotalTime(), DELTA);
+    }
+
+    @Test
+    public void rapidMoveShouldUseMaxRate() {
+        // 100 mm/s with 100 mm/s^2 needs 50mm to accelerate, so it decelerates without reaching the max rate
+        RunTimeEstimator estimator = estimate("G0 X0 Y0 Z0", "G0 X100");
+        assertEquals(2, estimator.getTotalTime(), DELTA);
+    }
+
+    @Test
+    public void collinearMovesShouldNotSlowDown() {
+        String[] commands = new String[101];
+        commands[0] = "G0 X0 Y0 Z0";
+        for (int i = 1; i <= 100; i++) {
+            commands[i] = "G1 X" + i + " F600";
+        }
+
+        RunTimeEstimator estimator = estimate(commands);
+        assertEquals(10.1, estimator.getTotalTime(), DELTA);
+    }
+
+    @Test
+    public void cornersShouldSlowDown() {
+        RunTimeEstimator straight = estimate("G0 X0 Y0 Z0", "G1 X100 F600", "G1 X200");
+        RunTimeEstimator corner = estimate("G0 X0 Y0 Z0", "G1 X100 F600", "G1 Y100");
+        RunTimeEstimator reversal = estimate("G0 X0 Y0 Z0", "G1 X100 F600", "G1 X0");
+
+        assertEquals(20.1, straight.getTotalTime(), DELTA);
+        assertTrue(corner.getTotalTime() > straight.getTotalTime());
+        assertTrue(corner.getTotalTime() < reversal.getTotalTime());
+        assertEquals(20.2, reversal.getTotalTime(), DELTA);
+    }
+
+    @Test
+    public void arcShouldUseArcLength() {
+        // A half circle with radius 10
+        RunTimeEstimator estimator = estimate("G0 X0 Y0 Z0", "G2 X20 Y0 I10 J0 F600");
+        assertEquals(Math.PI, estimator.getTotalTime(), 0.15);
+        assertTrue(estimator.getTotalTime() > Math.PI);
+    }
+
+    @Test
+    public void inchMovesShouldBeConverted() {
+        // 254mm at 10 mm/s
+        RunTimeEstimator estimator = estimate("G20", "G0 X0 Y0 Z0", "G1 X10 F23.622");
+        assertEquals(25.5, estimator.getTotalTime(), 0.0001);
+    }
+
+    @Test
+    public void dwellShouldStopAndWait() {
+        RunTimeEstimator estimator = estimate("G0 X0 Y0 Z0", "G1 X100 F600", "G4 P1.5", "G1 X200");
+        assertEquals(10.1 + 1.5 + 10.1, estimator.getTotalTime(), DELTA);
+    }
+
+    @Test
+    public void getElapsedTimeShouldReturnTheTimeForEachRow() {
+        RunTimeEstimator estimator = estimate("G0 X0 Y0 Z0", "(comment)", "G1 X100 F600", "G4 P2", "M5");
+
+        assertEquals(5, estimator.getRowCount());
+        assertEquals(0, estimator.getElapsedTime(0), DELTA);
+        assertEquals(0, estimator.getElapsedTime(1), DELTA);
+        assertEquals(0, estimator.getElapsedTime(2), DELTA);
+        assertEquals(10.1, estimator.getElapsedTime(3), DELTA);
+        assertEquals(12.1, estimator.getElapsedTime(4), DELTA);
+        assertEquals(12.1, estimator.getElapsedTime(5), DELTA);
+
+        assertEquals(2, estimator.getCompletedRows(5));
+        assertEquals(3, estimator.getCompletedRows(10.2));
+        assertEquals(5, estimator.getCompletedRows(100));
+    }
+
+    @Test
+    public void getElapsedTimeShouldBeIncreasingForLargePrograms() {
+        GcodeStateIndex index = new GcodeStateIndex();
+        RunTimeEstimator estimator = new RunTimeEstimator(LIMITS);
+        estimator.addRow(index.addCommand("G0 X0 Y0 Z0"));
+        for (int i = 1; i <= 10000; i++) {
+            estimator.addRow(index.addCommand("G1 X" + i + " Y" + (i % 2) + " F1200"));
+        }
+        estimator.finish();
+
+        for (int row = 1; row <= estimator.getRowCount(); row++) {
+            assertTrue(estimator.getElapsedTime(row) >= estimator.getElapsedTime(row - 1));
+        }
+        assertEquals(estimator.getTotalTime(), estimator.getElapsedTime(estimator.getRowCount()), DELTA);
+        assertEquals(5000, estimator.getCompletedRows(estimator.getElapsedTime(5000)), 1);
+    }
+
+    @Test
+    public void getTrapezoidTimeShouldHandleTriangleProfiles() {
+        assertEquals(10.1, RunTimeEstimator.getTrapezoidTime(100, 0, 0, 100, 100), DELTA);
+        assertEquals(0.2, RunTimeEstimator.getTrapezoidTime(1, 0, 0, 100, 100), DELTA);
+        assertEquals(0.1, RunTimeEstimator.getTrapezoidTime(1, 100, 100, 100, 100), DELTA);
+    }
+
+    @Test
+    public void machineLimitsShouldUseDefaultsForUnknownSettings() throws FirmwareSettingsException {
+        IFirmwareSettings firmwareSettings = mock(IFirmwareSettings.class);
+        when(firmwareSettings.getMaximumRate(any())).thenReturn(1000d);
+        when(firmwareSettings.getMaximumRate(Axis.Z)).thenThrow(new FirmwareSettingsException("Unknown"));
+        when(firmwareSettings.getAcceleration(any())).thenReturn(50d);
+        when(firmwareSettings.getJunctionDeviation()).thenReturn(0d);
+
+        RunTimeEstimator.MachineLimits limits = RunTimeEstimator.MachineLimits.fromFirmwareSettings(firmwareSettings);
+        assertEquals(new RunTimeEstimator.MachineLimits(1000, 1000, RunTimeEstimator.MachineLimits.DEFAULT.maxRateZ(), 50, 50, 50,
+                RunTimeEstimator.MachineLimits.DEFAULT.junctionDeviation()), limits);
+        assertEquals(RunTimeEstimator.MachineLimits.DEFAULT, RunTimeEstimator.MachineLimits.fromFirmwareSettings(null));
+    }
+
+    private static RunTimeEstimator estimate(String... commands) {
+        GcodeStateIndex index = new GcodeStateIndex();
+        RunTimeEstimator estimator = new RunTimeEstimator(LIMITS);
+        for (String command : commands) {
+            estimator.addRow(index.addCommand(command));
+        }
+        estimator.finish();
+        return estimator;
+    }
+}
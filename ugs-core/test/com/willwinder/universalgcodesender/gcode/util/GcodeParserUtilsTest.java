@@ -3,18 +3,35 @@ package com.willwinder.universalgcodesender.gcode.util;
 import com.google.common.collect.Iterables;
 import com.willwinder.universalgcodesender.gcode.GcodeParser;
 import com.willwinder.universalgcodesender.gcode.GcodeState;
+import com.willwinder.universalgcodesender.gcode.processors.ArcExpander;
+import com.willwinder.universalgcodesender.gcode.processors.CommandProcessor;
+import com.willwinder.universalgcodesender.gcode.processors.CommandProcessorList;
+import com.willwinder.universalgcodesender.gcode.processors.CommentProcessor;
+import com.willwinder.universalgcodesender.gcode.processors.DecimalProcessor;
+import com.willwinder.universalgcodesender.gcode.processors.EmptyLineRemoverProcessor;
+import com.willwinder.universalgcodesender.gcode.processors.LineSplitter;
+import com.willwinder.universalgcodesender.gcode.processors.WhitespaceProcessor;
 import static com.willwinder.universalgcodesender.gcode.util.Code.G0;
 import static com.willwinder.universalgcodesender.gcode.util.Code.G1;
 import static com.willwinder.universalgcodesender.gcode.util.Code.G3;
 import static com.willwinder.universalgcodesender.gcode.util.Code.G38_2;
 import com.willwinder.universalgcodesender.i18n.Localization;
 import com.willwinder.universalgcodesender.model.Position;
+import com.willwinder.universalgcodesender.utils.BinaryGcodeStreamWriter;
+import com.willwinder.universalgcodesender.utils.GcodeStreamWriter;
+import com.willwinder.universalgcodesender.utils.IGcodeWriter;
+import static com.willwinder.universalgcodesender.model.UnitUtils.Units.INCH;
 import static com.willwinder.universalgcodesender.model.UnitUtils.Units.MM;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import org.apache.commons.io.FileUtils;
 import org.junit.Assert;
 import org.junit.Test;
 
+import java.io.File;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.util.Arrays;
 import java.util.List;
 
 public class GcodeParserUtilsTest {
@@ -28,6 +45,40 @@ public class GcodeParserUtilsTest {
         Assert.assertEquals(G0, meta.code);
     }
 
+    @Test
+    public void processCommandShouldNotModifyTheInputState() throws Exception {
+        GcodeState state = new GcodeState();
+        List<GcodeParser.GcodeMeta> metaList = GcodeParserUtils.processCommand("G20 G91 G1 X1 F100", 1, state);
+
+        assertThat(state.units).isEqualTo(Code.G21);
+        assertThat(state.inAbsoluteMode).isTrue();
+        assertThat(state.feedRate).isEqualTo(0);
+        assertThat(state.currentMotionMode).isEqualTo(G0);
+        assertThat(state.currentPoint).isEqualTo(new Position(Double.NaN, Double.NaN, Double.NaN, MM));
+
+        assertThat(Iterables.getLast(metaList).state.currentPoint.getUnits()).isEqualTo(INCH);
+    }
+
+    @Test
+    public void processCommandShouldReturnTheStateAfterEachCode() throws Exception {
+        List<GcodeParser.GcodeMeta> metaList = GcodeParserUtils.processCommand("G20 G91 G1 X1", 1, new GcodeState());
+        assertThat(metaList).hasSize(3);
+
+        GcodeState afterUnits = metaList.get(0).state;
+        assertThat(afterUnits.units).isEqualTo(Code.G20);
+        assertThat(afterUnits.inAbsoluteMode).isTrue();
+        assertThat(afterUnits.currentMotionMode).isEqualTo(G0);
+
+        GcodeState afterDistanceMode = metaList.get(1).state;
+        assertThat(afterDistanceMode.inAbsoluteMode).isFalse();
+        assertThat(afterDistanceMode.currentMotionMode).isEqualTo(G0);
+
+        GcodeState afterMotion = metaList.get(2).state;
+        assertThat(afterMotion.inAbsoluteMode).isFalse();
+        assertThat(afterMotion.currentMotionMode).isEqualTo(G1);
+        assertThat(afterMotion.commandNumber).isEqualTo(1);
+    }
+
     @Test
     public void multipleAxisWordCommands() {
         assertThatThrownBy(() -> GcodeParserUtils.processCommand("G0G1X1X2", 0, new GcodeState()))
@@ -132,4 +183,48 @@ public class GcodeParserUtilsTest {
         GcodeParser.GcodeMeta meta = Iterables.getOnlyElement(metaList);
         assertThat(meta.state.spindleSpeed).isEqualTo(100.0);
     }
+
+    @Test
+    public void processAndExportOfPreprocessedFileShouldGiveSameResultAsAllProcessors() throws Exception {
+        File tempDir = Files.createTempDirectory("processandexport").toFile();
+        try {
+            File input = new File(tempDir, "circle_test.nc");
+            try (InputStream inputStream = getClass().getClassLoader().getResourceAsStream("./gcode/circle_test.nc")) {
+                FileUtils.copyInputStreamToFile(inputStream, input);
+            }
+
+            // Process with all processors at once
+            List<CommandProcessor> processors = Arrays.asList(new CommentProcessor(), new WhitespaceProcessor(),
+                    new EmptyLineRemoverProcessor(), new ArcExpander(true, 1), new DecimalProcessor(4), new LineSplitter(2));
+            GcodeParser gcp = new GcodeParser();
+            processors.forEach(gcp::addCommandProcessor);
+            File expected = new File(tempDir, "expected");
+            try (IGcodeWriter writer = new GcodeStreamWriter(expected)) {
+                GcodeParserUtils.processAndExport(gcp, input, writer);
+            }
+
+            // Process with the first processors and then the remaining processors
+            GcodeParser firstParser = new GcodeParser();
+            processors.subList(0, 4).forEach(firstParser::addCommandProcessor);
+            File first = new File(tempDir, "first");
+            try (IGcodeWriter writer = new BinaryGcodeStreamWriter(first)) {
+                GcodeParserUtils.processAndExport(firstParser, input, writer);
+            }
+
+            CommandProcessorList remaining = new CommandProcessorList();
+            processors.subList(4, processors.size()).forEach(remaining::add);
+            GcodeParser remainingParser = new GcodeParser();
+            File result = new File(tempDir, "result");
+            try (IGcodeWriter writer = new GcodeStreamWriter(result)) {
+                GcodeParserUtils.processAndExport(remainingParser, input, first, remaining, writer);
+            }
+
+            assertThat(Files.readAllLines(result.toPath())).hasSizeGreaterThan(100);
+            assertThat(Files.readAllLines(result.toPath())).isEqualTo(Files.readAllLines(expected.toPath()));
+            assertThat(remainingParser.getCurrentStats().getCommandCount()).isEqualTo(gcp.getCurrentStats().getCommandCount());
+            assertThat(remainingParser.getCurrentState().currentPoint).isEqualTo(gcp.getCurrentState().currentPoint);
+        } finally {
+            FileUtils.forceDelete(tempDir);
+        }
+    }
 }
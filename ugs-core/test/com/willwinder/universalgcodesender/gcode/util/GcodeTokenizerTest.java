@@ -0,0 +1,150 @@
+/*
+    Copyright 2026 agent
+
+    This file is part of Universal Gcode Sender (UGS).
+
+    UGS is free software: you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    UGS is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with UGS.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.willwinder.universalgcodesender.gcode.util;
+
+import com.willwinder.universalgcodesender.gcode.GcodePreprocessorUtils;
+import org.apache.commons.io.IOUtils;
+import org.junit.Test;
+
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.List;
+
+import static com.willwinder.universalgcodesender.gcode.util.Code.G1;
+import static com.willwinder.universalgcodesender.gcode.util.Code.G38_2;
+import static com.willwinder.universalgcodesender.gcode.util.Code.M3;
+import static com.willwinder.universalgcodesender.gcode.util.Code.UNKNOWN;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class GcodeTokenizerTest {
+
+    @Test
+    public void tokenizeShouldReturnWordsWithValues() {
+        try (GcodeTokenizer tokens = GcodeTokenizer.tokenize("g01 X10 y-.5 Z0.25 (comment) M3 ; line comment")) {
+            assertEquals(7, tokens.size());
+
+            assertEquals('G', tokens.getLetter(0));
+            assertEquals(G1, tokens.getCode(0));
+            assertEquals(10, tokens.getValue('X'), 0);
+            assertEquals(-0.5, tokens.getValue('y'), 0);
+            assertEquals(0.25, tokens.getValue('Z'), 0);
+            assertEquals(M3, tokens.getCode(5));
+            assertTrue(Double.isNaN(tokens.getValue('F')));
+
+            assertEquals(GcodeTokenizer.TokenType.COMMENT, tokens.getType(4));
+            assertEquals("(comment)", tokens.getText(4));
+            assertEquals("; line comment", tokens.getText(6));
+            assertTrue(tokens.hasAxisWords());
+        }
+    }
+
+    @Test
+    public void tokenizeShouldNotSplitSystemCommands() {
+        try (GcodeTokenizer tokens = GcodeTokenizer.tokenize("$J=G91 X10 F100")) {
+            assertEquals(1, tokens.size());
+            assertEquals(GcodeTokenizer.TokenType.SYSTEM, tokens.getType(0));
+            assertEquals("$J=G91 X10 F100", tokens.getText(0));
+            assertFalse(tokens.hasAxisWords());
+        }
+    }
+
+    @Test
+    public void tokenizeShouldLookupCodesWithDecimals() {
+        try (GcodeTokenizer tokens = GcodeTokenizer.tokenize("G38.2 G1.0 G38.20 G1. G-1 G")) {
+            assertEquals(G38_2, tokens.getCode(0));
+            for (int i = 1; i < tokens.size(); i++) {
+                assertEquals(UNKNOWN, tokens.getCode(i));
+            }
+        }
+    }
+
+    @Test
+    public void tokenizeShouldParseValuesExactly() {
+        String[] numbers = {"0", "-0", "1.", ".1", "0.1", "-1.23456789", "123456789.123456789", "0.000000000000000000000000001",
+                "99999999999999999999999", "3.14159265358979323846264338327950288", "00012.5000"};
+        for (String number : numbers) {
+            try (GcodeTokenizer tokens = GcodeTokenizer.tokenize("X" + number)) {
+                assertEquals(Double.doubleToLongBits(Double.parseDouble(number)), Double.doubleToLongBits(tokens.getValue(0)));
+            }
+        }
+    }
+
+    @Test
+    public void nestedTokenizeShouldUseSeparateInstances() {
+        try (GcodeTokenizer outer = GcodeTokenizer.tokenize("G0 X1")) {
+            try (GcodeTokenizer inner = GcodeTokenizer.tokenize("G1 X2")) {
+                assertNotSame(outer, inner);
+                assertEquals(1, outer.getValue('X'), 0);
+                assertEquals(2, inner.getValue('X'), 0);
+            }
+        }
+
+        GcodeTokenizer first;
+        try (GcodeTokenizer tokens = GcodeTokenizer.tokenize("G0")) {
+            first = tokens;
+        }
+        try (GcodeTokenizer tokens = GcodeTokenizer.tokenize("G1")) {
+            assertSame(first, tokens);
+        }
+    }
+
+    @Test
+    public void tokenizeShouldGiveSameWordsAsSplitCommand() throws Exception {
+        List<String> commands = Arrays.asList(
+                "", " ", "G0X0Y0", "G53F100S1300", "(comment)G1X10", "(hello world)G3", "G1 X1 (a (nested) comment) Y2",
+                "G1 X1 ;comment (with parenthesis)", "X1 2", "X1-2", "X--1", "X*1", "XY1", "x1.2.3", "G1 X-", "F", "12 G1",
+                "(unterminated G1 X1", "G1 X1 ) Y2", "%", "G1 X١", "G0 X-0.000 Y00.100");
+        for (String command : commands) {
+            assertSameAsSplitCommand(command);
+        }
+
+        try (InputStream inputStream = getClass().getClassLoader().getResourceAsStream("./gcode/circle_test.nc")) {
+            for (String command : IOUtils.readLines(inputStream, StandardCharsets.UTF_8)) {
+                assertSameAsSplitCommand(command);
+            }
+        }
+    }
+
+    private static void assertSameAsSplitCommand(String command) {
+        List<String> args = GcodePreprocessorUtils.splitCommand(command);
+        try (GcodeTokenizer tokens = GcodeTokenizer.tokenize(command)) {
+            assertEquals(command, args.size(), tokens.size());
+            assertEquals(command, GcodePreprocessorUtils.hasAxisWords(args), tokens.hasAxisWords());
+
+            for (int i = 0; i < args.size(); i++) {
+                String arg = args.get(i);
+                assertEquals(command, arg, tokens.getText(i));
+                assertEquals(command, Character.toUpperCase(arg.charAt(0)), tokens.getLetter(i));
+
+                char letter = tokens.getLetter(i);
+                if (letter == 'G' || letter == 'M') {
+                    assertEquals(command, Code.lookupCode(arg), tokens.getCode(i));
+                }
+                if (Character.isLetter(letter)) {
+                    assertEquals(command, GcodePreprocessorUtils.parseCoord(args, letter), tokens.getValue(letter), 0);
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,214 @@
+/*
+    Copyright 2026 agent
+
+    This file is part of Universal Gcode Sender (UGS).
+
+    UGS is free software: you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    UGS is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with UGS.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.willwinder.universalgcodesender.gcode.util;
+
+import com.willwinder.universalgcodesender.gcode.GcodeParser;
+import com.willwinder.universalgcodesender.gcode.GcodeState;
+import com.willwinder.universalgcodesender.gcode.GcodeStats;
+import com.willwinder.universalgcodesender.gcode.processors.ArcExpander;
+import com.willwinder.universalgcodesender.gcode.processors.CommandLengthProcessor;
+import com.willwinder.universalgcodesender.gcode.processors.CommentProcessor;
+import com.willwinder.universalgcodesender.gcode.processors.DecimalProcessor;
+import com.willwinder.universalgcodesender.gcode.processors.LineSplitter;
+import com.willwinder.universalgcodesender.gcode.processors.M30Processor;
+import com.willwinder.universalgcodesender.gcode.processors.RunFromProcessor;
+import com.willwinder.universalgcodesender.gcode.processors.WhitespaceProcessor;
+import com.willwinder.universalgcodesender.utils.BinaryGcodeStreamWriter;
+import com.willwinder.universalgcodesender.utils.GcodeStreamWriter;
+import com.willwinder.universalgcodesender.utils.IGcodeWriter;
+import org.apache.commons.io.FileUtils;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.function.Supplier;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class ParallelGcodePreprocessorTest {
+    private File tempDir;
+    private File gcodeFile;
+
+    @Before
+    public void setUp() throws IOException {
+        tempDir = Files.createTempDirectory("parallelpreprocessor").toFile();
+        gcodeFile = new File(tempDir, "program.gcode");
+
+        // Write a program spanning several chunks with modal state changes, arcs and comments
+        try (PrintWriter writer = new PrintWriter(gcodeFile, StandardCharsets.UTF_8.name())) {
+            writer.println("G21 G90 (metric absolute)");
+            for (int i = 0; i < ParallelGcodePreprocessor.CHUNK_SIZE * 3 / 50; i++) {
+                writer.println("G0 X0 Y0 Z1.123456789");
+                writer.println("G1 Z-0.5 F200 ; plunge");
+                writer.println("G2 X10 Y0 I5 J0");
+                writer.println("X0 I-5 J0");
+                writer.println("");
+                if (i % 7 == 0) {
+                    writer.println("G20");
+                    writer.println("G91 G1 X0.1 Y0.1");
+                    writer.println("G90 G21");
+                }
+                for (int j = 0; j < 40; j++) {
+                    writer.println("G1 X" + (j * 0.5) + " Y" + (i % 10) + ".12345678 (segment " + j + ")");
+                }
+                writer.println("M3 S1000");
+            }
+            writer.println("M30");
+        }
+    }
+
+    @After
+    public void tearDown() throws IOException {
+        FileUtils.forceDelete(tempDir);
+    }
+
+    private static GcodeParser createParser() {
+        GcodeParser gcp = new GcodeParser();
+        gcp.addCommandProcessor(new CommentProcessor());
+        gcp.addCommandProcessor(new WhitespaceProcessor());
+        gcp.addCommandProcessor(new M30Processor());
+        gcp.addCommandProcessor(new DecimalProcessor(4));
+        gcp.addCommandProcessor(new ArcExpander(true, 1));
+        gcp.addCommandProcessor(new LineSplitter(2));
+        return gcp;
+    }
+
+    private GcodeParser process(Supplier<GcodeParser> parserSupplier, File input, File output, boolean parallel) throws Exception {
+        GcodeParser gcp = parserSupplier.get();
+        try (IGcodeWriter writer = new GcodeStreamWriter(output)) {
+            GcodeParserUtils.processAndExport(gcp, input, writer, parallel);
+        }
+        return gcp;
+    }
+
+    @Test
+    public void nextStateShouldNotModifyTheGivenState() throws Exception {
+        GcodeState state = new GcodeState();
+        state.commandNumber = 10;
+        double initialX = state.currentPoint.x;
+
+        GcodeState next = ParallelGcodePreprocessor.Chunk.nextState("(comment)", state);
+        assertEquals(10, state.commandNumber);
+        assertEquals(11, next.commandNumber);
+
+        next = ParallelGcodePreprocessor.Chunk.nextState("G1 X10 F100", next);
+        assertEquals(12, next.commandNumber);
+        assertEquals(10, next.currentPoint.x, 0.001);
+        assertEquals(10, state.commandNumber);
+        assertEquals(initialX, state.currentPoint.x, 0.001);
+    }
+
+    @Test
+    public void parallelProcessingShouldGiveSameResultAsSerial() throws Exception {
+        File serialFile = new File(tempDir, "serial");
+        File parallelFile = new File(tempDir, "parallel");
+
+        GcodeParser serialParser = process(ParallelGcodePreprocessorTest::createParser, gcodeFile, serialFile, false);
+        GcodeParser parallelParser = process(ParallelGcodePreprocessorTest::createParser, gcodeFile, parallelFile, true);
+
+        assertTrue(serialFile.length() > 0);
+        assertArrayEquals(Files.readAllBytes(serialFile.toPath()), Files.readAllBytes(parallelFile.toPath()));
+
+        GcodeStats serialStats = serialParser.getCurrentStats();
+        GcodeStats parallelStats = parallelParser.getCurrentStats();
+        assertEquals(serialStats.getCommandCount(), parallelStats.getCommandCount());
+        assertEquals(serialStats.getMin(), parallelStats.getMin());
+        assertEquals(serialStats.getMax(), parallelStats.getMax());
+        assertEquals(serialParser.getCurrentState().currentPoint, parallelParser.getCurrentState().currentPoint);
+        assertEquals(serialParser.getCurrentState().machineStateCode(), parallelParser.getCurrentState().machineStateCode());
+        assertEquals(serialParser.getCurrentState().commandNumber, parallelParser.getCurrentState().commandNumber);
+    }
+
+    @Test
+    public void parallelProcessingOfGcodeStreamShouldGiveSameResultAsSerial() throws Exception {
+        File streamFile = new File(tempDir, "stream");
+        try (IGcodeWriter writer = new BinaryGcodeStreamWriter(streamFile)) {
+            GcodeParserUtils.processAndExport(new GcodeParser(), gcodeFile, writer, false);
+        }
+
+        File serialFile = new File(tempDir, "serial");
+        File parallelFile = new File(tempDir, "parallel");
+        process(ParallelGcodePreprocessorTest::createParser, streamFile, serialFile, false);
+        process(ParallelGcodePreprocessorTest::createParser, streamFile, parallelFile, true);
+
+        assertArrayEquals(Files.readAllBytes(serialFile.toPath()), Files.readAllBytes(parallelFile.toPath()));
+    }
+
+    @Test
+    public void processorsThatAreNotThreadSafeShouldFallBackToSerialProcessing() throws Exception {
+        Supplier<GcodeParser> parserSupplier = () -> {
+            GcodeParser gcp = createParser();
+            gcp.addCommandProcessor(new RunFromProcessor(1000));
+            return gcp;
+        };
+        assertFalse(parserSupplier.get().isPreprocessorThreadSafe());
+        assertTrue(createParser().isPreprocessorThreadSafe());
+
+        File serialFile = new File(tempDir, "serial");
+        File parallelFile = new File(tempDir, "parallel");
+        process(parserSupplier, gcodeFile, serialFile, false);
+        process(parserSupplier, gcodeFile, parallelFile, true);
+
+        assertArrayEquals(Files.readAllBytes(serialFile.toPath()), Files.readAllBytes(parallelFile.toPath()));
+    }
+
+    @Test
+    public void parallelProcessingShouldThrowTheFirstErrorAfterWritingPrecedingLines() throws Exception {
+        // Make the last part of the file fail
+        try (PrintWriter writer = new PrintWriter(new FileWriter(gcodeFile, StandardCharsets.UTF_8, true))) {
+            writer.println("G1 X1 Y1 (this is a very long line that will fail)");
+            writer.println("G1 X2 Y2 (this is another very long line that will fail)");
+        }
+
+        Supplier<GcodeParser> parserSupplier = () -> {
+            GcodeParser gcp = new GcodeParser();
+            gcp.addCommandProcessor(new CommandLengthProcessor(40));
+            return gcp;
+        };
+
+        File serialFile = new File(tempDir, "serial");
+        File parallelFile = new File(tempDir, "parallel");
+        String serialError = getErrorMessage(parserSupplier, serialFile, false);
+        String parallelError = getErrorMessage(parserSupplier, parallelFile, true);
+
+        assertTrue(serialError.contains("(this is a very long line that will fail)"));
+        assertEquals(serialError, parallelError);
+        assertArrayEquals(Files.readAllBytes(serialFile.toPath()), Files.readAllBytes(parallelFile.toPath()));
+    }
+
+    private String getErrorMessage(Supplier<GcodeParser> parserSupplier, File output, boolean parallel) throws Exception {
+        try {
+            process(parserSupplier, gcodeFile, output, parallel);
+            fail("Expected the processing to fail");
+        } catch (GcodeParserException e) {
+            return e.getMessage();
+        }
+        return null;
+    }
+}
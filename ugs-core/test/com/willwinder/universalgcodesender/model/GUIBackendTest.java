@@ -21,6 +21,10 @@ package com.willwinder.universalgcodesender.model;
 import com.willwinder.universalgcodesender.AbstractController;
 import com.willwinder.universalgcodesender.IController;
 import com.willwinder.universalgcodesender.firmware.IFirmwareSettings;
+import com.willwinder.universalgcodesender.firmware.IFirmwareSettingsListener;
+import com.willwinder.universalgcodesender.gcode.DefaultCommandCreator;
+import com.willwinder.universalgcodesender.gcode.processors.FeedOverrideProcessor;
+import com.willwinder.universalgcodesender.gcode.processors.RunFromProcessor;
 import com.willwinder.universalgcodesender.listeners.ControllerState;
 import com.willwinder.universalgcodesender.listeners.ControllerStatus;
 import com.willwinder.universalgcodesender.listeners.UGSEventListener;
@@ -29,10 +33,13 @@ import com.willwinder.universalgcodesender.model.events.FileState;
 import com.willwinder.universalgcodesender.model.events.FileStateEvent;
 import com.willwinder.universalgcodesender.model.events.SettingChangedEvent;
 import com.willwinder.universalgcodesender.types.GcodeCommand;
+import com.willwinder.universalgcodesender.utils.GcodeStreamReaderFactory;
+import com.willwinder.universalgcodesender.utils.IGcodeStreamReader;
 import com.willwinder.universalgcodesender.utils.Settings;
 import org.apache.commons.io.FileUtils;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotEquals;
 import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertThrows;
@@ -43,7 +50,9 @@ import org.junit.Test;
 import org.mockito.ArgumentCaptor;
 import static org.mockito.Mockito.any;
 import static org.mockito.Mockito.anyDouble;
+import static org.mockito.Mockito.anyLong;
 import static org.mockito.Mockito.anyString;
+import static org.mockito.Mockito.doAnswer;
 import static org.mockito.Mockito.doNothing;
 import static org.mockito.Mockito.doReturn;
 import static org.mockito.Mockito.mock;
@@ -54,8 +63,12 @@ import static org.mockito.Mockito.when;
 
 import java.io.File;
 import java.io.IOException;
+import java.io.InputStream;
 import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
 
 /**
  * Unit test for GUIBackend
@@ -77,6 +90,8 @@ public class GUIBackendTest {
 
     private AbstractController controller;
 
+    private IFirmwareSettings firmwareSettings;
+
     private Settings settings;
 
     private GUIBackend instance;
@@ -85,9 +100,9 @@ public class GUIBackendTest {
     public void setUp() throws Exception {
 
         // We need to mock the method that loads the controller
-        UGSEventDispatcher eventDispatcher = new UGSEventDispatcher();
+        UGSEventDispatcher eventDispatcher = new UGSEventDispatcher(Runnable::run);
         instance = spy(new GUIBackend(eventDispatcher));
-        IFirmwareSettings firmwareSettings = mock(IFirmwareSettings.class);
+        firmwareSettings = mock(IFirmwareSettings.class);
         controller = mock(AbstractController.class);
         doReturn(controller).when(instance).fetchControllerFromFirmware(any());
         doReturn(firmwareSettings).when(controller).getFirmwareSettings();
@@ -487,6 +502,121 @@ public class GUIBackendTest {
         assertNotNull(instance.getProcessedGcodeFile());
     }
 
+    @Test
+    public void setRunFromLineShouldSkipLinesLikeTheRunFromProcessor() throws Exception {
+        // Given
+        instance.connect(FIRMWARE, PORT, BAUD_RATE);
+
+        File tempFile = File.createTempFile("ugs-", ".gcode");
+        try (InputStream inputStream = getClass().getClassLoader().getResourceAsStream("./gcode/circle_test.nc")) {
+            FileUtils.copyInputStreamToFile(inputStream, tempFile);
+        }
+        instance.setGcodeFile(tempFile);
+        List<String> fullProgram = readProcessedGcodeFile();
+
+        for (int line = 0; line < 40; line++) {
+            // When
+            instance.setRunFromLine(line);
+            List<String> runFromLine = readProcessedGcodeFile();
+
+            // Then it should be the same as processing the file with the run from processor
+            instance.setRunFromLine(0);
+            RunFromProcessor runFromProcessor = new RunFromProcessor(line);
+            instance.applyCommandProcessor(runFromProcessor);
+            assertEquals("Run from line " + line, readProcessedGcodeFile(), runFromLine);
+            instance.removeCommandProcessor(runFromProcessor);
+        }
+
+        instance.setRunFromLine(0);
+        assertEquals(fullProgram, readProcessedGcodeFile());
+    }
+
+    @Test
+    public void removeCommandProcessorShouldReuseThePreviouslyProcessedFile() throws Exception {
+        // Given
+        instance.connect(FIRMWARE, PORT, BAUD_RATE);
+
+        File tempFile = File.createTempFile("ugs-", ".gcode");
+        FileUtils.writeStringToFile(tempFile, "G0 X1.123456\nG1 X2.123456 F100\n", StandardCharsets.UTF_8);
+        instance.setGcodeFile(tempFile);
+        File processedFile = instance.getProcessedGcodeFile();
+        List<String> processedLines = readProcessedGcodeFile();
+
+        // When
+        FeedOverrideProcessor feedOverrideProcessor = new FeedOverrideProcessor(50);
+        instance.applyCommandProcessor(feedOverrideProcessor);
+        List<String> feedOverrideLines = readProcessedGcodeFile();
+        instance.removeCommandProcessor(feedOverrideProcessor);
+
+        // Then
+        assertEquals(processedFile, instance.getProcessedGcodeFile());
+        assertEquals(processedLines, readProcessedGcodeFile());
+        assertEquals(List.of("1: G0X1.1235", "2: G1X2.1235F50.0"), feedOverrideLines);
+
+        // Applying the processor again should only run it on the cached file
+        instance.applyCommandProcessor(feedOverrideProcessor);
+        assertNotEquals(processedFile, instance.getProcessedGcodeFile());
+        assertEquals(feedOverrideLines, readProcessedGcodeFile());
+    }
+
+    @Test
+    public void runTimeShouldBeEstimatedAgainWhenFirmwareSettingsChange() throws Exception {
+        // Given
+        ScheduledExecutorService executor = mock(ScheduledExecutorService.class);
+        doAnswer(invocation -> {
+            invocation.getArgument(0, Runnable.class).run();
+            return mock(ScheduledFuture.class);
+        }).when(executor).schedule(any(Runnable.class), anyLong(), any());
+        instance = spy(new GUIBackend(new UGSEventDispatcher(Runnable::run), executor));
+        doReturn(controller).when(instance).fetchControllerFromFirmware(any());
+        instance.applySettings(settings);
+        when(controller.isCommOpen()).thenReturn(true);
+        when(firmwareSettings.getMaximumRate(any())).thenReturn(6000d);
+        when(firmwareSettings.getAcceleration(any())).thenReturn(1000d);
+
+        File tempFile = File.createTempFile("ugs-", ".gcode");
+        FileUtils.writeStringToFile(tempFile, "G0 X0 Y0 Z0\nG1 X100 F6000\n", StandardCharsets.UTF_8);
+        instance.setGcodeFile(tempFile);
+
+        // 50 mm/s and 200 mm/s^2 using the default limits as the controller isn't connected
+        assertEquals(2250, instance.getEstimatedSendDuration());
+
+        // When
+        instance.connect(FIRMWARE, PORT, BAUD_RATE);
+
+        // Then
+        assertEquals(1100, instance.getEstimatedSendDuration());
+
+        // When
+        when(firmwareSettings.getAcceleration(any())).thenReturn(500d);
+        ArgumentCaptor<IFirmwareSettingsListener> listenerCaptor = ArgumentCaptor.forClass(IFirmwareSettingsListener.class);
+        verify(firmwareSettings, times(2)).addListener(listenerCaptor.capture());
+        listenerCaptor.getAllValues().forEach(listener -> listener.onUpdatedFirmwareSetting(null));
+
+        // Then
+        assertEquals(1200, instance.getEstimatedSendDuration());
+
+        // When
+        FeedOverrideProcessor feedOverrideProcessor = new FeedOverrideProcessor(50);
+        instance.applyCommandProcessor(feedOverrideProcessor);
+        when(firmwareSettings.getAcceleration(any())).thenReturn(1000d);
+        instance.removeCommandProcessor(feedOverrideProcessor);
+
+        // Then the cached file should be estimated again as the limits have changed
+        assertEquals(1100, instance.getEstimatedSendDuration());
+    }
+
+    private List<String> readProcessedGcodeFile() throws Exception {
+        List<String> result = new ArrayList<>();
+        try (IGcodeStreamReader reader = GcodeStreamReaderFactory.getReader(instance.getProcessedGcodeFile(), new DefaultCommandCreator())) {
+            while (reader.getNumRowsRemaining() > 0) {
+                GcodeCommand command = reader.getNextCommand();
+                result.add(command.getCommandNumber() + ": " + command.getCommandString());
+            }
+        }
+        return result;
+    }
+
     @Test
     public void unsetGcodeFileShouldUnloadFile() throws Exception {
         // Given
@@ -0,0 +1,211 @@
+/*
+    Copyright 2026 agent
+
+    This file is part of Universal Gcode Sender (UGS).
+
+    UGS is free software: you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    UGS is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with UGS.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.willwinder.universalgcodesender.model;
+
+import com.willwinder.universalgcodesender.listeners.ControllerState;
+import com.willwinder.universalgcodesender.listeners.ControllerStatus;
+import com.willwinder.universalgcodesender.listeners.UGSEventListener;
+import com.willwinder.universalgcodesender.model.events.ControllerStatusEvent;
+import com.willwinder.universalgcodesender.model.events.SettingChangedEvent;
+import com.willwinder.universalgcodesender.model.events.StreamEvent;
+import com.willwinder.universalgcodesender.model.events.StreamEventType;
+import org.junit.Test;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class UGSEventDispatcherTest {
+
+    private static ControllerStatusEvent createStatusEvent(double x, double previousX) {
+        return new ControllerStatusEvent(createStatus(x), createStatus(previousX));
+    }
+
+    private static ControllerStatus createStatus(double x) {
+        Position position = new Position(x, 0, 0, UnitUtils.Units.MM);
+        return new ControllerStatus(ControllerState.RUN, position, position);
+    }
+
+    private static void waitForEvents(UGSEventDispatcher dispatcher, long count) throws InterruptedException {
+        long timeout = System.currentTimeMillis() + 5000;
+        while (dispatcher.getListenerStatistics().get(0).delivered() < count && System.currentTimeMillis() < timeout) {
+            Thread.sleep(1);
+        }
+        // Give the listener a chance to handle the last event
+        Thread.sleep(10);
+    }
+
+    @Test
+    public void sendShouldNotWaitForSlowListeners() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        List<UGSEvent> events = new CopyOnWriteArrayList<>();
+        UGSEventDispatcher dispatcher = new UGSEventDispatcher();
+        dispatcher.addListener(event -> {
+            try {
+                release.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            events.add(event);
+        });
+
+        StreamEvent first = new StreamEvent(StreamEventType.STREAM_STARTED);
+        SettingChangedEvent second = new SettingChangedEvent();
+        StreamEvent third = new StreamEvent(StreamEventType.STREAM_COMPLETE);
+        dispatcher.sendUGSEvent(first);
+        dispatcher.sendUGSEvent(second);
+        dispatcher.sendUGSEvent(third);
+        assertTrue(events.isEmpty());
+
+        release.countDown();
+        waitForEvents(dispatcher, 3);
+        assertEquals(List.of(first, second, third), events);
+    }
+
+    @Test
+    public void statusEventsShouldBeCoalescedWhenListenerIsBusy() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        List<UGSEvent> events = new CopyOnWriteArrayList<>();
+        UGSEventDispatcher dispatcher = new UGSEventDispatcher();
+        dispatcher.addListener(event -> {
+            try {
+                release.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            events.add(event);
+        });
+
+        StreamEvent blockingEvent = new StreamEvent(StreamEventType.STREAM_STARTED);
+        dispatcher.sendUGSEvent(blockingEvent);
+        for (int i = 1; i <= 100; i++) {
+            dispatcher.sendUGSEvent(createStatusEvent(i, i - 1));
+        }
+        StreamEvent lastEvent = new StreamEvent(StreamEventType.STREAM_COMPLETE);
+        dispatcher.sendUGSEvent(lastEvent);
+
+        release.countDown();
+        waitForEvents(dispatcher, 3);
+
+        assertEquals(3, events.size());
+        assertSame(blockingEvent, events.get(0));
+        ControllerStatusEvent statusEvent = (ControllerStatusEvent) events.get(1);
+        assertEquals(100, statusEvent.getStatus().getMachineCoord().x, 0);
+        assertEquals(0, statusEvent.getPreviousStatus().getMachineCoord().x, 0);
+        assertSame(lastEvent, events.get(2));
+
+        UGSEventListenerStatistics statistics = dispatcher.getListenerStatistics().get(0);
+        assertEquals(3, statistics.delivered());
+        assertEquals(99, statistics.coalesced());
+        assertEquals(0, statistics.overflowed());
+        assertEquals(0, statistics.queued());
+    }
+
+    @Test
+    public void eventsShouldNotBeLostWhenQueueIsFull() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        List<UGSEvent> events = new CopyOnWriteArrayList<>();
+        UGSEventDispatcher dispatcher = new UGSEventDispatcher();
+        dispatcher.addListener(event -> {
+            try {
+                release.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            events.add(event);
+        });
+
+        for (int i = 0; i < 1100; i++) {
+            dispatcher.sendUGSEvent(new SettingChangedEvent());
+        }
+        dispatcher.sendUGSEvent(createStatusEvent(1, 0));
+        StreamEvent streamComplete = new StreamEvent(StreamEventType.STREAM_COMPLETE);
+        dispatcher.sendUGSEvent(streamComplete);
+
+        // The first event may already have been taken from the queue by the listener
+        UGSEventListenerStatistics statistics = dispatcher.getListenerStatistics().get(0);
+        assertTrue(statistics.overflowed() >= 1101 - 1025);
+        assertTrue(statistics.queued() >= 1100);
+
+        release.countDown();
+        waitForEvents(dispatcher, 1102);
+
+        // The status is delivered when all other events have been delivered as it did not fit in the queue
+        assertEquals(1102, events.size());
+        assertSame(streamComplete, events.get(1100));
+        assertTrue(events.get(1101) instanceof ControllerStatusEvent);
+        assertEquals(0, dispatcher.getListenerStatistics().get(0).queued());
+    }
+
+    @Test
+    public void eventsShouldBeDroppedWhenOverflowIsFullUnlessTheyMustBeDelivered() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        List<UGSEvent> events = new CopyOnWriteArrayList<>();
+        UGSEventDispatcher dispatcher = new UGSEventDispatcher();
+        dispatcher.addListener(event -> {
+            try {
+                release.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            events.add(event);
+        });
+
+        for (int i = 0; i < 2200; i++) {
+            dispatcher.sendUGSEvent(new SettingChangedEvent());
+        }
+        StreamEvent streamComplete = new StreamEvent(StreamEventType.STREAM_COMPLETE);
+        dispatcher.sendUGSEvent(streamComplete);
+
+        // The queue and the overflow list can hold 1024 events each, the first event may already have been taken
+        // from the queue by the listener
+        UGSEventListenerStatistics statistics = dispatcher.getListenerStatistics().get(0);
+        assertTrue(statistics.dropped() >= 2200 - 2049);
+        assertTrue(statistics.dropped() <= 2200 - 2048);
+        assertTrue(statistics.queued() >= 2200 - statistics.dropped());
+        assertTrue(statistics.queued() <= 2201 - statistics.dropped());
+
+        release.countDown();
+        waitForEvents(dispatcher, 2201 - statistics.dropped());
+        assertEquals(2201 - statistics.dropped(), events.size());
+        assertSame(streamComplete, events.get(events.size() - 1));
+    }
+
+    @Test
+    public void directExecutorShouldDeliverEventsOnSendingThread() {
+        List<Thread> threads = new CopyOnWriteArrayList<>();
+        UGSEventListener listener = event -> threads.add(Thread.currentThread());
+        UGSEventDispatcher dispatcher = new UGSEventDispatcher(Runnable::run);
+        dispatcher.addListener(listener);
+        dispatcher.addListener(listener);
+
+        dispatcher.sendUGSEvent(new SettingChangedEvent());
+        assertEquals(List.of(Thread.currentThread()), threads);
+
+        dispatcher.removeListener(listener);
+        dispatcher.sendUGSEvent(new SettingChangedEvent());
+        assertEquals(1, threads.size());
+        assertTrue(dispatcher.getListenerStatistics().isEmpty());
+    }
+}
@@ -108,4 +108,10 @@ public class GcodeCommandTest {
         Thread.sleep(100);
         assertEquals(2, timesListenerCalled.get());
     }
+
+    @Test
+    public void getCommandLengthShouldReturnTheNumberOfBytes() {
+        assertEquals(5, new GcodeCommand(" G1 X1 ").getCommandLength());
+        assertEquals("(45°)".getBytes().length, new GcodeCommand("(45°)").getCommandLength());
+    }
 }
@@ -0,0 +1,191 @@
+/*
+    Copyright 2026 agent
+
+    This file is part of Universal Gcode Sender (UGS).
+
+    UGS is free software: you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    UGS is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with UGS.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.willwinder.universalgcodesender.utils;
+
+import com.willwinder.universalgcodesender.gcode.DefaultCommandCreator;
+import com.willwinder.universalgcodesender.types.GcodeCommand;
+import org.apache.commons.io.FileUtils;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class BinaryGcodeStreamTest {
+    private File tempDir;
+
+    @Before
+    public void setUp() throws IOException {
+        tempDir = Files.createTempDirectory("binarygcodestream").toFile();
+    }
+
+    @After
+    public void tearDown() throws IOException {
+        FileUtils.forceDelete(tempDir);
+    }
+
+    @Test
+    public void writeAndReadShouldReturnAllRows() throws Exception {
+        int rows = 100000;
+        File file = new File(tempDir, "gcodeFile");
+        try (IGcodeWriter writer = new BinaryGcodeStreamWriter(file)) {
+            for (int i = 0; i < rows; i++) {
+                writer.addLine("Line " + i + " before", "Line " + i + " after", i % 2 == 0 ? null : "comment " + i, i);
+            }
+        }
+
+        try (IGcodeStreamReader reader = GcodeStreamReaderFactory.getReader(file, new DefaultCommandCreator())) {
+            assertThat(reader).isInstanceOf(BinaryGcodeStreamReader.class);
+            assertEquals(rows, reader.getNumRows());
+
+            int count = 0;
+            while (reader.ready()) {
+                GcodeCommand command = reader.getNextCommand();
+                assertEquals("Line " + count + " before", command.getOriginalCommandString());
+                assertEquals("Line " + count + " after", command.getCommandString());
+                assertEquals(count % 2 == 0 ? "" : "comment " + count, command.getComment());
+                assertEquals(count, command.getCommandNumber());
+                count++;
+                assertEquals(rows - count, reader.getNumRowsRemaining());
+            }
+
+            assertEquals(rows, count);
+            assertNull(reader.getNextCommand());
+        }
+    }
+
+    @Test
+    public void writeShouldHandleMultiByteCharactersAndEmptyStream() throws Exception {
+        File file = new File(tempDir, "gcodeFile");
+        try (IGcodeWriter writer = new BinaryGcodeStreamWriter(file)) {
+            writer.addLine("G0 X1 (ÅÄÖ ¶¶)", "G0X1", "ÅÄÖ ¶¶", 1);
+        }
+
+        try (BinaryGcodeStreamReader reader = new BinaryGcodeStreamReader(file, new DefaultCommandCreator())) {
+            GcodeCommand command = reader.getNextCommand();
+            assertEquals("G0 X1 (ÅÄÖ ¶¶)", command.getOriginalCommandString());
+            assertEquals("ÅÄÖ ¶¶", command.getComment());
+        }
+
+        File emptyFile = new File(tempDir, "emptyFile");
+        new BinaryGcodeStreamWriter(emptyFile).close();
+        try (BinaryGcodeStreamReader reader = new BinaryGcodeStreamReader(emptyFile, new DefaultCommandCreator())) {
+            assertEquals(0, reader.getNumRows());
+            assertNull(reader.getNextCommand());
+        }
+    }
+
+    @Test
+    public void writeShouldNormalizeCommandsAndLinesTheSameWay() throws Exception {
+        File file = new File(tempDir, "gcodeFile");
+        try (IGcodeWriter writer = new BinaryGcodeStreamWriter(file)) {
+            writer.addLine(" G0 X1 (comment) ", " G0X1 ", " comment ", 1);
+            writer.addLine(new GcodeCommand(" G0X1 ", " G0 X1 (comment) ", " comment ", 1));
+        }
+
+        try (BinaryGcodeStreamReader reader = new BinaryGcodeStreamReader(file, new DefaultCommandCreator())) {
+            for (int i = 0; i < 2; i++) {
+                GcodeCommand command = reader.getNextCommand();
+                assertEquals("G0 X1 (comment)", command.getOriginalCommandString());
+                assertEquals("G0X1", command.getCommandString());
+                assertEquals("comment", command.getComment());
+            }
+        }
+    }
+
+    @Test
+    public void seekShouldMoveToRow() throws Exception {
+        File file = new File(tempDir, "gcodeFile");
+        try (IGcodeWriter writer = new BinaryGcodeStreamWriter(file)) {
+            for (int i = 0; i < 100; i++) {
+                // Two rows per command number, like an expanded arc
+                writer.addLine("G1X" + i, "G1X" + i + ".0", null, i * 10);
+                writer.addLine("G1X" + i, "G1X" + i + ".5", null, i * 10);
+            }
+        }
+
+        try (ISeekableGcodeStreamReader reader = GcodeStreamReaderFactory.getSeekableReader(file, new DefaultCommandCreator())) {
+            reader.seek(150);
+            assertEquals(50, reader.getNumRowsRemaining());
+            assertEquals("G1X75.0", reader.getNextCommand().getCommandString());
+
+            assertEquals("G1X3.5", reader.getCommand(7).getCommandString());
+            assertEquals(151, reader.getNumRows() - reader.getNumRowsRemaining());
+
+            assertEquals(0, reader.getRowForCommandNumber(0));
+            assertEquals(20, reader.getRowForCommandNumber(100));
+            assertEquals(22, reader.getRowForCommandNumber(105));
+            assertEquals(200, reader.getRowForCommandNumber(10000));
+        }
+    }
+
+    @Test(expected = IndexOutOfBoundsException.class)
+    public void seekOutsideStreamShouldThrowException() throws Exception {
+        File file = new File(tempDir, "gcodeFile");
+        try (IGcodeWriter writer = new BinaryGcodeStreamWriter(file)) {
+            writer.addLine("G0X0", "G0X0", null, 1);
+        }
+
+        try (BinaryGcodeStreamReader reader = new BinaryGcodeStreamReader(file, new DefaultCommandCreator())) {
+            reader.seek(2);
+        }
+    }
+
+    @Test
+    public void factoryShouldOpenTextGcodeStream() throws Exception {
+        File file = new File(tempDir, "gcodeFile");
+        try (IGcodeWriter writer = new GcodeStreamWriter(file)) {
+            writer.addLine("G0X0", "G0X0", null, 1);
+        }
+
+        try (IGcodeStreamReader reader = GcodeStreamReaderFactory.getReader(file, new DefaultCommandCreator())) {
+            assertTrue(reader instanceof GcodeStreamReader);
+            assertEquals("G0X0", reader.getNextCommand().getCommandString());
+        }
+    }
+
+    @Test(expected = IOException.class)
+    public void factoryShouldThrowExceptionWhenSeekingTextGcodeStream() throws Exception {
+        File file = new File(tempDir, "gcodeFile");
+        try (IGcodeWriter writer = new GcodeStreamWriter(file)) {
+            writer.addLine("G0X0", "G0X0", null, 1);
+        }
+
+        GcodeStreamReaderFactory.getSeekableReader(file, new DefaultCommandCreator());
+    }
+
+    @Test(expected = GcodeStreamReader.NotGcodeStreamFile.class)
+    public void factoryShouldThrowExceptionOnRawGcode() throws Exception {
+        File file = new File(tempDir, "gcodeFile");
+        try (PrintWriter writer = new PrintWriter(file, StandardCharsets.UTF_8.name())) {
+            writer.println("G0 X0 Y0");
+        }
+
+        GcodeStreamReaderFactory.getReader(file, new DefaultCommandCreator());
+    }
+}
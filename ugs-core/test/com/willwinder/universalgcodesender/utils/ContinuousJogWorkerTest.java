@@ -0,0 +1,239 @@
+/*
+    Copyright 2026 agent
+
+    This file is part of Universal Gcode Sender (UGS).
+
+    UGS is free software: you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    UGS is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with UGS.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.willwinder.universalgcodesender.utils;
+
+import com.willwinder.universalgcodesender.Capabilities;
+import com.willwinder.universalgcodesender.IController;
+import com.willwinder.universalgcodesender.communicator.ICommunicator;
+import com.willwinder.universalgcodesender.firmware.IFirmwareSettings;
+import com.willwinder.universalgcodesender.listeners.ControllerState;
+import com.willwinder.universalgcodesender.listeners.ControllerStatus;
+import com.willwinder.universalgcodesender.listeners.ControllerStatusBuilder;
+import com.willwinder.universalgcodesender.model.Axis;
+import com.willwinder.universalgcodesender.model.BackendAPI;
+import com.willwinder.universalgcodesender.model.PartialPosition;
+import com.willwinder.universalgcodesender.model.UnitUtils;
+import com.willwinder.universalgcodesender.model.events.CommandEvent;
+import com.willwinder.universalgcodesender.model.events.CommandEventType;
+import com.willwinder.universalgcodesender.model.events.ControllerStatusEvent;
+import com.willwinder.universalgcodesender.model.events.StreamEvent;
+import com.willwinder.universalgcodesender.model.events.StreamEventType;
+import com.willwinder.universalgcodesender.services.JogService;
+import com.willwinder.universalgcodesender.types.GcodeCommand;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.ArgumentCaptor;
+
+import java.util.List;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyDouble;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class ContinuousJogWorkerTest {
+    private static final double DELTA = 0.0001;
+
+    private BackendAPI backendAPI;
+    private JogService jogService;
+    private IFirmwareSettings firmwareSettings;
+    private ICommunicator communicator;
+    private ContinuousJogWorker worker;
+
+    @Before
+    public void setUp() throws Exception {
+        Capabilities capabilities = mock(Capabilities.class);
+        when(capabilities.hasAxis(any())).thenReturn(true);
+
+        firmwareSettings = mock(IFirmwareSettings.class);
+        when(firmwareSettings.getAcceleration(any())).thenReturn(500d);
+
+        communicator = mock(ICommunicator.class);
+
+        IController controller = mock(IController.class);
+        when(controller.getCapabilities()).thenReturn(capabilities);
+        when(controller.getCommunicator()).thenReturn(communicator);
+        when(controller.getFirmwareSettings()).thenReturn(firmwareSettings);
+
+        backendAPI = mock(BackendAPI.class);
+        when(backendAPI.getController()).thenReturn(controller);
+
+        jogService = mock(JogService.class);
+        when(jogService.getUnits()).thenReturn(UnitUtils.Units.MM);
+        when(jogService.getFeedRate()).thenReturn(3000);
+
+        ScheduledExecutorService executor = mock(ScheduledExecutorService.class);
+        doReturn(mock(ScheduledFuture.class)).when(executor).schedule(any(Runnable.class), anyLong(), any());
+
+        worker = new ContinuousJogWorker(backendAPI, jogService, executor);
+    }
+
+    @Test
+    public void getSegmentTimeShouldCoverTheStopDistance() {
+        // 50 mm/s with 500 mm/s^2 needs 0.05s of queued segments to be able to stop
+        double segmentTime = ContinuousJogWorker.getSegmentTime(50, 500, 0.005);
+        assertEquals(0.010, segmentTime, DELTA);
+        assertEquals(6, ContinuousJogWorker.getLookAhead(50, 500, 0.005, segmentTime));
+
+        // Slow acceleration requires longer segments to not exceed the look-ahead
+        segmentTime = ContinuousJogWorker.getSegmentTime(50, 50, 0.005);
+        assertEquals(0.5 / 9, segmentTime, DELTA);
+        assertEquals(10, ContinuousJogWorker.getLookAhead(50, 50, 0.005, segmentTime));
+    }
+
+    @Test
+    public void getSegmentTimeShouldCoverTheRoundTripTime() {
+        double segmentTime = ContinuousJogWorker.getSegmentTime(50, 500, 0.080);
+        assertEquals(0.010, segmentTime, DELTA);
+        assertEquals(9, ContinuousJogWorker.getLookAhead(50, 500, 0.080, segmentTime));
+    }
+
+    @Test
+    public void getSegmentTimeWithUnknownAccelerationShouldUseDefault() {
+        double segmentTime = ContinuousJogWorker.getSegmentTime(50, 0, 0.005);
+        assertEquals(0.150 / 9, segmentTime, DELTA);
+        assertEquals(10, ContinuousJogWorker.getLookAhead(50, 0, 0.005, segmentTime));
+    }
+
+    @Test
+    public void startShouldFillTheLookAhead() {
+        worker.setDirection(1, 0, 0);
+        worker.start();
+
+        List<PartialPosition> segments = captureSegments(6);
+        segments.forEach(segment -> {
+            assertEquals(0.5, segment.getAxis(Axis.X), DELTA);
+            assertFalse(segment.hasAxis(Axis.Y));
+        });
+    }
+
+    @Test
+    public void completedNonJogCommandsShouldNotSendSegments() {
+        worker.setDirection(1, 0, 0);
+        worker.start();
+        captureSegments(6);
+
+        worker.UGSEvent(new CommandEvent(CommandEventType.COMMAND_COMPLETE, new GcodeCommand("G0 X1")));
+        captureSegments(6);
+    }
+
+    @Test
+    public void stopShouldCancelAgainWhenPendingCommandsHaveCompleted() {
+        worker.setDirection(1, 0, 0);
+        worker.start();
+        worker.stop();
+        verify(jogService, times(1)).cancelJog();
+
+        for (int i = 0; i < 6; i++) {
+            worker.UGSEvent(createJogCompleteEvent());
+        }
+        verify(jogService, times(2)).cancelJog();
+        captureSegments(6);
+    }
+
+    @Test
+    public void directionChangeShouldCancelAndReplanWhenIdle() {
+        worker.setDirection(1, 0, 0);
+        worker.start();
+        captureSegments(6);
+
+        // Only changing the speed should not cancel the queued segments
+        worker.setDirection(0.5f, 0, 0);
+        verify(jogService, times(0)).cancelJog();
+
+        worker.setDirection(-1, 0, 0);
+        verify(jogService, times(1)).cancelJog();
+
+        for (int i = 0; i < 6; i++) {
+            worker.UGSEvent(createJogCompleteEvent());
+        }
+        verify(jogService, times(2)).cancelJog();
+
+        // Wait until the canceled jog has stopped
+        worker.UGSEvent(createStatusEvent(ControllerState.JOG));
+        captureSegments(6);
+
+        worker.UGSEvent(createStatusEvent(ControllerState.IDLE));
+        List<PartialPosition> segments = captureSegments(12);
+        segments.subList(6, 12).forEach(segment -> assertEquals(-0.5, segment.getAxis(Axis.X), DELTA));
+    }
+
+    @Test
+    public void jogShouldContinueWhenCanceledCommandsWereDroppedByTheCommunicator() {
+        // Controllers without hardware jogging cancel the jog by canceling the stream
+        worker.setDirection(1, 0, 0);
+        worker.start();
+        worker.stop();
+        verify(jogService, times(1)).cancelJog();
+        worker.UGSEvent(new StreamEvent(StreamEventType.STREAM_CANCELED));
+        worker.UGSEvent(createStatusEvent(ControllerState.IDLE));
+
+        worker.start();
+        captureSegments(12);
+        verify(jogService, times(1)).cancelJog();
+    }
+
+    @Test
+    public void jogShouldContinueWhenIdleWithoutActiveCommands() {
+        when(communicator.areActiveCommands()).thenReturn(true);
+        worker.setDirection(1, 0, 0);
+        worker.start();
+        worker.setDirection(-1, 0, 0);
+        verify(jogService, times(1)).cancelJog();
+
+        // The commands are still active in the communicator and may start a new jog
+        worker.UGSEvent(createStatusEvent(ControllerState.IDLE));
+        captureSegments(6);
+
+        // The controller stopped the jog and the communicator dropped the commands
+        when(communicator.areActiveCommands()).thenReturn(false);
+        worker.UGSEvent(createStatusEvent(ControllerState.IDLE));
+        List<PartialPosition> segments = captureSegments(12);
+        segments.subList(6, 12).forEach(segment -> assertEquals(-0.5, segment.getAxis(Axis.X), DELTA));
+    }
+
+    @Test
+    public void destroyShouldRemoveListener() {
+        worker.destroy();
+        verify(backendAPI).removeUGSEventListener(worker);
+    }
+
+    private List<PartialPosition> captureSegments(int expectedCount) {
+        ArgumentCaptor<PartialPosition> captor = ArgumentCaptor.forClass(PartialPosition.class);
+        verify(jogService, times(expectedCount)).adjustManualLocation(captor.capture(), anyDouble());
+        return captor.getAllValues();
+    }
+
+    private static CommandEvent createJogCompleteEvent() {
+        return new CommandEvent(CommandEventType.COMMAND_COMPLETE, new GcodeCommand("$J=G21G91X0.5F3000"));
+    }
+
+    private static ControllerStatusEvent createStatusEvent(ControllerState state) {
+        ControllerStatus status = ControllerStatusBuilder.newInstance().setState(state).build();
+        return new ControllerStatusEvent(status, status);
+    }
+}
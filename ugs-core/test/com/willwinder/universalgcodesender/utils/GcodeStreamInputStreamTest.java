@@ -0,0 +1,46 @@
+/*
+    Copyright 2026 agent
+
+    This file is part of Universal Gcode Sender (UGS).
+
+    UGS is free software: you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    UGS is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with UGS.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.willwinder.universalgcodesender.utils;
+
+import org.apache.commons.io.IOUtils;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.Assert.assertEquals;
+
+public class GcodeStreamInputStreamTest {
+
+    @Test
+    public void readShouldReturnCommandsAsLines() throws IOException {
+        SimpleGcodeStreamReader reader = new SimpleGcodeStreamReader("G0 X1", "", "G1 Y2 F100", "M5");
+        try (GcodeStreamInputStream inputStream = new GcodeStreamInputStream(reader)) {
+            assertEquals("G0 X1\nG1 Y2 F100\nM5\n", IOUtils.toString(inputStream, StandardCharsets.US_ASCII));
+            assertEquals(-1, inputStream.read());
+        }
+    }
+
+    @Test
+    public void readShouldReturnEndOfStreamForEmptyStream() throws IOException {
+        try (GcodeStreamInputStream inputStream = new GcodeStreamInputStream(new SimpleGcodeStreamReader(new String[0]))) {
+            assertEquals(-1, inputStream.read(new byte[10], 0, 10));
+        }
+    }
+}
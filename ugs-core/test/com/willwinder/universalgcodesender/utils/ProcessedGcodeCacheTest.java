@@ -0,0 +1,147 @@
+/*
+    Copyright 2026 agent
+
+    This file is part of Universal Gcode Sender (UGS).
+
+    UGS is free software: you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    UGS is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with UGS.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.willwinder.universalgcodesender.utils;
+
+import com.willwinder.universalgcodesender.gcode.GcodeStateIndex;
+import com.willwinder.universalgcodesender.gcode.processors.CommandProcessor;
+import com.willwinder.universalgcodesender.gcode.processors.DecimalProcessor;
+import com.willwinder.universalgcodesender.gcode.processors.FeedOverrideProcessor;
+import com.willwinder.universalgcodesender.gcode.processors.WhitespaceProcessor;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class ProcessedGcodeCacheTest {
+    private final CommandProcessor whitespace = new WhitespaceProcessor();
+    private final CommandProcessor decimal = new DecimalProcessor(4);
+    private final CommandProcessor feedOverride = new FeedOverrideProcessor(50);
+
+    @Test
+    public void findShouldReturnTheLongestMatchingChain() {
+        ProcessedGcodeCache cache = new ProcessedGcodeCache();
+        cache.add(List.of(whitespace), new File("1"), new GcodeStateIndex(), null);
+        cache.add(List.of(whitespace, decimal), new File("2"), new GcodeStateIndex(), null);
+        cache.add(List.of(whitespace, decimal, feedOverride), new File("3"), new GcodeStateIndex(), null);
+
+        assertEquals(new File("3"), cache.find(List.of(whitespace, decimal, feedOverride)).orElseThrow().file());
+        assertEquals(new File("2"), cache.find(List.of(whitespace, decimal)).orElseThrow().file());
+        assertEquals(new File("1"), cache.find(List.of(whitespace, feedOverride)).orElseThrow().file());
+        assertEquals(new File("1"), cache.find(List.of(whitespace, new DecimalProcessor(4))).orElseThrow().file());
+        assertFalse(cache.find(List.of(decimal)).isPresent());
+        assertFalse(cache.find(Collections.emptyList()).isPresent());
+    }
+
+    @Test
+    public void findShouldNotMatchProcessorsWithChangedConfiguration() {
+        CommandProcessor processor = mock(CommandProcessor.class);
+        when(processor.getConfiguration()).thenReturn("{\"setting\":1}");
+
+        ProcessedGcodeCache cache = new ProcessedGcodeCache();
+        cache.add(List.of(whitespace), new File("1"), new GcodeStateIndex(), null);
+        cache.add(List.of(whitespace, processor), new File("2"), new GcodeStateIndex(), null);
+        assertEquals(new File("2"), cache.find(List.of(whitespace, processor)).orElseThrow().file());
+
+        when(processor.getConfiguration()).thenReturn("{\"setting\":2}");
+        assertEquals(new File("1"), cache.find(List.of(whitespace, processor)).orElseThrow().file());
+    }
+
+    @Test
+    public void invalidateShouldRemoveAllChainsWithTheProcessor() {
+        ProcessedGcodeCache cache = new ProcessedGcodeCache();
+        cache.add(List.of(whitespace), new File("1"), new GcodeStateIndex(), null);
+        cache.add(List.of(whitespace, decimal), new File("2"), new GcodeStateIndex(), null);
+        cache.add(List.of(whitespace, decimal, feedOverride), new File("3"), new GcodeStateIndex(), null);
+
+        cache.invalidate(decimal);
+        assertEquals(new File("1"), cache.find(Arrays.asList(whitespace, decimal, feedOverride)).orElseThrow().file());
+
+        cache.clear();
+        assertFalse(cache.find(List.of(whitespace)).isPresent());
+    }
+
+    @Test
+    public void addShouldEvictTheLeastRecentlyUsedChains() {
+        ProcessedGcodeCache cache = new ProcessedGcodeCache();
+        cache.add(List.of(whitespace), new File("base"), new GcodeStateIndex(), null);
+        for (int i = 0; i < 10; i++) {
+            // Keep the first chain in use
+            cache.find(List.of(whitespace));
+            cache.add(List.of(whitespace, new DecimalProcessor(4 + i)), new File(String.valueOf(i)), new GcodeStateIndex(), null);
+        }
+
+        assertEquals(new File("base"), cache.find(List.of(whitespace)).orElseThrow().file());
+        assertEquals(new File("base"), cache.find(List.of(whitespace, decimal)).orElseThrow().file());
+    }
+
+    @Test
+    public void findShouldNotMatchProcessorsWithoutConfiguration() {
+        CommandProcessor processor = mock(CommandProcessor.class);
+
+        ProcessedGcodeCache cache = new ProcessedGcodeCache();
+        cache.add(List.of(whitespace), new File("1"), new GcodeStateIndex(), null);
+        cache.add(List.of(whitespace, processor), new File("2"), new GcodeStateIndex(), null);
+        assertEquals(new File("1"), cache.find(List.of(whitespace, processor)).orElseThrow().file());
+    }
+
+    @Test
+    public void evictedFilesShouldBeDeleted() throws IOException {
+        File base = File.createTempFile("ugs-", ".gcode");
+        File replaced = File.createTempFile("ugs-", ".gcode");
+        File replacement = File.createTempFile("ugs-", ".gcode");
+
+        ProcessedGcodeCache cache = new ProcessedGcodeCache();
+        cache.add(List.of(whitespace), base, new GcodeStateIndex(), null);
+        cache.add(List.of(whitespace, decimal), replaced, new GcodeStateIndex(), null);
+        cache.add(List.of(whitespace, decimal), replacement, new GcodeStateIndex(), null);
+        assertFalse(replaced.exists());
+        assertTrue(replacement.exists());
+
+        cache.invalidate(decimal);
+        assertFalse(replacement.exists());
+        assertTrue(base.exists());
+
+        cache.clear();
+        assertFalse(base.exists());
+    }
+
+    @Test
+    public void leastRecentlyUsedFilesShouldBeDeletedWhenEvicted() throws IOException {
+        File first = File.createTempFile("ugs-", ".gcode");
+        ProcessedGcodeCache cache = new ProcessedGcodeCache();
+        cache.add(List.of(whitespace), first, new GcodeStateIndex(), null);
+
+        for (int i = 0; i < 8; i++) {
+            File file = File.createTempFile("ugs-", ".gcode");
+            cache.add(List.of(whitespace, new DecimalProcessor(4 + i)), file, new GcodeStateIndex(), null);
+        }
+
+        assertFalse(first.exists());
+        cache.clear();
+    }
+}
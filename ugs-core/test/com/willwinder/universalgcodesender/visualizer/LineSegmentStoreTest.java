@@ -0,0 +1,170 @@
+/*
+    Copyright 2026 agent
+
+    This file is part of Universal Gcode Sender (UGS).
+
+    UGS is free software: you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    UGS is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with UGS.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.willwinder.universalgcodesender.visualizer;
+
+import com.willwinder.universalgcodesender.model.Position;
+import com.willwinder.universalgcodesender.model.UnitUtils;
+import com.willwinder.universalgcodesender.utils.SimpleGcodeStreamReader;
+import org.apache.commons.io.IOUtils;
+import org.junit.Test;
+
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class LineSegmentStoreTest {
+
+    @Test
+    public void addShouldStoreSegmentProperties() {
+        LineSegment lineSegment = new LineSegment(new Position(1, 2, 3, UnitUtils.Units.MM), new Position(4, 5, Double.NaN, UnitUtils.Units.MM), 10);
+        lineSegment.setIsArc(true);
+        lineSegment.setIsZMovement(true);
+        lineSegment.setFeedRate(1200);
+        lineSegment.setSpindleSpeed(10000);
+
+        LineSegmentStore segments = new LineSegmentStore(1);
+        segments.add(lineSegment);
+        segments.add(new LineSegment(Position.ZERO, Position.ZERO, 11));
+
+        assertEquals(2, segments.size());
+        assertEquals(10, segments.getLineNumber(0));
+        assertEquals(3, segments.getStartZ(0), 0);
+        assertEquals(4, segments.getEndX(0), 0);
+        assertTrue(Double.isNaN(segments.getEndZ(0)));
+        assertTrue(segments.isArc(0));
+        assertTrue(segments.isZMovement(0));
+        assertFalse(segments.isFastTraverse(0));
+        assertFalse(segments.isRotation(0));
+        assertEquals(1200, segments.getFeedRate(0), 0);
+        assertEquals(10000, segments.getSpindleSpeed(0), 0);
+        assertEquals(11, segments.getLineNumber(1));
+        assertFalse(segments.isArc(1));
+        assertFalse(segments.hasRotationCoordinates(0));
+
+        LineSegment copy = segments.asList().get(0);
+        assertEquals(new Position(1, 2, 3, UnitUtils.Units.MM), copy.getStart());
+        assertTrue(copy.isArc());
+    }
+
+    @Test
+    public void rotationCoordinatesShouldOnlyBeKeptForSegmentsWithRotations() {
+        LineSegmentStore segments = new LineSegmentStore(1);
+        segments.add(new LineSegment(new Position(0, 0, 10, UnitUtils.Units.MM), new Position(0, 0, 10, UnitUtils.Units.MM), 1));
+        segments.add(new LineSegment(new Position(0, 0, 10, 0, 0, 0, UnitUtils.Units.MM), new Position(0, 0, 10, 90, 0, 0, UnitUtils.Units.MM), 2));
+        segments.add(new LineSegment(new Position(0, 0, 10, UnitUtils.Units.MM), new Position(0, 0, 10, UnitUtils.Units.MM), 3));
+
+        assertFalse(segments.hasRotationCoordinates(0));
+        assertTrue(segments.hasRotationCoordinates(1));
+        assertFalse(segments.hasRotationCoordinates(2));
+        assertTrue(Double.isNaN(segments.getStart(0).a));
+        assertEquals(90, segments.getEnd(1).a, 0);
+
+        VisualizerUtils.toCartesian(segments);
+        assertFalse(segments.hasRotationCoordinates(1));
+        VisualizerUtilsTest.assertPosition(0, -10, 0, Double.NaN, Double.NaN, Double.NaN, segments.getEnd(1));
+        VisualizerUtilsTest.assertPosition(0, 0, 10, Double.NaN, Double.NaN, Double.NaN, segments.getEnd(2));
+    }
+
+    @Test
+    public void toSegmentsShouldGiveSameSegmentsAsLineSegmentList() throws Exception {
+        List<String> lines;
+        try (InputStream inputStream = getClass().getClassLoader().getResourceAsStream("./gcode/circle_test.nc")) {
+            lines = IOUtils.readLines(inputStream, StandardCharsets.UTF_8);
+        }
+
+        GcodeViewParse listParser = new GcodeViewParse();
+        List<LineSegment> expected = listParser.toObjRedux(lines, 0.3);
+        GcodeViewParse storeParser = new GcodeViewParse();
+        LineSegmentStore segments = storeParser.toSegments(lines, 0.3);
+
+        assertTrue(segments.size() > 100);
+        assertEquals(expected.size(), segments.size());
+        for (int i = 0; i < segments.size(); i++) {
+            LineSegment lineSegment = expected.get(i);
+            assertEquals(lineSegment.getLineNumber(), segments.getLineNumber(i));
+            assertEquals(lineSegment.getStart().x, segments.getStartX(i), 0.0001);
+            assertEquals(lineSegment.getStart().y, segments.getStartY(i), 0.0001);
+            assertEquals(lineSegment.getEnd().z, segments.getEndZ(i), 0.0001);
+            assertEquals(lineSegment.isArc(), segments.isArc(i));
+            assertEquals(lineSegment.isFastTraverse(), segments.isFastTraverse(i));
+            assertEquals(lineSegment.getFeedRate(), segments.getFeedRate(i), 0.0001);
+        }
+
+        assertEquals(listParser.getMaximumExtremes().x, storeParser.getMaximumExtremes().x, 0.0001);
+        assertEquals(listParser.getMinimumExtremes().y, storeParser.getMinimumExtremes().y, 0.0001);
+        assertEquals(listParser.getMaxFeedRate(), storeParser.getMaxFeedRate(), 0.0001);
+    }
+
+    @Test
+    public void copyShouldNotBeAffectedByAddedSegments() {
+        LineSegmentStore segments = new LineSegmentStore(1);
+        segments.add(new LineSegment(Position.ZERO, new Position(1, 1, 1, UnitUtils.Units.MM), 1));
+
+        LineSegmentStore copy = segments.copy();
+        segments.add(new LineSegment(Position.ZERO, new Position(0, 0, 0, 90, 0, 0, UnitUtils.Units.MM), 2));
+        segments.setCoordinates(0, Position.ZERO, Position.ZERO);
+
+        assertEquals(1, copy.size());
+        assertEquals(1, copy.getEndX(0), 0);
+        assertFalse(copy.hasRotationCoordinates(0));
+        assertEquals(2, segments.size());
+    }
+
+    @Test
+    public void snapshotShouldNotSeeAddedSegments() {
+        LineSegmentStore segments = new LineSegmentStore(1);
+        segments.add(new LineSegment(Position.ZERO, new Position(1, 1, 1, UnitUtils.Units.MM), 1));
+
+        LineSegmentStore snapshot = segments.snapshot();
+        segments.add(new LineSegment(Position.ZERO, new Position(0, 0, 0, 90, 0, 0, UnitUtils.Units.MM), 2));
+        segments.add(new LineSegment(Position.ZERO, new Position(2, 2, 2, UnitUtils.Units.MM), 3));
+
+        assertEquals(1, snapshot.size());
+        assertEquals(1, snapshot.getEndX(0), 0);
+        assertFalse(snapshot.hasRotationCoordinates(0));
+        assertEquals(3, segments.size());
+
+        // The segments of a later snapshot should be converted in place
+        LineSegmentStore nextSnapshot = segments.snapshot();
+        VisualizerUtils.toCartesian(nextSnapshot, 1, 2);
+        assertFalse(nextSnapshot.hasRotationCoordinates(1));
+        assertFalse(segments.hasRotationCoordinates(1));
+        assertEquals(2, nextSnapshot.getEndX(2), 0);
+    }
+
+    @Test
+    public void toSegmentsFromReaderShouldStopWhenInterrupted() throws Exception {
+        SimpleGcodeStreamReader reader = new SimpleGcodeStreamReader("G0 X0 Y0", "G1 X10", "G1 Y10");
+        Thread.currentThread().interrupt();
+        try {
+            new GcodeViewParse().toSegmentsFromReader(reader, 0.3, (segments, progress) -> fail("Should not give any segments"));
+            fail("Should have been interrupted");
+        } catch (InterruptedIOException e) {
+            assertEquals(3, reader.getNumRowsRemaining());
+        } finally {
+            Thread.interrupted();
+        }
+    }
+}
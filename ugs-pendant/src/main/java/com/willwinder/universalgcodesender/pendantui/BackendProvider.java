@@ -19,12 +19,14 @@
 package com.willwinder.universalgcodesender.pendantui;
 
 import com.willwinder.universalgcodesender.model.BackendAPI;
+import com.willwinder.universalgcodesender.pendantui.v1.ws.EventBroadcaster;
 
 /**
- * A provider for accessing the backend in injected resources
+ * A provider for accessing the backend and the event broadcaster in injected resources
  */
 public class BackendProvider {
     private static BackendAPI backendAPI;
+    private static EventBroadcaster eventBroadcaster;
 
     public static void register(BackendAPI backendAPI) {
         BackendProvider.backendAPI = backendAPI;
@@ -33,4 +35,12 @@ public class BackendProvider {
     public static BackendAPI getBackendAPI() {
         return backendAPI;
     }
+
+    public static void register(EventBroadcaster eventBroadcaster) {
+        BackendProvider.eventBroadcaster = eventBroadcaster;
+    }
+
+    public static EventBroadcaster getEventBroadcaster() {
+        return eventBroadcaster;
+    }
 }
@@ -24,6 +24,7 @@ import com.willwinder.universalgcodesender.model.UGSEvent;
 import com.willwinder.universalgcodesender.model.events.SettingChangedEvent;
 import com.willwinder.universalgcodesender.pendantui.html.StaticConfig;
 import com.willwinder.universalgcodesender.pendantui.v1.AppV1Config;
+import com.willwinder.universalgcodesender.pendantui.v1.ws.EventBroadcaster;
 import com.willwinder.universalgcodesender.pendantui.v1.ws.EventsSocket;
 import com.willwinder.universalgcodesender.services.JogService;
 import jakarta.ws.rs.core.UriBuilder;
@@ -59,6 +60,7 @@ public class PendantUI implements UGSEventListener {
     private static final Logger LOG = Logger.getLogger(PendantUI.class.getSimpleName());
     private final JogService jogService;
     private final BackendAPI backendAPI;
+    private final EventBroadcaster eventBroadcaster;
     private int port = 8080;
     private Server server;
 
@@ -66,7 +68,9 @@ public class PendantUI implements UGSEventListener {
         this.backendAPI = backendAPI;
         backendAPI.addUGSEventListener(this);
         jogService = new JogService(backendAPI);
+        eventBroadcaster = new EventBroadcaster(backendAPI);
         BackendProvider.register(backendAPI);
+        BackendProvider.register(eventBroadcaster);
     }
 
     /**
@@ -93,6 +97,7 @@ public class PendantUI implements UGSEventListener {
             throw new RuntimeException(e);
         }
 
+        backendAPI.addUGSEventListener(eventBroadcaster);
         return getUrlList();
     }
 
@@ -149,6 +154,7 @@ public class PendantUI implements UGSEventListener {
     }
 
     public void stop() {
+        backendAPI.removeUGSEventListener(eventBroadcaster);
         try {
             if (server != null) {
                 server.stop();
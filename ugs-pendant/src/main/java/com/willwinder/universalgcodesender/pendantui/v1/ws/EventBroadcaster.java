@@ -0,0 +1,270 @@
+/*
+    Copyright 2026 agent
+
+    This file is part of Universal Gcode Sender (UGS).
+
+    UGS is free software: you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    UGS is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with UGS.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.willwinder.universalgcodesender.pendantui.v1.ws;
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.willwinder.universalgcodesender.listeners.ControllerStatus;
+import com.willwinder.universalgcodesender.listeners.ControllerStatusBuilder;
+import com.willwinder.universalgcodesender.listeners.UGSEventListener;
+import com.willwinder.universalgcodesender.model.BackendAPI;
+import com.willwinder.universalgcodesender.model.UGSEvent;
+import com.willwinder.universalgcodesender.model.UnitUtils;
+import com.willwinder.universalgcodesender.model.events.ControllerStatusEvent;
+import com.willwinder.universalgcodesender.pendantui.v1.model.Event;
+import jakarta.websocket.SendHandler;
+import jakarta.websocket.SendResult;
+import jakarta.websocket.Session;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BiConsumer;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Broadcasts the backend events to all connected pendant clients.
+ * <p>
+ * Every event is only serialized once regardless of the number of clients. Controller status events are
+ * coalesced so that each client gets at most one status update per the configured pendant status update
+ * rate, containing only the fields that have changed since the last status it received. Messages are sent
+ * asynchronously with at most one message in flight per client, a slow client will skip intermediate
+ * statuses and will never block the backend or the other clients.
+ *
+ * @author agent
+ */
+public class EventBroadcaster implements UGSEventListener {
+    private static final Logger LOGGER = Logger.getLogger(EventBroadcaster.class.getSimpleName());
+    private static final String STATUS_EVENT_TYPE = ControllerStatusEvent.class.getSimpleName();
+
+    /**
+     * The maximum number of events other than status events that will be queued for a client, if a client can't
+     * keep up the oldest events will be dropped
+     */
+    private static final int MAX_QUEUED_EVENTS = 100;
+
+    private final BackendAPI backendAPI;
+    private final ScheduledExecutorService executor;
+    private final Map<String, Client> clients = new ConcurrentHashMap<>();
+    private final Gson gson = new GsonBuilder().serializeSpecialFloatingPointValues().create();
+    private final Gson statusGson = new GsonBuilder().serializeSpecialFloatingPointValues().serializeNulls().create();
+    private final Object statusLock = new Object();
+
+    private ControllerStatus status;
+    private long statusVersion;
+    private StatusSnapshot statusSnapshot;
+
+    public EventBroadcaster(BackendAPI backendAPI) {
+        this(backendAPI, Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "UGS pendant events");
+            thread.setDaemon(true);
+            return thread;
+        }));
+    }
+
+    EventBroadcaster(BackendAPI backendAPI, ScheduledExecutorService executor) {
+        this.backendAPI = backendAPI;
+        this.executor = executor;
+    }
+
+    public void addSession(Session session) {
+        addClient(session.getId(), (message, sendHandler) -> session.getAsyncRemote().sendText(message, sendHandler));
+    }
+
+    public void removeSession(Session session) {
+        removeClient(session.getId());
+    }
+
+    /**
+     * Adds a client that events should be sent to, a client will not be given another message until the
+     * send handler of the previous message has been called.
+     *
+     * @param id     the id of the client
+     * @param sender a function for sending a message to the client asynchronously
+     */
+    void addClient(String id, BiConsumer<String, SendHandler> sender) {
+        Client client = new Client(id, sender);
+        clients.put(id, client);
+        executor.execute(client::send);
+    }
+
+    void removeClient(String id) {
+        clients.remove(id);
+    }
+
+    @Override
+    public void UGSEvent(UGSEvent evt) {
+        if (evt instanceof ControllerStatusEvent controllerStatusEvent) {
+            synchronized (statusLock) {
+                status = controllerStatusEvent.getStatus();
+                statusVersion++;
+            }
+        } else {
+            String message = gson.toJson(new Event(evt));
+            clients.values().forEach(client -> client.addEvent(message));
+        }
+
+        clients.values().forEach(client -> executor.execute(client::send));
+    }
+
+    /**
+     * Returns the current status serialized, the serialization is only done once for each status
+     * no matter how many clients it is sent to.
+     *
+     * @return the latest status or null if no status has been received
+     */
+    private StatusSnapshot getStatusSnapshot() {
+        synchronized (statusLock) {
+            if (status == null) {
+                return null;
+            }
+
+            if (statusSnapshot == null || statusSnapshot.version() != statusVersion) {
+                UnitUtils.Units units = backendAPI.getSettings().getPreferredUnits();
+                ControllerStatus convertedStatus = ControllerStatusBuilder.newInstance(status)
+                        .setMachineCoord(status.getMachineCoord().getPositionIn(units))
+                        .setWorkCoord(status.getWorkCoord().getPositionIn(units))
+                        .build();
+                statusSnapshot = new StatusSnapshot(statusVersion, statusGson.toJsonTree(convertedStatus).getAsJsonObject(), new ConcurrentHashMap<>());
+            }
+            return statusSnapshot;
+        }
+    }
+
+    /**
+     * Creates a status message with the fields that have changed from the previous snapshot. The message is
+     * cached in the snapshot so that clients that have received the same previous status share it.
+     *
+     * @param previousSnapshot the snapshot last sent to the client or null if none has been sent
+     * @param snapshot         the snapshot to send
+     * @return the message
+     */
+    private String getStatusMessage(StatusSnapshot previousSnapshot, StatusSnapshot snapshot) {
+        long previousVersion = previousSnapshot == null ? -1 : previousSnapshot.version();
+        return snapshot.messages().computeIfAbsent(previousVersion, v -> {
+            JsonObject delta = new JsonObject();
+            for (Map.Entry<String, JsonElement> entry : snapshot.status().entrySet()) {
+                if (previousSnapshot == null || !entry.getValue().equals(previousSnapshot.status().get(entry.getKey()))) {
+                    delta.add(entry.getKey(), entry.getValue());
+                }
+            }
+
+            JsonObject event = new JsonObject();
+            event.add("status", delta);
+            JsonObject message = new JsonObject();
+            message.addProperty("eventType", STATUS_EVENT_TYPE);
+            message.add("event", event);
+            return statusGson.toJson(message).replace(":NaN", ":null");
+        });
+    }
+
+    private record StatusSnapshot(long version, JsonObject status, Map<Long, String> messages) {
+    }
+
+    private class Client {
+        private final String id;
+        private final BiConsumer<String, SendHandler> sender;
+        private final Deque<String> events = new ArrayDeque<>();
+        private StatusSnapshot sentStatus;
+        private long statusSentTime;
+        private boolean isSending;
+        private boolean isScheduled;
+
+        Client(String id, BiConsumer<String, SendHandler> sender) {
+            this.id = id;
+            this.sender = sender;
+        }
+
+        synchronized void addEvent(String message) {
+            if (events.size() >= MAX_QUEUED_EVENTS) {
+                events.poll();
+                LOGGER.fine(() -> "Dropping event for slow client " + id);
+            }
+            events.add(message);
+        }
+
+        synchronized void send() {
+            if (isSending || !clients.containsKey(id)) {
+                return;
+            }
+
+            String message = events.poll();
+            if (message == null) {
+                message = getNextStatusMessage();
+            }
+
+            if (message == null) {
+                return;
+            }
+
+            isSending = true;
+            try {
+                sender.accept(message, this::onSent);
+            } catch (Exception e) {
+                LOGGER.log(Level.WARNING, e, () -> "Could not send event to client " + id);
+                isSending = false;
+                removeClient(id);
+            }
+        }
+
+        private String getNextStatusMessage() {
+            StatusSnapshot snapshot = getStatusSnapshot();
+            if (snapshot == null || snapshot == sentStatus) {
+                return null;
+            }
+
+            long delay = statusSentTime + backendAPI.getSettings().getPendantStatusUpdateRate() - System.currentTimeMillis();
+            if (delay > 0) {
+                if (!isScheduled) {
+                    isScheduled = true;
+                    executor.schedule(this::sendScheduled, delay, TimeUnit.MILLISECONDS);
+                }
+                return null;
+            }
+
+            String message = getStatusMessage(sentStatus, snapshot);
+            sentStatus = snapshot;
+            statusSentTime = System.currentTimeMillis();
+            return message;
+        }
+
+        private synchronized void sendScheduled() {
+            isScheduled = false;
+            send();
+        }
+
+        private void onSent(SendResult result) {
+            synchronized (this) {
+                isSending = false;
+            }
+
+            if (!result.isOK()) {
+                LOGGER.log(Level.FINE, result.getException(), () -> "Could not send event to client " + id);
+            }
+            executor.execute(this::send);
+        }
+    }
+}
@@ -19,17 +19,7 @@
 
 package com.willwinder.universalgcodesender.pendantui.v1.ws;
 
-import com.google.gson.Gson;
-import com.google.gson.GsonBuilder;
-import com.willwinder.universalgcodesender.listeners.ControllerStatus;
-import com.willwinder.universalgcodesender.listeners.ControllerStatusBuilder;
-import com.willwinder.universalgcodesender.listeners.UGSEventListener;
-import com.willwinder.universalgcodesender.model.UGSEvent;
-import com.willwinder.universalgcodesender.model.UnitUtils;
-import com.willwinder.universalgcodesender.model.events.ControllerStatusEvent;
 import com.willwinder.universalgcodesender.pendantui.BackendProvider;
-import com.willwinder.universalgcodesender.pendantui.v1.model.Event;
-import com.willwinder.universalgcodesender.utils.Settings;
 import jakarta.websocket.ClientEndpoint;
 import jakarta.websocket.OnClose;
 import jakarta.websocket.OnError;
@@ -37,76 +27,44 @@ import jakarta.websocket.OnOpen;
 import jakarta.websocket.Session;
 import jakarta.websocket.server.ServerEndpoint;
 
-import java.io.IOException;
-import java.util.Map;
-import java.util.concurrent.ConcurrentHashMap;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
+/**
+ * A web socket endpoint for sending backend events to the pendant clients. A new instance is created for each
+ * connection and the events are sent through the shared {@link EventBroadcaster}.
+ */
 @ClientEndpoint
 @ServerEndpoint(value = "/events")
-public class EventsSocket implements UGSEventListener {
+public class EventsSocket {
 
     private static final Logger LOGGER = Logger.getLogger(EventsSocket.class.getSimpleName());
-    private final Map<String, Session> sessions = new ConcurrentHashMap<>();
-    private final Gson gson;
-
-    public EventsSocket() {
-        gson = new GsonBuilder().serializeSpecialFloatingPointValues().create();
-        if (BackendProvider.getBackendAPI() != null) {
-            BackendProvider.getBackendAPI().addUGSEventListener(this);
-        }
-    }
-
-    private static ControllerStatus convertToPreferredUnits(ControllerStatus controllerStatusEvent, UnitUtils.Units units) {
-        return ControllerStatusBuilder.newInstance(controllerStatusEvent)
-                .setMachineCoord(controllerStatusEvent.getMachineCoord().getPositionIn(units))
-                .setWorkCoord(controllerStatusEvent.getWorkCoord().getPositionIn(units))
-                .build();
-    }
 
     @OnOpen
     public void onWebSocketConnect(Session session) {
-        sessions.put(session.getId(), session);
+        EventBroadcaster eventBroadcaster = BackendProvider.getEventBroadcaster();
+        if (eventBroadcaster != null) {
+            eventBroadcaster.addSession(session);
+        }
         LOGGER.info("WebSocket Connected: " + session.getId());
     }
 
     @OnClose
     public void onWebSocketClose(Session session) {
-        sessions.remove(session.getId());
+        removeSession(session);
         LOGGER.info("WebSocket Closed: " + session.getId());
     }
 
     @OnError
     public void onWebSocketError(Session session, Throwable cause) {
-        sessions.remove(session.getId());
+        removeSession(session);
         LOGGER.log(Level.WARNING, cause, () -> "WebSocket Closed: " + session.getId());
     }
 
-    @Override
-    public void UGSEvent(UGSEvent evt) {
-        try {
-            String data = getEventAsJsonString(evt);
-            sessions.values().forEach(session -> {
-                try {
-                    session.getBasicRemote().sendText(data);
-                } catch (IOException e) {
-                    throw new RuntimeException(e);
-                }
-            });
-        } catch (Exception e) {
-            e.printStackTrace();
+    private static void removeSession(Session session) {
+        EventBroadcaster eventBroadcaster = BackendProvider.getEventBroadcaster();
+        if (eventBroadcaster != null) {
+            eventBroadcaster.removeSession(session);
         }
     }
-
-    private String getEventAsJsonString(UGSEvent evt) {
-        if (evt instanceof ControllerStatusEvent controllerStatusEvent) {
-            Settings settings = BackendProvider.getBackendAPI().getSettings();
-            ControllerStatus currentStatus = convertToPreferredUnits(controllerStatusEvent.getStatus(), settings.getPreferredUnits());
-            ControllerStatus previousStatus = convertToPreferredUnits(controllerStatusEvent.getPreviousStatus(), settings.getPreferredUnits());
-            return gson.toJson(new Event(new ControllerStatusEvent(currentStatus, previousStatus))).replace(":NaN", ":null");
-        }
-
-        return gson.toJson(new Event(evt));
-    }
-}
\ No newline at end of file
+}
@@ -1,6 +1,9 @@
 import { Status } from "./Status";
 
+/**
+ * A status event from the pendant event socket, the status only contains
+ * the fields that have changed since the previous status event.
+ */
 export type ControllerStatusEvent = {
-  status: Status;
-  previousStatus: Status;
+  status: Partial<Status>;
 };
@@ -1,4 +1,4 @@
-import { createAsyncThunk, createSlice } from "@reduxjs/toolkit";
+import { createAsyncThunk, createSlice, PayloadAction } from "@reduxjs/toolkit";
 import { Status } from "../model/Status";
 import getStatus from "../services/status";
 
@@ -45,25 +45,39 @@ const statusSlice = createSlice({
   name: "status",
   initialState,
   reducers: {
-    setStatus: (state, action) => {
-      state.machineCoord = action.payload.machineCoord;
-      state.workCoord = action.payload.workCoord;
-      state.feedSpeed = action.payload.feedSpeed;
-      state.spindleSpeed = action.payload.spindleSpeed;
-      state.state = action.payload.state;
-      state.pins = {
-        x: action.payload.pins.x,
-        y: action.payload.pins.y,
-        z: action.payload.pins.z,
-        a: action.payload.pins.a,
-        b: action.payload.pins.b,
-        c: action.payload.pins.c,
-        cycleStart: action.payload.pins.cycleStart,
-        hold: action.payload.pins.hold,
-        probe: action.payload.pins.probe,
-        softReset: action.payload.pins.softReset,
-        door: action.payload.pins.door,
-      };
+    // Only the fields that have changed since the previous status are given
+    setStatus: (state, action: PayloadAction<Partial<Status>>) => {
+      const status = action.payload;
+      if (status.machineCoord !== undefined) {
+        state.machineCoord = status.machineCoord;
+      }
+      if (status.workCoord !== undefined) {
+        state.workCoord = status.workCoord;
+      }
+      if (status.feedSpeed !== undefined) {
+        state.feedSpeed = status.feedSpeed;
+      }
+      if (status.spindleSpeed !== undefined) {
+        state.spindleSpeed = status.spindleSpeed;
+      }
+      if (status.state !== undefined) {
+        state.state = status.state;
+      }
+      if (status.pins) {
+        state.pins = {
+          x: status.pins.x,
+          y: status.pins.y,
+          z: status.pins.z,
+          a: status.pins.a,
+          b: status.pins.b,
+          c: status.pins.c,
+          cycleStart: status.pins.cycleStart,
+          hold: status.pins.hold,
+          probe: status.pins.probe,
+          softReset: status.pins.softReset,
+          door: status.pins.door,
+        };
+      }
     },
   },
   extraReducers(builder) {
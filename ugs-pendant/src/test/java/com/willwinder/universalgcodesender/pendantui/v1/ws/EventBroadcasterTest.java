@@ -0,0 +1,197 @@
+/*
+    Copyright 2026 agent
+
+    This file is part of Universal Gcode Sender (UGS).
+
+    UGS is free software: you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    UGS is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with UGS.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.willwinder.universalgcodesender.pendantui.v1.ws;
+
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import com.willwinder.universalgcodesender.listeners.ControllerState;
+import com.willwinder.universalgcodesender.listeners.ControllerStatus;
+import com.willwinder.universalgcodesender.model.BackendAPI;
+import com.willwinder.universalgcodesender.model.Position;
+import com.willwinder.universalgcodesender.model.UnitUtils;
+import com.willwinder.universalgcodesender.model.events.ControllerStatusEvent;
+import com.willwinder.universalgcodesender.model.events.FileState;
+import com.willwinder.universalgcodesender.model.events.FileStateEvent;
+import com.willwinder.universalgcodesender.utils.Settings;
+import jakarta.websocket.SendHandler;
+import jakarta.websocket.SendResult;
+import org.easymock.EasyMock;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BiConsumer;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class EventBroadcasterTest {
+    private Settings settings;
+    private EventBroadcaster eventBroadcaster;
+
+    @Before
+    public void setUp() {
+        settings = new Settings();
+        settings.setPreferredUnits(UnitUtils.Units.MM);
+        settings.setPendantStatusUpdateRate(0);
+
+        BackendAPI backendAPI = EasyMock.createNiceMock(BackendAPI.class);
+        EasyMock.expect(backendAPI.getSettings()).andReturn(settings).anyTimes();
+        EasyMock.replay(backendAPI);
+        eventBroadcaster = new EventBroadcaster(backendAPI);
+    }
+
+    @After
+    public void tearDown() {
+        eventBroadcaster.removeClient("client");
+        eventBroadcaster.removeClient("other");
+    }
+
+    @Test
+    public void statusShouldOnlyContainChangedFields() throws Exception {
+        TestClient client = new TestClient();
+        eventBroadcaster.addClient("client", client);
+
+        sendStatus(ControllerState.IDLE, 0);
+        JsonObject status = getStatus(client.takeAndComplete());
+        assertEquals("IDLE", status.get("state").getAsString());
+        assertTrue(status.has("machineCoord"));
+        assertTrue(status.has("workCoord"));
+        assertTrue(status.has("feedSpeed"));
+
+        sendStatus(ControllerState.IDLE, 10);
+        status = getStatus(client.takeAndComplete());
+        assertFalse(status.has("state"));
+        assertFalse(status.has("feedSpeed"));
+        assertEquals(10, status.getAsJsonObject("machineCoord").get("x").getAsDouble(), 0.001);
+
+        sendStatus(ControllerState.RUN, 10);
+        status = getStatus(client.takeAndComplete());
+        assertEquals(1, status.size());
+        assertEquals("RUN", status.get("state").getAsString());
+    }
+
+    @Test
+    public void slowClientShouldOnlyGetTheLatestStatus() throws Exception {
+        TestClient slowClient = new TestClient();
+        TestClient client = new TestClient();
+        eventBroadcaster.addClient("client", slowClient);
+        eventBroadcaster.addClient("other", client);
+
+        sendStatus(ControllerState.RUN, 0);
+        String firstMessage = slowClient.take();
+        for (int i = 1; i <= 100; i++) {
+            sendStatus(ControllerState.RUN, i);
+            client.takeAndComplete();
+        }
+
+        // Nothing more is sent until the previous message is completed
+        assertNull(slowClient.messages.poll(100, TimeUnit.MILLISECONDS));
+        assertEquals(0, getStatus(firstMessage).getAsJsonObject("machineCoord").get("x").getAsDouble(), 0.001);
+
+        slowClient.complete();
+        JsonObject status = getStatus(slowClient.takeAndComplete());
+        assertEquals(100, status.getAsJsonObject("machineCoord").get("x").getAsDouble(), 0.001);
+        assertNull(slowClient.messages.poll(100, TimeUnit.MILLISECONDS));
+    }
+
+    @Test
+    public void statusShouldBeSentAtTheConfiguredRate() throws Exception {
+        settings.setPendantStatusUpdateRate(300);
+        TestClient client = new TestClient();
+        eventBroadcaster.addClient("client", client);
+
+        sendStatus(ControllerState.RUN, 0);
+        long start = System.currentTimeMillis();
+        client.takeAndComplete();
+        sendStatus(ControllerState.RUN, 1);
+        sendStatus(ControllerState.RUN, 2);
+
+        JsonObject status = getStatus(client.takeAndComplete());
+        assertTrue(System.currentTimeMillis() - start >= 300);
+        assertEquals(2, status.getAsJsonObject("machineCoord").get("x").getAsDouble(), 0.001);
+        assertNull(client.messages.poll(500, TimeUnit.MILLISECONDS));
+    }
+
+    @Test
+    public void eventsShouldBeSerializedOnceAndSentInOrder() throws Exception {
+        TestClient client = new TestClient();
+        TestClient otherClient = new TestClient();
+        eventBroadcaster.addClient("client", client);
+        eventBroadcaster.addClient("other", otherClient);
+
+        eventBroadcaster.UGSEvent(new FileStateEvent(FileState.OPENING_FILE));
+        eventBroadcaster.UGSEvent(new FileStateEvent(FileState.FILE_LOADED));
+
+        String message = client.takeAndComplete();
+        assertSame(message, otherClient.takeAndComplete());
+        assertTrue(message.contains("OPENING_FILE"));
+        assertTrue(client.takeAndComplete().contains("FILE_LOADED"));
+        assertTrue(otherClient.takeAndComplete().contains("FILE_LOADED"));
+    }
+
+    private void sendStatus(ControllerState state, double x) {
+        Position position = new Position(x, 0, 0, UnitUtils.Units.MM);
+        ControllerStatus status = new ControllerStatus(state, position, position);
+        eventBroadcaster.UGSEvent(new ControllerStatusEvent(status, status));
+    }
+
+    private static JsonObject getStatus(String message) {
+        JsonObject event = JsonParser.parseString(message).getAsJsonObject();
+        assertEquals("ControllerStatusEvent", event.get("eventType").getAsString());
+        return event.getAsJsonObject("event").getAsJsonObject("status");
+    }
+
+    private static class TestClient implements BiConsumer<String, SendHandler> {
+        private final BlockingQueue<String> messages = new LinkedBlockingQueue<>();
+        private final List<SendHandler> sendHandlers = new CopyOnWriteArrayList<>();
+
+        @Override
+        public void accept(String message, SendHandler sendHandler) {
+            sendHandlers.add(sendHandler);
+            messages.add(message);
+        }
+
+        String take() throws InterruptedException {
+            String message = messages.poll(2, TimeUnit.SECONDS);
+            if (message == null) {
+                throw new AssertionError("No message was sent");
+            }
+            return message;
+        }
+
+        void complete() {
+            sendHandlers.remove(0).onResult(new SendResult());
+        }
+
+        String takeAndComplete() throws InterruptedException {
+            String message = take();
+            complete();
+            return message;
+        }
+    }
+}
@@ -20,6 +20,7 @@ package com.willwinder.ugs.nbp.editor;
 
 import com.willwinder.ugs.nbp.editor.actions.FollowAction;
 import static com.willwinder.ugs.nbp.editor.actions.FollowAction.DEFAULT_FOLLOW;
+import com.willwinder.ugs.nbp.editor.largefile.LargeFileTopComponent;
 import org.netbeans.api.editor.mimelookup.MimeLookup;
 import org.netbeans.api.editor.mimelookup.MimePath;
 import org.openide.cookies.EditorCookie;
@@ -56,6 +57,13 @@ public class FollowLineUpdater {
             return;
         }
 
+        // Large files are shown in a viewer without an editor document
+        LargeFileTopComponent largeFileViewer = dataObject.getLookup().lookup(LargeFileTopComponent.class);
+        if (largeFileViewer != null) {
+            largeFileViewer.showLine(lineNumber);
+            return;
+        }
+
         EditorCookie ec = dataObject.getCookie(EditorCookie.class);
         if (ec == null) {
             return;
@@ -18,6 +18,7 @@
 */
 package com.willwinder.ugs.nbp.editor;
 
+import com.willwinder.ugs.nbp.editor.largefile.LargeFileTopComponent;
 import com.willwinder.ugs.nbp.lib.lookup.EditorCookie;
 import org.openide.cookies.OpenCookie;
 import org.openide.filesystems.FileObject;
@@ -54,8 +55,13 @@ public class GcodeDataObject extends MultiDataObject {
 
         Preferences prefs = NbPreferences.forModule(EditorOptionsPanel.class);
         boolean loadEditor = prefs.getBoolean(EditorOptionsPanel.SHOW_ON_OPEN, true);
+        long largeFileThreshold = prefs.getInt(EditorOptionsPanel.LARGE_FILE_THRESHOLD, EditorOptionsPanel.DEFAULT_LARGE_FILE_THRESHOLD) * 1024L * 1024L;
 
-        if (loadEditor) {
+        if (loadEditor && largeFileThreshold > 0 && pf.getSize() > largeFileThreshold) {
+            // The file is too large for the editor, open it in a read only viewer instead
+            getCookieSet().add((OpenCookie) () -> LargeFileTopComponent.open(this));
+            getCookieSet().add((EditorCookie) () -> LargeFileTopComponent.open(this));
+        } else if (loadEditor) {
             registerEditor(GcodeLanguageConfig.MIME_TYPE, true);
 
             // Add an editor cookie so that EditorUtils can find it
@@ -70,6 +76,19 @@ public class GcodeDataObject extends MultiDataObject {
         }
     }
 
+    /**
+     * Registers the viewer that currently shows this file in large file mode, making it available in the lookup
+     *
+     * @param viewer the viewer or null if it has been closed
+     */
+    public void setLargeFileViewer(LargeFileTopComponent viewer) {
+        if (viewer == null) {
+            getCookieSet().assign(LargeFileTopComponent.class);
+        } else {
+            getCookieSet().assign(LargeFileTopComponent.class, viewer);
+        }
+    }
+
     @Override
     protected int associateLookup() {
         return 1;
@@ -136,7 +136,7 @@ public abstract class AbstractRotateAction extends CookieAction implements UGSEv
         List<LineSegment> result;
 
         GcodeViewParse gcvp = new GcodeViewParse();
-        try (IGcodeStreamReader gsr = new GcodeStreamReader(gcodeFile, backend.getCommandCreator())) {
+        try (IGcodeStreamReader gsr = GcodeStreamReaderFactory.getReader(gcodeFile, backend.getCommandCreator())) {
             result = gcvp.toObjFromReader(gsr, ARC_SEGMENT_LENGTH);
         } catch (GcodeStreamReader.NotGcodeStreamFile e) {
             List<String> linesInFile = VisualizerUtils.readFiletoArrayList(gcodeFile.getAbsolutePath());
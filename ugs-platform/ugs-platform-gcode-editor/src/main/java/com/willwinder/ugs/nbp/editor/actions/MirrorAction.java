@@ -145,7 +145,7 @@ public class MirrorAction extends CookieAction implements UGSEventListener {
         List<LineSegment> result;
 
         GcodeViewParse gcvp = new GcodeViewParse();
-        try (IGcodeStreamReader gsr = new GcodeStreamReader(gcodeFile, backend.getCommandCreator())) {
+        try (IGcodeStreamReader gsr = GcodeStreamReaderFactory.getReader(gcodeFile, backend.getCommandCreator())) {
             result = gcvp.toObjFromReader(gsr, ARC_SEGMENT_LENGTH);
         } catch (GcodeStreamReader.NotGcodeStreamFile e) {
             List<String> linesInFile = VisualizerUtils.readFiletoArrayList(gcodeFile.getAbsolutePath());
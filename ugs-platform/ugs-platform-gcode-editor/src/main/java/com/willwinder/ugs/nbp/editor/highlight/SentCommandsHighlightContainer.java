@@ -48,7 +48,7 @@ import java.util.logging.Logger;
  */
 public class SentCommandsHighlightContainer extends AbstractHighlightsContainer implements ReleasableHighlightsContainer, UGSEventListener {
     private static final Logger LOGGER = Logger.getLogger(SentCommandsHighlightContainer.class.getSimpleName());
-    private static final String FONT_STYLE = "EXECUTED";
+    public static final String FONT_STYLE = "EXECUTED";
 
     private final AttributeSet highlightAttributes;
     private final OffsetsBag bag;
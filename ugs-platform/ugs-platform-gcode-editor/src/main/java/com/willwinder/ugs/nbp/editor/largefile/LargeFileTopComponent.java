@@ -0,0 +1,353 @@
+/*
+    Copyright 2026 agent
+
+    This file is part of Universal Gcode Sender (UGS).
+
+    UGS is free software: you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    UGS is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with UGS.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.willwinder.ugs.nbp.editor.largefile;
+
+import com.willwinder.ugs.nbp.editor.EditorUtils;
+import com.willwinder.ugs.nbp.editor.FollowLineUpdater;
+import com.willwinder.ugs.nbp.editor.GcodeDataObject;
+import com.willwinder.ugs.nbp.editor.GcodeFileListener;
+import com.willwinder.ugs.nbp.editor.parser.GcodeParser;
+import com.willwinder.ugs.nbp.lib.lookup.CentralLookup;
+import com.willwinder.universalgcodesender.i18n.Localization;
+import com.willwinder.universalgcodesender.listeners.ControllerState;
+import com.willwinder.universalgcodesender.listeners.UGSEventListener;
+import com.willwinder.universalgcodesender.model.BackendAPI;
+import com.willwinder.universalgcodesender.model.UGSEvent;
+import com.willwinder.universalgcodesender.model.events.CommandEvent;
+import com.willwinder.universalgcodesender.model.events.CommandEventType;
+import com.willwinder.universalgcodesender.model.events.ControllerStateEvent;
+import com.willwinder.universalgcodesender.utils.ThreadHelper;
+import org.openide.filesystems.FileChangeAdapter;
+import org.openide.filesystems.FileEvent;
+import org.openide.filesystems.FileObject;
+import org.openide.filesystems.FileUtil;
+import org.openide.nodes.Node;
+import org.openide.windows.Mode;
+import org.openide.windows.TopComponent;
+import org.openide.windows.WindowManager;
+
+import javax.swing.AbstractListModel;
+import javax.swing.JButton;
+import javax.swing.JLabel;
+import javax.swing.JList;
+import javax.swing.JPanel;
+import javax.swing.JScrollPane;
+import javax.swing.ListSelectionModel;
+import javax.swing.SwingUtilities;
+import java.awt.BorderLayout;
+import java.awt.Font;
+import java.awt.FontMetrics;
+import java.awt.event.MouseEvent;
+import java.io.File;
+import java.util.List;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import java.util.stream.Collectors;
+
+/**
+ * A read only viewer for gcode files that are too large for the editor. Instead of loading the file into a
+ * document it uses a memory mapped {@link LineIndex} and only lexes the visible lines, while the errors are
+ * found by a background pass building a {@link LineErrorIndex}.
+ *
+ * @author agent
+ */
+public class LargeFileTopComponent extends TopComponent implements UGSEventListener {
+    private static final Logger LOGGER = Logger.getLogger(LargeFileTopComponent.class.getName());
+
+    /**
+     * The number of lines from the start of the file used for estimating the width of the lines
+     */
+    private static final int LINE_WIDTH_SAMPLE = 10000;
+
+    private final transient GcodeDataObject dataObject;
+    private final transient BackendAPI backend;
+    private final transient FollowLineUpdater followLineUpdater;
+    private final transient GcodeFileListener fileListener = new GcodeFileListener();
+    private final transient FileChangeAdapter reloadListener = new FileChangeAdapter() {
+        @Override
+        public void fileChanged(FileEvent fe) {
+            SwingUtilities.invokeLater(LargeFileTopComponent.this::load);
+        }
+    };
+    private final JList<Integer> list = new JList<>() {
+        @Override
+        public String getToolTipText(MouseEvent event) {
+            return getErrorDescription(locationToIndex(event.getPoint()));
+        }
+    };
+    private final JLabel statusLabel = new JLabel();
+    private final JButton nextErrorButton = new JButton(Localization.getString("platform.plugin.editor.largeFile.nextError"));
+    private final Font font = new Font(Font.MONOSPACED, Font.PLAIN, 13);
+
+    private transient LineIndex lineIndex;
+    private transient LineErrorIndex errorIndex;
+    private transient LineRenderer renderer;
+    private transient Future<?> loadingTask;
+    private final AtomicBoolean repaintPending = new AtomicBoolean();
+
+    private LargeFileTopComponent(GcodeDataObject dataObject) {
+        this.dataObject = dataObject;
+        this.backend = CentralLookup.getDefault().lookup(BackendAPI.class);
+        this.followLineUpdater = new FollowLineUpdater();
+
+        setName(dataObject.getPrimaryFile().getNameExt());
+        setDisplayName(dataObject.getPrimaryFile().getNameExt());
+        setToolTipText(dataObject.getPrimaryFile().getPath());
+        setActivatedNodes(new Node[]{dataObject.getNodeDelegate()});
+
+        list.setFont(font);
+        list.setSelectionMode(ListSelectionModel.SINGLE_SELECTION);
+        list.setToolTipText("");
+
+        // Always use a fixed cell size, otherwise the list measures every line in the file
+        FontMetrics fontMetrics = list.getFontMetrics(font);
+        list.setFixedCellHeight(fontMetrics.getHeight() + 2);
+        list.setFixedCellWidth(1);
+
+        nextErrorButton.addActionListener(e -> showNextError());
+        nextErrorButton.setEnabled(false);
+
+        JPanel statusPanel = new JPanel(new BorderLayout());
+        statusPanel.add(statusLabel, BorderLayout.CENTER);
+        statusPanel.add(nextErrorButton, BorderLayout.EAST);
+
+        setLayout(new BorderLayout());
+        add(new JScrollPane(list), BorderLayout.CENTER);
+        add(statusPanel, BorderLayout.SOUTH);
+    }
+
+    /**
+     * Opens the viewer for the given file or activates it if it is already opened
+     *
+     * @param dataObject the file to open
+     */
+    public static void open(GcodeDataObject dataObject) {
+        LargeFileTopComponent topComponent = dataObject.getLookup().lookup(LargeFileTopComponent.class);
+        if (topComponent == null || !topComponent.isOpened()) {
+            topComponent = new LargeFileTopComponent(dataObject);
+            Mode editorMode = WindowManager.getDefault().findMode("editor");
+            if (editorMode != null) {
+                editorMode.dockInto(topComponent);
+            }
+            topComponent.open();
+        }
+        topComponent.requestActive();
+    }
+
+    @Override
+    public int getPersistenceType() {
+        return PERSISTENCE_NEVER;
+    }
+
+    @Override
+    protected void componentOpened() {
+        super.componentOpened();
+        dataObject.setLargeFileViewer(this);
+        EditorUtils.openFile(dataObject.getPrimaryFile());
+        dataObject.getPrimaryFile().addFileChangeListener(fileListener);
+        dataObject.getPrimaryFile().addFileChangeListener(reloadListener);
+        backend.addUGSEventListener(this);
+        load();
+    }
+
+    @Override
+    protected void componentClosed() {
+        backend.removeUGSEventListener(this);
+        dataObject.getPrimaryFile().removeFileChangeListener(fileListener);
+        dataObject.getPrimaryFile().removeFileChangeListener(reloadListener);
+        dataObject.setLargeFileViewer(null);
+        cancelLoading();
+        lineIndex = null;
+        errorIndex = null;
+        EditorUtils.unloadFile();
+        super.componentClosed();
+    }
+
+    private void cancelLoading() {
+        if (loadingTask != null) {
+            loadingTask.cancel(true);
+            loadingTask = null;
+        }
+    }
+
+    /**
+     * Indexes the file in the background and then starts the background pass finding errors
+     */
+    private void load() {
+        cancelLoading();
+        statusLabel.setText(String.format(Localization.getString("platform.plugin.editor.largeFile.indexing"), dataObject.getPrimaryFile().getNameExt()));
+        File file = FileUtil.toFile(dataObject.getPrimaryFile());
+        FileObject fileObject = dataObject.getPrimaryFile();
+        loadingTask = ThreadHelper.invokeLater(() -> {
+            try {
+                long start = System.currentTimeMillis();
+                LineIndex index = LineIndex.open(file.toPath());
+                LOGGER.log(Level.INFO, "Indexed {0} lines in {1}ms", new Object[]{index.getLineCount(), System.currentTimeMillis() - start});
+
+                LineErrorIndex errors = new LineErrorIndex(index, () -> GcodeParser.createErrorParsers(fileObject));
+                SwingUtilities.invokeAndWait(() -> setIndex(index, errors));
+                errors.scan(scannedLines -> scheduleRepaint());
+                scheduleRepaint();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } catch (Exception e) {
+                LOGGER.log(Level.WARNING, "Could not index the file " + file, e);
+                SwingUtilities.invokeLater(() -> statusLabel.setText(String.format(Localization.getString("platform.plugin.editor.largeFile.readError"), e.getMessage())));
+            }
+        });
+    }
+
+    private void setIndex(LineIndex index, LineErrorIndex errors) {
+        lineIndex = index;
+        errorIndex = errors;
+        renderer = new LineRenderer(index, errors, font);
+
+        // Estimate the width of the lines from the start of the file
+        int maxLength = 0;
+        for (int i = 0; i < Math.min(index.getLineCount(), LINE_WIDTH_SAMPLE); i++) {
+            maxLength = Math.max(maxLength, index.getLine(i).length());
+        }
+        list.setFixedCellWidth(renderer.getGutterWidth() + list.getFontMetrics(font).charWidth('W') * (maxLength + 1));
+        list.setCellRenderer(renderer);
+        list.setModel(new LineListModel(index.getLineCount()));
+        updateStatus();
+    }
+
+    /**
+     * Repaints the list from the event thread, the repaints requested while one is pending are coalesced
+     */
+    private void scheduleRepaint() {
+        if (repaintPending.compareAndSet(false, true)) {
+            SwingUtilities.invokeLater(() -> {
+                repaintPending.set(false);
+                updateStatus();
+                list.repaint();
+            });
+        }
+    }
+
+    private void updateStatus() {
+        if (lineIndex == null || errorIndex == null) {
+            return;
+        }
+
+        int lineCount = lineIndex.getLineCount();
+        int scannedLines = errorIndex.getScannedLineCount();
+        String status = String.format(Localization.getString("platform.plugin.editor.largeFile.lineCount"), lineCount);
+        if (scannedLines < lineCount) {
+            status += ", " + String.format(Localization.getString("platform.plugin.editor.largeFile.checkingForErrors"), (int) (scannedLines * 100L / lineCount));
+        }
+        statusLabel.setText(status + ", " + String.format(Localization.getString("platform.plugin.editor.largeFile.errorLineCount"), errorIndex.getErrorLineCount()));
+        nextErrorButton.setEnabled(errorIndex.getErrorLineCount() > 0);
+    }
+
+    private void showNextError() {
+        if (errorIndex == null) {
+            return;
+        }
+
+        int line = errorIndex.getNextErrorLine(list.getSelectedIndex());
+        if (line < 0) {
+            // Start over from the beginning
+            line = errorIndex.getNextErrorLine(-1);
+        }
+        if (line >= 0) {
+            list.setSelectedIndex(line);
+            showLine(line);
+        }
+    }
+
+    private String getErrorDescription(int line) {
+        if (errorIndex == null || line < 0) {
+            return null;
+        }
+
+        List<LineError> errors = errorIndex.getErrors(line);
+        if (errors.isEmpty()) {
+            return null;
+        }
+        return errors.stream().map(LineError::description).collect(Collectors.joining("<br>", "<html>", "</html>"));
+    }
+
+    /**
+     * Scrolls the viewer so that the given line is visible
+     *
+     * @param line the line number starting from zero
+     */
+    public void showLine(int line) {
+        if (!SwingUtilities.isEventDispatchThread()) {
+            SwingUtilities.invokeLater(() -> showLine(line));
+            return;
+        }
+
+        if (line >= 0 && line < list.getModel().getSize()) {
+            list.ensureIndexIsVisible(line);
+        }
+    }
+
+    /**
+     * Marks the lines before the given line as executed
+     *
+     * @param lineCount the number of executed lines from the start of the file
+     */
+    private void setExecutedLineCount(int lineCount) {
+        SwingUtilities.invokeLater(() -> {
+            if (renderer != null) {
+                renderer.setExecutedLineCount(lineCount);
+                list.repaint();
+            }
+        });
+    }
+
+    @Override
+    public void UGSEvent(UGSEvent event) {
+        if (event instanceof CommandEvent commandEvent && commandEvent.getCommandEventType() == CommandEventType.COMMAND_COMPLETE) {
+            int lineNumber = commandEvent.getCommand().getCommandNumber();
+            if (backend.isSendingFile() && lineNumber >= 0) {
+                setExecutedLineCount(lineNumber);
+            }
+            followLineUpdater.updateCurrentLine(dataObject, lineNumber);
+        } else if (event instanceof ControllerStateEvent controllerStateEvent && controllerStateEvent.getState() == ControllerState.IDLE) {
+            setExecutedLineCount(0);
+        }
+    }
+
+    /**
+     * A list model with the line numbers of the file
+     */
+    private static class LineListModel extends AbstractListModel<Integer> {
+        private final int size;
+
+        LineListModel(int size) {
+            this.size = size;
+        }
+
+        @Override
+        public int getSize() {
+            return size;
+        }
+
+        @Override
+        public Integer getElementAt(int index) {
+            return index;
+        }
+    }
+}
@@ -0,0 +1,33 @@
+/*
+    Copyright 2026 agent
+
+    This file is part of Universal Gcode Sender (UGS).
+
+    UGS is free software: you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    UGS is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with UGS.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.willwinder.ugs.nbp.editor.largefile;
+
+import org.netbeans.modules.csl.api.Severity;
+
+/**
+ * An error found on a line in a large file
+ *
+ * @param startColumn the column of the first character of the error
+ * @param endColumn   the column after the last character of the error
+ * @param severity    the severity of the error
+ * @param description a description of the error
+ * @author agent
+ */
+public record LineError(int startColumn, int endColumn, Severity severity, String description) {
+}
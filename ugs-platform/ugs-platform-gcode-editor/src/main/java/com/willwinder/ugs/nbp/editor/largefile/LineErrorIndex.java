@@ -0,0 +1,200 @@
+/*
+    Copyright 2026 agent
+
+    This file is part of Universal Gcode Sender (UGS).
+
+    UGS is free software: you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    UGS is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with UGS.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.willwinder.ugs.nbp.editor.largefile;
+
+import com.willwinder.ugs.nbp.editor.lexer.GcodeTokenId;
+import com.willwinder.ugs.nbp.editor.parser.GcodeError;
+import com.willwinder.ugs.nbp.editor.parser.errors.ErrorParser;
+import org.netbeans.api.lexer.Language;
+import org.netbeans.api.lexer.Token;
+import org.netbeans.api.lexer.TokenHierarchy;
+import org.netbeans.api.lexer.TokenSequence;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.function.IntConsumer;
+import java.util.function.Supplier;
+
+/**
+ * A sparse index with the errors of each line in a large file. The errors are found with the same
+ * {@link ErrorParser}s as the editor uses, by a background pass that runs the parsers over the whole file a
+ * chunk of lines at a time. Lines that has not been reached by the background pass are validated on request
+ * using the parsers that only depends on the line itself.
+ *
+ * @author agent
+ */
+public class LineErrorIndex {
+    /**
+     * The number of lines that are lexed together in the background pass
+     */
+    static final int CHUNK_SIZE = 1000;
+
+    /**
+     * The maximum number of lines validated ahead of the background pass to keep
+     */
+    private static final int MAX_CACHED_LINES = 1000;
+
+    private static final Language<GcodeTokenId> LANGUAGE = GcodeTokenId.getLanguage();
+
+    private final LineIndex lineIndex;
+    private final Supplier<List<ErrorParser>> errorParserFactory;
+    private final ConcurrentSkipListMap<Integer, List<LineError>> errors = new ConcurrentSkipListMap<>();
+    private final Map<Integer, List<LineError>> cachedLineErrors = new LinkedHashMap<>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Integer, List<LineError>> eldest) {
+            return size() > MAX_CACHED_LINES;
+        }
+    };
+    private volatile int scannedLineCount;
+
+    /**
+     * @param lineIndex          the lines of the file
+     * @param errorParserFactory a factory creating a new set of error parsers
+     */
+    public LineErrorIndex(LineIndex lineIndex, Supplier<List<ErrorParser>> errorParserFactory) {
+        this.lineIndex = lineIndex;
+        this.errorParserFactory = errorParserFactory;
+    }
+
+    /**
+     * Runs the error parsers over all lines in the file and stores the errors of each line. The pass is stopped
+     * if the calling thread is interrupted.
+     *
+     * @param progressListener is given the number of scanned lines after each chunk
+     */
+    public void scan(IntConsumer progressListener) {
+        List<ErrorParser> errorParsers = errorParserFactory.get();
+        int[] errorCounts = new int[errorParsers.size()];
+        int lineCount = lineIndex.getLineCount();
+
+        for (int chunkStart = 0; chunkStart < lineCount && !Thread.currentThread().isInterrupted(); chunkStart += CHUNK_SIZE) {
+            int chunkEnd = Math.min(chunkStart + CHUNK_SIZE, lineCount);
+            int[] lineStarts = new int[chunkEnd - chunkStart];
+            StringBuilder text = new StringBuilder();
+            for (int line = chunkStart; line < chunkEnd; line++) {
+                lineStarts[line - chunkStart] = text.length();
+                text.append(lineIndex.getLine(line)).append('\n');
+            }
+
+            TokenSequence<GcodeTokenId> tokenSequence = TokenHierarchy.create(text, LANGUAGE).tokenSequence(LANGUAGE);
+            int line = chunkStart;
+            while (tokenSequence.moveNext()) {
+                Token<GcodeTokenId> token = tokenSequence.token();
+                if (GcodeTokenId.END_OF_LINE.equals(token.id())) {
+                    collectNewErrors(errorParsers, errorCounts, line, lineStarts[line - chunkStart]);
+                    line = Math.min(line + 1, chunkEnd - 1);
+                    continue;
+                }
+
+                // The parsers are given the line number starting from one, the same way as in the editor
+                int parserLine = line + 1;
+                errorParsers.forEach(errorParser -> errorParser.handleToken(token, parserLine));
+            }
+
+            scannedLineCount = chunkEnd;
+            progressListener.accept(chunkEnd);
+        }
+    }
+
+    /**
+     * Attributes the errors that the parsers found since the previous line to the given line
+     */
+    private void collectNewErrors(List<ErrorParser> errorParsers, int[] errorCounts, int line, int lineStart) {
+        List<LineError> lineErrors = null;
+        for (int i = 0; i < errorParsers.size(); i++) {
+            List<GcodeError> parserErrors = errorParsers.get(i).getErrors();
+            for (int j = errorCounts[i]; j < parserErrors.size(); j++) {
+                if (lineErrors == null) {
+                    lineErrors = new ArrayList<>();
+                }
+                lineErrors.add(toLineError(parserErrors.get(j), lineStart));
+            }
+            errorCounts[i] = parserErrors.size();
+        }
+
+        if (lineErrors != null) {
+            errors.put(line, lineErrors);
+        }
+    }
+
+    private static LineError toLineError(GcodeError error, int lineStart) {
+        return new LineError(error.getStartPosition() - lineStart, error.getEndPosition() - lineStart, error.getSeverity(), error.getDescription());
+    }
+
+    /**
+     * @return the number of lines from the start of the file that has been scanned by the background pass
+     */
+    public int getScannedLineCount() {
+        return scannedLineCount;
+    }
+
+    /**
+     * Returns the errors of a line. If the line has not yet been scanned it is validated using the error parsers
+     * that only depends on the line itself.
+     *
+     * @param line the line number starting from zero
+     * @return the errors on the line
+     */
+    public List<LineError> getErrors(int line) {
+        if (line < scannedLineCount) {
+            return errors.getOrDefault(line, Collections.emptyList());
+        }
+
+        synchronized (cachedLineErrors) {
+            return cachedLineErrors.computeIfAbsent(line, this::validateLine);
+        }
+    }
+
+    /**
+     * Finds the next line with errors among the scanned lines
+     *
+     * @param line the line to start searching after
+     * @return the line number or -1 if no errors were found
+     */
+    public int getNextErrorLine(int line) {
+        Integer result = errors.higherKey(line);
+        return result == null ? -1 : result;
+    }
+
+    /**
+     * @return the number of lines with errors found so far
+     */
+    public int getErrorLineCount() {
+        return errors.size();
+    }
+
+    private List<LineError> validateLine(int line) {
+        List<ErrorParser> errorParsers = errorParserFactory.get();
+        errorParsers.removeIf(errorParser -> !errorParser.isLineLocal());
+
+        TokenSequence<GcodeTokenId> tokenSequence = TokenHierarchy.create(lineIndex.getLine(line), LANGUAGE).tokenSequence(LANGUAGE);
+        while (tokenSequence.moveNext()) {
+            Token<GcodeTokenId> token = tokenSequence.token();
+            errorParsers.forEach(errorParser -> errorParser.handleToken(token, line + 1));
+        }
+
+        List<LineError> result = new ArrayList<>();
+        errorParsers.forEach(errorParser -> errorParser.getErrors().forEach(error -> result.add(toLineError(error, 0))));
+        return result;
+    }
+}
@@ -0,0 +1,152 @@
+/*
+    Copyright 2026 agent
+
+    This file is part of Universal Gcode Sender (UGS).
+
+    UGS is free software: you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    UGS is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with UGS.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.willwinder.ugs.nbp.editor.largefile;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+/**
+ * A read only index of the lines in a file. The file is memory mapped and only the start offset of each line is
+ * kept on the heap, the text of a line is decoded when it is requested. The lines are numbered from zero and
+ * a file always has at least one line, the same way as the elements of a {@link javax.swing.text.Document}.
+ *
+ * @author agent
+ */
+public class LineIndex {
+    /**
+     * The maximum size of each mapped segment of the file
+     */
+    static final int MAX_SEGMENT_SIZE = 1 << 30;
+
+    /**
+     * The number of bytes copied from the mapped file at a time when searching for lines
+     */
+    private static final int BLOCK_SIZE = 64 * 1024;
+
+    private final Path path;
+    private final long size;
+    private final int segmentSize;
+    private final MappedByteBuffer[] segments;
+    private long[] lineOffsets = new long[1024];
+    private int lineCount;
+
+    private LineIndex(Path path, int segmentSize) throws IOException {
+        this.path = path;
+        this.segmentSize = segmentSize;
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            this.size = channel.size();
+            this.segments = new MappedByteBuffer[(int) ((size + segmentSize - 1) / segmentSize)];
+            for (int i = 0; i < segments.length; i++) {
+                long position = (long) i * segmentSize;
+                segments[i] = channel.map(FileChannel.MapMode.READ_ONLY, position, Math.min(segmentSize, size - position));
+            }
+        }
+        buildIndex();
+    }
+
+    /**
+     * Maps the file and finds the start of each line
+     *
+     * @param path the file to index
+     * @return the line index of the file
+     * @throws IOException if the file could not be read
+     */
+    public static LineIndex open(Path path) throws IOException {
+        return new LineIndex(path, MAX_SEGMENT_SIZE);
+    }
+
+    static LineIndex open(Path path, int segmentSize) throws IOException {
+        return new LineIndex(path, segmentSize);
+    }
+
+    private void buildIndex() {
+        addLine(0);
+        byte[] block = new byte[BLOCK_SIZE];
+        long offset = 0;
+        for (MappedByteBuffer segment : segments) {
+            int limit = segment.limit();
+            for (int blockStart = 0; blockStart < limit; blockStart += BLOCK_SIZE) {
+                int length = Math.min(BLOCK_SIZE, limit - blockStart);
+                segment.get(blockStart, block, 0, length);
+                for (int i = 0; i < length; i++) {
+                    if (block[i] == '\n') {
+                        addLine(offset + blockStart + i + 1);
+                    }
+                }
+            }
+            offset += limit;
+        }
+        lineOffsets = Arrays.copyOf(lineOffsets, lineCount);
+    }
+
+    private void addLine(long offset) {
+        if (lineCount == lineOffsets.length) {
+            lineOffsets = Arrays.copyOf(lineOffsets, lineOffsets.length * 2);
+        }
+        lineOffsets[lineCount++] = offset;
+    }
+
+    public Path getPath() {
+        return path;
+    }
+
+    /**
+     * @return the size of the file in bytes
+     */
+    public long getSize() {
+        return size;
+    }
+
+    public int getLineCount() {
+        return lineCount;
+    }
+
+    /**
+     * Returns the text of a line without the line terminator
+     *
+     * @param line the line number starting from zero
+     * @return the text of the line
+     */
+    public String getLine(int line) {
+        if (line < 0 || line >= lineCount) {
+            throw new IndexOutOfBoundsException("Line " + line + " is outside of the file with " + lineCount + " lines");
+        }
+
+        long start = lineOffsets[line];
+        long end = line + 1 < lineCount ? lineOffsets[line + 1] - 1 : size;
+        if (end > start && getByte(end - 1) == '\r') {
+            end--;
+        }
+
+        byte[] bytes = new byte[(int) Math.min(end - start, Integer.MAX_VALUE - 8)];
+        for (int i = 0; i < bytes.length; i++) {
+            bytes[i] = getByte(start + i);
+        }
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private byte getByte(long offset) {
+        return segments[(int) (offset / segmentSize)].get((int) (offset % segmentSize));
+    }
+}
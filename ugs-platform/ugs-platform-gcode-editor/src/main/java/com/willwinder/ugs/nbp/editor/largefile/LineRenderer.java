@@ -0,0 +1,174 @@
+/*
+    Copyright 2026 agent
+
+    This file is part of Universal Gcode Sender (UGS).
+
+    UGS is free software: you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    UGS is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with UGS.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.willwinder.ugs.nbp.editor.largefile;
+
+import com.willwinder.ugs.nbp.editor.GcodeLanguageConfig;
+import com.willwinder.ugs.nbp.editor.highlight.SentCommandsHighlightContainer;
+import com.willwinder.ugs.nbp.editor.lexer.GcodeTokenId;
+import org.netbeans.api.editor.mimelookup.MimeLookup;
+import org.netbeans.api.editor.settings.FontColorNames;
+import org.netbeans.api.editor.settings.FontColorSettings;
+import org.netbeans.api.lexer.Language;
+import org.netbeans.api.lexer.Token;
+import org.netbeans.api.lexer.TokenHierarchy;
+import org.netbeans.api.lexer.TokenSequence;
+import org.netbeans.modules.csl.api.Severity;
+
+import javax.swing.JComponent;
+import javax.swing.JList;
+import javax.swing.ListCellRenderer;
+import javax.swing.UIManager;
+import javax.swing.text.AttributeSet;
+import javax.swing.text.StyleConstants;
+import java.awt.Color;
+import java.awt.Component;
+import java.awt.Font;
+import java.awt.FontMetrics;
+import java.awt.Graphics;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Renders a line of a large file with a line number gutter. The line is lexed when it is rendered, which is only
+ * done for the visible lines, and each token is colored using the same font colors as the editor.
+ *
+ * @author agent
+ */
+class LineRenderer extends JComponent implements ListCellRenderer<Integer> {
+    private static final Language<GcodeTokenId> LANGUAGE = GcodeTokenId.getLanguage();
+    private static final int GUTTER_PADDING = 8;
+
+    private final transient LineIndex lineIndex;
+    private final transient LineErrorIndex errorIndex;
+    private final Map<GcodeTokenId, Color> tokenColors = new EnumMap<>(GcodeTokenId.class);
+    private final Color foreground;
+    private final Color background;
+    private final Color executedColor;
+    private final int gutterWidth;
+
+    private int executedLineCount;
+    private int line;
+    private String text = "";
+    private boolean executed;
+    private boolean selected;
+    private transient List<LineError> errors = Collections.emptyList();
+
+    LineRenderer(LineIndex lineIndex, LineErrorIndex errorIndex, Font font) {
+        this.lineIndex = lineIndex;
+        this.errorIndex = errorIndex;
+        setFont(font);
+        setOpaque(true);
+
+        FontColorSettings fontColorSettings = MimeLookup.getLookup(GcodeLanguageConfig.MIME_TYPE).lookup(FontColorSettings.class);
+        for (GcodeTokenId tokenId : GcodeTokenId.values()) {
+            Color color = getForeground(fontColorSettings, tokenId.name());
+            if (color != null) {
+                tokenColors.put(tokenId, color);
+            }
+        }
+
+        AttributeSet defaultColoring = fontColorSettings != null ? fontColorSettings.getFontColors(FontColorNames.DEFAULT_COLORING) : null;
+        foreground = getColor(defaultColoring, StyleConstants.Foreground, UIManager.getColor("TextArea.foreground"));
+        background = getColor(defaultColoring, StyleConstants.Background, UIManager.getColor("TextArea.background"));
+        executedColor = getForeground(fontColorSettings, SentCommandsHighlightContainer.FONT_STYLE);
+
+        FontMetrics fontMetrics = getFontMetrics(font);
+        gutterWidth = fontMetrics.stringWidth(String.valueOf(lineIndex.getLineCount())) + GUTTER_PADDING * 2;
+    }
+
+    private static Color getForeground(FontColorSettings fontColorSettings, String name) {
+        if (fontColorSettings == null) {
+            return null;
+        }
+        return getColor(fontColorSettings.getTokenFontColors(name), StyleConstants.Foreground, null);
+    }
+
+    private static Color getColor(AttributeSet attributes, Object key, Color defaultColor) {
+        if (attributes != null && attributes.getAttribute(key) instanceof Color color) {
+            return color;
+        }
+        return defaultColor;
+    }
+
+    int getGutterWidth() {
+        return gutterWidth;
+    }
+
+    /**
+     * Sets the number of lines from the start of the file that has been executed
+     */
+    void setExecutedLineCount(int executedLineCount) {
+        this.executedLineCount = executedLineCount;
+    }
+
+    @Override
+    public Component getListCellRendererComponent(JList<? extends Integer> list, Integer value, int index, boolean isSelected, boolean cellHasFocus) {
+        line = value;
+        text = lineIndex.getLine(line);
+        executed = line < executedLineCount;
+        selected = isSelected;
+        errors = errorIndex.getErrors(line);
+        return this;
+    }
+
+    @Override
+    protected void paintComponent(Graphics g) {
+        g.setColor(selected ? UIManager.getColor("List.selectionBackground") : background);
+        g.fillRect(0, 0, getWidth(), getHeight());
+
+        g.setFont(getFont());
+        FontMetrics fontMetrics = g.getFontMetrics();
+        int baseline = fontMetrics.getAscent();
+
+        // Line numbers are shown starting from one
+        String lineNumber = String.valueOf(line + 1);
+        g.setColor(Color.GRAY);
+        g.drawString(lineNumber, gutterWidth - GUTTER_PADDING - fontMetrics.stringWidth(lineNumber), baseline);
+
+        int x = gutterWidth;
+        TokenSequence<GcodeTokenId> tokenSequence = TokenHierarchy.create(text, LANGUAGE).tokenSequence(LANGUAGE);
+        while (tokenSequence.moveNext()) {
+            Token<GcodeTokenId> token = tokenSequence.token();
+            String tokenText = token.text().toString();
+            g.setColor(getTokenColor(token.id()));
+            g.drawString(tokenText, x, baseline);
+            x += fontMetrics.stringWidth(tokenText);
+        }
+
+        for (LineError error : errors) {
+            int start = gutterWidth + fontMetrics.stringWidth(text.substring(0, clamp(error.startColumn())));
+            int end = gutterWidth + fontMetrics.stringWidth(text.substring(0, clamp(error.endColumn())));
+            g.setColor(error.severity() == Severity.ERROR || error.severity() == Severity.FATAL ? Color.RED : Color.ORANGE);
+            g.drawLine(start, getHeight() - 1, Math.max(end, start + 2), getHeight() - 1);
+        }
+    }
+
+    private Color getTokenColor(GcodeTokenId tokenId) {
+        if (executed && executedColor != null) {
+            return executedColor;
+        }
+        return tokenColors.getOrDefault(tokenId, foreground);
+    }
+
+    private int clamp(int column) {
+        return Math.max(0, Math.min(column, text.length()));
+    }
+}
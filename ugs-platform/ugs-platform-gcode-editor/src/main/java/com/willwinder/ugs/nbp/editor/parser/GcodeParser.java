@@ -18,11 +18,10 @@
 */
 package com.willwinder.ugs.nbp.editor.parser;
 
-import com.willwinder.ugs.nbp.editor.lexer.GcodeTokenId;
 import com.willwinder.ugs.nbp.editor.parser.errors.*;
-import org.netbeans.api.lexer.Token;
 import org.netbeans.api.lexer.TokenSequence;
 import org.netbeans.modules.parsing.api.Snapshot;
+import org.netbeans.modules.parsing.api.Source;
 import org.netbeans.modules.parsing.api.Task;
 import org.netbeans.modules.parsing.spi.Parser;
 import org.netbeans.modules.parsing.spi.SourceModificationEvent;
@@ -32,8 +31,10 @@ import org.openide.util.lookup.ServiceProvider;
 
 import javax.swing.event.ChangeListener;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
-import java.util.stream.Collectors;
+import java.util.Map;
+import java.util.WeakHashMap;
 
 /**
  * A gcode parser that parses errors from gcode tokens
@@ -43,12 +44,15 @@ import java.util.stream.Collectors;
 @ServiceProvider(service = GcodeParser.class)
 public class GcodeParser extends Parser {
 
-
-
     /**
      * A support object for notifying listeners about that we need to reparse the document
      */
     private final ChangeSupport changeSupport = new ChangeSupport(this);
+
+    /**
+     * The errors of each line of the parsed sources, the parser is shared between all documents
+     */
+    private final Map<Source, LineErrorCache> errorCaches = Collections.synchronizedMap(new WeakHashMap<>());
     private List<GcodeError> errors;
     private Snapshot snapshot;
 
@@ -56,7 +60,30 @@ public class GcodeParser extends Parser {
     public void parse(Snapshot snapshot, Task task, SourceModificationEvent sourceModificationEvent) {
         this.snapshot = snapshot;
 
-        FileObject fileObject = snapshot.getSource().getFileObject();
+        Source source = snapshot.getSource();
+        FileObject fileObject = source.getFileObject();
+        LineErrorCache errorCache = errorCaches.computeIfAbsent(source, s -> new LineErrorCache(() -> createErrorParsers(fileObject)));
+
+        TokenSequence<?> tokenSequence = snapshot.getTokenHierarchy().tokenSequence();
+        synchronized (errorCache) {
+            // Only reparse the edited lines when typing, other events may be caused by a changed controller
+            // which some of the error parsers depends on
+            if (sourceModificationEvent != null && sourceModificationEvent.sourceChanged() && sourceModificationEvent.getAffectedStartOffset() >= 0) {
+                errorCache.update(snapshot.getText(), tokenSequence, sourceModificationEvent.getAffectedStartOffset(), sourceModificationEvent.getAffectedEndOffset());
+            } else {
+                errorCache.parse(snapshot.getText(), tokenSequence);
+            }
+            this.errors = errorCache.getErrors();
+        }
+    }
+
+    /**
+     * Creates the error parsers used for finding errors in a gcode file
+     *
+     * @param fileObject the file to report the errors for
+     * @return a list of new error parsers
+     */
+    public static List<ErrorParser> createErrorParsers(FileObject fileObject) {
         List<ErrorParser> errorParserList = new ArrayList<>();
         errorParserList.add(new SystemCommandsErrorParser(fileObject));
         errorParserList.add(new FeedRateMissingErrorParser(fileObject));
@@ -66,24 +93,7 @@ public class GcodeParser extends Parser {
         errorParserList.add(new InvalidGcodeErrorParser(fileObject));
         errorParserList.add(new UnitsMissingErrorParser(fileObject));
         errorParserList.add(new ReturnToHomeGcodeErrorParser(fileObject));
-
-        TokenSequence<?> tokenSequence = snapshot.getTokenHierarchy().tokenSequence();
-        tokenSequence.moveStart();
-
-        int line = 1; // The snapshot starts on line 1
-        while (tokenSequence.moveNext()) {
-            Token<?> token = tokenSequence.token();
-            if (GcodeTokenId.END_OF_LINE.equals(token.id())) {
-                line++;
-            }
-
-            final int currentLine = line;
-            errorParserList.forEach(errorParser -> errorParser.handleToken(token, currentLine));
-        }
-
-        this.errors = errorParserList.stream()
-                .flatMap(ep -> ep.getErrors().stream())
-                .collect(Collectors.toList());
+        return errorParserList;
     }
 
     @Override
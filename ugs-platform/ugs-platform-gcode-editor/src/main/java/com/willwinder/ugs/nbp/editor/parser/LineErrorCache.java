@@ -0,0 +1,250 @@
+/*
+    Copyright 2026 agent
+
+    This file is part of Universal Gcode Sender (UGS).
+
+    UGS is free software: you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    UGS is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with UGS.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.willwinder.ugs.nbp.editor.parser;
+
+import com.willwinder.ugs.nbp.editor.lexer.GcodeTokenId;
+import com.willwinder.ugs.nbp.editor.parser.errors.ErrorParser;
+import org.netbeans.api.lexer.Token;
+import org.netbeans.api.lexer.TokenSequence;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.function.Supplier;
+
+/**
+ * Keeps the errors of each line in a gcode document so that only the edited lines needs to be parsed again when
+ * the document is changed. The errors from the line local {@link ErrorParser}s are cached with offsets relative
+ * to the start of their line. The parsers depending on the modal state from the preceding lines are run from the
+ * start of the document on each change, but only until they are complete which usually is within the first few
+ * lines.
+ *
+ * @author agent
+ */
+public class LineErrorCache {
+    private final Supplier<List<ErrorParser>> errorParserFactory;
+    private final List<List<GcodeError>> lineErrors = new ArrayList<>();
+    private List<GcodeError> modalErrors = Collections.emptyList();
+    private int[] lineStarts = new int[0];
+    private int textLength = -1;
+
+    /**
+     * @param errorParserFactory a factory creating a new set of error parsers
+     */
+    public LineErrorCache(Supplier<List<ErrorParser>> errorParserFactory) {
+        this.errorParserFactory = errorParserFactory;
+    }
+
+    /**
+     * Parses the errors of all lines in the document
+     *
+     * @param text          the text of the document
+     * @param tokenSequence the tokens of the document
+     */
+    public void parse(CharSequence text, TokenSequence<?> tokenSequence) {
+        lineStarts = getLineStarts(text);
+        textLength = text.length();
+        lineErrors.clear();
+        lineErrors.addAll(parseLines(tokenSequence, 0, lineStarts.length - 1));
+        modalErrors = parseModalErrors(tokenSequence);
+    }
+
+    /**
+     * Parses the errors of the lines that were changed since the last time the document was parsed. If the
+     * modified region can not be mapped to the cached lines all lines will be parsed.
+     *
+     * @param text          the text of the document
+     * @param tokenSequence the tokens of the document
+     * @param startOffset   the start offset of the modified region in the new text
+     * @param endOffset     the end offset of the modified region in the new text
+     */
+    public void update(CharSequence text, TokenSequence<?> tokenSequence, int startOffset, int endOffset) {
+        if (textLength < 0 || startOffset < 0 || startOffset > text.length()) {
+            parse(text, tokenSequence);
+            return;
+        }
+
+        // Several modifications may have been merged into one region where the end offset of an earlier
+        // modification was not moved by the text inserted before it
+        endOffset = Math.min(Math.max(startOffset, endOffset) + Math.max(0, text.length() - textLength), text.length());
+
+        // Tokens are not always ending at a line break, so the region is expanded to the tokens it touches
+        startOffset = getTokenStart(tokenSequence, startOffset);
+        endOffset = getTokenEnd(tokenSequence, endOffset);
+
+        int[] newLineStarts = getLineStarts(text);
+        int startLine = getLine(newLineStarts, startOffset);
+        int endLine = getLine(newLineStarts, endOffset);
+        int previousEndLine = endLine - (newLineStarts.length - lineStarts.length);
+        if (previousEndLine < startLine - 1 || previousEndLine >= lineStarts.length) {
+            parse(text, tokenSequence);
+            return;
+        }
+
+        lineStarts = newLineStarts;
+        textLength = text.length();
+        lineErrors.subList(startLine, previousEndLine + 1).clear();
+        lineErrors.addAll(startLine, parseLines(tokenSequence, startLine, endLine));
+        modalErrors = parseModalErrors(tokenSequence);
+    }
+
+    /**
+     * @return all errors in the document with offsets from the start of the document
+     */
+    public List<GcodeError> getErrors() {
+        List<GcodeError> result = new ArrayList<>(modalErrors);
+        for (int line = 0; line < lineErrors.size(); line++) {
+            for (GcodeError error : lineErrors.get(line)) {
+                result.add(moveError(error, lineStarts[line]));
+            }
+        }
+        return result;
+    }
+
+    /**
+     * @return the number of lines in the document
+     */
+    public int getLineCount() {
+        return lineStarts.length;
+    }
+
+    /**
+     * Runs the line local error parsers over the given lines
+     *
+     * @return the errors of each line with offsets relative to the start of their line
+     */
+    private List<List<GcodeError>> parseLines(TokenSequence<?> tokenSequence, int startLine, int endLine) {
+        List<ErrorParser> errorParsers = errorParserFactory.get();
+        errorParsers.removeIf(errorParser -> !errorParser.isLineLocal());
+        int[] errorCounts = new int[errorParsers.size()];
+
+        List<List<GcodeError>> result = new ArrayList<>(endLine - startLine + 1);
+        int line = startLine;
+        tokenSequence.move(lineStarts[startLine]);
+        while (tokenSequence.moveNext()) {
+            Token<?> token = tokenSequence.token();
+            int offset = tokenSequence.offset();
+            if (offset < lineStarts[startLine]) {
+                // The token was started on the line before
+                continue;
+            }
+
+            while (line <= endLine && line < lineStarts.length - 1 && offset >= lineStarts[line + 1]) {
+                result.add(collectNewErrors(errorParsers, errorCounts, lineStarts[line]));
+                line++;
+            }
+
+            if (line > endLine) {
+                break;
+            }
+
+            int parserLine = line + 1;
+            errorParsers.forEach(errorParser -> errorParser.handleToken(token, parserLine));
+        }
+
+        while (result.size() < endLine - startLine + 1) {
+            result.add(collectNewErrors(errorParsers, errorCounts, lineStarts[startLine + result.size()]));
+        }
+        return result;
+    }
+
+    /**
+     * Runs the error parsers that are not line local from the start of the document until they are complete,
+     * counting the lines the same way as the editor parser has always done
+     */
+    private List<GcodeError> parseModalErrors(TokenSequence<?> tokenSequence) {
+        List<ErrorParser> errorParsers = errorParserFactory.get();
+        errorParsers.removeIf(ErrorParser::isLineLocal);
+
+        int line = 1; // The snapshot starts on line 1
+        tokenSequence.moveStart();
+        while (tokenSequence.moveNext() && !errorParsers.stream().allMatch(ErrorParser::isComplete)) {
+            Token<?> token = tokenSequence.token();
+            if (GcodeTokenId.END_OF_LINE.equals(token.id())) {
+                line++;
+            }
+
+            final int currentLine = line;
+            errorParsers.forEach(errorParser -> errorParser.handleToken(token, currentLine));
+        }
+
+        List<GcodeError> result = new ArrayList<>();
+        errorParsers.forEach(errorParser -> result.addAll(errorParser.getErrors()));
+        return result;
+    }
+
+    /**
+     * Returns the errors that the parsers has found since the last call, moved to be relative to the line start
+     */
+    private static List<GcodeError> collectNewErrors(List<ErrorParser> errorParsers, int[] errorCounts, int lineStart) {
+        List<GcodeError> result = null;
+        for (int i = 0; i < errorParsers.size(); i++) {
+            List<GcodeError> parserErrors = errorParsers.get(i).getErrors();
+            for (int j = errorCounts[i]; j < parserErrors.size(); j++) {
+                if (result == null) {
+                    result = new ArrayList<>(1);
+                }
+                result.add(moveError(parserErrors.get(j), -lineStart));
+            }
+            errorCounts[i] = parserErrors.size();
+        }
+        return result == null ? Collections.emptyList() : result;
+    }
+
+    private static GcodeError moveError(GcodeError error, int distance) {
+        return new GcodeError(error.getKey(), error.getDisplayName(), error.getDescription(), error.getFile(),
+                error.getStartPosition() + distance, error.getEndPosition() + distance, error.isLineError(), error.getSeverity());
+    }
+
+    private static int getTokenStart(TokenSequence<?> tokenSequence, int offset) {
+        tokenSequence.move(offset);
+        if (tokenSequence.moveNext()) {
+            return Math.min(offset, tokenSequence.offset());
+        }
+        return offset;
+    }
+
+    private static int getTokenEnd(TokenSequence<?> tokenSequence, int offset) {
+        tokenSequence.move(offset);
+        if (tokenSequence.moveNext()) {
+            return Math.max(offset, tokenSequence.offset() + tokenSequence.token().length());
+        }
+        return offset;
+    }
+
+    private static int[] getLineStarts(CharSequence text) {
+        int[] result = new int[1024];
+        int lineCount = 1;
+        for (int i = 0; i < text.length(); i++) {
+            if (text.charAt(i) == '\n') {
+                if (lineCount == result.length) {
+                    result = Arrays.copyOf(result, result.length * 2);
+                }
+                result[lineCount++] = i + 1;
+            }
+        }
+        return Arrays.copyOf(result, lineCount);
+    }
+
+    private static int getLine(int[] lineStarts, int offset) {
+        int index = Arrays.binarySearch(lineStarts, offset);
+        return index >= 0 ? index : -index - 2;
+    }
+}
@@ -32,4 +32,24 @@ public interface ErrorParser {
     void handleToken(Token<?> token, int line);
 
     List<GcodeError> getErrors();
+
+    /**
+     * Returns true if the errors of a line only depends on the tokens on that line. Parsers that look at the
+     * preceding lines, such as if a feed rate has been set before a movement, must return false.
+     *
+     * @return true if the parser can be used to find errors in a single line
+     */
+    default boolean isLineLocal() {
+        return true;
+    }
+
+    /**
+     * Returns true if the errors found so far can not be changed by any of the following tokens. This is used for
+     * stopping early with the parsers that are not line local.
+     *
+     * @return true if the remaining tokens does not need to be parsed
+     */
+    default boolean isComplete() {
+        return false;
+    }
 }
@@ -75,4 +75,15 @@ public class FeedRateMissingErrorParser implements ErrorParser {
 
         return Collections.emptyList();
     }
+
+    @Override
+    public boolean isLineLocal() {
+        return false;
+    }
+
+    @Override
+    public boolean isComplete() {
+        // The first of the two tokens decides if there is an error
+        return firstMovementToken != null || firstFeedRateToken != null;
+    }
 }
@@ -78,4 +78,15 @@ public class UnitsMissingErrorParser implements ErrorParser {
 
         return Collections.emptyList();
     }
+
+    @Override
+    public boolean isLineLocal() {
+        return false;
+    }
+
+    @Override
+    public boolean isComplete() {
+        // The first of the two tokens decides if there is an error
+        return firstMovementToken != null || firstUnitToken != null;
+    }
 }
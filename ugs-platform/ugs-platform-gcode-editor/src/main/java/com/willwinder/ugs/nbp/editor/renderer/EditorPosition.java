@@ -27,6 +27,7 @@ import static com.willwinder.ugs.nbm.visualizer.options.VisualizerOptions.VISUAL
 import com.willwinder.ugs.nbm.visualizer.renderables.GcodeModel;
 import com.willwinder.ugs.nbm.visualizer.shared.Renderable;
 import com.willwinder.universalgcodesender.model.Position;
+import com.willwinder.universalgcodesender.visualizer.LineSegmentStore;
 
 import java.awt.Color;
 
@@ -87,9 +88,12 @@ public class EditorPosition extends Renderable {
             return;
         }
 
-        model.getLineList().stream()
-                .filter(lineSegment -> lineSegment.getLineNumber() == lineNumber + 1)
-                .findFirst()
-                .ifPresent(lineSegment -> position = lineSegment.getEnd());
+        LineSegmentStore segments = model.getLineSegments();
+        for (int i = 0; i < segments.size(); i++) {
+            if (segments.getLineNumber(i) == lineNumber + 1) {
+                position = segments.getEnd(i);
+                return;
+            }
+        }
     }
 }
@@ -31,11 +31,13 @@ import com.willwinder.universalgcodesender.gcode.util.Plane;
 import com.willwinder.universalgcodesender.gcode.util.PlaneFormatter;
 import com.willwinder.universalgcodesender.model.CNCPoint;
 import com.willwinder.universalgcodesender.model.Position;
+import com.willwinder.universalgcodesender.visualizer.LineSegmentStore;
 
 import java.awt.Color;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
+import java.util.stream.IntStream;
 import java.util.stream.Stream;
 
 /**
@@ -124,17 +126,21 @@ public class Highlight extends Renderable {
         points.clear();
         double offset = LINE_WIDTH / scaleFactor / 2d;
         double halfPI = Math.PI / 2d;
-        List<CNCPoint> newPoints = model.getLineList().stream()
-                .filter(ls -> ls.getLineNumber() > startLine && ls.getLineNumber() - 1 <= endLine)
-                .flatMap(lineSegment -> {
-                    double angle = getAngle(lineSegment.getStart(), lineSegment.getEnd(), new PlaneFormatter(Plane.XY));
+        LineSegmentStore segments = model.getLineSegments();
+        List<CNCPoint> newPoints = IntStream.range(0, segments.size())
+                .filter(i -> segments.getLineNumber(i) > startLine && segments.getLineNumber(i) - 1 <= endLine)
+                .boxed()
+                .flatMap(i -> {
+                    Position start = segments.getStart(i);
+                    Position end = segments.getEnd(i);
+                    double angle = getAngle(start, end, new PlaneFormatter(Plane.XY));
                     Position xyOffset = new Position(offset * Math.cos(angle - halfPI), offset * Math.sin(angle - halfPI), 0.0);
                     Position zOffset = new Position(0, 0, 0.01);
 
-                    CNCPoint aPoint = new Position(lineSegment.getStart()).sub(xyOffset).add(zOffset);
-                    CNCPoint bPoint = new Position(lineSegment.getEnd()).sub(xyOffset).add(zOffset);
-                    CNCPoint cPoint = new Position(lineSegment.getEnd()).add(xyOffset).add(zOffset);
-                    CNCPoint dPoint = new Position(lineSegment.getStart()).add(xyOffset).add(zOffset);
+                    CNCPoint aPoint = new Position(start).sub(xyOffset).add(zOffset);
+                    CNCPoint bPoint = new Position(end).sub(xyOffset).add(zOffset);
+                    CNCPoint cPoint = new Position(end).add(xyOffset).add(zOffset);
+                    CNCPoint dPoint = new Position(start).add(xyOffset).add(zOffset);
                     return Stream.of(aPoint, bPoint, cPoint, dPoint);
                 })
                 .toList();
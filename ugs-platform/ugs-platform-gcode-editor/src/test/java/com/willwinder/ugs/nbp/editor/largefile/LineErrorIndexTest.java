@@ -0,0 +1,127 @@
+/*
+    Copyright 2026 agent
+
+    This file is part of Universal Gcode Sender (UGS).
+
+    UGS is free software: you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    UGS is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with UGS.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.willwinder.ugs.nbp.editor.largefile;
+
+import com.willwinder.ugs.nbp.editor.parser.errors.ErrorParser;
+import com.willwinder.ugs.nbp.editor.parser.errors.FeedRateMissingErrorParser;
+import com.willwinder.ugs.nbp.editor.parser.errors.InvalidGcodeErrorParser;
+import com.willwinder.ugs.nbp.editor.parser.errors.ReturnToHomeGcodeErrorParser;
+import com.willwinder.ugs.nbp.editor.parser.errors.SystemCommandsErrorParser;
+import com.willwinder.ugs.nbp.editor.parser.errors.UnitsMissingErrorParser;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.netbeans.modules.csl.api.Severity;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class LineErrorIndexTest {
+    private Path file;
+    private LineIndex lineIndex;
+
+    @Before
+    public void setUp() throws IOException {
+        file = Files.createTempFile("lineerrorindex", ".gcode");
+        try (PrintWriter writer = new PrintWriter(file.toFile(), StandardCharsets.UTF_8)) {
+            writer.println("G21");
+            writer.println("G0 X0");
+            writer.println("G1 X10");
+            writer.println("$H");
+            for (int i = 4; i < LineErrorIndex.CHUNK_SIZE * 2 + 100; i++) {
+                writer.println(i == LineErrorIndex.CHUNK_SIZE + 50 ? "G0 X0 G28" : "G1 X" + i + " F100");
+            }
+        }
+        lineIndex = LineIndex.open(file);
+    }
+
+    @After
+    public void tearDown() throws IOException {
+        Files.deleteIfExists(file);
+    }
+
+    private static List<ErrorParser> createErrorParsers() {
+        List<ErrorParser> errorParsers = new ArrayList<>();
+        errorParsers.add(new SystemCommandsErrorParser(null));
+        errorParsers.add(new FeedRateMissingErrorParser(null));
+        errorParsers.add(new InvalidGcodeErrorParser(null));
+        errorParsers.add(new UnitsMissingErrorParser(null));
+        errorParsers.add(new ReturnToHomeGcodeErrorParser(null));
+        return errorParsers;
+    }
+
+    @Test
+    public void scanShouldFindTheErrorsOfEachLine() {
+        LineErrorIndex errorIndex = new LineErrorIndex(lineIndex, LineErrorIndexTest::createErrorParsers);
+        List<Integer> progress = new ArrayList<>();
+        errorIndex.scan(progress::add);
+
+        assertEquals(List.of(1000, 2000, lineIndex.getLineCount()), progress);
+        assertEquals(lineIndex.getLineCount(), errorIndex.getScannedLineCount());
+        assertEquals(3, errorIndex.getErrorLineCount());
+
+        // The feed rate is missing on the first feed movement
+        List<LineError> errors = errorIndex.getErrors(2);
+        assertEquals(1, errors.size());
+        assertEquals(new LineError(0, 2, Severity.ERROR, "No feed rate has been assigned before movement command"), errors.get(0));
+
+        assertEquals(Severity.ERROR, errorIndex.getErrors(3).get(0).severity());
+        assertEquals(1, errorIndex.getErrors(3).size());
+
+        // Errors in later chunks should be relative to their line
+        errors = errorIndex.getErrors(LineErrorIndex.CHUNK_SIZE + 50);
+        assertEquals(1, errors.size());
+        assertEquals(6, errors.get(0).startColumn());
+        assertEquals(9, errors.get(0).endColumn());
+        assertEquals(Severity.INFO, errors.get(0).severity());
+
+        assertTrue(errorIndex.getErrors(4).isEmpty());
+        assertEquals(2, errorIndex.getNextErrorLine(-1));
+        assertEquals(3, errorIndex.getNextErrorLine(2));
+        assertEquals(LineErrorIndex.CHUNK_SIZE + 50, errorIndex.getNextErrorLine(3));
+        assertEquals(-1, errorIndex.getNextErrorLine(LineErrorIndex.CHUNK_SIZE + 50));
+    }
+
+    @Test
+    public void getErrorsOfLinesNotYetScannedShouldOnlyUseLineLocalParsers() {
+        LineErrorIndex errorIndex = new LineErrorIndex(lineIndex, LineErrorIndexTest::createErrorParsers);
+
+        assertEquals(0, errorIndex.getScannedLineCount());
+        assertTrue(errorIndex.getErrors(2).isEmpty());
+        assertEquals(1, errorIndex.getErrors(3).size());
+        assertEquals(1, errorIndex.getErrors(LineErrorIndex.CHUNK_SIZE + 50).size());
+    }
+
+    @Test
+    public void scanShouldStopWhenInterrupted() {
+        LineErrorIndex errorIndex = new LineErrorIndex(lineIndex, LineErrorIndexTest::createErrorParsers);
+        errorIndex.scan(scannedLines -> Thread.currentThread().interrupt());
+
+        assertTrue(Thread.interrupted());
+        assertEquals(LineErrorIndex.CHUNK_SIZE, errorIndex.getScannedLineCount());
+    }
+}
@@ -0,0 +1,90 @@
+/*
+    Copyright 2026 agent
+
+    This file is part of Universal Gcode Sender (UGS).
+
+    UGS is free software: you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    UGS is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with UGS.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.willwinder.ugs.nbp.editor.largefile;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertThrows;
+
+public class LineIndexTest {
+    private Path file;
+
+    @Before
+    public void setUp() throws IOException {
+        file = Files.createTempFile("lineindex", ".gcode");
+    }
+
+    @After
+    public void tearDown() throws IOException {
+        Files.deleteIfExists(file);
+    }
+
+    @Test
+    public void getLineShouldReturnLinesWithoutLineTerminators() throws IOException {
+        Files.writeString(file, "G21\r\nG0 X1\n\nG1 X2 ; åäö\nM30", StandardCharsets.UTF_8);
+
+        LineIndex lineIndex = LineIndex.open(file);
+        assertEquals(5, lineIndex.getLineCount());
+        assertEquals("G21", lineIndex.getLine(0));
+        assertEquals("G0 X1", lineIndex.getLine(1));
+        assertEquals("", lineIndex.getLine(2));
+        assertEquals("G1 X2 ; åäö", lineIndex.getLine(3));
+        assertEquals("M30", lineIndex.getLine(4));
+        assertThrows(IndexOutOfBoundsException.class, () -> lineIndex.getLine(5));
+    }
+
+    @Test
+    public void fileEndingWithNewLineShouldHaveAnEmptyLastLine() throws IOException {
+        Files.writeString(file, "G21\nG0 X1\n", StandardCharsets.UTF_8);
+
+        LineIndex lineIndex = LineIndex.open(file);
+        assertEquals(3, lineIndex.getLineCount());
+        assertEquals("", lineIndex.getLine(2));
+    }
+
+    @Test
+    public void emptyFileShouldHaveOneLine() throws IOException {
+        LineIndex lineIndex = LineIndex.open(file);
+        assertEquals(1, lineIndex.getLineCount());
+        assertEquals("", lineIndex.getLine(0));
+    }
+
+    @Test
+    public void linesShouldBeReadAcrossMappedSegments() throws IOException {
+        StringBuilder content = new StringBuilder();
+        for (int i = 0; i < 100; i++) {
+            content.append("G1 X").append(i).append(" Y").append(i * 2).append(" ; ö\r\n");
+        }
+        Files.writeString(file, content, StandardCharsets.UTF_8);
+
+        LineIndex lineIndex = LineIndex.open(file, 7);
+        assertEquals(101, lineIndex.getLineCount());
+        for (int i = 0; i < 100; i++) {
+            assertEquals("G1 X" + i + " Y" + (i * 2) + " ; ö", lineIndex.getLine(i));
+        }
+    }
+}
@@ -0,0 +1,194 @@
+/*
+    Copyright 2026 agent
+
+    This file is part of Universal Gcode Sender (UGS).
+
+    UGS is free software: you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    UGS is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with UGS.  If not, see <http://www.gnu.org/licenses/>.
+*/
+package com.willwinder.ugs.nbp.editor.parser;
+
+import com.willwinder.ugs.nbp.editor.lexer.GcodeTokenId;
+import com.willwinder.ugs.nbp.editor.parser.errors.ErrorParser;
+import com.willwinder.ugs.nbp.editor.parser.errors.FeedRateMissingErrorParser;
+import com.willwinder.ugs.nbp.editor.parser.errors.InvalidGcodeErrorParser;
+import com.willwinder.ugs.nbp.editor.parser.errors.ReturnToHomeGcodeErrorParser;
+import com.willwinder.ugs.nbp.editor.parser.errors.SystemCommandsErrorParser;
+import com.willwinder.ugs.nbp.editor.parser.errors.UnitsMissingErrorParser;
+import org.junit.Test;
+import org.netbeans.api.lexer.Language;
+import org.netbeans.api.lexer.Token;
+import org.netbeans.api.lexer.TokenHierarchy;
+import org.netbeans.api.lexer.TokenSequence;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.stream.Collectors;
+
+import static org.junit.Assert.assertEquals;
+
+public class LineErrorCacheTest {
+    private static final Language<GcodeTokenId> LANGUAGE = GcodeTokenId.getLanguage();
+
+    private static List<ErrorParser> createErrorParsers() {
+        List<ErrorParser> errorParsers = new ArrayList<>();
+        errorParsers.add(new SystemCommandsErrorParser(null));
+        errorParsers.add(new FeedRateMissingErrorParser(null));
+        errorParsers.add(new InvalidGcodeErrorParser(null));
+        errorParsers.add(new UnitsMissingErrorParser(null));
+        errorParsers.add(new ReturnToHomeGcodeErrorParser(null));
+        return errorParsers;
+    }
+
+    private static String createText(int lineCount) {
+        StringBuilder text = new StringBuilder("G0 X0\n");
+        for (int i = 1; i < lineCount; i++) {
+            text.append(i % 1000 == 0 ? "G0 X0 G28" : "G1 X" + i + " F100").append(i % 7 == 0 ? "  \n" : "\n");
+        }
+        return text.toString();
+    }
+
+    private static TokenSequence<GcodeTokenId> lex(CharSequence text) {
+        TokenSequence<GcodeTokenId> tokenSequence = TokenHierarchy.create(text, LANGUAGE).tokenSequence(LANGUAGE);
+        while (tokenSequence.moveNext()) {
+            // Lex the whole text the same way as the editor does before the parser is called
+            tokenSequence.token();
+        }
+        return tokenSequence;
+    }
+
+    private static List<String> parseAll(String text) {
+        LineErrorCache errorCache = new LineErrorCache(LineErrorCacheTest::createErrorParsers);
+        errorCache.parse(text, lex(text));
+        return toStrings(errorCache.getErrors());
+    }
+
+    private static List<String> toStrings(List<GcodeError> errors) {
+        return errors.stream()
+                .map(error -> error.getKey() + "@" + error.getStartPosition() + "-" + error.getEndPosition())
+                .sorted()
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Replaces a part of the text and updates the cache in the same way as the editor parser
+     */
+    private static String edit(LineErrorCache errorCache, String text, int offset, int length, String replacement) {
+        String result = text.substring(0, offset) + replacement + text.substring(offset + length);
+        errorCache.update(result, lex(result), offset, offset + replacement.length());
+        return result;
+    }
+
+    @Test
+    public void parseShouldFindErrorsOnEachLine() {
+        LineErrorCache errorCache = new LineErrorCache(LineErrorCacheTest::createErrorParsers);
+        String text = "G1 X10\n$H\nG21 G1 X1 G28 F10";
+        errorCache.parse(text, lex(text));
+
+        assertEquals(3, errorCache.getLineCount());
+        assertEquals(List.of("g28-used@20-23", "no-feed-rate@0-2", "no-units@0-2", "system-command-in-gcode@7-9"), toStrings(errorCache.getErrors()));
+    }
+
+    @Test
+    public void updateShouldGiveTheSameErrorsAsParsingEverything() {
+        LineErrorCache errorCache = new LineErrorCache(LineErrorCacheTest::createErrorParsers);
+        String text = createText(5000);
+        errorCache.parse(text, lex(text));
+
+        // Insert an error in the middle of a line
+        text = edit(errorCache, text, text.indexOf("G1 X2501 "), 0, "$H ");
+        assertEquals(parseAll(text), toStrings(errorCache.getErrors()));
+
+        // Insert lines with errors
+        text = edit(errorCache, text, text.indexOf("G1 X3001 "), 0, "G28\nG0 X1\n$X\n");
+        assertEquals(5004, errorCache.getLineCount());
+        assertEquals(parseAll(text), toStrings(errorCache.getErrors()));
+
+        // Remove lines including the line break
+        int start = text.indexOf("G1 X1001 ");
+        text = edit(errorCache, text, start, text.indexOf("G1 X1501 ") - start, "");
+        assertEquals(4504, errorCache.getLineCount());
+        assertEquals(parseAll(text), toStrings(errorCache.getErrors()));
+
+        // Join two lines
+        text = edit(errorCache, text, text.indexOf("\nG1 X4001 "), 1, "");
+        assertEquals(parseAll(text), toStrings(errorCache.getErrors()));
+
+        // Changing the first line should change the errors depending on the modal state
+        text = edit(errorCache, text, 0, 0, "G21 F100 ");
+        assertEquals(parseAll(text), toStrings(errorCache.getErrors()));
+
+        // Remove everything
+        text = edit(errorCache, text, 0, text.length(), "");
+        assertEquals(1, errorCache.getLineCount());
+        assertEquals(List.of(), toStrings(errorCache.getErrors()));
+    }
+
+    @Test
+    public void updateShouldOnlyParseTheEditedLine() {
+        Set<Integer> parsedLines = new TreeSet<>();
+        LineErrorCache errorCache = new LineErrorCache(() -> createErrorParsers().stream()
+                .map(errorParser -> (ErrorParser) new RecordingErrorParser(errorParser, parsedLines))
+                .collect(Collectors.toList()));
+        String text = createText(10_000);
+        errorCache.parse(text, lex(text));
+        assertEquals(10_000, parsedLines.size());
+
+        // Type a few characters on a line in the middle of the document
+        int offset = text.indexOf("G1 X5001 ") + 3;
+        for (int i = 0; i < 3; i++) {
+            parsedLines.clear();
+            text = edit(errorCache, text, offset, 0, "1");
+
+            // The parsers depending on the modal state are complete at the first movement in the document
+            assertEquals(Set.of(1, 2, 5002), parsedLines);
+            assertEquals(parseAll(text), toStrings(errorCache.getErrors()));
+        }
+    }
+
+    /**
+     * An error parser that records the lines of the tokens given to it
+     */
+    private static class RecordingErrorParser implements ErrorParser {
+        private final ErrorParser errorParser;
+        private final Set<Integer> parsedLines;
+
+        private RecordingErrorParser(ErrorParser errorParser, Set<Integer> parsedLines) {
+            this.errorParser = errorParser;
+            this.parsedLines = parsedLines;
+        }
+
+        @Override
+        public void handleToken(Token<?> token, int line) {
+            parsedLines.add(line);
+            errorParser.handleToken(token, line);
+        }
+
+        @Override
+        public List<GcodeError> getErrors() {
+            return errorParser.getErrors();
+        }
+
+        @Override
+        public boolean isLineLocal() {
+            return errorParser.isLineLocal();
+        }
+
+        @Override
+        public boolean isComplete() {
+            return errorParser.isComplete();
+        }
+    }
+}
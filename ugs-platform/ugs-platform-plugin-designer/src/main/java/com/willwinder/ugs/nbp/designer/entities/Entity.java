@@ -109,6 +109,16 @@ public interface Entity {
      */
     Rectangle2D getBounds();
 
+    /**
+     * Gets the bounds of the area that the entity is rendered in and can be selected from in real space. This may be
+     * larger than the bounds of the entity if it also renders things like lead in and lead out.
+     *
+     * @return the rendered bounds in real space
+     */
+    default Rectangle2D getRenderedBounds() {
+        return getBounds();
+    }
+
     /**
      * Returns the real position of the entity
      *
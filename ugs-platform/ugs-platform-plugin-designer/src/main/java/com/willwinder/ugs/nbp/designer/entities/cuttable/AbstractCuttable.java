@@ -243,6 +243,15 @@ public abstract class AbstractCuttable extends AbstractEntity implements Cuttabl
         return new Rectangle2D.Double(bounds.getX(), bounds.getY(), Math.max(bounds.getWidth(), 0.001), Math.max(bounds.getHeight(), 0.001));
     }
 
+    @Override
+    public Rectangle2D getRenderedBounds() {
+        Rectangle2D bounds = getBounds();
+        if (cutType == CutType.SURFACE) {
+            bounds.add(getSurfacingShape().getBounds2D());
+        }
+        return bounds;
+    }
+
     @Override
     public List<EntitySetting> getSettings() {
         return Arrays.asList(
@@ -36,6 +36,7 @@ import com.willwinder.ugs.nbp.designer.entities.controls.ResizeControl;
 import com.willwinder.ugs.nbp.designer.entities.controls.RotationControl;
 import com.willwinder.ugs.nbp.designer.entities.controls.SelectionControl;
 import com.willwinder.ugs.nbp.designer.entities.controls.ZoomControl;
+import com.willwinder.ugs.nbp.designer.entities.selection.SelectionManager;
 import com.willwinder.ugs.nbp.designer.logic.Controller;
 import com.willwinder.universalgcodesender.utils.ThreadHelper;
 import static java.awt.RenderingHints.KEY_ALPHA_INTERPOLATION;
@@ -53,13 +54,16 @@ import java.awt.Shape;
 import java.awt.dnd.DnDConstants;
 import java.awt.dnd.DropTarget;
 import java.awt.geom.AffineTransform;
+import java.awt.geom.NoninvertibleTransformException;
 import java.awt.geom.Point2D;
 import java.awt.geom.Rectangle2D;
 import java.awt.image.BufferedImage;
 import java.io.Serial;
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Optional;
 import java.util.Set;
 
 /**
@@ -68,11 +72,26 @@ import java.util.Set;
 public class Drawing extends JPanel {
 
     public static final double MIN_SCALE = 0.05;
+
+    /**
+     * The number of pixels to add around a repainted area when looking for entities to render, makes sure that
+     * the strokes of entities just outside the area are also rendered.
+     */
+    private static final int REPAINT_MARGIN_PIXELS = 4;
+
+    /**
+     * The number of pixels to add around the changed entities when repainting them, makes sure that the controls
+     * that are placed outside the bounds of the selected entities are also repainted.
+     */
+    private static final int CONTROLS_MARGIN_PIXELS = RotationControl.MARGIN + RotationControl.SIZE + REPAINT_MARGIN_PIXELS;
     @Serial
     private static final long serialVersionUID = 1298712398723987873L;
     private final transient EntityGroup globalRoot;
     private final transient EntityGroup entitiesRoot;
     private final transient EntityGroup controlsRoot;
+    private final transient GridControl gridControl;
+    private final transient SelectionManager selectionManager;
+    private final transient EntityIndex entityIndex;
     private final transient Set<DrawingListener> listeners = Sets.newConcurrentHashSet();
     private final transient Throttler refreshThrottler;
     private final transient Rectangle2D currentBounds = new Rectangle(0, 0, 8, 8);
@@ -81,17 +100,25 @@ public class Drawing extends JPanel {
     private Dimension oldMinimumSize;
     private transient DropHandler dropHandler;
     private transient DropTarget dropTarget;
+    private boolean isDragging;
+    private transient StaticLayer staticLayer;
 
     public Drawing(Controller controller) {
         refreshThrottler = new Throttler(this::refresh, 1000);
 
         globalRoot = new EntityGroup();
-        globalRoot.addChild(new GridControl(controller));
+        gridControl = new GridControl(controller);
+        globalRoot.addChild(gridControl);
         globalRoot.addListener(event -> refreshThrottler.run());
 
         entitiesRoot = new EntityGroup();
         globalRoot.addChild(entitiesRoot);
-        globalRoot.addChild(controller.getSelectionManager());
+        selectionManager = controller.getSelectionManager();
+        globalRoot.addChild(selectionManager);
+
+        // Listens to the global root to also get the events when moving the selection
+        entityIndex = new EntityIndex(entitiesRoot);
+        globalRoot.addListener(entityIndex);
 
         controlsRoot = new EntityGroup();
         globalRoot.addChild(controlsRoot);
@@ -141,26 +168,111 @@ public class Drawing extends JPanel {
     }
 
     public List<Entity> getEntitiesAt(Point2D p) {
-        return globalRoot.getChildrenAt(p);
+        List<Entity> result = new ArrayList<>();
+        globalRoot.getChildren().forEach(child -> {
+            if (child == entitiesRoot) {
+                entityIndex.query(new Rectangle2D.Double(p.getX() - 1, p.getY() - 1, 2, 2)).stream()
+                        .filter(entity -> entity.isWithin(p))
+                        .forEach(result::add);
+            } else if (child instanceof EntityGroup entityGroup) {
+                result.addAll(entityGroup.getChildrenAt(p));
+            } else if (child.isWithin(p)) {
+                result.add(child);
+            }
+        });
+        return result;
     }
 
     public List<Entity> getEntitiesIntersecting(Shape shape) {
-        return globalRoot.getChildrenIntersecting(shape);
+        List<Entity> result = new ArrayList<>();
+        globalRoot.getChildren().forEach(child -> {
+            if (child == entitiesRoot) {
+                entityIndex.query(shape.getBounds2D()).stream()
+                        .filter(entity -> entity.isIntersecting(shape))
+                        .forEach(result::add);
+            } else if (child instanceof EntityGroup entityGroup) {
+                result.addAll(entityGroup.getChildrenIntersecting(shape));
+            } else if (child.isIntersecting(shape)) {
+                result.add(child);
+            }
+        });
+        return result;
     }
 
     public void insertEntity(Entity entity) {
         entitiesRoot.addChild(entity);
-        notifyListeners(DrawingEvent.ENTITY_ADDED);
+        entityIndex.add(entity);
+        fireDrawingEvent(DrawingEvent.ENTITY_ADDED);
     }
 
+    /**
+     * Notifies the listeners about entities that were added, moved between groups or reordered without using
+     * the methods of the drawing. As the structure of the drawing may have changed the index of the entities
+     * will be rebuilt.
+     *
+     * @param event the event to send
+     */
     public void notifyListeners(DrawingEvent event) {
+        entityIndex.invalidate();
+        fireDrawingEvent(event);
+    }
+
+    private void fireDrawingEvent(DrawingEvent event) {
+        staticLayer = null;
         listeners.forEach(l -> l.onDrawingEvent(event));
         refresh();
     }
 
     public void insertEntities(List<Entity> entities) {
-        entities.forEach(entitiesRoot::addChild);
-        notifyListeners(DrawingEvent.ENTITY_ADDED);
+        entities.forEach(entity -> {
+            entitiesRoot.addChild(entity);
+            entityIndex.add(entity);
+        });
+        fireDrawingEvent(DrawingEvent.ENTITY_ADDED);
+    }
+
+    /**
+     * Repaints the area of the entities that have been changed since the last time the drawing was painted,
+     * including their controls. If no entity changes are known the whole drawing will be repainted.
+     */
+    public void repaintChanges() {
+        Optional<Rectangle2D> changedArea = entityIndex.getChangedArea();
+        entityIndex.clearChangedArea();
+        if (changedArea.isEmpty()) {
+            repaint();
+            return;
+        }
+
+        Rectangle2D area = changedArea.get();
+        if (!selectionManager.isEmpty()) {
+            area.add(selectionManager.getBounds());
+        }
+
+        Rectangle dirtyRegion = getTransform().createTransformedShape(area).getBounds();
+        dirtyRegion.grow(CONTROLS_MARGIN_PIXELS, CONTROLS_MARGIN_PIXELS);
+        repaint(dirtyRegion);
+    }
+
+    /**
+     * Should be called when the selected entities are about to be dragged. Until {@link #endDrag()} is called
+     * the entities that aren't selected are rendered once to an image that is reused for every repaint.
+     */
+    public void beginDrag() {
+        if (!isDragging) {
+            isDragging = true;
+            staticLayer = null;
+        }
+    }
+
+    /**
+     * Should be called when the dragging has ended, releases the image with the entities that aren't selected.
+     */
+    public void endDrag() {
+        if (isDragging) {
+            isDragging = false;
+            staticLayer = null;
+            repaint();
+        }
     }
 
     public List<Entity> getEntities() {
@@ -188,19 +300,104 @@ public class Drawing extends JPanel {
         super.paintComponent(g);
         Graphics2D g2 = (Graphics2D) g;
         AffineTransform previousTransform = g2.getTransform();
+        Rectangle clipBounds = g2.getClipBounds();
 
         AffineTransform affineTransform = new AffineTransform(g2.getTransform());
         affineTransform.concatenate(getTransform());
         g2.setTransform(affineTransform);
+        applyRenderingHints(g2);
+
+        if (isDragging) {
+            renderDragging(g2, previousTransform);
+        } else if (clipBounds == null || clipBounds.contains(getVisibleRect())) {
+            // All changes will be painted
+            entityIndex.clearChangedArea();
+            globalRoot.render(g2, this);
+        } else {
+            renderArea(g2, clipBounds);
+        }
+        g2.setTransform(previousTransform);
+    }
 
-        RenderingHints rh = ((Graphics2D) g).getRenderingHints();
+    private static void applyRenderingHints(Graphics2D g2) {
+        RenderingHints rh = g2.getRenderingHints();
         rh.put(KEY_TEXT_ANTIALIASING, RenderingHints.VALUE_TEXT_ANTIALIAS_ON);
         rh.put(KEY_ALPHA_INTERPOLATION, RenderingHints.VALUE_ALPHA_INTERPOLATION_QUALITY);
         rh.put(KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
         rh.put(KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
         g2.setRenderingHints(rh);
-        globalRoot.render(g2, this);
-        g2.setTransform(previousTransform);
+    }
+
+    /**
+     * Renders only the entities within the given area of the component
+     *
+     * @param g2         the graphics with the drawing transform applied
+     * @param clipBounds the area in component coordinates
+     */
+    private void renderArea(Graphics2D g2, Rectangle clipBounds) {
+        Rectangle2D area;
+        try {
+            Rectangle2D paddedBounds = new Rectangle2D.Double(clipBounds.getX() - REPAINT_MARGIN_PIXELS, clipBounds.getY() - REPAINT_MARGIN_PIXELS, clipBounds.getWidth() + REPAINT_MARGIN_PIXELS * 2d, clipBounds.getHeight() + REPAINT_MARGIN_PIXELS * 2d);
+            area = getTransform().createInverse().createTransformedShape(paddedBounds).getBounds2D();
+        } catch (NoninvertibleTransformException e) {
+            globalRoot.render(g2, this);
+            return;
+        }
+
+        globalRoot.getChildren().forEach(child -> {
+            if (child == entitiesRoot) {
+                entityIndex.query(area).forEach(entity -> entity.render(g2, this));
+            } else {
+                child.render(g2, this);
+            }
+        });
+    }
+
+    /**
+     * Renders the drawing while dragging using a cached image of the entities that aren't selected as they
+     * will not change until the dragging ends.
+     *
+     * @param g2              the graphics with the drawing transform applied
+     * @param deviceTransform the transform of the graphics before the drawing transform was applied
+     */
+    private void renderDragging(Graphics2D g2, AffineTransform deviceTransform) {
+        Rectangle visibleRect = getVisibleRect();
+        AffineTransform transform = getTransform();
+        if (staticLayer == null || !staticLayer.isValid(transform, visibleRect, deviceTransform)) {
+            staticLayer = createStaticLayer(transform, visibleRect, deviceTransform);
+        }
+
+        AffineTransform drawingTransform = g2.getTransform();
+        g2.setTransform(deviceTransform);
+        g2.drawImage(staticLayer.image(), visibleRect.x, visibleRect.y, visibleRect.width, visibleRect.height, null);
+        g2.setTransform(drawingTransform);
+
+        selectionManager.getSelection().forEach(entity -> entity.render(g2, this));
+        selectionManager.render(g2, this);
+        controlsRoot.render(g2, this);
+    }
+
+    private StaticLayer createStaticLayer(AffineTransform transform, Rectangle visibleRect, AffineTransform deviceTransform) {
+        int width = Math.max(1, (int) Math.ceil(visibleRect.width * deviceTransform.getScaleX()));
+        int height = Math.max(1, (int) Math.ceil(visibleRect.height * deviceTransform.getScaleY()));
+        BufferedImage image = new BufferedImage(width, height, BufferedImage.TYPE_INT_ARGB_PRE);
+
+        Graphics2D g2 = image.createGraphics();
+        try {
+            applyRenderingHints(g2);
+            g2.scale(deviceTransform.getScaleX(), deviceTransform.getScaleY());
+            g2.translate(-visibleRect.x, -visibleRect.y);
+            g2.transform(transform);
+
+            Set<Entity> selection = new HashSet<>(selectionManager.getSelection());
+            gridControl.render(g2, this);
+            entitiesRoot.getAllChildren().stream()
+                    .filter(entity -> !selection.contains(entity))
+                    .forEach(entity -> entity.render(g2, this));
+        } finally {
+            g2.dispose();
+        }
+        return new StaticLayer(image, transform, visibleRect, deviceTransform.getScaleX(), deviceTransform.getScaleY());
     }
 
     public void removeEntity(Entity entity) {
@@ -209,6 +406,8 @@ public class Drawing extends JPanel {
 
     public void removeEntities(List<Entity> entities) {
         removeEntitiesRecursively(globalRoot, entities);
+        entities.forEach(entityIndex::remove);
+        staticLayer = null;
         ThreadHelper.invokeLater(() -> listeners.forEach(l -> l.onDrawingEvent(DrawingEvent.ENTITY_REMOVED)));
         refresh();
     }
@@ -236,7 +435,7 @@ public class Drawing extends JPanel {
         double newScale = Math.max(Math.abs(scale), MIN_SCALE);
         if (this.scale != newScale) {
             this.scale = newScale;
-            notifyListeners(DrawingEvent.SCALE_CHANGED);
+            fireDrawingEvent(DrawingEvent.SCALE_CHANGED);
             refresh();
         }
     }
@@ -289,6 +488,8 @@ public class Drawing extends JPanel {
 
     public void clear() {
         entitiesRoot.removeAll();
+        entityIndex.invalidate();
+        staticLayer = null;
     }
 
     @Override
@@ -314,4 +515,14 @@ public class Drawing extends JPanel {
     public Point2D.Double getPosition() {
         return new Point2D.Double(position.x * scale, position.y * scale);
     }
+
+    /**
+     * An image with the entities that aren't selected and the state of the drawing it was rendered with
+     */
+    private record StaticLayer(BufferedImage image, AffineTransform transform, Rectangle visibleRect, double deviceScaleX, double deviceScaleY) {
+        boolean isValid(AffineTransform transform, Rectangle visibleRect, AffineTransform deviceTransform) {
+            return this.transform.equals(transform) && this.visibleRect.equals(visibleRect) &&
+                    deviceScaleX == deviceTransform.getScaleX() && deviceScaleY == deviceTransform.getScaleY();
+        }
+    }
 }
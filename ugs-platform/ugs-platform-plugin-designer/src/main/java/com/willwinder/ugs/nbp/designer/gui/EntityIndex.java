@@ -0,0 +1,225 @@
+/*
+    Copyright 2026 agent
+
+    This file is part of Universal Gcode Sender (UGS).
+
+    UGS is free software: you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    UGS is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with UGS.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.willwinder.ugs.nbp.designer.gui;
+
+import com.willwinder.ugs.nbp.designer.entities.Entity;
+import com.willwinder.ugs.nbp.designer.entities.EntityEvent;
+import com.willwinder.ugs.nbp.designer.entities.EntityGroup;
+import com.willwinder.ugs.nbp.designer.entities.EntityListener;
+import com.willwinder.ugs.nbp.designer.entities.EventType;
+import org.locationtech.jts.geom.Envelope;
+import org.locationtech.jts.index.quadtree.Quadtree;
+
+import java.awt.geom.Rectangle2D;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+/**
+ * A spatial index of the rendered bounds of all entities in a group which is used for finding the entities
+ * at a point or within an area without having to check every entity in the group.
+ * <p>
+ * The index is kept updated through the entity events of the group and by calling {@link #add(Entity)} and
+ * {@link #remove(Entity)} when entities are added or removed. Changes to the structure of the group that can not
+ * be expressed this way, like moving entities between groups or changing their order, needs to be followed by a
+ * call to {@link #invalidate()} which will rebuild the index the next time it is queried.
+ * <p>
+ * The index also keeps track of the area covered by the entities before and after they were changed, which can
+ * be used for repainting only the changed parts of the drawing.
+ *
+ * @author agent
+ */
+public class EntityIndex implements EntityListener {
+    private static final Set<EventType> UPDATE_EVENTS = Set.of(EventType.MOVED, EventType.ROTATED, EventType.RESIZED, EventType.SETTINGS_CHANGED);
+
+    private final EntityGroup root;
+    private final Map<Entity, Entry> entries = new HashMap<>();
+    private Quadtree tree = new Quadtree();
+    private boolean isValid = false;
+    private int nextOrder = 0;
+    private Envelope changedArea = new Envelope();
+    private boolean isChangedAreaKnown = true;
+
+    /**
+     * Creates an index for all the entities in the given group
+     *
+     * @param root the group to index
+     */
+    public EntityIndex(EntityGroup root) {
+        this.root = root;
+    }
+
+    /**
+     * Marks the index as invalid, causing it to be rebuilt the next time it is queried.
+     */
+    public synchronized void invalidate() {
+        isValid = false;
+        isChangedAreaKnown = false;
+    }
+
+    /**
+     * Adds an entity that was added last in the group. If the entity is a group all its children will be added.
+     *
+     * @param entity the added entity
+     */
+    public synchronized void add(Entity entity) {
+        if (!isValid) {
+            return;
+        }
+
+        if (entity instanceof EntityGroup group) {
+            group.getAllChildren().forEach(this::add);
+        } else if (!entries.containsKey(entity)) {
+            insert(entity, nextOrder++);
+        }
+    }
+
+    /**
+     * Removes an entity that was removed from the group. If the entity is a group all its children will be removed.
+     *
+     * @param entity the removed entity
+     */
+    public synchronized void remove(Entity entity) {
+        if (!isValid) {
+            return;
+        }
+
+        if (entity instanceof EntityGroup group) {
+            group.getAllChildren().forEach(this::remove);
+        } else {
+            Entry entry = entries.remove(entity);
+            if (entry != null) {
+                tree.remove(entry.envelope, entry);
+            }
+        }
+    }
+
+    /**
+     * Returns the area covered by the entities before and after they were changed since the last call to
+     * {@link #clearChangedArea()}.
+     *
+     * @return the changed area in real space or an empty optional if nothing was changed or if the changes are
+     * unknown because the index was invalidated
+     */
+    public synchronized Optional<Rectangle2D> getChangedArea() {
+        if (!isChangedAreaKnown || changedArea.isNull()) {
+            return Optional.empty();
+        }
+        return Optional.of(new Rectangle2D.Double(changedArea.getMinX(), changedArea.getMinY(), changedArea.getWidth(), changedArea.getHeight()));
+    }
+
+    /**
+     * Starts tracking a new changed area, should be called when the changes have been repainted.
+     */
+    public synchronized void clearChangedArea() {
+        changedArea = new Envelope();
+        isChangedAreaKnown = true;
+    }
+
+    /**
+     * Returns the entities whose rendered bounds intersects the given area. The result may contain entities
+     * that are not within the area and needs to be filtered further by the caller.
+     *
+     * @param area the area in real space
+     * @return the entities in the order they are rendered
+     */
+    public synchronized List<Entity> query(Rectangle2D area) {
+        if (!isValid) {
+            rebuild();
+        }
+
+        Envelope envelope = new Envelope(area.getMinX(), area.getMaxX(), area.getMinY(), area.getMaxY());
+        List<?> candidates = tree.query(envelope);
+        return candidates.stream()
+                .map(Entry.class::cast)
+                .filter(entry -> entry.envelope.intersects(envelope))
+                .sorted(Comparator.comparingInt(Entry::order))
+                .map(Entry::entity)
+                .toList();
+    }
+
+    /**
+     * Returns the number of indexed entities
+     *
+     * @return the number of entities
+     */
+    public synchronized int size() {
+        if (!isValid) {
+            rebuild();
+        }
+        return entries.size();
+    }
+
+    @Override
+    public synchronized void onEvent(EntityEvent entityEvent) {
+        if (!UPDATE_EVENTS.contains(entityEvent.getType())) {
+            return;
+        } else if (!isValid) {
+            isChangedAreaKnown = false;
+            return;
+        }
+
+        Entity target = entityEvent.getTarget();
+        if (target instanceof EntityGroup group) {
+            group.getAllChildren().forEach(this::update);
+        } else {
+            update(target);
+        }
+    }
+
+    private void update(Entity entity) {
+        Entry entry = entries.get(entity);
+        if (entry == null) {
+            return;
+        }
+
+        Entry updatedEntry = insert(entity, entry.order);
+        changedArea.expandToInclude(entry.envelope);
+        changedArea.expandToInclude(updatedEntry.envelope);
+    }
+
+    private void rebuild() {
+        entries.clear();
+        tree = new Quadtree();
+
+        List<Entity> entities = root.getAllChildren();
+        for (int i = 0; i < entities.size(); i++) {
+            insert(entities.get(i), i);
+        }
+        nextOrder = entities.size();
+        isValid = true;
+    }
+
+    private Entry insert(Entity entity, int order) {
+        Rectangle2D bounds = entity.getRenderedBounds();
+        Entry entry = new Entry(entity, new Envelope(bounds.getMinX(), bounds.getMaxX(), bounds.getMinY(), bounds.getMaxY()), order);
+        Entry previousEntry = entries.put(entity, entry);
+        if (previousEntry != null) {
+            tree.remove(previousEntry.envelope, previousEntry);
+        }
+        tree.insert(entry.envelope, entry);
+        return entry;
+    }
+
+    private record Entry(Entity entity, Envelope envelope, int order) {
+    }
+}
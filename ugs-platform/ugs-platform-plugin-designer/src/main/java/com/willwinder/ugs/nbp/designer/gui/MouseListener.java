@@ -66,8 +66,9 @@ public class MouseListener extends MouseAdapter {
         boolean altPressed = (m.getModifiersEx() & InputEvent.ALT_DOWN_MASK) != 0;
 
         if (selectedControl != null) {
+            controller.getDrawing().beginDrag();
             selectedControl.onEvent(new MouseEntityEvent(selectedControl, EventType.MOUSE_DRAGGED, startPos, lastPos, shiftPressed, ctrlPressed, altPressed));
-            controller.getDrawing().repaint();
+            controller.getDrawing().repaintChanges();
         }
     }
 
@@ -131,7 +132,7 @@ public class MouseListener extends MouseAdapter {
                 .ifPresent(control -> {
                     selectedControl = control;
                     control.onEvent(new MouseEntityEvent(control, EventType.MOUSE_PRESSED, startPos, startPos, shiftPressed, ctrlPressed, altPressed));
-                    controller.getDrawing().repaint();
+                    controller.getDrawing().repaintChanges();
                 });
     }
 
@@ -146,8 +147,9 @@ public class MouseListener extends MouseAdapter {
         if (selectedControl != null) {
             selectedControl.onEvent(new MouseEntityEvent(selectedControl, EventType.MOUSE_RELEASED, startPos, lastPos, shiftPressed, ctrlPressed, altPressed));
             selectedControl = null;
-            controller.getDrawing().repaint();
+            controller.getDrawing().repaintChanges();
         }
+        controller.getDrawing().endDrag();
     }
 
     public Set<Control> getHoveredControls() {
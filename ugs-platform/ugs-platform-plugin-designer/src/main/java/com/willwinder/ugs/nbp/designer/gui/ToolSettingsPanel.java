@@ -47,6 +47,7 @@ public class ToolSettingsPanel extends JPanel {
     private JTextField stepOver;
     private JTextField safeHeight;
     private JCheckBox detectMaxSpindleSpeed;
+    private JCheckBox optimizePathOrder;
     private TextFieldWithUnit laserDiameter;
     private TextFieldWithUnit maxSpindleSpeed;
 
@@ -87,6 +88,11 @@ public class ToolSettingsPanel extends JPanel {
         safeHeight = new TextFieldWithUnit(TextFieldUnit.MM, 2, controller.getSettings().getSafeHeight());
         add(safeHeight, TOOL_FIELD_CONSTRAINT);
 
+        add(new JLabel("Optimize path order" ));
+        optimizePathOrder = new JCheckBox("", controller.getSettings().getOptimizePathOrder());
+        optimizePathOrder.setToolTipText("Reorders the entities to minimize the rapid movements, holes are still cut before their outline");
+        add(optimizePathOrder, TOOL_FIELD_CONSTRAINT);
+
         add(new JSeparator(SwingConstants.HORIZONTAL), "spanx, grow, wrap, hmin 2" );
 
         add(new JLabel("Detect max spindle speed" ));
@@ -184,6 +190,7 @@ public class ToolSettingsPanel extends JPanel {
         settings.setLaserDiameter(getLaserDiameter());
         settings.setMaxSpindleSpeed((int) getMaxSpindleSpeed());
         settings.setDetectMaxSpindleSpeed(getDetectMaxSpindleSpeed());
+        settings.setOptimizePathOrder(optimizePathOrder.isSelected());
         return settings;
     }
 }
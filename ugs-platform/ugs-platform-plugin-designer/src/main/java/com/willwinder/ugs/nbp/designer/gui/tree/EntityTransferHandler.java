@@ -21,6 +21,7 @@ package com.willwinder.ugs.nbp.designer.gui.tree;
 import com.willwinder.ugs.nbp.designer.entities.Entity;
 import com.willwinder.ugs.nbp.designer.entities.EntityGroup;
 import com.willwinder.ugs.nbp.designer.gui.Drawing;
+import com.willwinder.ugs.nbp.designer.gui.DrawingEvent;
 
 import javax.swing.JComponent;
 import javax.swing.JTree;
@@ -178,6 +179,9 @@ public class EntityTransferHandler extends TransferHandler {
             for (Entity entity : entities) {
                 parent.addChild(entity, index++);
             }
+
+            Drawing drawing = ((EntityTreeModel) ((JTree) support.getComponent()).getModel()).getDrawing();
+            drawing.notifyListeners(DrawingEvent.ENTITY_ADDED);
         } catch (Exception e) {
             LOGGER.log(Level.SEVERE, "Failed to import data during entity transfer in drag and drop", e);
             return false;
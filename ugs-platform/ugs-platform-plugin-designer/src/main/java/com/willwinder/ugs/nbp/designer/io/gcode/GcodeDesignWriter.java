@@ -23,12 +23,14 @@ import com.willwinder.ugs.nbp.designer.entities.cuttable.Cuttable;
 import com.willwinder.ugs.nbp.designer.io.DesignWriter;
 import com.willwinder.ugs.nbp.designer.io.DesignWriterException;
 import com.willwinder.ugs.nbp.designer.logic.Controller;
-import org.apache.commons.io.IOUtils;
 
+import java.io.BufferedWriter;
 import java.io.File;
 import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
 import java.nio.charset.StandardCharsets;
 import java.util.List;
 import java.util.stream.Collectors;
@@ -60,8 +62,9 @@ public class GcodeDesignWriter implements DesignWriter {
                     .filter(cuttable -> cuttable.getCutType() != CutType.NONE)
                     .collect(Collectors.toList());
 
-            String gcode = gcodeRouter.toGcode( cuttables);
-            IOUtils.write(gcode, outputStream, StandardCharsets.UTF_8);
+            // The stream is not closed as it is owned by the caller
+            Writer writer = new BufferedWriter(new OutputStreamWriter(outputStream, StandardCharsets.UTF_8));
+            gcodeRouter.toGcode(writer, cuttables);
         } catch (IOException e) {
             throw new DesignWriterException("Could not write gcode to stream", e);
         }
@@ -33,11 +33,14 @@ import com.willwinder.universalgcodesender.gcode.util.Code;
 import com.willwinder.universalgcodesender.utils.Version;
 import org.apache.commons.lang3.StringUtils;
 
+import java.awt.geom.Rectangle2D;
 import java.io.IOException;
 import java.io.StringWriter;
 import java.io.Writer;
 import java.util.List;
 import java.util.logging.Logger;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
 
 /**
  * @author Calle Laakkonen
@@ -46,24 +49,55 @@ import java.util.logging.Logger;
 public class SimpleGcodeRouter {
     private static final Logger LOGGER = Logger.getLogger(SimpleGcodeRouter.class.getSimpleName());
     private static final String HEADER = "; This file was generated with \"Universal Gcode Sender " + Version.getVersionString() + "\"\n;\n";
+
+    /**
+     * The tool paths are cached between exports as usually only a few entities are changed in between
+     */
+    private static final ToolPathCache TOOL_PATH_CACHE = new ToolPathCache();
+
+    /**
+     * The maximum time to spend on optimizing the order of the tool paths
+     */
+    private static final long OPTIMIZE_TIME_LIMIT_MILLIS = 2000;
+
     private final Settings settings;
+    private final ToolPathCache toolPathCache;
 
     public SimpleGcodeRouter(Settings settings) {
+        this(settings, TOOL_PATH_CACHE);
+    }
+
+    public SimpleGcodeRouter(Settings settings, ToolPathCache toolPathCache) {
         this.settings = settings;
+        this.toolPathCache = toolPathCache;
     }
 
     protected String toGcode(GcodePath gcodePath) throws IOException {
-        ToolPathStats toolPathStats = ToolPathUtils.getToolPathStats(gcodePath);
-        LOGGER.info("Generated a tool path with total length of " + Math.round(toolPathStats.getTotalFeedLength()) + "mm and " + Math.round(toolPathStats.getTotalRapidLength()) + "mm of rapid movement" );
-
         StringWriter stringWriter = new StringWriter();
         toGcode(stringWriter, gcodePath);
-        stringWriter.flush();
         return stringWriter.toString();
     }
 
     public String toGcode(List<Cuttable> entities) {
-        StringBuilder result = new StringBuilder(HEADER +
+        StringWriter stringWriter = new StringWriter();
+        try {
+            toGcode(stringWriter, entities);
+        } catch (IOException e) {
+            throw new RuntimeException("An error occured while trying to generate gcode", e);
+        }
+        return stringWriter.toString();
+    }
+
+    /**
+     * Generates the gcode for the given entities and writes it to the writer. The tool paths of the entities are
+     * generated in parallel but written in the same order as the entities.
+     *
+     * @param writer   the writer to write the gcode to
+     * @param entities the entities to generate gcode for
+     * @throws IOException if the gcode could not be written
+     */
+    public void toGcode(Writer writer, List<Cuttable> entities) throws IOException {
+        writer.write(HEADER +
                 generateToolHeader() + "\n" +
                 Code.G21.name() + " ; millimeters\n" +
                 Code.G90.name() + " ; absolute coordinate\n" +
@@ -71,74 +105,109 @@ public class SimpleGcodeRouter {
                 Code.G94.name() + " ; units per minute feed rate mode\n"
         );
 
-        result.append("\n" );
+        writer.write("\n" );
+        toGcode(writer, getGcodePathFromCuttables(entities));
 
-        try {
-            result.append(toGcode(getGcodePathFromCuttables(entities)));
-        } catch (IOException e) {
-            throw new RuntimeException("An error occured while trying to generate gcode", e);
+        writer.write("\n; Turning off spindle\n" );
+        writer.write(Code.M5.name() + "\n" );
+        writer.flush();
+    }
+
+    private GcodePath getGcodePathFromCuttables(List<Cuttable> cuttables) {
+        // Creating the keys reads the shapes of the entities, which is done before entering the worker threads
+        List<ToolPathCache.Key> keys = cuttables.stream()
+                .map(cuttable -> ToolPathCache.createKey(settings, cuttable))
+                .collect(Collectors.toList());
+
+        List<GcodePath> toolPaths = IntStream.range(0, cuttables.size())
+                .parallel()
+                .mapToObj(i -> toolPathCache.get(keys.get(i), () -> getGcodePathFromCuttable(cuttables.get(i))))
+                .collect(Collectors.toList());
+
+        int[] order = IntStream.range(0, cuttables.size()).toArray();
+        if (settings.getOptimizePathOrder()) {
+            order = getOptimizedOrder(cuttables, toolPaths);
         }
 
-        result.append("\n; Turning off spindle\n" )
-                .append(Code.M5.name()).append("\n" );
-        return result.toString();
+        GcodePath gcodePath = new GcodePath();
+        for (int i = 0; i < order.length; i++) {
+            Cuttable cuttable = cuttables.get(order[i]);
+            gcodePath.addSegment(new Segment(" " + cuttable.getName() + " - " + cuttable.getCutType().getName() + " (" + (i + 1) + "/" + cuttables.size() + ")" ));
+            gcodePath.appendGcodePath(toolPaths.get(order[i]));
+        }
+        return gcodePath;
     }
 
-    private GcodePath getGcodePathFromCuttables(List<Cuttable> cuttables) {
+    private int[] getOptimizedOrder(List<Cuttable> cuttables, List<GcodePath> toolPaths) {
+        List<Rectangle2D> bounds = cuttables.stream()
+                .map(cuttable -> cuttable.getShape().getBounds2D())
+                .collect(Collectors.toList());
+        int[] order = new ToolPathOrderOptimizer(OPTIMIZE_TIME_LIMIT_MILLIS).optimize(toolPaths, bounds);
+
+        double rapidLength = ToolPathUtils.getToolPathStats(joinToolPaths(toolPaths, IntStream.range(0, toolPaths.size()).toArray())).getTotalRapidLength();
+        double optimizedRapidLength = ToolPathUtils.getToolPathStats(joinToolPaths(toolPaths, order)).getTotalRapidLength();
+        LOGGER.info("Optimized the tool path order, reducing the rapid movement from " + Math.round(rapidLength) + "mm to " + Math.round(optimizedRapidLength) + "mm" );
+        return order;
+    }
+
+    private static GcodePath joinToolPaths(List<GcodePath> toolPaths, int[] order) {
+        GcodePath result = new GcodePath();
+        for (int index : order) {
+            result.appendGcodePath(toolPaths.get(index));
+        }
+        return result;
+    }
+
+    private GcodePath getGcodePathFromCuttable(Cuttable cuttable) {
         GcodePath gcodePath = new GcodePath();
-        int index = 0;
-        for (Cuttable cuttable : cuttables) {
-            index++;
-            gcodePath.addSegment(new Segment(" " + cuttable.getName() + " - " + cuttable.getCutType().getName() + " (" + index + "/" + cuttables.size() + ")" ));
-            switch (cuttable.getCutType()) {
-                case POCKET:
-                    PocketToolPath simplePocket = new PocketToolPath(settings, cuttable);
-                    simplePocket.setStartDepth(cuttable.getStartDepth());
-                    simplePocket.setTargetDepth(cuttable.getTargetDepth());
-                    simplePocket.appendGcodePath(gcodePath, settings);
-                    break;
-                case SURFACE:
-                    SurfaceToolPath surfaceToolPath = new SurfaceToolPath(settings, cuttable);
-                    surfaceToolPath.setStartDepth(cuttable.getStartDepth());
-                    surfaceToolPath.setTargetDepth(cuttable.getTargetDepth());
-                    surfaceToolPath.appendGcodePath(gcodePath, settings);
-                    break;
-                case OUTSIDE_PATH:
-                    OutlineToolPath simpleOutsidePath = new OutlineToolPath(settings, cuttable);
-                    simpleOutsidePath.setOffset(settings.getToolDiameter() / 2d);
-                    simpleOutsidePath.setStartDepth(cuttable.getStartDepth());
-                    simpleOutsidePath.setTargetDepth(cuttable.getTargetDepth());
-                    simpleOutsidePath.appendGcodePath(gcodePath, settings);
-                    break;
-                case INSIDE_PATH:
-                    OutlineToolPath simpleInsidePath = new OutlineToolPath(settings, cuttable);
-                    simpleInsidePath.setOffset(-settings.getToolDiameter() / 2d);
-                    simpleInsidePath.setStartDepth(cuttable.getStartDepth());
-                    simpleInsidePath.setTargetDepth(cuttable.getTargetDepth());
-                    simpleInsidePath.appendGcodePath(gcodePath, settings);
-                    break;
-                case ON_PATH:
-                    OutlineToolPath simpleOnPath = new OutlineToolPath(settings, cuttable);
-                    simpleOnPath.setStartDepth(cuttable.getStartDepth());
-                    simpleOnPath.setTargetDepth(cuttable.getTargetDepth());
-                    simpleOnPath.appendGcodePath(gcodePath, settings);
-                    break;
-                case CENTER_DRILL:
-                    DrillCenterToolPath drillToolPath = new DrillCenterToolPath(settings, cuttable);
-                    drillToolPath.setStartDepth(cuttable.getStartDepth());
-                    drillToolPath.setTargetDepth(cuttable.getTargetDepth());
-                    drillToolPath.appendGcodePath(gcodePath, settings);
-                    break;
-                case LASER_ON_PATH:
-                    LaserOutlineToolPath laserOutlineToolPath = new LaserOutlineToolPath(settings, cuttable);
-                    laserOutlineToolPath.appendGcodePath(gcodePath, settings);
-                    break;
-                case LASER_FILL:
-                    LaserFillToolPath laserFillToolPath = new LaserFillToolPath(settings, cuttable);
-                    laserFillToolPath.appendGcodePath(gcodePath, settings);
-                    break;
-                default:
-            }
+        switch (cuttable.getCutType()) {
+            case POCKET:
+                PocketToolPath simplePocket = new PocketToolPath(settings, cuttable);
+                simplePocket.setStartDepth(cuttable.getStartDepth());
+                simplePocket.setTargetDepth(cuttable.getTargetDepth());
+                simplePocket.appendGcodePath(gcodePath, settings);
+                break;
+            case SURFACE:
+                SurfaceToolPath surfaceToolPath = new SurfaceToolPath(settings, cuttable);
+                surfaceToolPath.setStartDepth(cuttable.getStartDepth());
+                surfaceToolPath.setTargetDepth(cuttable.getTargetDepth());
+                surfaceToolPath.appendGcodePath(gcodePath, settings);
+                break;
+            case OUTSIDE_PATH:
+                OutlineToolPath simpleOutsidePath = new OutlineToolPath(settings, cuttable);
+                simpleOutsidePath.setOffset(settings.getToolDiameter() / 2d);
+                simpleOutsidePath.setStartDepth(cuttable.getStartDepth());
+                simpleOutsidePath.setTargetDepth(cuttable.getTargetDepth());
+                simpleOutsidePath.appendGcodePath(gcodePath, settings);
+                break;
+            case INSIDE_PATH:
+                OutlineToolPath simpleInsidePath = new OutlineToolPath(settings, cuttable);
+                simpleInsidePath.setOffset(-settings.getToolDiameter() / 2d);
+                simpleInsidePath.setStartDepth(cuttable.getStartDepth());
+                simpleInsidePath.setTargetDepth(cuttable.getTargetDepth());
+                simpleInsidePath.appendGcodePath(gcodePath, settings);
+                break;
+            case ON_PATH:
+                OutlineToolPath simpleOnPath = new OutlineToolPath(settings, cuttable);
+                simpleOnPath.setStartDepth(cuttable.getStartDepth());
+                simpleOnPath.setTargetDepth(cuttable.getTargetDepth());
+                simpleOnPath.appendGcodePath(gcodePath, settings);
+                break;
+            case CENTER_DRILL:
+                DrillCenterToolPath drillToolPath = new DrillCenterToolPath(settings, cuttable);
+                drillToolPath.setStartDepth(cuttable.getStartDepth());
+                drillToolPath.setTargetDepth(cuttable.getTargetDepth());
+                drillToolPath.appendGcodePath(gcodePath, settings);
+                break;
+            case LASER_ON_PATH:
+                LaserOutlineToolPath laserOutlineToolPath = new LaserOutlineToolPath(settings, cuttable);
+                laserOutlineToolPath.appendGcodePath(gcodePath, settings);
+                break;
+            case LASER_FILL:
+                LaserFillToolPath laserFillToolPath = new LaserFillToolPath(settings, cuttable);
+                laserFillToolPath.appendGcodePath(gcodePath, settings);
+                break;
+            default:
         }
         return gcodePath;
     }
@@ -152,6 +221,9 @@ public class SimpleGcodeRouter {
     }
 
     protected void toGcode(Writer writer, GcodePath path) throws IOException {
+        ToolPathStats toolPathStats = ToolPathUtils.getToolPathStats(path);
+        LOGGER.info("Generated a tool path with total length of " + Math.round(toolPathStats.getTotalFeedLength()) + "mm and " + Math.round(toolPathStats.getTotalRapidLength()) + "mm of rapid movement" );
+
         List<Segment> segments = path.getSegments();
         runPath(writer, segments);
         writer.flush();
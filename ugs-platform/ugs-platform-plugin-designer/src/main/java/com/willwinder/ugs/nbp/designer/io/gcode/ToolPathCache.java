@@ -0,0 +1,211 @@
+/*
+    Copyright 2026 agent
+
+    This file is part of Universal Gcode Sender (UGS).
+
+    UGS is free software: you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    UGS is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with UGS.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.willwinder.ugs.nbp.designer.io.gcode;
+
+import com.willwinder.ugs.nbp.designer.entities.cuttable.CutType;
+import com.willwinder.ugs.nbp.designer.entities.cuttable.Cuttable;
+import com.willwinder.ugs.nbp.designer.io.gcode.path.GcodePath;
+import com.willwinder.ugs.nbp.designer.model.Settings;
+
+import java.awt.geom.PathIterator;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Supplier;
+
+/**
+ * A cache with the tool paths generated for cuttables, making it possible to only generate the tool paths of the
+ * entities that has changed since the last export. The tool paths are keyed on the shape of the entity together
+ * with its cut settings and the tool settings. The least recently used tool paths are removed when the total
+ * number of cached segments exceeds the limit.
+ *
+ * @author agent
+ */
+public class ToolPathCache {
+    private static final int DEFAULT_MAX_SEGMENTS = 250_000;
+
+    private final int maxSegments;
+    private final Map<Key, GcodePath> toolPaths = new LinkedHashMap<>(16, 0.75f, true);
+    private int segmentCount;
+
+    public ToolPathCache() {
+        this(DEFAULT_MAX_SEGMENTS);
+    }
+
+    /**
+     * @param maxSegments the maximum number of segments of all cached tool paths
+     */
+    public ToolPathCache(int maxSegments) {
+        this.maxSegments = maxSegments;
+    }
+
+    /**
+     * Creates a key with everything that affects the tool path of the cuttable. This reads the shape of the
+     * cuttable and should be done from the thread owning the entity.
+     *
+     * @param settings the tool settings
+     * @param cuttable the cuttable to create a key for
+     * @return a key for the tool path of the cuttable
+     */
+    public static Key createKey(Settings settings, Cuttable cuttable) {
+        PathIterator pathIterator = cuttable.getShape().getPathIterator(null);
+        int[] segmentTypes = new int[16];
+        double[] coordinates = new double[64];
+        int segmentCount = 0;
+        int coordinateCount = 0;
+        double[] segment = new double[6];
+        while (!pathIterator.isDone()) {
+            int type = pathIterator.currentSegment(segment);
+            int length = getCoordinateCount(type);
+            if (segmentCount == segmentTypes.length) {
+                segmentTypes = Arrays.copyOf(segmentTypes, segmentCount * 2);
+            }
+            if (coordinateCount + length > coordinates.length) {
+                coordinates = Arrays.copyOf(coordinates, coordinates.length * 2);
+            }
+
+            segmentTypes[segmentCount++] = type;
+            System.arraycopy(segment, 0, coordinates, coordinateCount, length);
+            coordinateCount += length;
+            pathIterator.next();
+        }
+
+        return new Key(cuttable.getCutType(), cuttable.getStartDepth(), cuttable.getTargetDepth(),
+                cuttable.getSpindleSpeed(), cuttable.getFeedRate(), cuttable.getPasses(),
+                cuttable.getLeadInPercent(), cuttable.getLeadOutPercent(),
+                settings.getToolDiameter(), settings.getDepthPerPass(), settings.getToolStepOver(),
+                settings.getSafeHeight(), settings.getLaserDiameter(), settings.getMaxSpindleSpeed(),
+                Arrays.copyOf(segmentTypes, segmentCount), Arrays.copyOf(coordinates, coordinateCount));
+    }
+
+    private static int getCoordinateCount(int segmentType) {
+        switch (segmentType) {
+            case PathIterator.SEG_MOVETO:
+            case PathIterator.SEG_LINETO:
+                return 2;
+            case PathIterator.SEG_QUADTO:
+                return 4;
+            case PathIterator.SEG_CUBICTO:
+                return 6;
+            default:
+                return 0;
+        }
+    }
+
+    /**
+     * Returns the cached tool path for the key, or generates and caches it if missing. The tool path is generated
+     * without holding the lock of the cache so that several tool paths can be generated at the same time.
+     *
+     * @param key       the key of the tool path
+     * @param generator a function generating the tool path
+     * @return the tool path, which must not be modified
+     */
+    public GcodePath get(Key key, Supplier<GcodePath> generator) {
+        synchronized (this) {
+            GcodePath toolPath = toolPaths.get(key);
+            if (toolPath != null) {
+                return toolPath;
+            }
+        }
+
+        GcodePath toolPath = generator.get();
+        put(key, toolPath);
+        return toolPath;
+    }
+
+    private synchronized void put(Key key, GcodePath toolPath) {
+        if (toolPath.getSize() > maxSegments) {
+            return;
+        }
+
+        GcodePath previous = toolPaths.put(key, toolPath);
+        segmentCount += toolPath.getSize() - (previous == null ? 0 : previous.getSize());
+
+        Iterator<GcodePath> iterator = toolPaths.values().iterator();
+        while (segmentCount > maxSegments && iterator.hasNext()) {
+            segmentCount -= iterator.next().getSize();
+            iterator.remove();
+        }
+    }
+
+    /**
+     * @return the number of cached tool paths
+     */
+    public synchronized int size() {
+        return toolPaths.size();
+    }
+
+    /**
+     * Removes all cached tool paths
+     */
+    public synchronized void clear() {
+        toolPaths.clear();
+        segmentCount = 0;
+    }
+
+    /**
+     * Everything that the tool path of a cuttable depends on
+     */
+    public record Key(CutType cutType, double startDepth, double targetDepth, int spindleSpeed, int feedRate,
+                      int passes, int leadInPercent, int leadOutPercent, double toolDiameter, double depthPerPass,
+                      double toolStepOver, double safeHeight, double laserDiameter, int maxSpindleSpeed,
+                      int[] segmentTypes, double[] coordinates) {
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof Key key)) {
+                return false;
+            }
+            return cutType == key.cutType &&
+                    Double.compare(startDepth, key.startDepth) == 0 &&
+                    Double.compare(targetDepth, key.targetDepth) == 0 &&
+                    spindleSpeed == key.spindleSpeed &&
+                    feedRate == key.feedRate &&
+                    passes == key.passes &&
+                    leadInPercent == key.leadInPercent &&
+                    leadOutPercent == key.leadOutPercent &&
+                    Double.compare(toolDiameter, key.toolDiameter) == 0 &&
+                    Double.compare(depthPerPass, key.depthPerPass) == 0 &&
+                    Double.compare(toolStepOver, key.toolStepOver) == 0 &&
+                    Double.compare(safeHeight, key.safeHeight) == 0 &&
+                    Double.compare(laserDiameter, key.laserDiameter) == 0 &&
+                    maxSpindleSpeed == key.maxSpindleSpeed &&
+                    Arrays.equals(segmentTypes, key.segmentTypes) &&
+                    Arrays.equals(coordinates, key.coordinates);
+        }
+
+        @Override
+        public int hashCode() {
+            int result = Objects.hash(cutType, startDepth, targetDepth, spindleSpeed, feedRate, passes, leadInPercent,
+                    leadOutPercent, toolDiameter, depthPerPass, toolStepOver, safeHeight, laserDiameter, maxSpindleSpeed);
+            result = 31 * result + Arrays.hashCode(segmentTypes);
+            return 31 * result + Arrays.hashCode(coordinates);
+        }
+
+        @Override
+        public String toString() {
+            return "Key{cutType=" + cutType + ", segments=" + segmentTypes.length + "}";
+        }
+    }
+}
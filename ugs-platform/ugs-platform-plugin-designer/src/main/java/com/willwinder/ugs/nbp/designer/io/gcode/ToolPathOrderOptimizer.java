@@ -0,0 +1,275 @@
+/*
+    Copyright 2026 agent
+
+    This file is part of Universal Gcode Sender (UGS).
+
+    UGS is free software: you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    UGS is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with UGS.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.willwinder.ugs.nbp.designer.io.gcode;
+
+import com.willwinder.ugs.nbp.designer.io.gcode.path.GcodePath;
+import com.willwinder.ugs.nbp.designer.io.gcode.path.Segment;
+import com.willwinder.universalgcodesender.model.PartialPosition;
+
+import java.awt.geom.Point2D;
+import java.awt.geom.Rectangle2D;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Reorders the tool paths of the cuttables to minimize the rapid movements in between them. The order is first
+ * built by picking the nearest tool path and is then improved with 2-opt moves until no improvement can be
+ * found or the time limit is reached.
+ * <p>
+ * Tool paths of entities that are inside of another entity are always cut before the outer one, as a part could
+ * otherwise come loose before its holes are cut.
+ *
+ * @author agent
+ */
+public class ToolPathOrderOptimizer {
+    private static final double MIN_IMPROVEMENT = 0.001;
+
+    private final long timeLimitMillis;
+
+    /**
+     * @param timeLimitMillis the maximum time to spend on improving the order in milliseconds
+     */
+    public ToolPathOrderOptimizer(long timeLimitMillis) {
+        this.timeLimitMillis = timeLimitMillis;
+    }
+
+    /**
+     * Finds an order of the tool paths with short rapid movements in between them, starting from the origin.
+     *
+     * @param toolPaths the tool paths to order
+     * @param bounds    the bounds of the entity of each tool path, used for finding entities inside of others
+     * @return the indexes of the tool paths in the order they should be cut
+     */
+    public int[] optimize(List<GcodePath> toolPaths, List<Rectangle2D> bounds) {
+        long deadline = System.currentTimeMillis() + timeLimitMillis;
+
+        // Tool paths without any positions can be placed anywhere, they are added last
+        List<Integer> indexes = new ArrayList<>();
+        List<Integer> emptyIndexes = new ArrayList<>();
+        List<Point2D> starts = new ArrayList<>();
+        List<Point2D> ends = new ArrayList<>();
+        for (int i = 0; i < toolPaths.size(); i++) {
+            Point2D start = getFirstPosition(toolPaths.get(i));
+            if (start == null) {
+                emptyIndexes.add(i);
+            } else {
+                indexes.add(i);
+                starts.add(start);
+                ends.add(getLastPosition(toolPaths.get(i)));
+            }
+        }
+
+        Route route = new Route(starts, ends, getDependencies(indexes, bounds));
+        route.buildNearestNeighbor();
+        route.improve(deadline);
+
+        int[] result = new int[toolPaths.size()];
+        int position = 0;
+        for (int block : route.order) {
+            result[position++] = indexes.get(block);
+        }
+        for (int index : emptyIndexes) {
+            result[position++] = index;
+        }
+        return result;
+    }
+
+    /**
+     * Finds the tool paths that needs to be cut before others. An entity that is within the bounds of another
+     * entity must be cut before it, entities with the same bounds are kept in their original order.
+     *
+     * @return a list of tool paths that each tool path must be cut before
+     */
+    private static List<List<Integer>> getDependencies(List<Integer> indexes, List<Rectangle2D> bounds) {
+        List<List<Integer>> successors = new ArrayList<>();
+        for (int i = 0; i < indexes.size(); i++) {
+            Rectangle2D inner = bounds.get(indexes.get(i));
+            List<Integer> blockSuccessors = new ArrayList<>();
+            for (int j = 0; j < indexes.size(); j++) {
+                Rectangle2D outer = bounds.get(indexes.get(j));
+                if (i != j && outer.contains(inner) && (!inner.contains(outer) || i < j)) {
+                    blockSuccessors.add(j);
+                }
+            }
+            successors.add(blockSuccessors);
+        }
+        return successors;
+    }
+
+    private static Point2D getFirstPosition(GcodePath toolPath) {
+        Point2D result = null;
+        for (Segment segment : toolPath.getSegments()) {
+            result = toPoint(segment.getPoint());
+            if (result != null) {
+                break;
+            }
+        }
+        return result;
+    }
+
+    private static Point2D getLastPosition(GcodePath toolPath) {
+        List<Segment> segments = toolPath.getSegments();
+        Point2D result = null;
+        for (int i = segments.size() - 1; i >= 0 && result == null; i--) {
+            result = toPoint(segments.get(i).getPoint());
+        }
+        return result;
+    }
+
+    private static Point2D toPoint(PartialPosition position) {
+        if (position == null || !position.hasX() || !position.hasY()) {
+            return null;
+        }
+        return new Point2D.Double(position.getX(), position.getY());
+    }
+
+    /**
+     * The order of the tool paths with the costs needed for evaluating 2-opt moves in constant time
+     */
+    private static class Route {
+        private static final Point2D ORIGIN = new Point2D.Double(0, 0);
+
+        private final List<Point2D> starts;
+        private final List<Point2D> ends;
+        private final List<List<Integer>> successors;
+        private final List<List<Integer>> related;
+        private final int[] order;
+        private final int[] positions;
+
+        /**
+         * The accumulated cost of moving from the end of the previous tool path to the start of each tool path
+         */
+        private final double[] forwardCosts;
+
+        /**
+         * The accumulated cost of moving from the end of each tool path to the start of the previous one,
+         * used for getting the cost of a reversed part of the route
+         */
+        private final double[] reversedCosts;
+
+        Route(List<Point2D> starts, List<Point2D> ends, List<List<Integer>> successors) {
+            this.starts = starts;
+            this.ends = ends;
+            this.successors = successors;
+            this.order = new int[starts.size()];
+            this.positions = new int[starts.size()];
+            this.forwardCosts = new double[starts.size()];
+            this.reversedCosts = new double[starts.size()];
+
+            related = new ArrayList<>();
+            starts.forEach(start -> related.add(new ArrayList<>()));
+            for (int block = 0; block < successors.size(); block++) {
+                for (int successor : successors.get(block)) {
+                    related.get(block).add(successor);
+                    related.get(successor).add(block);
+                }
+            }
+        }
+
+        /**
+         * Builds the route by always moving to the closest tool path that has all its dependencies cut
+         */
+        void buildNearestNeighbor() {
+            int[] predecessorCounts = new int[starts.size()];
+            successors.forEach(blockSuccessors -> blockSuccessors.forEach(successor -> predecessorCounts[successor]++));
+
+            boolean[] visited = new boolean[starts.size()];
+            Point2D position = ORIGIN;
+            for (int i = 0; i < order.length; i++) {
+                int closest = -1;
+                double closestDistance = Double.MAX_VALUE;
+                for (int block = 0; block < starts.size(); block++) {
+                    double distance = position.distance(starts.get(block));
+                    if (!visited[block] && predecessorCounts[block] == 0 && distance < closestDistance) {
+                        closest = block;
+                        closestDistance = distance;
+                    }
+                }
+
+                visited[closest] = true;
+                order[i] = closest;
+                position = ends.get(closest);
+                successors.get(closest).forEach(successor -> predecessorCounts[successor]--);
+            }
+            updatePositions();
+        }
+
+        /**
+         * Reverses parts of the route as long as it makes the route shorter and there is time left
+         */
+        void improve(long deadline) {
+            boolean improved = true;
+            while (improved && System.currentTimeMillis() < deadline) {
+                improved = false;
+                for (int i = 0; i < order.length - 1 && System.currentTimeMillis() < deadline; i++) {
+                    for (int j = i + 1; j < order.length; j++) {
+                        if (getReverseCost(i, j) < -MIN_IMPROVEMENT && canReverse(i, j)) {
+                            reverse(i, j);
+                            improved = true;
+                        }
+                    }
+                }
+            }
+        }
+
+        private double getReverseCost(int i, int j) {
+            Point2D previousEnd = i == 0 ? ORIGIN : ends.get(order[i - 1]);
+            double oldCost = previousEnd.distance(starts.get(order[i])) + forwardCosts[j] - forwardCosts[i];
+            double newCost = previousEnd.distance(starts.get(order[j])) + reversedCosts[j] - reversedCosts[i];
+            if (j < order.length - 1) {
+                Point2D nextStart = starts.get(order[j + 1]);
+                oldCost += ends.get(order[j]).distance(nextStart);
+                newCost += ends.get(order[i]).distance(nextStart);
+            }
+            return newCost - oldCost;
+        }
+
+        /**
+         * Reversing a part of the route changes the order between all tool paths within it, which is not allowed
+         * if any of them depends on another
+         */
+        private boolean canReverse(int i, int j) {
+            for (int k = i; k <= j; k++) {
+                for (int other : related.get(order[k])) {
+                    if (positions[other] >= i && positions[other] <= j) {
+                        return false;
+                    }
+                }
+            }
+            return true;
+        }
+
+        private void reverse(int i, int j) {
+            for (; i < j; i++, j--) {
+                int block = order[i];
+                order[i] = order[j];
+                order[j] = block;
+            }
+            updatePositions();
+        }
+
+        private void updatePositions() {
+            for (int i = 0; i < order.length; i++) {
+                positions[order[i]] = i;
+                forwardCosts[i] = i == 0 ? 0 : forwardCosts[i - 1] + ends.get(order[i - 1]).distance(starts.get(order[i]));
+                reversedCosts[i] = i == 0 ? 0 : reversedCosts[i - 1] + ends.get(order[i]).distance(starts.get(order[i - 1]));
+            }
+        }
+    }
+}
@@ -38,6 +38,7 @@ public class Settings {
     private double laserDiameter = 0.2;
     private int maxSpindleSpeed = 255;
     private boolean detectMaxSpindleSpeed = true;
+    private boolean optimizePathOrder = false;
 
     public Settings() {
     }
@@ -188,6 +189,7 @@ public class Settings {
         setLaserDiameter(settings.getLaserDiameter());
         setMaxSpindleSpeed(settings.getMaxSpindleSpeed());
         setDetectMaxSpindleSpeed(settings.getDetectMaxSpindleSpeed());
+        setOptimizePathOrder(settings.getOptimizePathOrder());
 
     }
 
@@ -220,4 +222,19 @@ public class Settings {
         this.detectMaxSpindleSpeed = detectMaxSpindleSpeed;
         notifyListeners();
     }
+
+    public boolean getOptimizePathOrder() {
+        return optimizePathOrder;
+    }
+
+    /**
+     * If the tool paths should be reordered to minimize the rapid movements instead of being cut in the order
+     * of the entities
+     *
+     * @param optimizePathOrder true to reorder the tool paths
+     */
+    public void setOptimizePathOrder(boolean optimizePathOrder) {
+        this.optimizePathOrder = optimizePathOrder;
+        notifyListeners();
+    }
 }
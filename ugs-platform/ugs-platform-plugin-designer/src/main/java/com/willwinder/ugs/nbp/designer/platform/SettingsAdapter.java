@@ -30,6 +30,7 @@ public class SettingsAdapter {
     private static final Preferences preferences = NbPreferences.forModule(DesignerTopComponent.class);
     private static final String MAX_SPINDLE_SPEED = "maxSpindleSpeed";
     private static final String DETECT_MAX_SPINDLE_SPEED = "detectMaxSpindleSpeed";
+    private static final String OPTIMIZE_PATH_ORDER = "optimizePathOrder";
     private static final String LASER_DIAMETER = "laserDiameter";
     private static final String FEED_SPEED = "feedSpeed";
     private static final String PLUNGE_SPEED = "plungeSpeed";
@@ -45,6 +46,7 @@ public class SettingsAdapter {
         Settings settings = new Settings();
         settings.setMaxSpindleSpeed(preferences.getInt(MAX_SPINDLE_SPEED, 255));
         settings.setDetectMaxSpindleSpeed(preferences.getBoolean(DETECT_MAX_SPINDLE_SPEED, true));
+        settings.setOptimizePathOrder(preferences.getBoolean(OPTIMIZE_PATH_ORDER, false));
         settings.setLaserDiameter(preferences.getDouble(LASER_DIAMETER, 0.2d));
         settings.setDepthPerPass(preferences.getDouble(DEPTH_PER_PASS, 1d));
         settings.setFeedSpeed(preferences.getInt(FEED_SPEED, 1000));
@@ -59,6 +61,7 @@ public class SettingsAdapter {
     public static void saveSettings(Settings settings) {
         preferences.putInt(MAX_SPINDLE_SPEED, settings.getMaxSpindleSpeed());
         preferences.putBoolean(DETECT_MAX_SPINDLE_SPEED, settings.getDetectMaxSpindleSpeed());
+        preferences.putBoolean(OPTIMIZE_PATH_ORDER, settings.getOptimizePathOrder());
         preferences.putDouble(LASER_DIAMETER, settings.getLaserDiameter());
         preferences.putDouble(DEPTH_PER_PASS, settings.getDepthPerPass());
         preferences.putInt(FEED_SPEED, settings.getFeedSpeed());
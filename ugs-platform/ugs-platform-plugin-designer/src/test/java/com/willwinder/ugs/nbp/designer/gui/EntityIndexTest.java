@@ -0,0 +1,173 @@
+/*
+    Copyright 2026 agent
+
+    This file is part of Universal Gcode Sender (UGS).
+
+    UGS is free software: you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    UGS is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with UGS.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.willwinder.ugs.nbp.designer.gui;
+
+import com.willwinder.ugs.nbp.designer.entities.Entity;
+import com.willwinder.ugs.nbp.designer.entities.EntityGroup;
+import com.willwinder.ugs.nbp.designer.entities.cuttable.Group;
+import com.willwinder.ugs.nbp.designer.entities.cuttable.Rectangle;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import org.junit.Test;
+
+import java.awt.geom.Point2D;
+import java.awt.geom.Rectangle2D;
+import java.util.List;
+import java.util.Random;
+
+public class EntityIndexTest {
+
+    @Test
+    public void queryShouldReturnEntitiesInRenderOrder() {
+        EntityGroup root = new EntityGroup();
+        Rectangle first = createRectangle(0, 0);
+        Rectangle second = createRectangle(5, 5);
+        Rectangle third = createRectangle(100, 100);
+        root.addChild(first);
+        root.addChild(second);
+        root.addChild(third);
+
+        EntityIndex entityIndex = new EntityIndex(root);
+        root.addListener(entityIndex);
+
+        assertEquals(List.of(first, second), entityIndex.query(new Rectangle2D.Double(6, 6, 1, 1)));
+        assertEquals(List.of(third), entityIndex.query(new Rectangle2D.Double(105, 105, 1, 1)));
+        assertTrue(entityIndex.query(new Rectangle2D.Double(50, 50, 1, 1)).isEmpty());
+    }
+
+    @Test
+    public void queryShouldFollowMovedEntitiesAndGroups() {
+        EntityGroup root = new EntityGroup();
+        Rectangle rectangle = createRectangle(0, 0);
+        Group group = new Group();
+        Rectangle groupedRectangle = createRectangle(20, 0);
+        group.addChild(groupedRectangle);
+        root.addChild(rectangle);
+        root.addChild(group);
+
+        EntityIndex entityIndex = new EntityIndex(root);
+        root.addListener(entityIndex);
+        assertEquals(2, entityIndex.size());
+
+        rectangle.move(new Point2D.Double(50, 0));
+        assertTrue(entityIndex.query(new Rectangle2D.Double(1, 1, 1, 1)).isEmpty());
+        assertEquals(List.of(rectangle), entityIndex.query(new Rectangle2D.Double(51, 1, 1, 1)));
+
+        group.move(new Point2D.Double(0, 50));
+        assertTrue(entityIndex.query(new Rectangle2D.Double(21, 1, 1, 1)).isEmpty());
+        assertEquals(List.of(groupedRectangle), entityIndex.query(new Rectangle2D.Double(21, 51, 1, 1)));
+    }
+
+    @Test
+    public void queryShouldRebuildWhenInvalidated() {
+        EntityGroup root = new EntityGroup();
+        EntityIndex entityIndex = new EntityIndex(root);
+        root.addListener(entityIndex);
+        assertEquals(0, entityIndex.size());
+
+        Rectangle rectangle = createRectangle(0, 0);
+        root.addChild(rectangle);
+        entityIndex.invalidate();
+        assertEquals(List.of(rectangle), entityIndex.query(new Rectangle2D.Double(1, 1, 1, 1)));
+    }
+
+    @Test
+    public void addAndRemoveShouldUpdateTheIndexWithoutRebuildingIt() {
+        EntityGroup root = new EntityGroup();
+        Rectangle first = createRectangle(0, 0);
+        root.addChild(first);
+        EntityIndex entityIndex = new EntityIndex(root);
+        root.addListener(entityIndex);
+        assertEquals(1, entityIndex.size());
+
+        // The entities are not added to the root, so they can only be found if the index is updated
+        Group group = new Group();
+        Rectangle grouped = createRectangle(5, 5);
+        group.addChild(grouped);
+        Rectangle second = createRectangle(5, 5);
+        entityIndex.add(group);
+        entityIndex.add(second);
+        assertEquals(List.of(first, grouped, second), entityIndex.query(new Rectangle2D.Double(6, 6, 1, 1)));
+
+        entityIndex.remove(first);
+        entityIndex.remove(group);
+        assertEquals(List.of(second), entityIndex.query(new Rectangle2D.Double(6, 6, 1, 1)));
+        assertEquals(1, entityIndex.size());
+    }
+
+    @Test
+    public void getChangedAreaShouldContainTheBoundsBeforeAndAfterTheChange() {
+        EntityGroup root = new EntityGroup();
+        Rectangle rectangle = createRectangle(0, 0);
+        Rectangle other = createRectangle(100, 100);
+        root.addChild(rectangle);
+        root.addChild(other);
+        EntityIndex entityIndex = new EntityIndex(root);
+        root.addListener(entityIndex);
+
+        // Changes made before the index was built are unknown
+        rectangle.move(new Point2D.Double(10, 0));
+        assertTrue(entityIndex.getChangedArea().isEmpty());
+
+        assertEquals(2, entityIndex.size());
+        entityIndex.clearChangedArea();
+        assertTrue(entityIndex.getChangedArea().isEmpty());
+
+        rectangle.move(new Point2D.Double(10, 0));
+        rectangle.move(new Point2D.Double(10, 0));
+        Rectangle2D changedArea = entityIndex.getChangedArea().orElseThrow();
+        assertEquals(10, changedArea.getMinX(), 0.1);
+        assertEquals(40, changedArea.getMaxX(), 0.1);
+        assertEquals(0, changedArea.getMinY(), 0.1);
+        assertEquals(10, changedArea.getMaxY(), 0.1);
+
+        entityIndex.clearChangedArea();
+        entityIndex.invalidate();
+        assertTrue(entityIndex.getChangedArea().isEmpty());
+    }
+
+    @Test
+    public void queryShouldContainAllEntitiesFoundByTheGroup() {
+        Random random = new Random(1);
+        EntityGroup root = new EntityGroup();
+        for (int i = 0; i < 1000; i++) {
+            root.addChild(createRectangle(random.nextInt(1000), random.nextInt(1000)));
+        }
+
+        EntityIndex entityIndex = new EntityIndex(root);
+        root.addListener(entityIndex);
+        root.getChildren().stream().limit(100).forEach(entity -> entity.move(new Point2D.Double(random.nextInt(100), random.nextInt(100))));
+
+        for (int i = 0; i < 100; i++) {
+            Point2D point = new Point2D.Double(random.nextInt(1100), random.nextInt(1100));
+            List<Entity> expected = root.getChildrenAt(point);
+            List<Entity> actual = entityIndex.query(new Rectangle2D.Double(point.getX() - 1, point.getY() - 1, 2, 2)).stream()
+                    .filter(entity -> entity.isWithin(point))
+                    .toList();
+            assertEquals(expected, actual);
+        }
+    }
+
+    private static Rectangle createRectangle(double x, double y) {
+        Rectangle rectangle = new Rectangle(x, y);
+        rectangle.setWidth(10);
+        rectangle.setHeight(10);
+        return rectangle;
+    }
+}
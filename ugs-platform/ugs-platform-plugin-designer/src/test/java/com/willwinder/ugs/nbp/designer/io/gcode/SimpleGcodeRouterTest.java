@@ -0,0 +1,104 @@
+/*
+    Copyright 2026 agent
+
+    This file is part of Universal Gcode Sender (UGS).
+
+    UGS is free software: you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    UGS is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with UGS.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.willwinder.ugs.nbp.designer.io.gcode;
+
+import com.willwinder.ugs.nbp.designer.entities.cuttable.CutType;
+import com.willwinder.ugs.nbp.designer.entities.cuttable.Cuttable;
+import com.willwinder.ugs.nbp.designer.entities.cuttable.Rectangle;
+import com.willwinder.ugs.nbp.designer.model.Settings;
+import com.willwinder.ugs.nbp.designer.model.Size;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.awt.geom.Point2D;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertTrue;
+
+public class SimpleGcodeRouterTest {
+    private Settings settings;
+    private List<Cuttable> cuttables;
+
+    @Before
+    public void setUp() {
+        settings = new Settings();
+        cuttables = new ArrayList<>();
+        CutType[] cutTypes = {CutType.POCKET, CutType.OUTSIDE_PATH, CutType.INSIDE_PATH, CutType.ON_PATH, CutType.CENTER_DRILL};
+        for (int i = 0; i < 20; i++) {
+            Rectangle rectangle = new Rectangle();
+            rectangle.setName("rectangle" + i);
+            rectangle.setSize(new Size(10 + i, 10));
+            rectangle.setPosition(new Point2D.Double(i * 30, 0));
+            rectangle.setCutType(cutTypes[i % cutTypes.length]);
+            rectangle.setTargetDepth(2);
+            cuttables.add(rectangle);
+        }
+    }
+
+    @Test
+    public void toGcodeShouldWriteTheEntitiesInOrder() {
+        String gcode = new SimpleGcodeRouter(settings, new ToolPathCache()).toGcode(cuttables);
+
+        int previousIndex = -1;
+        for (int i = 0; i < cuttables.size(); i++) {
+            int index = gcode.indexOf("; rectangle" + i + " - ");
+            assertTrue("Expected the entity " + i + " after the previous", index > previousIndex);
+            previousIndex = index;
+        }
+        assertTrue(gcode.endsWith("M5\n"));
+    }
+
+    @Test
+    public void toGcodeShouldOnlyGenerateToolPathsOfChangedEntities() {
+        ToolPathCache toolPathCache = new ToolPathCache();
+        SimpleGcodeRouter router = new SimpleGcodeRouter(settings, toolPathCache);
+        String gcode = router.toGcode(cuttables);
+        assertEquals(cuttables.size(), toolPathCache.size());
+        assertEquals(gcode, router.toGcode(cuttables));
+        assertEquals(cuttables.size(), toolPathCache.size());
+
+        // Moving an entity should generate a new tool path
+        cuttables.get(3).setPosition(new Point2D.Double(0, 50));
+        String movedGcode = router.toGcode(cuttables);
+        assertEquals(cuttables.size() + 1, toolPathCache.size());
+        assertNotEquals(gcode, movedGcode);
+        assertEquals(new SimpleGcodeRouter(settings, new ToolPathCache()).toGcode(cuttables), movedGcode);
+
+        // Changing the cut settings should generate a new tool path
+        cuttables.get(4).setTargetDepth(3);
+        router.toGcode(cuttables);
+        assertEquals(cuttables.size() + 2, toolPathCache.size());
+
+        // Changing the tool should generate new tool paths for all entities
+        settings.setToolDiameter(1);
+        assertEquals(new SimpleGcodeRouter(settings, new ToolPathCache()).toGcode(cuttables), router.toGcode(cuttables));
+        assertEquals(cuttables.size() * 2 + 2, toolPathCache.size());
+    }
+
+    @Test
+    public void toolPathCacheShouldRemoveTheLeastRecentlyUsedToolPathsWhenFull() {
+        ToolPathCache toolPathCache = new ToolPathCache(100);
+        new SimpleGcodeRouter(settings, toolPathCache).toGcode(cuttables);
+        assertTrue(toolPathCache.size() < cuttables.size());
+        assertTrue(toolPathCache.size() > 0);
+    }
+}
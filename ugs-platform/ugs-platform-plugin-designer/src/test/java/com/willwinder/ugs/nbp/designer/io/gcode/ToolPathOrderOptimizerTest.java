@@ -0,0 +1,111 @@
+/*
+    Copyright 2026 agent
+
+    This file is part of Universal Gcode Sender (UGS).
+
+    UGS is free software: you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    UGS is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with UGS.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.willwinder.ugs.nbp.designer.io.gcode;
+
+import com.willwinder.ugs.nbp.designer.io.gcode.path.GcodePath;
+import com.willwinder.ugs.nbp.designer.io.gcode.path.SegmentType;
+import com.willwinder.ugs.nbp.designer.io.gcode.toolpaths.ToolPathUtils;
+import com.willwinder.universalgcodesender.model.Axis;
+import com.willwinder.universalgcodesender.model.PartialPosition;
+import com.willwinder.universalgcodesender.model.UnitUtils;
+import org.junit.Test;
+
+import java.awt.geom.Rectangle2D;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.IntStream;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertTrue;
+
+public class ToolPathOrderOptimizerTest {
+
+    private static GcodePath createDrillPath(double x, double y) {
+        GcodePath gcodePath = new GcodePath();
+        gcodePath.addSegment(SegmentType.MOVE, PartialPosition.from(Axis.Z, 5d, UnitUtils.Units.MM));
+        gcodePath.addSegment(SegmentType.MOVE, new PartialPosition(x, y, UnitUtils.Units.MM));
+        gcodePath.addSegment(SegmentType.POINT, PartialPosition.from(Axis.Z, -1d, UnitUtils.Units.MM));
+        gcodePath.addSegment(SegmentType.MOVE, PartialPosition.from(Axis.Z, 5d, UnitUtils.Units.MM));
+        return gcodePath;
+    }
+
+    private static double getRapidLength(List<GcodePath> toolPaths, int[] order) {
+        GcodePath gcodePath = new GcodePath();
+        Arrays.stream(order).forEach(index -> gcodePath.appendGcodePath(toolPaths.get(index)));
+        return ToolPathUtils.getToolPathStats(gcodePath).getTotalRapidLength();
+    }
+
+    @Test
+    public void optimizeShouldReduceTheRapidMovements() {
+        // A grid of holes given column by column, always starting from the bottom
+        List<GcodePath> toolPaths = new ArrayList<>();
+        List<Rectangle2D> bounds = new ArrayList<>();
+        for (int x = 0; x < 10; x++) {
+            for (int y = 0; y < 10; y++) {
+                toolPaths.add(createDrillPath(x * 10, y * 10));
+                bounds.add(new Rectangle2D.Double(x * 10 - 1, y * 10 - 1, 2, 2));
+            }
+        }
+
+        int[] order = new ToolPathOrderOptimizer(1000).optimize(toolPaths, bounds);
+
+        int[] sortedOrder = order.clone();
+        Arrays.sort(sortedOrder);
+        assertArrayEquals(IntStream.range(0, toolPaths.size()).toArray(), sortedOrder);
+
+        double rapidLength = getRapidLength(toolPaths, IntStream.range(0, toolPaths.size()).toArray());
+        double optimizedRapidLength = getRapidLength(toolPaths, order);
+        assertTrue("Expected the rapid length " + optimizedRapidLength + " to be shorter than " + rapidLength, optimizedRapidLength < rapidLength * 0.8);
+    }
+
+    @Test
+    public void optimizeShouldCutEntitiesInsideOthersFirst() {
+        List<GcodePath> toolPaths = new ArrayList<>();
+        List<Rectangle2D> bounds = new ArrayList<>();
+
+        // The outline of a part starting at the origin
+        toolPaths.add(createDrillPath(0, 0));
+        bounds.add(new Rectangle2D.Double(0, 0, 100, 100));
+
+        // A hole in the part
+        toolPaths.add(createDrillPath(90, 90));
+        bounds.add(new Rectangle2D.Double(80, 80, 10, 10));
+
+        // A part outside of the first one
+        toolPaths.add(createDrillPath(200, 200));
+        bounds.add(new Rectangle2D.Double(150, 150, 50, 50));
+
+        // A pocket within the hole
+        toolPaths.add(createDrillPath(85, 85));
+        bounds.add(new Rectangle2D.Double(82, 82, 5, 5));
+
+        int[] order = new ToolPathOrderOptimizer(1000).optimize(toolPaths, bounds);
+        assertArrayEquals(new int[]{3, 1, 0, 2}, order);
+    }
+
+    @Test
+    public void optimizeShouldPlaceToolPathsWithoutPositionsLast() {
+        List<GcodePath> toolPaths = List.of(new GcodePath(), createDrillPath(10, 10), createDrillPath(5, 5));
+        List<Rectangle2D> bounds = List.of(new Rectangle2D.Double(), new Rectangle2D.Double(10, 10, 1, 1), new Rectangle2D.Double(5, 5, 1, 1));
+
+        int[] order = new ToolPathOrderOptimizer(1000).optimize(toolPaths, bounds);
+        assertArrayEquals(new int[]{2, 1, 0}, order);
+    }
+}
@@ -3,9 +3,12 @@ package com.willwinder.ugs.nbp.designer.io.gcode.toolpaths;
 import static com.willwinder.ugs.nbp.designer.io.gcode.toolpaths.ToolPathUtils.addGeometriesToCoordinatesList;
 import static com.willwinder.ugs.nbp.designer.io.gcode.toolpaths.ToolPathUtils.bufferAndCollectGeometries;
 import static com.willwinder.ugs.nbp.designer.io.gcode.toolpaths.ToolPathUtils.convertAreaToGeometry;
+import com.willwinder.ugs.nbp.designer.io.gcode.path.GcodePath;
+import com.willwinder.ugs.nbp.designer.io.gcode.path.SegmentType;
 import com.willwinder.ugs.nbp.designer.io.ugsd.UgsDesignReader;
 import com.willwinder.ugs.nbp.designer.model.Design;
 import com.willwinder.universalgcodesender.model.PartialPosition;
+import com.willwinder.universalgcodesender.model.UnitUtils;
 import static org.junit.Assert.assertEquals;
 import org.junit.Test;
 import org.locationtech.jts.geom.Geometry;
@@ -37,4 +40,16 @@ public class ToolPathUtilsTest {
         addGeometriesToCoordinatesList(shell, geometries, coordinateList, 0);
         assertEquals(3, coordinateList.size());
     }
+
+    @Test
+    public void getToolPathStatsShouldMeasureFromThePreviousPosition() {
+        GcodePath gcodePath = new GcodePath();
+        gcodePath.addSegment(SegmentType.MOVE, new PartialPosition(10d, 0d, UnitUtils.Units.MM));
+        gcodePath.addSegment(SegmentType.LINE, new PartialPosition(10d, 10d, UnitUtils.Units.MM));
+        gcodePath.addSegment(SegmentType.MOVE, new PartialPosition(20d, 10d, UnitUtils.Units.MM));
+
+        ToolPathStats toolPathStats = ToolPathUtils.getToolPathStats(gcodePath);
+        assertEquals(20, toolPathStats.getTotalRapidLength(), 0.01);
+        assertEquals(10, toolPathStats.getTotalFeedLength(), 0.01);
+    }
 }
@@ -20,6 +20,7 @@ package com.willwinder.ugs.nbp.filebrowser;
 
 import com.willwinder.universalgcodesender.model.File;
 import com.willwinder.universalgcodesender.IFileService;
+import com.willwinder.universalgcodesender.listeners.FileTransferListener;
 import com.willwinder.universalgcodesender.uielements.components.TableCellListener;
 import com.willwinder.universalgcodesender.uielements.helpers.LoaderDialogHelper;
 import com.willwinder.universalgcodesender.utils.ThreadHelper;
@@ -31,6 +32,7 @@ import javax.swing.JButton;
 import javax.swing.JDialog;
 import javax.swing.JFileChooser;
 import javax.swing.JFrame;
+import javax.swing.JLabel;
 import javax.swing.JPanel;
 import javax.swing.JScrollPane;
 import javax.swing.JTable;
@@ -45,6 +47,7 @@ import java.awt.event.ActionEvent;
 import java.io.FileInputStream;
 import java.io.FileOutputStream;
 import java.io.IOException;
+import java.io.InputStream;
 import java.util.logging.Logger;
 
 public class FileBrowserDialog extends JDialog implements ListSelectionListener {
@@ -56,6 +59,8 @@ public class FileBrowserDialog extends JDialog implements ListSelectionListener
     private final JButton uploadButton;
     private final JButton deleteButton;
     private final JButton downloadButton;
+    private final JButton runButton;
+    private final JLabel statusLabel = new JLabel();
     private final JFileChooser fileChooser = new JFileChooser();
 
     public FileBrowserDialog(IFileService fileService) {
@@ -98,7 +103,15 @@ public class FileBrowserDialog extends JDialog implements ListSelectionListener
         uploadButton.addActionListener(e -> SwingUtilities.invokeLater(this::handleFileUpload));
         buttonPanel.add(uploadButton);
 
-        add(buttonPanel, BorderLayout.SOUTH);
+        runButton = new JButton("Run", ImageUtilities.loadImageIcon("resources/icons/start.svg", false));
+        runButton.addActionListener(e -> SwingUtilities.invokeLater(this::handleFileRun));
+        runButton.setEnabled(false);
+        buttonPanel.add(runButton);
+
+        JPanel southPanel = new JPanel(new BorderLayout());
+        southPanel.add(statusLabel, BorderLayout.CENTER);
+        southPanel.add(buttonPanel, BorderLayout.EAST);
+        add(southPanel, BorderLayout.SOUTH);
         refreshFileList();
         setResizable(true);
         pack();
@@ -146,16 +159,17 @@ public class FileBrowserDialog extends JDialog implements ListSelectionListener
         fileChooser.setAcceptAllFileFilterUsed(true);
         int status = fileChooser.showOpenDialog(this);
         if (status == JFileChooser.APPROVE_OPTION) {
+            // The upload is streamed from the file and the progress is shown in the status label instead of a loader dialog
             setEnabled(false);
-            LoaderDialogHelper.showDialog("Uploading file", 1500, this);
+            java.io.File selectedFile = fileChooser.getSelectedFile();
             ThreadHelper.invokeLater(() -> {
-                try {
-                    byte[] buffer = IOUtils.toByteArray(new FileInputStream(fileChooser.getSelectedFile()));
-                    fileService.uploadFile(fileChooser.getSelectedFile().getName(), buffer);
+                try (InputStream inputStream = new FileInputStream(selectedFile)) {
+                    fileService.uploadFile(selectedFile.getName(), inputStream, selectedFile.length(), createProgressListener());
+                    setStatus("Uploaded " + selectedFile.getName());
                 } catch (IOException ex) {
+                    setStatus("Could not upload " + selectedFile.getName());
                     ex.printStackTrace();
                 } finally {
-                    LoaderDialogHelper.closeDialog();
                     setEnabled(true);
                 }
 
@@ -164,6 +178,32 @@ public class FileBrowserDialog extends JDialog implements ListSelectionListener
         }
     }
 
+    private FileTransferListener createProgressListener() {
+        return (bytesTransferred, totalBytes, bytesPerSecond) -> {
+            String total = totalBytes < 0 ? "" : " of " + FileSizeCellRenderer.formatSize(totalBytes);
+            setStatus("Uploaded " + FileSizeCellRenderer.formatSize(bytesTransferred) + total +
+                    " (" + FileSizeCellRenderer.formatSize(Math.round(bytesPerSecond)) + "/s)");
+        };
+    }
+
+    private void setStatus(String status) {
+        SwingUtilities.invokeLater(() -> statusLabel.setText(status));
+    }
+
+    private void handleFileRun() {
+        File file = tableModel.get(getSelectedModelIndex());
+        ThreadHelper.invokeLater(() -> {
+            try {
+                LOGGER.info("Running file " + file.getAbsolutePath());
+                fileService.runFile(file);
+                SwingUtilities.invokeLater(this::dispose);
+            } catch (IOException ex) {
+                setStatus("Could not run " + file.getName());
+                ex.printStackTrace();
+            }
+        });
+    }
+
     @Override
     public void setEnabled(boolean enabled) {
         super.setEnabled(enabled);
@@ -171,6 +211,7 @@ public class FileBrowserDialog extends JDialog implements ListSelectionListener
         downloadButton.setEnabled(enabled);
         uploadButton.setEnabled(enabled);
         deleteButton.setEnabled(enabled);
+        runButton.setEnabled(enabled);
     }
 
     private void handleFileDownload() {
@@ -226,5 +267,6 @@ public class FileBrowserDialog extends JDialog implements ListSelectionListener
         boolean enabled = !fileTable.getSelectionModel().isSelectionEmpty();
         downloadButton.setEnabled(enabled);
         deleteButton.setEnabled(enabled);
+        runButton.setEnabled(enabled);
     }
 }
@@ -28,15 +28,17 @@ public class FileSizeCellRenderer extends DefaultTableCellRenderer {
     public Component getTableCellRendererComponent(JTable table, Object value, boolean isSelected, boolean hasFocus, int row, int column) {
         String text = "0b";
         if (value instanceof Long) {
-            long size = (Long) value;
-            if (size > 1000000L) {
-                text = (Math.round(size / 10000d) / 100d) + " MB";
-            } else if (size > 1000L) {
-                text = (Math.round(size / 10d) / 100d) + " kB";
-            } else {
-                text = size + "B";
-            }
+            text = formatSize((Long) value);
         }
         return super.getTableCellRendererComponent(table, text, isSelected, hasFocus, row, column);
     }
+
+    public static String formatSize(long size) {
+        if (size > 1000000L) {
+            return (Math.round(size / 10000d) / 100d) + " MB";
+        } else if (size > 1000L) {
+            return (Math.round(size / 10d) / 100d) + " kB";
+        }
+        return size + "B";
+    }
 }
@@ -0,0 +1,147 @@
+/*
+    Copyright 2026 agent
+
+    This file is part of Universal Gcode Sender (UGS).
+
+    UGS is free software: you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    UGS is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with UGS.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.willwinder.ugs.nbp.filebrowser.actions;
+
+import com.willwinder.ugs.nbp.filebrowser.FileSizeCellRenderer;
+import com.willwinder.ugs.nbp.lib.lookup.CentralLookup;
+import com.willwinder.ugs.nbp.lib.services.LocalizingService;
+import com.willwinder.universalgcodesender.CapabilitiesConstants;
+import com.willwinder.universalgcodesender.IFileService;
+import com.willwinder.universalgcodesender.i18n.Localization;
+import com.willwinder.universalgcodesender.listeners.ControllerState;
+import com.willwinder.universalgcodesender.listeners.FileTransferListener;
+import com.willwinder.universalgcodesender.listeners.MessageType;
+import com.willwinder.universalgcodesender.listeners.UGSEventListener;
+import com.willwinder.universalgcodesender.model.BackendAPI;
+import com.willwinder.universalgcodesender.model.File;
+import com.willwinder.universalgcodesender.model.UGSEvent;
+import com.willwinder.universalgcodesender.model.events.ControllerStateEvent;
+import com.willwinder.universalgcodesender.model.events.FileStateEvent;
+import com.willwinder.universalgcodesender.utils.GUIHelpers;
+import com.willwinder.universalgcodesender.utils.GcodeStreamInputStream;
+import com.willwinder.universalgcodesender.utils.GcodeStreamReaderFactory;
+import com.willwinder.universalgcodesender.utils.ThreadHelper;
+import org.openide.awt.ActionID;
+import org.openide.awt.ActionReference;
+import org.openide.awt.ActionReferences;
+import org.openide.awt.ActionRegistration;
+import org.openide.util.ImageUtilities;
+
+import javax.swing.AbstractAction;
+import javax.swing.SwingUtilities;
+import java.awt.event.ActionEvent;
+import java.io.InputStream;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Uploads the loaded and processed program to the SD card of the controller and starts running it from there.
+ * This is useful for long jobs as the program is no longer streamed line by line over the connection.
+ *
+ * @author agent
+ */
+@ActionID(
+        category = LocalizingService.CATEGORY_MACHINE,
+        id = "UploadAndRunAction")
+@ActionRegistration(
+        iconBase = UploadAndRunAction.SMALL_ICON_PATH,
+        displayName = "resources.MessagesBundle#platform.plugin.filebrowser.uploadAndRun",
+        lazy = false)
+@ActionReferences({
+        @ActionReference(
+                path = LocalizingService.MENU_MACHINE,
+                position = 2006),
+})
+public final class UploadAndRunAction extends AbstractAction implements UGSEventListener {
+
+    public static final String SMALL_ICON_PATH = "icons/upload.svg";
+    private static final String SD_CARD_PATH = "/sd/";
+    private static final long PROGRESS_INTERVAL_MS = 2000;
+    private final BackendAPI backend;
+    private final AtomicBoolean isUploading = new AtomicBoolean(false);
+
+    public UploadAndRunAction() {
+        this.backend = CentralLookup.getDefault().lookup(BackendAPI.class);
+
+        putValue("iconBase", SMALL_ICON_PATH);
+        putValue(SMALL_ICON, ImageUtilities.loadImageIcon(SMALL_ICON_PATH, false));
+        putValue("menuText", Localization.getString("platform.plugin.filebrowser.uploadAndRun"));
+        putValue(NAME, Localization.getString("platform.plugin.filebrowser.uploadAndRun"));
+
+        setEnabled(isEnabled());
+        backend.addUGSEventListener(this);
+    }
+
+    @Override
+    public boolean isEnabled() {
+        return !isUploading.get() &&
+                backend.isConnected() &&
+                backend.getControllerState() == ControllerState.IDLE &&
+                backend.getProcessedGcodeFile() != null &&
+                backend.getController().getCapabilities().hasCapability(CapabilitiesConstants.FILE_SYSTEM);
+    }
+
+    @Override
+    public void actionPerformed(ActionEvent e) {
+        if (!isUploading.compareAndSet(false, true)) {
+            return;
+        }
+
+        setEnabled(false);
+        IFileService fileService = backend.getController().getFileService();
+        java.io.File processedFile = backend.getProcessedGcodeFile();
+        String filename = backend.getGcodeFile().getName();
+        File file = new File(filename, SD_CARD_PATH + filename, 0);
+
+        ThreadHelper.invokeLater(() -> {
+            try (InputStream inputStream = new GcodeStreamInputStream(GcodeStreamReaderFactory.getReader(processedFile, backend.getCommandCreator()))) {
+                backend.dispatchMessage(MessageType.INFO, "*** " + String.format(Localization.getString("platform.plugin.filebrowser.uploading"), file.getAbsolutePath()) + "\n");
+                fileService.uploadFile(file.getAbsolutePath(), inputStream, -1, createProgressListener());
+                backend.dispatchMessage(MessageType.INFO, "*** " + String.format(Localization.getString("platform.plugin.filebrowser.running"), file.getAbsolutePath()) + "\n");
+                fileService.runFile(file);
+            } catch (Exception ex) {
+                GUIHelpers.displayErrorDialog(String.format(Localization.getString("platform.plugin.filebrowser.uploadAndRunError"), ex.getMessage()));
+            } finally {
+                isUploading.set(false);
+                SwingUtilities.invokeLater(() -> setEnabled(isEnabled()));
+            }
+        });
+    }
+
+    private FileTransferListener createProgressListener() {
+        AtomicLong lastMessageTime = new AtomicLong(System.nanoTime());
+        return (bytesTransferred, totalBytes, bytesPerSecond) -> {
+            long now = System.nanoTime();
+            if (now - lastMessageTime.get() > TimeUnit.MILLISECONDS.toNanos(PROGRESS_INTERVAL_MS)) {
+                lastMessageTime.set(now);
+                backend.dispatchMessage(MessageType.INFO, "*** " + String.format(Localization.getString("platform.plugin.filebrowser.uploaded"),
+                        FileSizeCellRenderer.formatSize(bytesTransferred), FileSizeCellRenderer.formatSize(Math.round(bytesPerSecond))) + "\n");
+            }
+        };
+    }
+
+    @Override
+    public void UGSEvent(UGSEvent event) {
+        if (event instanceof ControllerStateEvent || event instanceof FileStateEvent) {
+            boolean enabled = isEnabled();
+            SwingUtilities.invokeLater(() -> setEnabled(enabled));
+        }
+    }
+}
@@ -36,12 +36,13 @@ import com.willwinder.universalgcodesender.types.GcodeCommand;
 import com.willwinder.universalgcodesender.uielements.helpers.LoaderDialogHelper;
 import com.willwinder.universalgcodesender.utils.GUIHelpers;
 import com.willwinder.universalgcodesender.utils.GcodeStreamReader;
+import com.willwinder.universalgcodesender.utils.GcodeStreamReaderFactory;
 import com.willwinder.universalgcodesender.utils.IGcodeStreamReader;
 import com.willwinder.universalgcodesender.utils.MathUtils;
 import com.willwinder.universalgcodesender.utils.SimpleGcodeStreamReader;
 import com.willwinder.universalgcodesender.utils.ThreadHelper;
 import com.willwinder.universalgcodesender.visualizer.GcodeViewParse;
-import com.willwinder.universalgcodesender.visualizer.LineSegment;
+import com.willwinder.universalgcodesender.visualizer.LineSegmentStore;
 import com.willwinder.universalgcodesender.visualizer.LineSegmentToPartialPositionMapper;
 import com.willwinder.universalgcodesender.visualizer.VisualizerUtils;
 import org.openide.awt.ActionID;
@@ -57,6 +58,7 @@ import java.io.File;
 import java.io.IOException;
 import java.util.List;
 import java.util.logging.Logger;
+import java.util.stream.IntStream;
 
 /**
  * An action that will parse the loaded gcode file and generate a movement path for outlining
@@ -132,12 +134,13 @@ public final class OutlineAction extends ProgramAction implements UGSEventListen
     }
 
     public List<GcodeCommand> generateOutlineCommands(File gcodeFile) throws IOException, GcodeParserException {
-        List<LineSegment> gcodeLineList = parseGcodeLinesFromFile(gcodeFile);
+        LineSegmentStore segments = parseGcodeLinesFromFile(gcodeFile);
 
         // We only care about carving motion, filter those commands out
-        List<PartialPosition> pointList = gcodeLineList.parallelStream()
-                .filter(lineSegment -> !lineSegment.isFastTraverse())
-                .flatMap(new LineSegmentToPartialPositionMapper())
+        IntStream carvingSegments = IntStream.range(0, segments.size())
+                .parallel()
+                .filter(i -> !segments.isFastTraverse(i));
+        List<PartialPosition> pointList = new LineSegmentToPartialPositionMapper().apply(segments, carvingSegments)
                 .filter(partialPosition -> partialPosition.hasX() && partialPosition.hasY())
                 .distinct()
                 .toList();
@@ -158,15 +161,15 @@ public final class OutlineAction extends ProgramAction implements UGSEventListen
         return backend.getSettings().getJogFeedRate() * UnitUtils.scaleUnits(preferredUnits, UnitUtils.Units.MM);
     }
 
-    private List<LineSegment> parseGcodeLinesFromFile(File gcodeFile) throws IOException, GcodeParserException {
-        List<LineSegment> result;
+    private LineSegmentStore parseGcodeLinesFromFile(File gcodeFile) throws IOException, GcodeParserException {
+        LineSegmentStore result;
 
         GcodeViewParse gcvp = new GcodeViewParse();
-        try (IGcodeStreamReader gsr = new GcodeStreamReader(gcodeFile, backend.getCommandCreator())) {
-            result = gcvp.toObjFromReader(gsr, ARC_SEGMENT_LENGTH);
+        try (IGcodeStreamReader gsr = GcodeStreamReaderFactory.getReader(gcodeFile, backend.getCommandCreator())) {
+            result = gcvp.toSegmentsFromReader(gsr, ARC_SEGMENT_LENGTH);
         } catch (GcodeStreamReader.NotGcodeStreamFile e) {
             List<String> linesInFile = VisualizerUtils.readFiletoArrayList(gcodeFile.getAbsolutePath());
-            result = gcvp.toObjRedux(linesInFile, ARC_SEGMENT_LENGTH);
+            result = gcvp.toSegments(linesInFile, ARC_SEGMENT_LENGTH);
         }
 
         return result;
@@ -87,6 +87,7 @@ public class RendererInputHandler implements
         sizeDisplay = new SizeDisplay(Localization.getString("platform.visualizer.renderable.gcode-model-size"));
         selection = new Selection(Localization.getString("platform.visualizer.renderable.selection"));
 
+        gcodeModel.addListener(this::onModelChanged);
         gr.registerRenderable(gcodeModel);
         gr.registerRenderable(sizeDisplay);
         gr.registerRenderable(selection);
@@ -120,9 +121,25 @@ public class RendererInputHandler implements
 
     public void setGcodeFile(String file) {
         gcodeModel.setGcodeFile(file);
-        gcodeRenderer.setObjectSize(gcodeModel.getMin(), gcodeModel.getMax());
+    }
 
-        updateBounds(gcodeModel.getMin(), gcodeModel.getMax());
+    /**
+     * Shows the progress while the model is loading. When it is completely loaded the camera is
+     * fitted to the model and the file bounds are updated.
+     */
+    private void onModelChanged() {
+        if (gcodeModel.isLoading()) {
+            long percent = Math.round(gcodeModel.getLoadingProgress() * 100);
+            gcodeRenderer.setOverlayText(String.format(Localization.getString("platform.visualizer.renderable.gcode-model.loading"), percent));
+        } else {
+            Position min = gcodeModel.getMin();
+            Position max = gcodeModel.getMax();
+            gcodeRenderer.setObjectSize(min, max);
+            gcodeRenderer.setOverlayText("");
+            if (min != null && max != null) {
+                updateBounds(min, max);
+            }
+        }
     }
 
     /**
@@ -27,7 +27,7 @@ import static com.willwinder.ugs.nbm.visualizer.options.VisualizerOptions.VISUAL
 import static com.willwinder.ugs.nbm.visualizer.options.VisualizerOptions.VISUALIZER_OPTION_RAPID;
 import static com.willwinder.ugs.nbm.visualizer.options.VisualizerOptions.VISUALIZER_OPTION_SPINDLE_MAX_SPEED;
 import static com.willwinder.ugs.nbm.visualizer.options.VisualizerOptions.VISUALIZER_OPTION_SPINDLE_MIN_SPEED;
-import com.willwinder.universalgcodesender.visualizer.LineSegment;
+import com.willwinder.universalgcodesender.visualizer.LineSegmentStore;
 
 import java.awt.Color;
 
@@ -59,17 +59,17 @@ public class GcodeLineColorizer {
         completedColor = vo.getOptionForKey(VISUALIZER_OPTION_COMPLETE).value;
     }
 
-    public Color getColor(LineSegment lineSegment, long currentCommandNumber) {
-        if (lineSegment.getLineNumber() < currentCommandNumber) {
+    public Color getColor(LineSegmentStore segments, int index, long currentCommandNumber) {
+        if (segments.getLineNumber(index) < currentCommandNumber) {
             return completedColor;
-        } else if (lineSegment.isArc()) {
+        } else if (segments.isArc(index)) {
             return arcColor;
-        } else if (lineSegment.isFastTraverse()) {
+        } else if (segments.isFastTraverse(index)) {
             return rapidColor;
-        } else if (lineSegment.isZMovement()) {
+        } else if (segments.isZMovement(index)) {
             return plungeColor;
         } else {
-            return getFeedColor(lineSegment.getFeedRate(), lineSegment.getSpindleSpeed());
+            return getFeedColor(segments.getFeedRate(index), segments.getSpindleSpeed(index));
         }
     }
 
@@ -125,6 +125,14 @@ public class GcodeLineColorizer {
         return new Color(red, green, blue, alpha);
     }
 
+    public double getMaxSpindleSpeed() {
+        return maxSpindleSpeed;
+    }
+
+    public double getMaxFeedRate() {
+        return maxFeedRate;
+    }
+
     public void setMaxSpindleSpeed(double maxSpindleSpeed) {
         this.maxSpindleSpeed = maxSpindleSpeed;
     }
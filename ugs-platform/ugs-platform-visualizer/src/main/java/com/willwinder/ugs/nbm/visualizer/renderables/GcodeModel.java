@@ -23,6 +23,7 @@ import com.jogamp.opengl.GL;
 import static com.jogamp.opengl.GL.GL_LINES;
 import com.jogamp.opengl.GL2;
 import com.jogamp.opengl.GLAutoDrawable;
+import com.jogamp.opengl.util.GLBuffers;
 import static com.jogamp.opengl.fixedfunc.GLPointerFunc.GL_COLOR_ARRAY;
 import static com.jogamp.opengl.fixedfunc.GLPointerFunc.GL_VERTEX_ARRAY;
 import com.willwinder.ugs.nbm.visualizer.options.VisualizerOptions;
@@ -39,47 +40,79 @@ import com.willwinder.universalgcodesender.model.UGSEvent;
 import com.willwinder.universalgcodesender.model.events.ControllerStateEvent;
 import com.willwinder.universalgcodesender.utils.GUIHelpers;
 import com.willwinder.universalgcodesender.utils.GcodeStreamReader;
+import com.willwinder.universalgcodesender.utils.GcodeStreamReaderFactory;
 import com.willwinder.universalgcodesender.utils.IGcodeStreamReader;
+import com.willwinder.universalgcodesender.utils.ThreadHelper;
 import com.willwinder.universalgcodesender.visualizer.GcodeViewParse;
-import com.willwinder.universalgcodesender.visualizer.LineSegment;
+import com.willwinder.universalgcodesender.visualizer.LineSegmentStore;
 import com.willwinder.universalgcodesender.visualizer.VisualizerUtils;
 
 import java.awt.Color;
 import java.io.File;
 import java.io.IOException;
-import java.nio.Buffer;
+import java.io.InterruptedIOException;
 import java.nio.ByteBuffer;
 import java.nio.FloatBuffer;
-import java.util.ArrayList;
-import java.util.Collections;
+import java.nio.IntBuffer;
+import java.util.Arrays;
 import java.util.List;
+import java.util.concurrent.Future;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
 /**
+ * Renders the toolpath of the loaded gcode file. The file is parsed in the background and the
+ * segments parsed so far are appended to the model while loading, listeners will be notified
+ * each time the model changes.
+ *
  * @author wwinder
  */
 public class GcodeModel extends Renderable implements UGSEventListener {
     public static final double ARC_SEGMENT_LENGTH = 0.8;
     private static final Logger logger = Logger.getLogger(GcodeModel.class.getName());
+    private static final int VERTEX_BUFFER = 0;
+    private static final int COLOR_BUFFER = 1;
+    private static final int COLOR_BYTES_PER_SEGMENT = 2 * 4;
     private final GcodeLineColorizer colorizer = new GcodeLineColorizer();
     private final BackendAPI backend;
     private boolean colorArrayDirty;
     private boolean vertexArrayDirty;
     private boolean vertexBufferDirty;
+    private boolean indexArrayDirty;
+    // True if the colors of the segments were created with another max feed rate or spindle speed
+    private boolean staleColors;
     // Gcode file data
     private String gcodeFile = null;
     private boolean isDrawable = false; //True if a file is loaded; false if not
-    // TODO: don't save the line list.
-    private List<LineSegment> gcodeLineList; //An ArrayList of linesegments composing the model
-    private List<LineSegment> pointList; //An ArrayList of linesegments composing the model
-    private int currentCommandNumber = 0;
+    private Future<?> loadingTask;
+    // Incremented for each file so that segments from a cancelled file are ignored
+    private int generation;
+    private volatile double loadingProgress = 1;
+    private LineSegmentStore segments = new LineSegmentStore(1); // The line segments composing the model
+    private SegmentLineNumberIndex lineNumberIndex;
+    private ToolpathTiles tiles;
+    private volatile int currentCommandNumber = 0;
+    // The command number that the colors in lineColorData were generated for
+    private int coloredCommandNumber = 0;
     // OpenGL Object Buffer Variables
+    private final IntBuffer bufferName = GLBuffers.newDirectIntBuffer(2);
+    // Index buffers for the simplified levels of detail
+    private final IntBuffer indexBufferName = GLBuffers.newDirectIntBuffer(ToolpathTiles.getLevelCount());
+    // The index arrays and the number of indices that have been uploaded to the index buffers
+    private final int[][] uploadedIndices = new int[ToolpathTiles.getLevelCount()][];
+    private final int[] uploadedIndexCounts = new int[ToolpathTiles.getLevelCount()];
+    private boolean buffersCreated;
+    // True if the buffers should be deleted and created again with the new preferences
+    private volatile boolean buffersStale;
     private int numberOfVertices = -1;
     private float[] lineVertexData = null;
     private byte[] lineColorData = null;
-    private FloatBuffer lineVertexBuffer = null;
-    private ByteBuffer lineColorBuffer = null;
+    // The range of segments with colors that needs to be uploaded to the color buffer
+    private int colorDirtyStart;
+    private int colorDirtyEnd;
+    // The range of segments with vertices that needs to be uploaded to the vertex buffer
+    private int vertexDirtyStart;
+    private int vertexDirtyEnd;
     private Position objectMin;
     private Position objectMax;
     private Position objectSize;
@@ -97,33 +130,74 @@ public class GcodeModel extends Renderable implements UGSEventListener {
         super.reloadPreferences(vo);
         colorizer.reloadPreferences(vo);
         vertexBufferDirty = true;
+        buffersStale = true;
     }
 
     /**
-     * Assign a gcode file to drawing.
+     * Assign a gcode file to drawing. The file will be loaded in the background and any file that
+     * is currently being loaded will be cancelled.
+     *
+     * @param file the file to draw or null to clear the model
      */
-    public boolean setGcodeFile(String file) {
-        this.gcodeFile = file;
-        this.isDrawable = false;
-        this.currentCommandNumber = 0;
+    public void setGcodeFile(String file) {
+        synchronized (this) {
+            if (loadingTask != null) {
+                loadingTask.cancel(true);
+                loadingTask = null;
+            }
 
-        boolean result = generateObject();
+            this.gcodeFile = file;
+            this.isDrawable = false;
+            this.currentCommandNumber = 0;
+            this.generation++;
+            this.segments = new LineSegmentStore(1);
+            this.lineNumberIndex = null;
+            this.staleColors = false;
+            this.objectMin = null;
+            this.objectMax = null;
+
+            if (file != null) {
+                int fileGeneration = this.generation;
+                loadingProgress = 0;
+                loadingTask = ThreadHelper.invokeLater(() -> loadModel(file, fileGeneration));
+            } else {
+                loadingProgress = 1;
+            }
+        }
+        notifyListeners();
+    }
 
+    /**
+     * Returns if a file is being loaded, in which case the model only contains a part of the file.
+     *
+     * @return true if loading
+     */
+    public boolean isLoading() {
+        return loadingProgress < 1;
+    }
 
-        logger.log(Level.INFO, "Done setting gcode file.");
-        return result;
+    /**
+     * Returns how much of the file that has been loaded
+     *
+     * @return the progress between 0 and 1
+     */
+    public double getLoadingProgress() {
+        return loadingProgress;
     }
 
     /**
-     * This is used to gray out completed commands.
+     * This is used to gray out completed commands. Only the segments that changed between
+     * completed and pending will be updated the next time the model is drawn.
      */
     public void setCurrentCommandNumber(int num) {
         currentCommandNumber = num;
-        vertexBufferDirty = true;
     }
 
-    public List<LineSegment> getLineList() {
-        return this.pointList != null ? this.pointList : Collections.emptyList();
+    /**
+     * Returns the line segments of the model with any rotations converted to cartesian coordinates
+     */
+    public LineSegmentStore getLineSegments() {
+        return this.segments;
     }
 
     @Override
@@ -142,23 +216,61 @@ public class GcodeModel extends Renderable implements UGSEventListener {
     }
 
     @Override
-    public void init(GLAutoDrawable drawable) {
-        generateObject();
+    public synchronized void init(GLAutoDrawable drawable) {
+        // Any buffers belonged to the previous context and were deleted when it was disposed
+        buffersCreated = false;
+    }
+
+    @Override
+    public synchronized void dispose(GLAutoDrawable drawable) {
+        deleteBuffers(drawable.getGL().getGL2());
+    }
+
+    /**
+     * Releases the vertex, color and index buffers, they will be created again the next time the model is drawn.
+     */
+    private void deleteBuffers(GL2 gl) {
+        if (!buffersCreated) {
+            return;
+        }
+
+        gl.glDeleteBuffers(2, bufferName);
+        gl.glDeleteBuffers(ToolpathTiles.getLevelCount(), indexBufferName);
+        Arrays.fill(uploadedIndices, null);
+        Arrays.fill(uploadedIndexCounts, 0);
+        buffersCreated = false;
     }
 
     @Override
-    public void draw(GLAutoDrawable drawable, boolean idle, Position machineCoord, Position workCoord, Position focusMin, Position focusMax, double scaleFactor, Position mouseCoordinates, Position rotation) {
+    public synchronized void draw(GLAutoDrawable drawable, boolean idle, Position machineCoord, Position workCoord, Position focusMin, Position focusMax, double scaleFactor, Position mouseCoordinates, Position rotation) {
         if (!isDrawable) return;
 
         GL2 gl = drawable.getGL().getGL2();
 
+        // Recolor the segments which has been completed or reset since the last frame
+        if (!this.vertexBufferDirty && this.coloredCommandNumber != this.currentCommandNumber) {
+            updateCompletedColors();
+        }
+
         // Batch mode if available
         if (gl.isFunctionAvailable("glGenBuffers")
                 && gl.isFunctionAvailable("glBindBuffer")
                 && gl.isFunctionAvailable("glBufferData")
+                && gl.isFunctionAvailable("glBufferSubData")
                 && gl.isFunctionAvailable("glDeleteBuffers")) {
-            gl.glEnableClientState(GL_VERTEX_ARRAY);
-            gl.glEnableClientState(GL_COLOR_ARRAY);
+            if (buffersStale) {
+                deleteBuffers(gl);
+                buffersStale = false;
+            }
+
+            if (!buffersCreated) {
+                gl.glGenBuffers(2, bufferName);
+                gl.glGenBuffers(ToolpathTiles.getLevelCount(), indexBufferName);
+                buffersCreated = true;
+                vertexArrayDirty = true;
+                colorArrayDirty = true;
+                indexArrayDirty = true;
+            }
 
             // Initialize OpenGL arrays if required.
             if (this.vertexBufferDirty && !vertexArrayDirty && !colorArrayDirty) {
@@ -166,32 +278,89 @@ public class GcodeModel extends Renderable implements UGSEventListener {
                 this.vertexBufferDirty = false;
             }
             if (this.colorArrayDirty) {
-                this.updateGLColorArray();
+                this.updateGLColorArray(gl);
                 this.colorArrayDirty = false;
+            } else if (colorDirtyStart < colorDirtyEnd) {
+                this.updateGLColorArrayRange(gl);
             }
             if (this.vertexArrayDirty) {
-                this.updateGLGeometryArray();
+                this.updateGLGeometryArray(gl);
                 this.vertexArrayDirty = false;
+            } else if (vertexDirtyStart < vertexDirtyEnd) {
+                this.updateGLGeometryArrayRange(gl);
             }
+            this.updateGLIndexArrays(gl);
+
+            gl.glEnableClientState(GL_VERTEX_ARRAY);
+            gl.glEnableClientState(GL_COLOR_ARRAY);
             gl.glLineWidth(1.0f);
-            gl.glVertexPointer(3, GL.GL_FLOAT, 0, lineVertexBuffer);
-            gl.glColorPointer(4, GL.GL_UNSIGNED_BYTE, 0, lineColorBuffer);
-            gl.glDrawArrays(GL.GL_LINES, 0, numberOfVertices);
+            gl.glBindBuffer(GL.GL_ARRAY_BUFFER, bufferName.get(VERTEX_BUFFER));
+            gl.glVertexPointer(3, GL.GL_FLOAT, 0, 0);
+            gl.glBindBuffer(GL.GL_ARRAY_BUFFER, bufferName.get(COLOR_BUFFER));
+            gl.glColorPointer(4, GL.GL_UNSIGNED_BYTE, 0, 0);
+            gl.glBindBuffer(GL.GL_ARRAY_BUFFER, 0);
+            drawVisibleTiles(gl, ViewFrustum.fromGL(gl), true);
             gl.glDisableClientState(GL_COLOR_ARRAY);
             gl.glDisableClientState(GL_VERTEX_ARRAY);
         }
         // Traditional OpenGL
         else {
-            gl.glBegin(GL_LINES);
             gl.glLineWidth(1.0f);
+            gl.glBegin(GL_LINES);
+            drawVisibleTiles(gl, ViewFrustum.fromGL(gl), false);
+            gl.glEnd();
+        }
+    }
 
-            int verts = 0;
-            int colors = 0;
-            for (int i = 0; i < pointList.size(); i++) {
-                gl.glColor4ub(lineColorData[colors++], lineColorData[colors++], lineColorData[colors++], lineColorData[colors++]);
-                gl.glVertex3d(lineVertexData[verts++], lineVertexData[verts++], lineVertexData[verts++]);
+    /**
+     * Draws the tiles that are in view using the level of detail for their size on the screen. Following
+     * tiles with the same level are drawn together as they are stored in order.
+     */
+    private void drawVisibleTiles(GL2 gl, ViewFrustum frustum, boolean useBuffers) {
+        int drawLevel = 0;
+        int drawFirst = 0;
+        int drawCount = 0;
+        for (int tile = 0; tile < tiles.getTileCount(); tile++) {
+            if (!tiles.isVisible(tile, frustum)) {
+                continue;
+            }
+
+            int level = tiles.getLevel(tile, frustum);
+            int first = tiles.getFirst(tile, level);
+            int count = tiles.getCount(tile, level);
+            if (level == drawLevel && first == drawFirst + drawCount) {
+                drawCount += count;
+                continue;
+            }
+
+            drawRange(gl, drawLevel, drawFirst, drawCount, useBuffers);
+            drawLevel = level;
+            drawFirst = first;
+            drawCount = count;
+        }
+        drawRange(gl, drawLevel, drawFirst, drawCount, useBuffers);
+    }
+
+    private void drawRange(GL2 gl, int level, int first, int count, boolean useBuffers) {
+        if (count == 0) {
+            return;
+        }
+
+        if (useBuffers && level == 0) {
+            gl.glDrawArrays(GL.GL_LINES, first, count);
+        } else if (useBuffers) {
+            gl.glBindBuffer(GL.GL_ELEMENT_ARRAY_BUFFER, indexBufferName.get(level));
+            gl.glDrawElements(GL.GL_LINES, count, GL.GL_UNSIGNED_INT, (long) first * Integer.BYTES);
+            gl.glBindBuffer(GL.GL_ELEMENT_ARRAY_BUFFER, 0);
+        } else {
+            int[] indices = tiles.getIndices(level);
+            for (int i = first; i < first + count; i++) {
+                int vertex = indices == null ? i : indices[i];
+                int colorIndex = vertex * 4;
+                int vertexIndex = vertex * 3;
+                gl.glColor4ub(lineColorData[colorIndex], lineColorData[colorIndex + 1], lineColorData[colorIndex + 2], lineColorData[colorIndex + 3]);
+                gl.glVertex3f(lineVertexData[vertexIndex], lineVertexData[vertexIndex + 1], lineVertexData[vertexIndex + 2]);
             }
-            gl.glEnd();
         }
     }
 
@@ -204,185 +373,327 @@ public class GcodeModel extends Renderable implements UGSEventListener {
     }
 
     /**
-     * Parse the gcodeFile and store the resulting geometry and data about it.
+     * Parse the gcode file and store the resulting geometry and data about it. The model is
+     * updated with the segments parsed so far while loading.
      */
-    private boolean generateObject() {
-        isDrawable = false;
-        if (this.gcodeFile == null) {
-            return false;
-        }
-
+    private void loadModel(String file, int fileGeneration) {
         try {
-            logger.log(Level.INFO, "About to process {}", gcodeFile);
+            logger.log(Level.INFO, "About to process {0}", file);
             GcodeViewParse gcvp = new GcodeViewParse();
-            gcodeLineList = loadModel(gcvp);
+            LineSegmentStore lineSegments = parseFile(file, gcvp, (batch, progress) -> addSegments(fileGeneration, gcvp, batch, progress));
+            if (!addSegments(fileGeneration, gcvp, lineSegments, 1) || lineSegments.isEmpty()) {
+                return;
+            }
 
-            // Convert LineSegments to points.
-            this.pointList = new ArrayList<>(gcodeLineList.size());
+            logger.info("Object bounds: X (" + objectMin.x + ", " + objectMax.x + ")");
+            logger.info("               Y (" + objectMin.y + ", " + objectMax.y + ")");
+            logger.info("               Z (" + objectMin.z + ", " + objectMax.z + ")");
 
-            for (LineSegment ls : gcodeLineList) {
-                this.pointList.add(VisualizerUtils.toCartesian(ls));
+            Position center = VisualizerUtils.findCenter(objectMin, objectMax);
+            logger.info("Center = " + center);
+            logger.info("Num Line Segments :" + lineSegments.size());
+        } catch (InterruptedIOException e) {
+            logger.log(Level.INFO, "Cancelled loading of {0}", file);
+        } catch (GcodeParserException | IOException e) {
+            synchronized (this) {
+                if (fileGeneration != generation) {
+                    return;
+                }
+                loadingProgress = 1;
             }
-            gcodeLineList = pointList;
+            notifyListeners();
 
-            this.objectMin = gcvp.getMinimumExtremes();
-            this.objectMax = gcvp.getMaximumExtremes();
-            this.colorizer.setMaxSpindleSpeed(gcvp.getMaxSpindleSpeed());
-            this.colorizer.setMaxFeedRate(gcvp.getMaxFeedRate());
+            String error = Localization.getString("mainWindow.error.openingFile") + " : " + e.getLocalizedMessage();
+            logger.log(Level.SEVERE, error, e);
+            GUIHelpers.displayErrorDialog(error);
+        }
+    }
 
-            if (gcodeLineList.isEmpty()) {
+    private LineSegmentStore parseFile(String file, GcodeViewParse gcvp, GcodeViewParse.SegmentsListener listener) throws IOException, GcodeParserException {
+        // Use the already processed gcode stream if possible
+        try (IGcodeStreamReader gsr = GcodeStreamReaderFactory.getReader(new File(file), new DefaultCommandCreator())) {
+            return gcvp.toSegmentsFromReader(gsr, ARC_SEGMENT_LENGTH, listener);
+        } catch (GcodeStreamReader.NotGcodeStreamFile e) {
+            List<String> linesInFile;
+            linesInFile = VisualizerUtils.readFiletoArrayList(file);
+            return gcvp.toSegments(linesInFile, ARC_SEGMENT_LENGTH);
+        }
+    }
+
+    /**
+     * Adds the segments parsed since the last batch to the model if they belong to the current file. The segments
+     * given before are shared with the earlier batches, so only the added segments are converted and the vertices
+     * and tiles for them are created before the model is locked.
+     *
+     * @return true if the segments were used
+     */
+    private boolean addSegments(int fileGeneration, GcodeViewParse gcvp, LineSegmentStore lineSegments, double progress) {
+        int start;
+        SegmentLineNumberIndex previousIndex;
+        synchronized (this) {
+            if (fileGeneration != generation) {
                 return false;
             }
+            start = this.segments.size();
+            previousIndex = this.lineNumberIndex;
+        }
 
-            logger.info("Object bounds: X (" + objectMin.x + ", " + objectMax.x + ")");
-            logger.info("               Y (" + objectMin.y + ", " + objectMax.y + ")");
-            logger.info("               Z (" + objectMin.z + ", " + objectMax.z + ")");
+        int end = lineSegments.size();
+        VisualizerUtils.toCartesian(lineSegments, start, end);
+        SegmentLineNumberIndex index = new SegmentLineNumberIndex(lineSegments, previousIndex);
+        float[] vertices = new float[(end - start) * 6];
+        setVertices(vertices, lineSegments, start, end, backend.getWorkPosition());
+        ToolpathTiles addedTiles = end > start ? new ToolpathTiles(vertices, lineSegments, start) : null;
 
-            Position center = VisualizerUtils.findCenter(objectMin, objectMax);
-            logger.info("Center = " + center);
-            logger.info("Num Line Segments :" + gcodeLineList.size());
+        synchronized (this) {
+            if (fileGeneration != generation) {
+                return false;
+            }
+
+            boolean maxChanged = colorizer.getMaxSpindleSpeed() != gcvp.getMaxSpindleSpeed() || colorizer.getMaxFeedRate() != gcvp.getMaxFeedRate();
+            this.segments = lineSegments;
+            this.lineNumberIndex = index;
+            this.loadingProgress = progress;
+            this.objectMin = new Position(gcvp.getMinimumExtremes());
+            this.objectMax = new Position(gcvp.getMaximumExtremes());
+            this.colorizer.setMaxSpindleSpeed(gcvp.getMaxSpindleSpeed());
+            this.colorizer.setMaxFeedRate(gcvp.getMaxFeedRate());
 
             objectSize.x = this.objectMax.x - this.objectMin.x;
             objectSize.y = this.objectMax.y - this.objectMin.y;
             objectSize.z = this.objectMax.z - this.objectMin.z;
 
-            // Now that the object is known, fill the buffers.
-            this.isDrawable = true;
-
-            this.numberOfVertices = gcodeLineList.size() * 2;
-            this.lineVertexData = new float[numberOfVertices * 4];
-            this.lineColorData = new byte[numberOfVertices * 4];
+            this.isDrawable = !lineSegments.isEmpty();
+            if (end > start) {
+                appendVertices(vertices, addedTiles, start, end);
+            }
 
-            this.updateVertexBuffers();
-        } catch (GcodeParserException | IOException e) {
-            String error = Localization.getString("mainWindow.error.openingFile") + " : " + e.getLocalizedMessage();
-            logger.log(Level.SEVERE, error, e);
-            GUIHelpers.displayErrorDialog(error);
-            return false;
+            // The segments from the earlier batches are recolored once when all segments are loaded
+            staleColors |= start > 0 && maxChanged;
+            if (progress >= 1 && staleColors) {
+                setSegmentColors(0, end, coloredCommandNumber);
+                staleColors = false;
+            }
         }
 
+        notifyListeners();
         return true;
     }
 
-    private List<LineSegment> loadModel(GcodeViewParse gcvp) throws IOException, GcodeParserException {
-        try (IGcodeStreamReader gsr = new GcodeStreamReader(new File(gcodeFile), new DefaultCommandCreator())) {
-            return gcvp.toObjFromReader(gsr, ARC_SEGMENT_LENGTH);
-        } catch (GcodeStreamReader.NotGcodeStreamFile e) {
-            List<String> linesInFile;
-            linesInFile = VisualizerUtils.readFiletoArrayList(this.gcodeFile);
-            return gcvp.toObjRedux(linesInFile, ARC_SEGMENT_LENGTH);
+    /**
+     * Appends the vertices, colors and tiles of the added segments. The arrays are given spare capacity so that
+     * only the added range needs to be uploaded to the buffers, unless the arrays had to grow.
+     */
+    private void appendVertices(float[] vertices, ToolpathTiles addedTiles, int start, int end) {
+        if (start == 0 || lineVertexData.length < end * 6) {
+            int capacity = start == 0 ? end : Math.max(end, lineVertexData.length / 6 * 2);
+            lineVertexData = start == 0 ? new float[capacity * 6] : Arrays.copyOf(lineVertexData, capacity * 6);
+            lineColorData = start == 0 ? new byte[capacity * COLOR_BYTES_PER_SEGMENT] : Arrays.copyOf(lineColorData, capacity * COLOR_BYTES_PER_SEGMENT);
+            vertexArrayDirty = true;
+            colorArrayDirty = true;
+        }
+
+        if (start == 0) {
+            coloredCommandNumber = currentCommandNumber;
+            tiles = addedTiles;
+            indexArrayDirty = true;
+        } else {
+            tiles.append(addedTiles);
+        }
+
+        System.arraycopy(vertices, 0, lineVertexData, start * 6, vertices.length);
+        setSegmentColors(start, end, coloredCommandNumber);
+        numberOfVertices = end * 2;
+        if (vertexDirtyStart < vertexDirtyEnd) {
+            vertexDirtyStart = Math.min(vertexDirtyStart, start);
+            vertexDirtyEnd = Math.max(vertexDirtyEnd, end);
+        } else {
+            vertexDirtyStart = start;
+            vertexDirtyEnd = end;
         }
     }
 
     /**
-     * Convert the gcodeLineList into vertex and color arrays.
+     * Convert the line segments into vertex and color arrays.
      */
     private void updateVertexBuffers() {
         if (this.isDrawable) {
-            int vertIndex = 0;
-            int colorIndex = 0;
-            byte[] c = new byte[4];
-            Position workPosition = backend.getWorkPosition();
-            for (LineSegment ls : gcodeLineList) {
-                Color color = colorizer.getColor(ls, this.currentCommandNumber);
-
-                Position p1 = addMissingCoordinateFromWorkPosition(ls.getStart(), workPosition);
-                Position p2 = addMissingCoordinateFromWorkPosition(ls.getEnd(), workPosition);
-
-                c[0] = (byte) color.getRed();
-                c[1] = (byte) color.getGreen();
-                c[2] = (byte) color.getBlue();
-                c[3] = (byte) color.getAlpha();
-
-                // colors
-                //p1
-                lineColorData[colorIndex++] = c[0];
-                lineColorData[colorIndex++] = c[1];
-                lineColorData[colorIndex++] = c[2];
-                lineColorData[colorIndex++] = c[3];
-
-                //p2
-                lineColorData[colorIndex++] = c[0];
-                lineColorData[colorIndex++] = c[1];
-                lineColorData[colorIndex++] = c[2];
-                lineColorData[colorIndex++] = c[3];
-
-                // p1 location
-                lineVertexData[vertIndex++] = (float) p1.x;
-                lineVertexData[vertIndex++] = (float) p1.y;
-                lineVertexData[vertIndex++] = (float) p1.z;
-                //p2
-                lineVertexData[vertIndex++] = (float) p2.x;
-                lineVertexData[vertIndex++] = (float) p2.y;
-                lineVertexData[vertIndex++] = (float) p2.z;
-            }
-
+            int commandNumber = this.currentCommandNumber;
+            LineSegmentStore lineSegments = this.segments;
+            setVertices(lineVertexData, lineSegments, 0, lineSegments.size(), backend.getWorkPosition());
+            setSegmentColors(0, lineSegments.size(), commandNumber);
+
+            this.tiles = new ToolpathTiles(lineVertexData, lineSegments);
+            this.coloredCommandNumber = commandNumber;
+            this.staleColors = false;
             this.colorArrayDirty = true;
             this.vertexArrayDirty = true;
+            this.indexArrayDirty = true;
         }
     }
 
-    private Position addMissingCoordinateFromWorkPosition(Position position, Position workPosition) {
-        if (!Double.isNaN(position.getX()) && Double.isNaN(position.getY())&& Double.isNaN(position.getZ())) {
-            return position;
+    /**
+     * Converts a range of line segments into vertices starting at the beginning of the given array.
+     * Missing coordinates are taken from the work position.
+     */
+    private static void setVertices(float[] vertices, LineSegmentStore lineSegments, int start, int end, Position workPosition) {
+        int vertIndex = 0;
+        for (int i = start; i < end; i++) {
+            // p1 location
+            vertices[vertIndex++] = getCoordinate(lineSegments.getStartX(i), workPosition.x);
+            vertices[vertIndex++] = getCoordinate(lineSegments.getStartY(i), workPosition.y);
+            vertices[vertIndex++] = getCoordinate(lineSegments.getStartZ(i), workPosition.z);
+            //p2
+            vertices[vertIndex++] = getCoordinate(lineSegments.getEndX(i), workPosition.x);
+            vertices[vertIndex++] = getCoordinate(lineSegments.getEndY(i), workPosition.y);
+            vertices[vertIndex++] = getCoordinate(lineSegments.getEndZ(i), workPosition.z);
         }
+    }
 
-        Position result = new Position(position);
-        if (Double.isNaN(result.getX())) {
-            result.setX(workPosition.getX());
-        }
-        if (Double.isNaN(result.getY())) {
-            result.setY(workPosition.getY());
+    /**
+     * Colors a range of segments and marks them to be uploaded to the color buffer
+     */
+    private void setSegmentColors(int start, int end, int commandNumber) {
+        for (int i = start; i < end; i++) {
+            setSegmentColor(i, colorizer.getColor(segments, i, commandNumber));
         }
-        if (Double.isNaN(result.getZ())) {
-            result.setZ(workPosition.getZ());
+
+        if (start < end) {
+            if (colorDirtyStart < colorDirtyEnd) {
+                colorDirtyStart = Math.min(colorDirtyStart, start);
+                colorDirtyEnd = Math.max(colorDirtyEnd, end);
+            } else {
+                colorDirtyStart = start;
+                colorDirtyEnd = end;
+            }
         }
-        return result;
     }
 
     /**
-     * Initialize or update open gl geometry array in native buffer objects.
+     * Recolors the segments between the previously colored command number and the current command number.
      */
-    private void updateGLGeometryArray() {
-        // Reset buffer and set to null of new geometry doesn't fit.
-        if (lineVertexBuffer != null) {
-            ((Buffer) lineVertexBuffer).clear();
-            if (lineVertexBuffer.remaining() < lineVertexData.length) {
-                lineVertexBuffer = null;
-            }
+    private void updateCompletedColors() {
+        if (!this.isDrawable || lineNumberIndex == null || lineNumberIndex.size() != segments.size()) {
+            return;
         }
 
-        if (lineVertexBuffer == null) {
-            lineVertexBuffer = Buffers.newDirectFloatBuffer(lineVertexData.length);
+        // Without ordered segments there is no range to update
+        if (!lineNumberIndex.isSorted()) {
+            vertexBufferDirty = true;
+            return;
         }
 
-        lineVertexBuffer.put(lineVertexData);
-        ((Buffer) lineVertexBuffer).flip();
+        int commandNumber = this.currentCommandNumber;
+        int start = lineNumberIndex.getFirstSegment(Math.min(coloredCommandNumber, commandNumber));
+        int end = lineNumberIndex.getFirstSegment(Math.max(coloredCommandNumber, commandNumber));
+        setSegmentColors(start, end, commandNumber);
+        coloredCommandNumber = commandNumber;
+    }
+
+    private void setSegmentColor(int segmentIndex, Color color) {
+        int colorIndex = segmentIndex * COLOR_BYTES_PER_SEGMENT;
+        byte red = (byte) color.getRed();
+        byte green = (byte) color.getGreen();
+        byte blue = (byte) color.getBlue();
+        byte alpha = (byte) color.getAlpha();
+
+        //p1
+        lineColorData[colorIndex++] = red;
+        lineColorData[colorIndex++] = green;
+        lineColorData[colorIndex++] = blue;
+        lineColorData[colorIndex++] = alpha;
+
+        //p2
+        lineColorData[colorIndex++] = red;
+        lineColorData[colorIndex++] = green;
+        lineColorData[colorIndex++] = blue;
+        lineColorData[colorIndex] = alpha;
+    }
+
+    private static float getCoordinate(double coordinate, double workCoordinate) {
+        return (float) (Double.isNaN(coordinate) ? workCoordinate : coordinate);
     }
 
     /**
-     * Initialize or update open gl color array in native buffer objects.
+     * Initialize or update open gl geometry array in native buffer objects.
      */
-    private void updateGLColorArray() {
-        // Reset buffer and set to null of new colors don't fit.
-        if (lineColorBuffer != null) {
-            ((Buffer) lineColorBuffer).clear();
+    private void updateGLGeometryArray(GL2 gl) {
+        gl.glBindBuffer(GL.GL_ARRAY_BUFFER, bufferName.get(VERTEX_BUFFER));
+        gl.glBufferData(GL.GL_ARRAY_BUFFER, (long) lineVertexData.length * Float.BYTES, FloatBuffer.wrap(lineVertexData), GL.GL_STATIC_DRAW);
+        gl.glBindBuffer(GL.GL_ARRAY_BUFFER, 0);
+        vertexDirtyStart = 0;
+        vertexDirtyEnd = 0;
+    }
 
-            if (lineColorBuffer.remaining() < lineColorData.length) {
-                lineColorBuffer = null;
+    /**
+     * Uploads the vertices of the segments that were added since the last frame.
+     */
+    private void updateGLGeometryArrayRange(GL2 gl) {
+        int offset = vertexDirtyStart * 6;
+        int length = (vertexDirtyEnd - vertexDirtyStart) * 6;
+
+        gl.glBindBuffer(GL.GL_ARRAY_BUFFER, bufferName.get(VERTEX_BUFFER));
+        gl.glBufferSubData(GL.GL_ARRAY_BUFFER, (long) offset * Float.BYTES, (long) length * Float.BYTES, FloatBuffer.wrap(lineVertexData, offset, length).slice());
+        gl.glBindBuffer(GL.GL_ARRAY_BUFFER, 0);
+        vertexDirtyStart = 0;
+        vertexDirtyEnd = 0;
+    }
+
+    /**
+     * Upload the vertex indices of the simplified levels of detail to native buffer objects. Only the indices
+     * of appended tiles are uploaded, unless the tiles were replaced or the index array had to grow.
+     */
+    private void updateGLIndexArrays(GL2 gl) {
+        for (int level = 1; level < ToolpathTiles.getLevelCount(); level++) {
+            int[] indices = tiles.getIndices(level);
+            int count = tiles.getIndexCount(level);
+            int uploadedCount = uploadedIndexCounts[level];
+            boolean replaced = indexArrayDirty || indices != uploadedIndices[level];
+            if (!replaced && count == uploadedCount) {
+                continue;
             }
-        }
 
-        if (lineColorBuffer == null) {
-            if (lineColorData == null) {
-                updateVertexBuffers();
+            gl.glBindBuffer(GL.GL_ELEMENT_ARRAY_BUFFER, indexBufferName.get(level));
+            if (replaced) {
+                gl.glBufferData(GL.GL_ELEMENT_ARRAY_BUFFER, (long) indices.length * Integer.BYTES, IntBuffer.wrap(indices), GL.GL_STATIC_DRAW);
+            } else {
+                gl.glBufferSubData(GL.GL_ELEMENT_ARRAY_BUFFER, (long) uploadedCount * Integer.BYTES, (long) (count - uploadedCount) * Integer.BYTES,
+                        IntBuffer.wrap(indices, uploadedCount, count - uploadedCount).slice());
             }
-            lineColorBuffer = Buffers.newDirectByteBuffer(this.lineColorData.length);
+            gl.glBindBuffer(GL.GL_ELEMENT_ARRAY_BUFFER, 0);
+            uploadedIndices[level] = indices;
+            uploadedIndexCounts[level] = count;
+        }
+        indexArrayDirty = false;
+    }
+
+    /**
+     * Initialize or update open gl color array in native buffer objects.
+     */
+    private void updateGLColorArray(GL2 gl) {
+        if (lineColorData == null) {
+            updateVertexBuffers();
         }
 
-        lineColorBuffer.put(lineColorData);
-        ((Buffer) lineColorBuffer).flip();
+        gl.glBindBuffer(GL.GL_ARRAY_BUFFER, bufferName.get(COLOR_BUFFER));
+        gl.glBufferData(GL.GL_ARRAY_BUFFER, lineColorData.length, ByteBuffer.wrap(lineColorData), GL.GL_DYNAMIC_DRAW);
+        gl.glBindBuffer(GL.GL_ARRAY_BUFFER, 0);
+        colorDirtyStart = 0;
+        colorDirtyEnd = 0;
+    }
 
+    /**
+     * Uploads the colors of the segments that has changed since the last frame.
+     */
+    private void updateGLColorArrayRange(GL2 gl) {
+        int offset = colorDirtyStart * COLOR_BYTES_PER_SEGMENT;
+        int length = (colorDirtyEnd - colorDirtyStart) * COLOR_BYTES_PER_SEGMENT;
+
+        gl.glBindBuffer(GL.GL_ARRAY_BUFFER, bufferName.get(COLOR_BUFFER));
+        gl.glBufferSubData(GL.GL_ARRAY_BUFFER, offset, length, ByteBuffer.wrap(lineColorData, offset, length).slice());
+        gl.glBindBuffer(GL.GL_ARRAY_BUFFER, 0);
+        colorDirtyStart = 0;
+        colorDirtyEnd = 0;
     }
 
     @Override
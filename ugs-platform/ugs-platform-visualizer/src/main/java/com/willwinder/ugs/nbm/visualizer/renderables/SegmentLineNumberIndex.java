@@ -0,0 +1,91 @@
+/*
+    Copyright 2026 agent
+
+    This file is part of Universal Gcode Sender (UGS).
+
+    UGS is free software: you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    UGS is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with UGS.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.willwinder.ugs.nbm.visualizer.renderables;
+
+import com.willwinder.universalgcodesender.visualizer.LineSegmentStore;
+
+/**
+ * Maps command numbers to the range of line segments generated from them, making it possible to
+ * find the segments that changed between completed and pending when the current command changes.
+ *
+ * @author agent
+ */
+public class SegmentLineNumberIndex {
+    private final LineSegmentStore segments;
+    private final boolean sorted;
+
+    public SegmentLineNumberIndex(LineSegmentStore segments) {
+        this(segments, null);
+    }
+
+    /**
+     * Creates an index for segments which were added after the segments in a previous index, only the
+     * added segments needs to be checked.
+     *
+     * @param segments the segments starting with the segments of the previous index
+     * @param previous the index of the segments before they were added to or null
+     */
+    public SegmentLineNumberIndex(LineSegmentStore segments, SegmentLineNumberIndex previous) {
+        this.segments = segments;
+
+        boolean isSorted = previous == null || previous.isSorted();
+        for (int i = previous == null ? 1 : Math.max(previous.size(), 1); i < segments.size() && isSorted; i++) {
+            isSorted = segments.getLineNumber(i) >= segments.getLineNumber(i - 1);
+        }
+        sorted = isSorted;
+    }
+
+    /**
+     * Returns if the line segments are ordered by their line number. If not, the segment ranges can not be used.
+     *
+     * @return true if the segments are in line number order
+     */
+    public boolean isSorted() {
+        return sorted;
+    }
+
+    /**
+     * Returns the index of the first segment with a line number equal to or greater than the given command number.
+     *
+     * @param commandNumber the command number
+     * @return the segment index or the number of segments if all segments are before the command
+     */
+    public int getFirstSegment(long commandNumber) {
+        int low = 0;
+        int high = segments.size();
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (segments.getLineNumber(mid) < commandNumber) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * Returns the number of segments in the index
+     *
+     * @return the number of segments
+     */
+    public int size() {
+        return segments.size();
+    }
+}
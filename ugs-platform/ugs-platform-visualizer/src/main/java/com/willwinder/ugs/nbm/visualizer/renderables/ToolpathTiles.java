@@ -0,0 +1,395 @@
+/*
+    Copyright 2026 agent
+
+    This file is part of Universal Gcode Sender (UGS).
+
+    UGS is free software: you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    UGS is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with UGS.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.willwinder.ugs.nbm.visualizer.renderables;
+
+import com.willwinder.universalgcodesender.visualizer.LineSegmentStore;
+
+import java.util.Arrays;
+
+/**
+ * Divides the vertices of a toolpath into tiles of consecutive line segments which are close to each
+ * other, making it possible to skip tiles that are outside the view. For each tile a number of levels of
+ * detail are generated where connected segments within a tolerance are merged into a single segment.
+ * <p>
+ * The simplified levels are given as vertex indices into the full detail vertices, so the merged segments
+ * will use the same colors as the segments they replace. The tiles of segments added to a toolpath can be
+ * appended with {@link #append(ToolpathTiles)} without creating the existing tiles again.
+ *
+ * @author agent
+ */
+public class ToolpathTiles {
+    static final int MAX_SEGMENTS_PER_TILE = 4096;
+    static final int MIN_SEGMENTS_PER_TILE = 256;
+
+    // A tile should not be larger than the model size divided with this
+    private static final int TILES_PER_AXIS = 16;
+
+    // The tolerance of each level of detail, level 0 is full detail
+    private static final float[] LEVEL_TOLERANCES = {0, 0.05f, 0.2f, 0.8f, 3.2f, 12.8f};
+
+    // A level is only kept for a tile if it reduces the number of segments to this factor of the previous level
+    private static final double MIN_LEVEL_REDUCTION = 0.75;
+
+    private int tileCount;
+    private int[] tileStart;
+    private float[] tileBounds;
+
+    // The level to draw for each tile and level, which is a less simplified level if the level was not kept
+    private byte[] tileLevels;
+    private final int[][] levelIndices;
+    private final int[] levelIndexCounts;
+    private final int[][] levelOffsets;
+
+    /**
+     * Creates the tiles for the given vertices
+     *
+     * @param vertices the vertices with two vertices of three coordinates for each segment
+     * @param segments the line segments that the vertices were created from
+     */
+    public ToolpathTiles(float[] vertices, LineSegmentStore segments) {
+        this(vertices, segments, 0);
+    }
+
+    /**
+     * Creates the tiles for the segments starting with the given segment, which can be appended to the
+     * tiles of the segments before it.
+     *
+     * @param vertices     the vertices starting with the first segment, with two vertices of three coordinates for each segment
+     * @param segments     the line segments that the vertices were created from
+     * @param firstSegment the first segment to create tiles for
+     */
+    public ToolpathTiles(float[] vertices, LineSegmentStore segments, int firstSegment) {
+        int segmentCount = segments.size() - firstSegment;
+        int[] starts = new int[segmentCount / MIN_SEGMENTS_PER_TILE + 2];
+        float[] bounds = new float[starts.length * 6];
+        float maxTileSize = getModelSize(vertices, segmentCount) / TILES_PER_AXIS;
+
+        int count = 0;
+        int segment = 0;
+        while (segment < segmentCount) {
+            starts[count] = segment;
+            int boundsIndex = count * 6;
+            resetBounds(bounds, boundsIndex);
+
+            int tileSize = 0;
+            while (segment < segmentCount && tileSize < MAX_SEGMENTS_PER_TILE) {
+                if (tileSize >= MIN_SEGMENTS_PER_TILE && !fitsInTile(vertices, segment, bounds, boundsIndex, maxTileSize)) {
+                    break;
+                }
+                addToBounds(vertices, segment * 6, bounds, boundsIndex);
+                addToBounds(vertices, segment * 6 + 3, bounds, boundsIndex);
+                segment++;
+                tileSize++;
+            }
+
+            count++;
+            if (count + 1 >= starts.length) {
+                starts = Arrays.copyOf(starts, starts.length * 2);
+                bounds = Arrays.copyOf(bounds, starts.length * 6);
+            }
+        }
+        starts[count] = segmentCount;
+
+        this.tileCount = count;
+        this.tileStart = Arrays.copyOf(starts, count + 1);
+        this.tileBounds = Arrays.copyOf(bounds, count * 6);
+
+        this.tileLevels = new byte[count * LEVEL_TOLERANCES.length];
+        this.levelIndices = new int[LEVEL_TOLERANCES.length][];
+        this.levelIndexCounts = new int[LEVEL_TOLERANCES.length];
+        this.levelOffsets = new int[LEVEL_TOLERANCES.length][];
+        for (int level = 1; level < LEVEL_TOLERANCES.length; level++) {
+            levelIndices[level] = new int[16];
+            levelOffsets[level] = new int[tileCount + 1];
+        }
+
+        for (int tile = 0; tile < tileCount; tile++) {
+            simplify(vertices, segments, firstSegment, tile);
+        }
+        for (int level = 1; level < LEVEL_TOLERANCES.length; level++) {
+            levelOffsets[level][tileCount] = levelIndexCounts[level];
+        }
+
+        // The vertices were given from the first segment, but the tiles refers to all vertices of the toolpath
+        for (int i = 0; i <= tileCount; i++) {
+            tileStart[i] += firstSegment;
+        }
+    }
+
+    /**
+     * Appends the tiles of the segments added after the segments in these tiles.
+     *
+     * @param tiles the tiles created from the segment after the last segment of these tiles
+     * @throws IllegalArgumentException if the tiles does not start with the next segment
+     */
+    public void append(ToolpathTiles tiles) {
+        if (tiles.tileStart[0] != getSegmentCount()) {
+            throw new IllegalArgumentException("The tiles starts with segment " + tiles.tileStart[0] + " but should start with " + getSegmentCount());
+        }
+
+        int count = tileCount + tiles.tileCount;
+        if (count + 1 > tileStart.length) {
+            int capacity = Math.max(count + 1, tileStart.length + (tileStart.length >> 1));
+            tileStart = Arrays.copyOf(tileStart, capacity);
+            tileBounds = Arrays.copyOf(tileBounds, capacity * 6);
+            tileLevels = Arrays.copyOf(tileLevels, capacity * LEVEL_TOLERANCES.length);
+            for (int level = 1; level < LEVEL_TOLERANCES.length; level++) {
+                levelOffsets[level] = Arrays.copyOf(levelOffsets[level], capacity);
+            }
+        }
+
+        System.arraycopy(tiles.tileStart, 0, tileStart, tileCount, tiles.tileCount + 1);
+        System.arraycopy(tiles.tileBounds, 0, tileBounds, tileCount * 6, tiles.tileCount * 6);
+        System.arraycopy(tiles.tileLevels, 0, tileLevels, tileCount * LEVEL_TOLERANCES.length, tiles.tileCount * LEVEL_TOLERANCES.length);
+        for (int level = 1; level < LEVEL_TOLERANCES.length; level++) {
+            int indexCount = levelIndexCounts[level];
+            ensureIndexCapacity(level, indexCount + tiles.levelIndexCounts[level]);
+            System.arraycopy(tiles.levelIndices[level], 0, levelIndices[level], indexCount, tiles.levelIndexCounts[level]);
+            levelIndexCounts[level] += tiles.levelIndexCounts[level];
+
+            for (int tile = 0; tile <= tiles.tileCount; tile++) {
+                levelOffsets[level][tileCount + tile] = tiles.levelOffsets[level][tile] + indexCount;
+            }
+        }
+        tileCount = count;
+    }
+
+    /**
+     * Returns the number of tiles
+     *
+     * @return the number of tiles
+     */
+    public int getTileCount() {
+        return tileCount;
+    }
+
+    /**
+     * Returns the number of segments from the start of the toolpath that are covered by the tiles
+     *
+     * @return the segment after the last tile
+     */
+    public int getSegmentCount() {
+        return tileStart[tileCount];
+    }
+
+    /**
+     * Returns the bounds of the vertices in the tile as min x, y, z followed by max x, y, z.
+     *
+     * @param tile the tile
+     * @return an array with six coordinates
+     */
+    public float[] getBounds(int tile) {
+        return Arrays.copyOfRange(tileBounds, tile * 6, tile * 6 + 6);
+    }
+
+    /**
+     * Returns if any part of the tile may be visible
+     *
+     * @param tile    the tile
+     * @param frustum the current view
+     * @return true if the tile should be drawn
+     */
+    public boolean isVisible(int tile, ViewFrustum frustum) {
+        int i = tile * 6;
+        return frustum.isVisible(tileBounds[i], tileBounds[i + 1], tileBounds[i + 2], tileBounds[i + 3], tileBounds[i + 4], tileBounds[i + 5]);
+    }
+
+    /**
+     * Returns the level of detail that should be used for drawing a tile so that the error of the
+     * simplified segments is at most one pixel.
+     *
+     * @param tile    the tile
+     * @param frustum the current view
+     * @return the level to use
+     */
+    public int getLevel(int tile, ViewFrustum frustum) {
+        int i = tile * 6;
+        double pixelsPerUnit = frustum.getPixelsPerUnit(tileBounds[i], tileBounds[i + 1], tileBounds[i + 2], tileBounds[i + 3], tileBounds[i + 4], tileBounds[i + 5]);
+        return getLevel(tile, 1 / pixelsPerUnit);
+    }
+
+    /**
+     * Returns the most simplified level of a tile with a tolerance within the given tolerance, using the
+     * least simplified level with the same segments.
+     *
+     * @param tile      the tile
+     * @param tolerance the allowed distance between the simplified and the original segments
+     * @return the level
+     */
+    public int getLevel(int tile, double tolerance) {
+        int level = 0;
+        while (level + 1 < LEVEL_TOLERANCES.length && LEVEL_TOLERANCES[level + 1] <= tolerance) {
+            level++;
+        }
+        return tileLevels[tile * LEVEL_TOLERANCES.length + level];
+    }
+
+    /**
+     * Returns the number of levels, including level 0 with full detail
+     *
+     * @return the number of levels
+     */
+    public static int getLevelCount() {
+        return LEVEL_TOLERANCES.length;
+    }
+
+    /**
+     * Returns the vertex indices of a simplified level, with two indices per segment. The
+     * level 0 has no indices as the vertices are drawn in order. The array may be larger than
+     * the number of indices given by {@link #getIndexCount(int)} as space is reserved for appended tiles.
+     *
+     * @param level the level
+     * @return the indices or null for level 0
+     */
+    public int[] getIndices(int level) {
+        return levelIndices[level];
+    }
+
+    /**
+     * Returns the number of vertex indices of a simplified level
+     *
+     * @param level the level
+     * @return the number of indices
+     */
+    public int getIndexCount(int level) {
+        return levelIndexCounts[level];
+    }
+
+    /**
+     * Returns the first vertex of a tile for level 0, or its first position in the indices of the level.
+     *
+     * @param tile  the tile
+     * @param level the level
+     * @return the first vertex or index
+     */
+    public int getFirst(int tile, int level) {
+        return level == 0 ? tileStart[tile] * 2 : levelOffsets[level][tile];
+    }
+
+    /**
+     * Returns the number of vertices to draw for a tile at the given level
+     *
+     * @param tile  the tile
+     * @param level the level
+     * @return the number of vertices or indices
+     */
+    public int getCount(int tile, int level) {
+        return level == 0 ? (tileStart[tile + 1] - tileStart[tile]) * 2 : levelOffsets[level][tile + 1] - levelOffsets[level][tile];
+    }
+
+    /**
+     * Creates the simplified levels of a tile. For each level, runs of connected segments of the same type
+     * where all vertices are within the tolerance from the first vertex in the run are merged. Each vertex
+     * that is removed will thus be within the tolerance from the merged segment. A level that does not
+     * reduce the number of segments enough is removed and the tile uses the level before instead.
+     */
+    private void simplify(float[] vertices, LineSegmentStore segments, int firstSegment, int tile) {
+        int drawLevel = 0;
+        int previousSegmentCount = tileStart[tile + 1] - tileStart[tile];
+        for (int level = 1; level < LEVEL_TOLERANCES.length; level++) {
+            int offset = levelIndexCounts[level];
+            levelOffsets[level][tile] = offset;
+
+            float squaredTolerance = LEVEL_TOLERANCES[level] * LEVEL_TOLERANCES[level];
+            int end = tileStart[tile + 1];
+            int segment = tileStart[tile];
+            while (segment < end) {
+                int first = segment;
+                int start = first * 6;
+                while (segment + 1 < end
+                        && isConnected(vertices, segment)
+                        && segments.isFastTraverse(firstSegment + segment + 1) == segments.isFastTraverse(firstSegment + first)
+                        && squaredDistance(vertices, start, (segment + 1) * 6 + 3) <= squaredTolerance) {
+                    segment++;
+                }
+
+                ensureIndexCapacity(level, levelIndexCounts[level] + 2);
+                levelIndices[level][levelIndexCounts[level]++] = (firstSegment + first) * 2;
+                levelIndices[level][levelIndexCounts[level]++] = (firstSegment + segment) * 2 + 1;
+                segment++;
+            }
+
+            int segmentCount = (levelIndexCounts[level] - offset) / 2;
+            if (segmentCount > previousSegmentCount * MIN_LEVEL_REDUCTION) {
+                levelIndexCounts[level] = offset;
+            } else {
+                drawLevel = level;
+                previousSegmentCount = segmentCount;
+            }
+            tileLevels[tile * LEVEL_TOLERANCES.length + level] = (byte) drawLevel;
+        }
+    }
+
+    private void ensureIndexCapacity(int level, int capacity) {
+        int[] indices = levelIndices[level];
+        if (capacity > indices.length) {
+            levelIndices[level] = Arrays.copyOf(indices, Math.max(capacity, indices.length * 2));
+        }
+    }
+    private static boolean isConnected(float[] vertices, int segment) {
+        int end = segment * 6 + 3;
+        int nextStart = (segment + 1) * 6;
+        return vertices[end] == vertices[nextStart]
+                && vertices[end + 1] == vertices[nextStart + 1]
+                && vertices[end + 2] == vertices[nextStart + 2];
+    }
+
+    private static float squaredDistance(float[] vertices, int first, int second) {
+        float dx = vertices[first] - vertices[second];
+        float dy = vertices[first + 1] - vertices[second + 1];
+        float dz = vertices[first + 2] - vertices[second + 2];
+        return dx * dx + dy * dy + dz * dz;
+    }
+
+    private static boolean fitsInTile(float[] vertices, int segment, float[] bounds, int boundsIndex, float maxTileSize) {
+        for (int vertex = segment * 6; vertex < segment * 6 + 6; vertex += 3) {
+            for (int axis = 0; axis < 3; axis++) {
+                float value = vertices[vertex + axis];
+                float min = Math.min(bounds[boundsIndex + axis], value);
+                float max = Math.max(bounds[boundsIndex + 3 + axis], value);
+                if (max - min > maxTileSize) {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+
+    private static void resetBounds(float[] bounds, int boundsIndex) {
+        Arrays.fill(bounds, boundsIndex, boundsIndex + 3, Float.POSITIVE_INFINITY);
+        Arrays.fill(bounds, boundsIndex + 3, boundsIndex + 6, Float.NEGATIVE_INFINITY);
+    }
+
+    private static void addToBounds(float[] vertices, int vertex, float[] bounds, int boundsIndex) {
+        for (int axis = 0; axis < 3; axis++) {
+            float value = vertices[vertex + axis];
+            bounds[boundsIndex + axis] = Math.min(bounds[boundsIndex + axis], value);
+            bounds[boundsIndex + 3 + axis] = Math.max(bounds[boundsIndex + 3 + axis], value);
+        }
+    }
+
+    private static float getModelSize(float[] vertices, int segmentCount) {
+        float[] bounds = new float[6];
+        resetBounds(bounds, 0);
+        for (int vertex = 0; vertex < segmentCount * 2; vertex++) {
+            addToBounds(vertices, vertex * 3, bounds, 0);
+        }
+        return Math.max(bounds[3] - bounds[0], Math.max(bounds[4] - bounds[1], bounds[5] - bounds[2]));
+    }
+}
@@ -0,0 +1,154 @@
+/*
+    Copyright 2026 agent
+
+    This file is part of Universal Gcode Sender (UGS).
+
+    UGS is free software: you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    UGS is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with UGS.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.willwinder.ugs.nbm.visualizer.renderables;
+
+import com.jogamp.opengl.GL;
+import com.jogamp.opengl.GL2;
+import static com.jogamp.opengl.fixedfunc.GLMatrixFunc.GL_MODELVIEW_MATRIX;
+import static com.jogamp.opengl.fixedfunc.GLMatrixFunc.GL_PROJECTION_MATRIX;
+
+/**
+ * The view volume of the current projection and model view matrices. It is used for skipping parts of
+ * a model outside the view and for finding how large a part of the model will be on the screen.
+ *
+ * @author agent
+ */
+public class ViewFrustum {
+    // The projection matrix multiplied with the model view matrix, in column major order
+    private final float[] matrix = new float[16];
+    private final int viewportWidth;
+    private final int viewportHeight;
+    private final float[] clip = new float[8 * 4];
+
+    /**
+     * Creates a frustum from matrices in the column major order used by OpenGL
+     *
+     * @param projection     the projection matrix
+     * @param modelView      the model view matrix
+     * @param viewportWidth  the width of the viewport in pixels
+     * @param viewportHeight the height of the viewport in pixels
+     */
+    public ViewFrustum(float[] projection, float[] modelView, int viewportWidth, int viewportHeight) {
+        for (int column = 0; column < 4; column++) {
+            for (int row = 0; row < 4; row++) {
+                float value = 0;
+                for (int i = 0; i < 4; i++) {
+                    value += projection[i * 4 + row] * modelView[column * 4 + i];
+                }
+                matrix[column * 4 + row] = value;
+            }
+        }
+        this.viewportWidth = viewportWidth;
+        this.viewportHeight = viewportHeight;
+    }
+
+    /**
+     * Creates a frustum from the matrices and viewport currently used by the given context
+     *
+     * @param gl the context
+     * @return the view frustum
+     */
+    public static ViewFrustum fromGL(GL2 gl) {
+        float[] projection = new float[16];
+        float[] modelView = new float[16];
+        int[] viewport = new int[4];
+        gl.glGetFloatv(GL_PROJECTION_MATRIX, projection, 0);
+        gl.glGetFloatv(GL_MODELVIEW_MATRIX, modelView, 0);
+        gl.glGetIntegerv(GL.GL_VIEWPORT, viewport, 0);
+        return new ViewFrustum(projection, modelView, viewport[2], viewport[3]);
+    }
+
+    /**
+     * Returns if any part of the given box may be visible. It will only return false if all corners of the
+     * box are outside the same clipping plane, so some boxes that are not visible will be reported as visible.
+     *
+     * @return true if the box may be visible
+     */
+    public boolean isVisible(float minX, float minY, float minZ, float maxX, float maxY, float maxZ) {
+        projectCorners(minX, minY, minZ, maxX, maxY, maxZ);
+
+        // Check each clipping plane, -w <= x, y, z <= w
+        for (int axis = 0; axis < 3; axis++) {
+            boolean allBelow = true;
+            boolean allAbove = true;
+            for (int corner = 0; corner < 8 && (allBelow || allAbove); corner++) {
+                float value = clip[corner * 4 + axis];
+                float w = clip[corner * 4 + 3];
+                allBelow &= value < -w;
+                allAbove &= value > w;
+            }
+
+            if (allBelow || allAbove) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Returns the approximate number of pixels one unit of the model will cover on the screen for the
+     * given box, based on the size of the box on the screen.
+     *
+     * @return the number of pixels per unit or {@link Double#POSITIVE_INFINITY} if it can not be determined
+     */
+    public double getPixelsPerUnit(float minX, float minY, float minZ, float maxX, float maxY, float maxZ) {
+        double size = Math.sqrt(square(maxX - minX) + square(maxY - minY) + square(maxZ - minZ));
+        if (size == 0) {
+            return Double.POSITIVE_INFINITY;
+        }
+
+        projectCorners(minX, minY, minZ, maxX, maxY, maxZ);
+        double screenMinX = Double.POSITIVE_INFINITY;
+        double screenMinY = Double.POSITIVE_INFINITY;
+        double screenMaxX = Double.NEGATIVE_INFINITY;
+        double screenMaxY = Double.NEGATIVE_INFINITY;
+        for (int corner = 0; corner < 8; corner++) {
+            float w = clip[corner * 4 + 3];
+
+            // The corner is behind the eye and its size on screen is unknown
+            if (w <= 0) {
+                return Double.POSITIVE_INFINITY;
+            }
+
+            double x = clip[corner * 4] / w * viewportWidth / 2d;
+            double y = clip[corner * 4 + 1] / w * viewportHeight / 2d;
+            screenMinX = Math.min(screenMinX, x);
+            screenMinY = Math.min(screenMinY, y);
+            screenMaxX = Math.max(screenMaxX, x);
+            screenMaxY = Math.max(screenMaxY, y);
+        }
+
+        return Math.sqrt(square(screenMaxX - screenMinX) + square(screenMaxY - screenMinY)) / size;
+    }
+
+    private void projectCorners(float minX, float minY, float minZ, float maxX, float maxY, float maxZ) {
+        for (int corner = 0; corner < 8; corner++) {
+            float x = (corner & 1) == 0 ? minX : maxX;
+            float y = (corner & 2) == 0 ? minY : maxY;
+            float z = (corner & 4) == 0 ? minZ : maxZ;
+            for (int row = 0; row < 4; row++) {
+                clip[corner * 4 + row] = matrix[row] * x + matrix[4 + row] * y + matrix[8 + row] * z + matrix[12 + row];
+            }
+        }
+    }
+
+    private static double square(double value) {
+        return value * value;
+    }
+}
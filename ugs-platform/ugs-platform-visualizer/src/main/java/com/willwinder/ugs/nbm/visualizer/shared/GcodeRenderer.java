@@ -50,6 +50,7 @@ import java.awt.Point;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicReference;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
@@ -83,6 +84,8 @@ public class GcodeRenderer implements GLEventListener, IRenderableRegistrationSe
     private Position eye;
     private Position objectMin;
     private Position objectMax;
+    // The size of the object to fit the camera to on the next frame
+    private final AtomicReference<ObjectSize> pendingObjectSize = new AtomicReference<>();
     private int xSize;
     private int ySize;
 
@@ -110,7 +113,7 @@ public class GcodeRenderer implements GLEventListener, IRenderableRegistrationSe
 
     private FPSCounter fpsCounter;
     private Overlay overlay;
-    private final String dimensionsLabel = "";
+    private volatile String overlayText = "";
 
     private final java.util.List<Renderable> objects;
     private boolean idle = true;
@@ -289,7 +292,27 @@ public class GcodeRenderer implements GLEventListener, IRenderableRegistrationSe
         resizeForCamera(objectMin, objectMax, 0.9);
     }
 
+    /**
+     * Sets a text to show in the lower left corner of the view
+     *
+     * @param text the text to show or an empty string
+     */
+    public void setOverlayText(String text) {
+        this.overlayText = text;
+    }
+
+    /**
+     * Fits the camera to the given object size, this may be called from any thread and the camera is moved
+     * from the OpenGL thread when the next frame is drawn.
+     *
+     * @param min the minimum position of the object or null if there is no object
+     * @param max the maximum position of the object or null if there is no object
+     */
     public void setObjectSize(Position min, Position max) {
+        pendingObjectSize.set(new ObjectSize(min, max));
+    }
+
+    private void updateObjectSize(Position min, Position max) {
         if (min == null || max == null) {
             this.objectMin = new Position(-10, -10, -10);
             this.objectMax = new Position(10, 10, 10);
@@ -349,6 +372,11 @@ public class GcodeRenderer implements GLEventListener, IRenderableRegistrationSe
      */
     @Override
     public void display(GLAutoDrawable drawable) {
+        ObjectSize objectSize = pendingObjectSize.getAndSet(null);
+        if (objectSize != null) {
+            updateObjectSize(objectSize.min(), objectSize.max());
+        }
+
         this.setupPerpective(this.xSize, this.ySize, drawable, ortho);
 
         final GL2 gl = drawable.getGL().getGL2();
@@ -403,7 +431,7 @@ public class GcodeRenderer implements GLEventListener, IRenderableRegistrationSe
         }
 
         this.fpsCounter.draw();
-        this.overlay.draw(this.dimensionsLabel);
+        this.overlay.draw(this.overlayText);
 
         gl.glLoadIdentity();
         update();
@@ -458,6 +486,7 @@ public class GcodeRenderer implements GLEventListener, IRenderableRegistrationSe
      */
     @Override
     synchronized public void dispose(GLAutoDrawable drawable) {
+        getRenderables().forEach(r -> r.dispose(drawable));
         dispose();
     }
 
@@ -610,4 +639,7 @@ public class GcodeRenderer implements GLEventListener, IRenderableRegistrationSe
         this.eye = new Position(position);
         this.rotation = new Position(rotation);
     }
+
+    private record ObjectSize(Position min, Position max) {
+    }
 }
@@ -110,6 +110,13 @@ public abstract class Renderable implements Comparable<Renderable> {
     public abstract boolean center();
 
     public abstract void init(GLAutoDrawable drawable);
+
+    /**
+     * Called before the OpenGL context is destroyed, release any resources such as buffers.
+     */
+    public void dispose(GLAutoDrawable drawable) {
+    }
+
     public void reloadPreferences(VisualizerOptions vo) {
         isEnabled = VisualizerOptions.getBooleanOption(enabledOptionKey, true);
     }
@@ -0,0 +1,70 @@
+/*
+    Copyright 2026 agent
+
+    This file is part of Universal Gcode Sender (UGS).
+
+    UGS is free software: you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    UGS is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with UGS.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.willwinder.ugs.nbm.visualizer.renderables;
+
+import com.willwinder.universalgcodesender.model.Position;
+import com.willwinder.universalgcodesender.visualizer.LineSegment;
+import com.willwinder.universalgcodesender.visualizer.LineSegmentStore;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class SegmentLineNumberIndexTest {
+
+    private static LineSegmentStore createSegments(int... lineNumbers) {
+        LineSegmentStore segments = new LineSegmentStore();
+        for (int lineNumber : lineNumbers) {
+            segments.add(new LineSegment(Position.ZERO, Position.ZERO, lineNumber));
+        }
+        return segments;
+    }
+
+    @Test
+    public void getFirstSegmentShouldReturnFirstSegmentOfCommand() {
+        SegmentLineNumberIndex index = new SegmentLineNumberIndex(createSegments(1, 1, 1, 3, 4, 4, 7));
+        assertTrue(index.isSorted());
+        assertEquals(7, index.size());
+
+        assertEquals(0, index.getFirstSegment(0));
+        assertEquals(0, index.getFirstSegment(1));
+        assertEquals(3, index.getFirstSegment(2));
+        assertEquals(3, index.getFirstSegment(3));
+        assertEquals(4, index.getFirstSegment(4));
+        assertEquals(6, index.getFirstSegment(5));
+        assertEquals(6, index.getFirstSegment(7));
+        assertEquals(7, index.getFirstSegment(8));
+    }
+
+    @Test
+    public void segmentsOutOfOrderShouldNotBeSorted() {
+        assertFalse(new SegmentLineNumberIndex(createSegments(1, 3, 2)).isSorted());
+        assertTrue(new SegmentLineNumberIndex(createSegments()).isSorted());
+    }
+
+    @Test
+    public void indexForAddedSegmentsShouldOnlyBeSortedIfThePreviousWas() {
+        SegmentLineNumberIndex previous = new SegmentLineNumberIndex(createSegments(1, 2));
+        assertTrue(new SegmentLineNumberIndex(createSegments(1, 2, 2, 3), previous).isSorted());
+        assertFalse(new SegmentLineNumberIndex(createSegments(1, 2, 1, 3), previous).isSorted());
+        assertFalse(new SegmentLineNumberIndex(createSegments(3, 1, 4), new SegmentLineNumberIndex(createSegments(3, 1))).isSorted());
+        assertEquals(4, new SegmentLineNumberIndex(createSegments(1, 2, 2, 3), previous).size());
+    }
+}
@@ -0,0 +1,187 @@
+/*
+    Copyright 2026 agent
+
+    This file is part of Universal Gcode Sender (UGS).
+
+    UGS is free software: you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    UGS is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with UGS.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.willwinder.ugs.nbm.visualizer.renderables;
+
+import com.willwinder.universalgcodesender.model.Position;
+import com.willwinder.universalgcodesender.visualizer.LineSegment;
+import com.willwinder.universalgcodesender.visualizer.LineSegmentStore;
+import org.junit.Test;
+
+import java.util.Arrays;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertThrows;
+import static org.junit.Assert.assertTrue;
+
+public class ToolpathTilesTest {
+    private static final float[] IDENTITY = {1, 0, 0, 0, 0, 1, 0, 0, 0, 0, 1, 0, 0, 0, 0, 1};
+
+    private static float[] toVertices(LineSegmentStore segments) {
+        float[] vertices = new float[segments.size() * 6];
+        for (int i = 0; i < segments.size(); i++) {
+            vertices[i * 6] = (float) segments.getStartX(i);
+            vertices[i * 6 + 1] = (float) segments.getStartY(i);
+            vertices[i * 6 + 2] = (float) segments.getStartZ(i);
+            vertices[i * 6 + 3] = (float) segments.getEndX(i);
+            vertices[i * 6 + 4] = (float) segments.getEndY(i);
+            vertices[i * 6 + 5] = (float) segments.getEndZ(i);
+        }
+        return vertices;
+    }
+
+    private static void addLine(LineSegmentStore segments, Position start, Position end, int count, boolean fastTraverse) {
+        Position previous = start;
+        for (int i = 1; i <= count; i++) {
+            Position next = new Position(
+                    start.x + (end.x - start.x) * i / count,
+                    start.y + (end.y - start.y) * i / count,
+                    start.z + (end.z - start.z) * i / count);
+            LineSegment segment = new LineSegment(previous, next, segments.size());
+            segment.setIsFastTraverse(fastTraverse);
+            segments.add(segment);
+            previous = next;
+        }
+    }
+
+    @Test
+    public void tilesShouldContainAllSegmentsInOrder() {
+        LineSegmentStore segments = new LineSegmentStore();
+        addLine(segments, new Position(0, 0, 0), new Position(1, 0, 0), 1000, false);
+        addLine(segments, new Position(1, 0, 0), new Position(100, 100, 0), 1, true);
+        addLine(segments, new Position(100, 100, 0), new Position(101, 100, 0), 1000, false);
+
+        ToolpathTiles tiles = new ToolpathTiles(toVertices(segments), segments);
+        assertTrue(tiles.getTileCount() >= 2);
+
+        int vertex = 0;
+        for (int tile = 0; tile < tiles.getTileCount(); tile++) {
+            assertEquals(vertex, tiles.getFirst(tile, 0));
+            assertTrue(tiles.getCount(tile, 0) <= ToolpathTiles.MAX_SEGMENTS_PER_TILE * 2);
+            vertex += tiles.getCount(tile, 0);
+        }
+        assertEquals(segments.size() * 2, vertex);
+
+        assertArrayEquals(new float[]{0, 0, 0, 1, 0, 0}, tiles.getBounds(0), 0.0001f);
+        float[] lastBounds = tiles.getBounds(tiles.getTileCount() - 1);
+        assertTrue(lastBounds[0] >= 100);
+        assertArrayEquals(new float[]{101, 100, 0}, new float[]{lastBounds[3], lastBounds[4], lastBounds[5]}, 0.0001f);
+    }
+
+    @Test
+    public void simplifiedLevelsShouldMergeSegmentsWithinTolerance() {
+        LineSegmentStore segments = new LineSegmentStore();
+        addLine(segments, new Position(0, 0, 0), new Position(10, 0, 0), 1000, false);
+        addLine(segments, new Position(10, 0, 0), new Position(10, 10, 0), 1000, true);
+        float[] vertices = toVertices(segments);
+
+        ToolpathTiles tiles = new ToolpathTiles(vertices, segments);
+        assertEquals(0, tiles.getLevel(0, 0.01));
+        assertNull(tiles.getIndices(0));
+
+        int level = tiles.getLevel(0, 0.5);
+        assertTrue(level > 0);
+        int[] indices = tiles.getIndices(level);
+        int indexCount = tiles.getIndexCount(level);
+        assertTrue(indexCount < segments.size() / 4);
+
+        // The merged segments should cover the path from the first to the last vertex
+        assertEquals(0, indices[0]);
+        assertEquals(segments.size() * 2 - 1, indices[indexCount - 1]);
+        for (int i = 1; i < indexCount - 1; i += 2) {
+            assertEquals(indices[i] + 1, indices[i + 1]);
+        }
+
+        // The rapid should not be merged with the feed moves
+        boolean splitAtRapid = false;
+        for (int i = 0; i < indexCount; i += 2) {
+            assertTrue(indices[i] / 2 >= 1000 || indices[i + 1] / 2 < 1000);
+            splitAtRapid |= indices[i] == 2000;
+        }
+        assertTrue(splitAtRapid);
+    }
+
+    @Test
+    public void levelsThatDoNotReduceTheSegmentsShouldUseTheLevelBefore() {
+        // Segments that are too long to be merged on any level
+        LineSegmentStore segments = new LineSegmentStore();
+        addLine(segments, new Position(0, 0, 0), new Position(1000, 0, 0), 100, false);
+
+        ToolpathTiles tiles = new ToolpathTiles(toVertices(segments), segments);
+        assertEquals(0, tiles.getLevel(0, 100));
+        assertEquals(0, tiles.getIndexCount(ToolpathTiles.getLevelCount() - 1));
+    }
+
+    @Test
+    public void appendedTilesShouldContinueTheToolpath() {
+        LineSegmentStore segments = new LineSegmentStore();
+        addLine(segments, new Position(0, 0, 0), new Position(10, 0, 0), 1000, false);
+        ToolpathTiles tiles = new ToolpathTiles(toVertices(segments), segments);
+        int tileCount = tiles.getTileCount();
+        int level = tiles.getLevel(0, 0.5);
+        int indexCount = tiles.getIndexCount(level);
+
+        addLine(segments, new Position(10, 0, 0), new Position(10, 10, 0), 1000, false);
+        float[] vertices = toVertices(segments);
+        tiles.append(new ToolpathTiles(Arrays.copyOfRange(vertices, 1000 * 6, vertices.length), segments, 1000));
+
+        assertEquals(segments.size(), tiles.getSegmentCount());
+        assertTrue(tiles.getTileCount() > tileCount);
+        int vertex = 0;
+        for (int tile = 0; tile < tiles.getTileCount(); tile++) {
+            assertEquals(vertex, tiles.getFirst(tile, 0));
+            vertex += tiles.getCount(tile, 0);
+        }
+        assertEquals(segments.size() * 2, vertex);
+
+        // The appended tiles should refer to the vertices after the existing ones
+        int lastTile = tiles.getTileCount() - 1;
+        assertEquals(tiles.getIndexCount(level), tiles.getFirst(lastTile, level) + tiles.getCount(lastTile, level));
+        assertEquals(indexCount, tiles.getFirst(tileCount, level));
+        assertEquals(2000, tiles.getIndices(level)[indexCount]);
+        assertEquals(segments.size() * 2 - 1, tiles.getIndices(level)[tiles.getIndexCount(level) - 1]);
+        assertArrayEquals(new float[]{10, 10, 0}, Arrays.copyOfRange(tiles.getBounds(lastTile), 3, 6), 0.0001f);
+
+        assertThrows(IllegalArgumentException.class, () -> tiles.append(new ToolpathTiles(vertices, segments)));
+    }
+
+    @Test
+    public void tilesOutsideViewShouldNotBeVisible() {
+        LineSegmentStore segments = new LineSegmentStore();
+        addLine(segments, new Position(0, 0, 0), new Position(0.5, 0.5, 0), ToolpathTiles.MIN_SEGMENTS_PER_TILE, false);
+        addLine(segments, new Position(0.5, 0.5, 0), new Position(5, 5, 0), 1, true);
+        addLine(segments, new Position(5, 5, 0), new Position(5.5, 5.5, 0), ToolpathTiles.MIN_SEGMENTS_PER_TILE, false);
+
+        ToolpathTiles tiles = new ToolpathTiles(toVertices(segments), segments);
+        ViewFrustum frustum = new ViewFrustum(IDENTITY, IDENTITY, 100, 100);
+        assertTrue(tiles.isVisible(0, frustum));
+        assertFalse(tiles.isVisible(tiles.getTileCount() - 1, frustum));
+    }
+
+    @Test
+    public void pixelsPerUnitShouldUseTheProjectedSize() {
+        float[] scale = {2, 0, 0, 0, 0, 2, 0, 0, 0, 0, 2, 0, 0, 0, 0, 1};
+        ViewFrustum frustum = new ViewFrustum(IDENTITY, scale, 100, 200);
+        assertEquals(200, frustum.getPixelsPerUnit(0, 0, 0, 0, 1, 0), 0.0001);
+        assertEquals(100, frustum.getPixelsPerUnit(0, 0, 0, 1, 0, 0), 0.0001);
+        assertEquals(Double.POSITIVE_INFINITY, frustum.getPixelsPerUnit(1, 1, 1, 1, 1, 1), 0);
+    }
+}